@@ -33,17 +33,26 @@ class MCRAccessCacheManager implements MCRSessionListener {
 
     private static String key = MCRAccessCacheManager.class.getCanonicalName();
 
-    ThreadLocal<MCRCache<MCRPermissionHandle, Boolean>> accessCache = ThreadLocal.withInitial(() -> {
-        //this is only called for every session that was created before this class could attach to session events
+    ThreadLocal<MCRCache<MCRPermissionHandle, Boolean>> accessCache = new ThreadLocal<>();
+
+    @SuppressWarnings("unchecked")
+    private MCRCache<MCRPermissionHandle, Boolean> getAccessCache() {
+        MCRCache<MCRPermissionHandle, Boolean> cache = accessCache.get();
+        if (cache != null) {
+            return cache;
+        }
         MCRSession session = MCRSessionMgr.getCurrentSession();
-        @SuppressWarnings("unchecked")
-        MCRCache<MCRPermissionHandle, Boolean> cache = (MCRCache<MCRPermissionHandle, Boolean>) session.get(key);
+        cache = (MCRCache<MCRPermissionHandle, Boolean>) session.get(key);
         if (cache == null) {
             cache = createCache(session);
-            session.put(key, cache);
+            //storing the cache would make a stateless session stateful, it is closed on passivation instead
+            if (!session.isStateless()) {
+                session.put(key, cache);
+            }
         }
+        accessCache.set(cache);
         return cache;
-    });
+    }
 
     @Override
     @SuppressWarnings("unchecked")
@@ -55,7 +64,12 @@ class MCRAccessCacheManager implements MCRSessionListener {
             case activated:
                 break;
             case passivated:
+                cache = accessCache.get();
                 accessCache.remove();
+                if (cache != null && session.get(key) != cache) {
+                    //cache of a stateless session, that is not kept after the request
+                    cache.close();
+                }
                 break;
 
             case destroyed:
@@ -80,19 +94,19 @@ class MCRAccessCacheManager implements MCRSessionListener {
 
     public Boolean isPermitted(String id, String permission) {
         MCRPermissionHandle handle = new MCRPermissionHandle(id, permission);
-        MCRCache<MCRPermissionHandle, Boolean> permissionCache = accessCache.get();
+        MCRCache<MCRPermissionHandle, Boolean> permissionCache = getAccessCache();
         MCRSession currentSession = MCRSessionMgr.getCurrentSession();
         return permissionCache.getIfUpToDate(handle, currentSession.getLoginTime());
     }
 
     public void cachePermission(String id, String permission, boolean permitted) {
         MCRPermissionHandle handle = new MCRPermissionHandle(id, permission);
-        accessCache.get().put(handle, permitted);
+        getAccessCache().put(handle, permitted);
     }
 
     public void removePermission(String id, String permission) {
         MCRPermissionHandle handle = new MCRPermissionHandle(id, permission);
-        MCRCache<MCRPermissionHandle, Boolean> permissionCache = accessCache.get();
+        MCRCache<MCRPermissionHandle, Boolean> permissionCache = getAccessCache();
         permissionCache.remove(handle);
     }
 
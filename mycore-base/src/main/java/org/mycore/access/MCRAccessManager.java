@@ -36,6 +36,9 @@ import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCRShutdownHandler;
 import org.mycore.datamodel.metadata.MCRMetadataManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 import org.mycore.util.concurrent.MCRFixedUserCallable;
 
 /**
@@ -46,6 +49,10 @@ public class MCRAccessManager {
 
     private static final MCRAccessCacheManager ACCESS_CACHE = new MCRAccessCacheManager();
 
+    private static final MCRTimer CHECK_TIMER = MCRMetrics.timer("access", "op", "check");
+
+    private static final MCRCounter CACHE_HIT_COUNTER = MCRMetrics.counter("access", "op", "cachehit");
+
     public static final Logger LOGGER = LogManager.getLogger(MCRAccessManager.class);
 
     public static final String PERMISSION_READ = "read";
@@ -256,8 +263,15 @@ public class MCRAccessManager {
     public static boolean checkPermission(String id, String permission) {
         Boolean value = ACCESS_CACHE.isPermitted(id, permission);
         if (value == null) {
-            value = getAccessStrategy().checkPermission(id, permission);
+            long start = CHECK_TIMER.start();
+            try {
+                value = getAccessStrategy().checkPermission(id, permission);
+            } finally {
+                CHECK_TIMER.stop(start);
+            }
             ACCESS_CACHE.cachePermission(id, permission, value);
+        } else {
+            CACHE_HIT_COUNTER.increment();
         }
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("checkPermission id:{} permission:{} --> {}", id, permission, value);
@@ -275,8 +289,15 @@ public class MCRAccessManager {
     public static boolean checkPermission(String permission) {
         Boolean value = ACCESS_CACHE.isPermitted(null, permission);
         if (value == null) {
-            value = getAccessImpl().checkPermission(permission);
+            long start = CHECK_TIMER.start();
+            try {
+                value = getAccessImpl().checkPermission(permission);
+            } finally {
+                CHECK_TIMER.stop(start);
+            }
             ACCESS_CACHE.cachePermission(null, permission, value);
+        } else {
+            CACHE_HIT_COUNTER.increment();
         }
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("checkPermission permission:{} --> {}", permission, value);
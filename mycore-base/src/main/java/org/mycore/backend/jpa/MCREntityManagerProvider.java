@@ -22,6 +22,9 @@ import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceException;
 
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+
 public class MCREntityManagerProvider {
 
     private static EntityManagerFactory factory;
@@ -30,6 +33,8 @@ public class MCREntityManagerProvider {
 
     private static PersistenceException initException;
 
+    private static final MCRCounter ENTITY_MANAGER_COUNTER = MCRMetrics.counter("jpa", "op", "entitymanager");
+
     public static EntityManagerFactory getEntityManagerFactory() {
         return factory;
     }
@@ -38,6 +43,7 @@ public class MCREntityManagerProvider {
         if (context == null && initException != null) {
             throw initException;
         }
+        ENTITY_MANAGER_COUNTER.increment();
         return context.getCurrentEntityManager();
     }
 
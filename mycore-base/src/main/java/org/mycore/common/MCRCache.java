@@ -286,6 +286,14 @@ public class MCRCache<K, V> {
         return backingCache.stats().hitRate();
     }
 
+    /**
+     * Returns the number of entries that were removed from this cache to get place for new entries.
+     * A high number compared to the capacity indicates that the capacity is too small.
+     */
+    public long getEvictionCount() {
+        return backingCache.stats().evictionCount();
+    }
+
     /**
      * Clears the cache by removing all entries from the cache
      */
@@ -301,7 +309,8 @@ public class MCRCache<K, V> {
     public String toString() {
 
         return "Cache capacity:  " + capacity + "\n" + "Cache size:      " + backingCache.size() + "\n"
-            + "Cache fill rate: " + getFillRate() + "\n" + "Cache hit rate:  " + getHitRate();
+            + "Cache fill rate: " + getFillRate() + "\n" + "Cache hit rate:  " + getHitRate() + "\n"
+            + "Cache evictions: " + getEvictionCount();
     }
 
     public void close() {
@@ -55,7 +55,7 @@ public class MCRCacheManager implements MCRCacheManagerMBean {
     }
 
     public long getEvictions() {
-        return cache.backingCache.stats().evictionCount();
+        return cache.getEvictionCount();
     }
 
     public long getSize() {
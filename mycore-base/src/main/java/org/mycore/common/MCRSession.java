@@ -44,6 +44,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityTransaction;
 import javax.servlet.http.HttpServletRequest;
@@ -58,6 +59,8 @@ import org.mycore.common.events.MCRSessionEvent;
 import org.mycore.common.events.MCRShutdownHandler;
 import org.mycore.common.events.MCRShutdownHandler.Closeable;
 import org.mycore.frontend.servlets.MCRServletJob;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 import org.mycore.util.concurrent.MCRTransactionableRunnable;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -75,6 +78,8 @@ public class MCRSession implements Cloneable {
 
     private static final URI DEFAULT_URI = URI.create("");
 
+    private static final MCRTimer COMMIT_TIMER = MCRMetrics.timer("jpa", "op", "commit");
+
     /** A map storing arbitrary session data * */
     private Map<Object, Object> map = new Hashtable<>();
 
@@ -111,6 +116,10 @@ public class MCRSession implements Cloneable {
 
     private boolean dataBaseAccess;
 
+    private volatile boolean stateless;
+
+    private Consumer<MCRSession> statefulHandler;
+
     private ThreadLocal<EntityTransaction> transaction = new ThreadLocal<>();
 
     private ThreadLocal<MCRServletJob> servletJob = new ThreadLocal<>();
@@ -162,6 +171,17 @@ public class MCRSession implements Cloneable {
      * 'MCR.Users.Guestuser.UserName'.
      */
     MCRSession() {
+        this(false, null);
+    }
+
+    /**
+     * Creates a session that is not registered in {@link MCRSessionMgr}, if <code>stateless</code> is true.
+     *
+     * @param stateless if this session is a stateless guest session
+     * @param statefulHandler called once when a stateless session becomes stateful, may be <code>null</code>
+     * @see MCRSessionMgr#createStatelessSession(Consumer)
+     */
+    MCRSession(boolean stateless, Consumer<MCRSession> statefulHandler) {
         userInformation = guestUserInformation;
         setCurrentLanguage(MCRConfiguration2.getString("MCR.Metadata.DefaultLang").orElse(MCRConstants.DEFAULT_LANG));
         dataBaseAccess = MCRHIBConnection.isEnabled();
@@ -171,9 +191,13 @@ public class MCRSession implements Cloneable {
 
         ip = "";
         sessionID = buildSessionID();
-        MCRSessionMgr.addSession(this);
+        this.stateless = stateless;
+        this.statefulHandler = statefulHandler;
+        if (!stateless) {
+            MCRSessionMgr.addSession(this);
+        }
 
-        LOGGER.debug("MCRSession created {}", sessionID);
+        LOGGER.debug("MCRSession created {}, stateless: {}", sessionID, stateless);
         setLoginTime();
         createTime = loginTime;
         Throwable t = new Throwable();
@@ -249,8 +273,55 @@ public class MCRSession implements Cloneable {
         LOGGER.debug("language  = {}", language);
     }
 
-    /** Stores an object under the given key within the session * */
+    /**
+     * Returns true, if this is a stateless guest session that is not registered in {@link MCRSessionMgr}.
+     * Such a session lives only as long as the current request, unless data is stored in it.
+     *
+     * @see #makeStateful()
+     */
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    /**
+     * Turns a stateless guest session into a real session, that is registered in {@link MCRSessionMgr} and fires a
+     * "created" event. Does nothing if this session is not stateless.
+     */
+    public void makeStateful() {
+        if (!stateless) {
+            return;
+        }
+        synchronized (this) {
+            if (!stateless) {
+                return;
+            }
+            stateless = false;
+        }
+        LOGGER.debug("MCRSession {} becomes stateful", sessionID);
+        MCRSessionMgr.addSession(this);
+        MCRSessionMgr.statelessSessionPromoted();
+        if (statefulHandler != null) {
+            Consumer<MCRSession> handler = statefulHandler;
+            statefulHandler = null;
+            handler.accept(this);
+        }
+    }
+
+    /**
+     * Stores an object under the given key within the session. A stateless session becomes a real session.
+     *
+     * @see #makeStateful()
+     */
     public Object put(Object key, Object value) {
+        makeStateful();
+        return putTransient(key, value);
+    }
+
+    /**
+     * Stores an object that is derived from the current request again on every request, like the base URL. Unlike
+     * {@link #put(Object, Object)} this does not turn a stateless session into a real session.
+     */
+    public Object putTransient(Object key, Object value) {
         mapChanged = true;
         return map.put(key, value);
     }
@@ -261,6 +332,7 @@ public class MCRSession implements Cloneable {
     }
 
     public void deleteObject(Object key) {
+        makeStateful();
         mapChanged = true;
         map.remove(key);
     }
@@ -291,8 +363,10 @@ public class MCRSession implements Cloneable {
 
     public void close() {
         // remove from session list
-        LOGGER.debug("Remove myself from MCRSession list");
-        MCRSessionMgr.removeSession(this);
+        if (!stateless) {
+            LOGGER.debug("Remove myself from MCRSession list");
+            MCRSessionMgr.removeSession(this);
+        }
         // clear bound objects
         LOGGER.debug("Clearing local map.");
         map.clear();
@@ -317,6 +391,14 @@ public class MCRSession implements Cloneable {
         servletJob.set(job);
     }
 
+    /**
+     * Returns the servlet job handled by this session in the current thread.
+     * Does not work in a Thread that does not handle the current request or in CLI.
+     */
+    public Optional<MCRServletJob> getServletJob() {
+        return Optional.ofNullable(servletJob.get());
+    }
+
     /**
      * Returns this thread current HttpServletRequest.
      * Does not work in a Thread that does not handle the current request or in CLI.
@@ -419,7 +501,12 @@ public class MCRSession implements Cloneable {
      */
     public void commitTransaction() {
         if (isTransactionActive()) {
-            transaction.get().commit();
+            long start = COMMIT_TIMER.start();
+            try {
+                transaction.get().commit();
+            } finally {
+                COMMIT_TIMER.stop(start);
+            }
             MCREntityManagerProvider.getCurrentEntityManager().clear();
             transaction.remove();
         }
@@ -481,6 +568,9 @@ public class MCRSession implements Cloneable {
                 + " to " + userSystemAdapter.getUserID()
                 + " is not permitted within the same session.");
         }
+        if (!guestUserInformation.equals(userSystemAdapter)) {
+            makeStateful();
+        }
         this.userInformation = userSystemAdapter;
         setLoginTime();
     }
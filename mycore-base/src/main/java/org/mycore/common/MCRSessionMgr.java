@@ -27,11 +27,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.common.events.MCRSessionListener;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
 import org.mycore.util.concurrent.MCRReadWriteGuard;
 
 /**
@@ -56,6 +60,15 @@ public class MCRSessionMgr {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static final MCRCounter STATELESS_CREATED = MCRMetrics.counter("session.stateless", "result", "created");
+
+    private static final MCRCounter STATELESS_PROMOTED = MCRMetrics.counter("session.stateless", "result",
+        "promoted");
+
+    private static final AtomicLong STATELESS_SESSIONS = new AtomicLong();
+
+    private static final AtomicLong PROMOTED_SESSIONS = new AtomicLong();
+
     /**
      * This ThreadLocal is automatically instantiated per thread with a MyCoRe session object containing the default
      * session parameters which are set in the constructor of MCRSession.
@@ -191,6 +204,39 @@ public class MCRSessionMgr {
         return s;
     }
 
+    /**
+     * Creates a stateless guest session for a single read-only request. The session is neither added to
+     * {@link #getAllSessions()} nor fires a "created" or "destroyed" event, until data is stored in it.
+     * It has to be bound to the current thread by {@link #setCurrentSession(MCRSession)}.
+     * <p>
+     * The "activated" and "passivated" events are still fired, as listeners bind per thread resources like the
+     * entity manager or the logging context to them. A listener that keeps data per session must not store it in a
+     * stateless session with {@link MCRSession#put(Object, Object)} and should release it on "passivated" instead,
+     * as there is no "destroyed" event.
+     *
+     * @param statefulHandler called once when the session becomes stateful, e.g. to store it in the HTTP session,
+     *                        may be <code>null</code>
+     * @see MCRSession#makeStateful()
+     */
+    public static MCRSession createStatelessSession(Consumer<MCRSession> statefulHandler) {
+        STATELESS_SESSIONS.incrementAndGet();
+        STATELESS_CREATED.increment();
+        return new MCRSession(true, statefulHandler);
+    }
+
+    static void statelessSessionPromoted() {
+        PROMOTED_SESSIONS.incrementAndGet();
+        STATELESS_PROMOTED.increment();
+    }
+
+    /**
+     * Returns the number of sessions that were not created, because a request was served by a stateless guest
+     * session that never became stateful.
+     */
+    public static long getAvoidedSessionCount() {
+        return STATELESS_SESSIONS.get() - PROMOTED_SESSIONS.get();
+    }
+
     /**
      * Add MCRSession to a static Map that manages all sessions. This method fires a "created" event and is invoked by
      * MCRSession constructor.
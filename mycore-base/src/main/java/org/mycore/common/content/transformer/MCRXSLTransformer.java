@@ -24,6 +24,7 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.LinkedList;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.TooManyListenersException;
@@ -64,6 +65,8 @@ import org.mycore.common.xsl.MCRErrorListener;
 import org.mycore.common.xsl.MCRParameterCollector;
 import org.mycore.common.xsl.MCRTemplatesSource;
 import org.mycore.common.xsl.MCRTraceListener;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
@@ -80,6 +83,8 @@ public class MCRXSLTransformer extends MCRParameterizedTransformer {
 
     private static final int INITIAL_BUFFER_SIZE = 32 * 1024;
 
+    private static final MCRTimer TRANSFORM_TIMER = MCRMetrics.timer("xslt", "op", "transform");
+
     private static final MCRURIResolver URI_RESOLVER = MCRURIResolver.instance();
 
     private static final MCREntityResolver ENTITY_RESOLVER = MCREntityResolver.instance();
@@ -90,7 +95,8 @@ public class MCRXSLTransformer extends MCRParameterizedTransformer {
 
     private static boolean TRACE_LISTENER_ENABLED = LogManager.getLogger(MCRTraceListener.class).isDebugEnabled();
 
-    private static MCRCache<String, MCRXSLTransformer> INSTANCE_CACHE = new MCRCache<>(100,
+    private static MCRCache<String, MCRXSLTransformer> INSTANCE_CACHE = new MCRCache<>(
+        MCRConfiguration2.getInt("MCR.LayoutService.TemplateCache.Size").orElse(100),
         "MCRXSLTransformer instance cache");
 
     private static long CHECK_PERIOD = MCRConfiguration2.getLong("MCR.LayoutService.LastModifiedCheckPeriod")
@@ -175,6 +181,30 @@ public class MCRXSLTransformer extends MCRParameterizedTransformer {
         this.templates = new Templates[templateSources.length];
     }
 
+    /**
+     * Returns the cache of instances returned by {@link #getInstance(String...)}. Its capacity is configured by
+     * <code>MCR.LayoutService.TemplateCache.Size</code>.
+     */
+    public static MCRCache<String, MCRXSLTransformer> getInstanceCache() {
+        return INSTANCE_CACHE;
+    }
+
+    /**
+     * Compiles all stylesheets of this transformer that are not compiled yet or were modified, so that the next
+     * transformation does not have to.
+     */
+    public void compileTemplates() throws TransformerConfigurationException, SAXException,
+        ParserConfigurationException {
+        checkTemplateUptodate();
+    }
+
+    /**
+     * Returns true if all stylesheets of this transformer are compiled.
+     */
+    public boolean isCompiled() {
+        return Arrays.stream(templates).allMatch(Objects::nonNull);
+    }
+
     private void checkTemplateUptodate()
         throws TransformerConfigurationException, SAXException, ParserConfigurationException {
         boolean check = System.currentTimeMillis() - modifiedChecked > CHECK_PERIOD;
@@ -231,15 +261,33 @@ public class MCRXSLTransformer extends MCRParameterizedTransformer {
 
     @Override
     public void transform(MCRContent source, OutputStream out, MCRParameterCollector parameter) throws IOException {
+        transform(source, new StreamResult(out), parameter);
+    }
+
+    /**
+     * Transforms the source directly into the given result without buffering the output.
+     *
+     * Use a {@link SAXResult} to consume the output as a stream of SAX events, e.g. to build objects from it
+     * without creating an intermediate document.
+     *
+     * @param source the XML source to transform
+     * @param result receives the output of the last stylesheet
+     * @param parameter the stylesheet parameters
+     */
+    public void transform(MCRContent source, Result result, MCRParameterCollector parameter) throws IOException {
         MCRErrorListener el = null;
         try {
             LinkedList<TransformerHandler> transformHandlerList = getTransformHandlerList(parameter);
             XMLReader reader = getXMLReader(transformHandlerList);
             TransformerHandler lastTransformerHandler = transformHandlerList.getLast();
             el = (MCRErrorListener) lastTransformerHandler.getTransformer().getErrorListener();
-            StreamResult result = new StreamResult(out);
             lastTransformerHandler.setResult(result);
-            reader.parse(source.getInputSource());
+            long start = TRANSFORM_TIMER.start();
+            try {
+                reader.parse(source.getInputSource());
+            } finally {
+                TRANSFORM_TIMER.stop(start);
+            }
         } catch (TransformerConfigurationException | SAXException | IllegalArgumentException
             | ParserConfigurationException e) {
             throw new IOException(e);
@@ -415,6 +463,7 @@ public class MCRXSLTransformer extends MCRParameterizedTransformer {
         @Override
         public MCRContent getBaseContent() {
             if (transformed == null) {
+                long start = TRANSFORM_TIMER.start();
                 try {
                     transformed = instance.getTransformedContent(source, reader, transformerHandler);
                     transformed.setLastModified(lastModified);
@@ -433,6 +482,7 @@ public class MCRXSLTransformer extends MCRParameterizedTransformer {
                     }
                     throw e;
                 } finally {
+                    TRANSFORM_TIMER.stop(start);
                     try {
                         transformerHandler.getTransformer().clearParameters();
                         transformerHandler.getTransformer().reset();
@@ -19,11 +19,10 @@
 package org.mycore.common.processing;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.logging.log4j.LogManager;
 import org.mycore.common.MCRSessionMgr;
@@ -76,7 +75,7 @@ public class MCRAbstractProcessable extends MCRAbstractProgressable implements M
 
         this.properties = new HashMap<>();
 
-        this.statusListener = Collections.synchronizedList(new ArrayList<>());
+        this.statusListener = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -177,16 +176,14 @@ public class MCRAbstractProcessable extends MCRAbstractProgressable implements M
     }
 
     protected void fireStatusChanged(MCRProcessableStatus oldStatus) {
-        synchronized (this.statusListener) {
-            this.statusListener.forEach(listener -> {
-                try {
-                    listener.onStatusChange(this, oldStatus, getStatus());
-                } catch (Exception exc) {
-                    LogManager.getLogger().error("Unable to execute onStatusChange() on listener '{}' for '{}'",
-                        listener.getClass().getName(), getName(), exc);
-                }
-            });
-        }
+        this.statusListener.forEach(listener -> {
+            try {
+                listener.onStatusChange(this, oldStatus, getStatus());
+            } catch (Exception exc) {
+                LogManager.getLogger().error("Unable to execute onStatusChange() on listener '{}' for '{}'",
+                    listener.getClass().getName(), getName(), exc);
+            }
+        });
     }
 
 }
@@ -18,9 +18,8 @@
 
 package org.mycore.common.processing;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Base implementation for an {@link MCRProgressable}. If you use this class
@@ -40,7 +39,7 @@ public class MCRAbstractProgressable implements MCRListenableProgressable {
     public MCRAbstractProgressable() {
         this.progress = null;
         this.progressText = null;
-        this.progressListener = Collections.synchronizedList(new ArrayList<>());
+        this.progressListener = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -90,15 +89,11 @@ public class MCRAbstractProgressable implements MCRListenableProgressable {
     }
 
     protected void fireProgressChanged(Integer oldProgress) {
-        synchronized (this.progressListener) {
-            this.progressListener.forEach(listener -> listener.onProgressChange(this, oldProgress, getProgress()));
-        }
+        this.progressListener.forEach(listener -> listener.onProgressChange(this, oldProgress, getProgress()));
     }
 
     protected void fireProgressTextChanged(String oldProgressText) {
-        synchronized (this.progressListener) {
-            this.progressListener
-                .forEach(listener -> listener.onProgressTextChange(this, oldProgressText, getProgressText()));
-        }
+        this.progressListener
+            .forEach(listener -> listener.onProgressTextChange(this, oldProgressText, getProgressText()));
     }
 }
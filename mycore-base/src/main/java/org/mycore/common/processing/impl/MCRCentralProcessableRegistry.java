@@ -18,9 +18,8 @@
 
 package org.mycore.common.processing.impl;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,6 +33,9 @@ import com.google.inject.Singleton;
 /**
  * Central base implementation for a processable registry.
  * 
+ * Collections and listeners are kept in copy-on-write lists. Streaming the registry and informing the listeners
+ * works on a snapshot without locking, only registering and unregistering copy the lists.
+ * 
  * @author Matthias Eichner
  */
 @Singleton
@@ -46,8 +48,8 @@ public class MCRCentralProcessableRegistry implements MCRProcessableRegistry {
     private final List<MCRProcessableRegistryListener> listenerList;
 
     public MCRCentralProcessableRegistry() {
-        this.collections = Collections.synchronizedList(new ArrayList<>());
-        this.listenerList = Collections.synchronizedList(new ArrayList<>());
+        this.collections = new CopyOnWriteArrayList<>();
+        this.listenerList = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -56,12 +58,9 @@ public class MCRCentralProcessableRegistry implements MCRProcessableRegistry {
      * @param collection the collection to register
      */
     public void register(MCRProcessableCollection collection) {
-        synchronized (this.collections) {
-            if (this.collections.contains(collection)) {
-                LOGGER.warn("Don't add same collection twice!");
-                return;
-            }
-            this.collections.add(collection);
+        if (!this.collections.addIfAbsent(collection)) {
+            LOGGER.warn("Don't add same collection twice!");
+            return;
         }
         fireAdded(collection);
     }
@@ -82,11 +81,7 @@ public class MCRCentralProcessableRegistry implements MCRProcessableRegistry {
      * @return stream of the registry content.
      */
     public Stream<MCRProcessableCollection> stream() {
-        List<MCRProcessableCollection> snapshot;
-        synchronized (this.collections) {
-            snapshot = new ArrayList<>(this.collections);
-        }
-        return snapshot.stream();
+        return this.collections.stream();
     }
 
     @Override
@@ -100,8 +95,7 @@ public class MCRCentralProcessableRegistry implements MCRProcessableRegistry {
     }
 
     protected void fireAdded(MCRProcessableCollection collection) {
-        List<MCRProcessableRegistryListener> listeners = listenersSnapshot();
-        listeners.forEach(listener -> {
+        this.listenerList.forEach(listener -> {
             try {
                 listener.onAdd(this, collection);
             } catch (Exception exc) {
@@ -111,8 +105,7 @@ public class MCRCentralProcessableRegistry implements MCRProcessableRegistry {
     }
 
     protected void fireRemoved(MCRProcessableCollection collection) {
-        List<MCRProcessableRegistryListener> listeners = listenersSnapshot();
-        listeners.forEach(listener -> {
+        this.listenerList.forEach(listener -> {
             try {
                 listener.onRemove(this, collection);
             } catch (Exception exc) {
@@ -121,10 +114,4 @@ public class MCRCentralProcessableRegistry implements MCRProcessableRegistry {
         });
     }
 
-    private List<MCRProcessableRegistryListener> listenersSnapshot() {
-        synchronized (this.listenerList) {
-            return new ArrayList<>(this.listenerList);
-        }
-    }
-
 }
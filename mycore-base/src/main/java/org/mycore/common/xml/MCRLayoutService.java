@@ -140,10 +140,16 @@ public class MCRLayoutService {
             String style = parameter.getParameter("Style", "default");
             transformerId = new MessageFormat("{0}-{1}", Locale.ROOT).format(new Object[] { docType, style });
         }
-        MCRLayoutTransformerFactory factory = MCRConfiguration2.<MCRLayoutTransformerFactory>getInstanceOf(
-            TRANSFORMER_FACTORY_PROPERTY)
+        return getLayoutTransformerFactory().getTransformer(transformerId);
+    }
+
+    /**
+     * Returns the factory configured by <code>MCR.Layout.Transformer.Factory</code>, that builds the transformers
+     * of the layout service.
+     */
+    public static MCRLayoutTransformerFactory getLayoutTransformerFactory() {
+        return MCRConfiguration2.<MCRLayoutTransformerFactory>getInstanceOf(TRANSFORMER_FACTORY_PROPERTY)
             .orElseGet(MCRLayoutTransformerFactory::new);
-        return factory.getTransformer(transformerId);
     }
 
     private String getFileName(HttpServletRequest req, MCRParameterCollector parameter) {
@@ -24,9 +24,7 @@ import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jaxen.BaseXPath;
 import org.jaxen.JaxenException;
-import org.jaxen.dom.DocumentNavigator;
 import org.jaxen.expr.EqualityExpr;
 import org.jaxen.expr.Expr;
 import org.jaxen.expr.LiteralExpr;
@@ -73,11 +71,11 @@ public class MCRNodeBuilder {
     }
 
     public Object buildNode(String xPath, String value, Parent parent) throws JaxenException {
-        BaseXPath baseXPath = new BaseXPath(xPath, new DocumentNavigator());
+        Expr rootExpr = MCRXPathCache.getRootExpr(xPath);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("start building {} relative to {}", simplify(xPath), MCRXPathBuilder.buildXPath(parent));
         }
-        return buildExpression(baseXPath.getRootExpr(), value, parent);
+        return buildExpression(rootExpr, value, parent);
     }
 
     private Object buildExpression(Expr expression, String value, Parent parent) throws JaxenException {
@@ -44,6 +44,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -114,6 +115,8 @@ import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.datamodel.niofs.MCRPathXML;
 import org.mycore.services.http.MCRHttpUtils;
 import org.mycore.services.i18n.MCRTranslation;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 import org.mycore.tools.MCRObjectFactory;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -136,6 +139,8 @@ public final class MCRURIResolver implements URIResolver {
 
     private static final String CONFIG_PREFIX = "MCR.URIResolver.";
 
+    private static final Map<String, MCRTimer> SCHEME_TIMERS = new ConcurrentHashMap<>();
+
     private static Map<String, URIResolver> SUPPORTED_SCHEMES;
 
     private static MCRResolverProvider EXT_RESOLVER;
@@ -275,7 +280,16 @@ public final class MCRURIResolver implements URIResolver {
 
         URIResolver uriResolver = SUPPORTED_SCHEMES.get(scheme);
         if (uriResolver != null) {
-            return uriResolver.resolve(href, base);
+            if (!MCRMetrics.isEnabled()) {
+                return uriResolver.resolve(href, base);
+            }
+            MCRTimer timer = SCHEME_TIMERS.computeIfAbsent(scheme, s -> MCRMetrics.timer("uri", "scheme", s));
+            long start = timer.start();
+            try {
+                return uriResolver.resolve(href, base);
+            } finally {
+                timer.stop(start);
+            }
         } else { // try to handle as URL, use default resolver for file:// and
             try {
                 InputSource entity = MCREntityResolver.instance().resolveEntity(null, href);
@@ -0,0 +1,232 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.common.xml;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import org.jaxen.BaseXPath;
+import org.jaxen.JaxenException;
+import org.jaxen.dom.DocumentNavigator;
+import org.jaxen.expr.Expr;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filter;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.mycore.common.MCRCache;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+
+/**
+ * Bounded cache of compiled XPath expressions, shared by {@link MCRXPathEvaluator}, {@link MCRNodeBuilder} and
+ * the xeditor bindings.
+ *
+ * Compiled JDOM expressions are keyed by the {@link XPathFactory} (which defines the available functions),
+ * the expression text, the filter, the names of the variables in scope and the namespace declarations.
+ * They are not thread-safe, so every key holds a small pool of instances: a caller borrows one, binds the
+ * current variable values, evaluates it and returns it to the pool. Variable values are unbound afterwards,
+ * so the cache does not keep documents alive.
+ *
+ * Parsed Jaxen expression trees, which are immutable, are cached by expression text for code that inspects the
+ * structure of an XPath, like {@link MCRNodeBuilder}.
+ *
+ * The cache size is configured by <code>MCR.XPath.Cache.Size</code>, statistics are available via the
+ * MCRCache JMX beans and the <code>xpath.cache</code> metrics.
+ */
+public final class MCRXPathCache {
+
+    /** maximum number of idle compiled instances kept per expression, one per concurrently evaluating thread */
+    private static final int MAX_POOLED_INSTANCES = 8;
+
+    private static final int CACHE_SIZE = MCRConfiguration2.getInt("MCR.XPath.Cache.Size").orElse(5000);
+
+    private static final MCRCache<Key, Queue<XPathExpression<?>>> COMPILED_EXPRESSIONS = new MCRCache<>(
+        CACHE_SIZE, "compiled XPath expressions");
+
+    private static final MCRCache<String, Expr> PARSED_EXPRESSIONS = new MCRCache<>(CACHE_SIZE,
+        "parsed XPath expressions");
+
+    private static final MCRCounter HIT_COUNTER = MCRMetrics.counter("xpath.cache", "result", "hit");
+
+    private static final MCRCounter MISS_COUNTER = MCRMetrics.counter("xpath.cache", "result", "miss");
+
+    private static volatile boolean enabled = MCRConfiguration2.getBoolean("MCR.XPath.Cache.Enabled").orElse(true);
+
+    private MCRXPathCache() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables caching, e.g. to compare performance. If disabled, every call compiles its expression.
+     */
+    public static void setEnabled(boolean enabled) {
+        MCRXPathCache.enabled = enabled;
+    }
+
+    /**
+     * Removes all cached expressions.
+     */
+    public static void clear() {
+        COMPILED_EXPRESSIONS.clear();
+        PARSED_EXPRESSIONS.clear();
+    }
+
+    /**
+     * Evaluates the XPath expression and returns all results.
+     *
+     * @see XPathFactory#compile(String, Filter, Map, Collection)
+     * @see XPathExpression#evaluate(Object)
+     */
+    public static <T> List<T> evaluate(XPathFactory factory, String expression, Filter<T> filter,
+        Map<String, Object> variables, Collection<Namespace> namespaces, Object context) {
+        return apply(factory, expression, filter, variables, namespaces, xPath -> xPath.evaluate(context));
+    }
+
+    /**
+     * Evaluates the XPath expression and returns the first result or <code>null</code>.
+     *
+     * @see XPathFactory#compile(String, Filter, Map, Collection)
+     * @see XPathExpression#evaluateFirst(Object)
+     */
+    public static <T> T evaluateFirst(XPathFactory factory, String expression, Filter<T> filter,
+        Map<String, Object> variables, Collection<Namespace> namespaces, Object context) {
+        return apply(factory, expression, filter, variables, namespaces, xPath -> xPath.evaluateFirst(context));
+    }
+
+    /**
+     * Returns the parsed expression tree of the given XPath. The returned expression must not be modified.
+     */
+    public static Expr getRootExpr(String xPath) throws JaxenException {
+        Expr rootExpr = enabled ? PARSED_EXPRESSIONS.get(xPath) : null;
+        if (rootExpr != null) {
+            HIT_COUNTER.increment();
+            return rootExpr;
+        }
+        MISS_COUNTER.increment();
+        rootExpr = new BaseXPath(xPath, new DocumentNavigator()).getRootExpr();
+        if (enabled) {
+            PARSED_EXPRESSIONS.put(xPath, rootExpr);
+        }
+        return rootExpr;
+    }
+
+    private static <T, R> R apply(XPathFactory factory, String expression, Filter<T> filter,
+        Map<String, Object> variables, Collection<Namespace> namespaces, Function<XPathExpression<T>, R> evaluation) {
+        if (!enabled) {
+            return evaluation.apply(factory.compile(expression, filter, variables, namespaces));
+        }
+        Key key = new Key(factory, expression, filter, variables, namespaces);
+        Queue<XPathExpression<?>> pool = COMPILED_EXPRESSIONS.get(key);
+        if (pool == null) {
+            pool = new ConcurrentLinkedQueue<>();
+            COMPILED_EXPRESSIONS.put(key, pool);
+        }
+        @SuppressWarnings("unchecked")
+        XPathExpression<T> xPath = (XPathExpression<T>) pool.poll();
+        if (xPath == null) {
+            MISS_COUNTER.increment();
+            xPath = factory.compile(expression, filter, variables, namespaces);
+        } else {
+            HIT_COUNTER.increment();
+            if (variables != null) {
+                variables.forEach(xPath::setVariable);
+            }
+        }
+        R result = evaluation.apply(xPath);
+        if (variables != null) {
+            for (String name : variables.keySet()) {
+                xPath.setVariable(name, null);
+            }
+        }
+        if (pool.size() < MAX_POOLED_INSTANCES) {
+            pool.offer(xPath);
+        }
+        return result;
+    }
+
+    private static final class Key {
+
+        private final XPathFactory factory;
+
+        private final String expression;
+
+        private final Filter<?> filter;
+
+        private final Set<String> variableNames;
+
+        private final Namespace[] namespaces;
+
+        private final int hashCode;
+
+        Key(XPathFactory factory, String expression, Filter<?> filter, Map<String, Object> variables,
+            Collection<Namespace> namespaces) {
+            this.factory = factory;
+            this.expression = expression;
+            this.filter = filter;
+            this.variableNames = variables == null ? Set.of() : Set.copyOf(variables.keySet());
+            this.namespaces = namespaces == null ? new Namespace[0] : namespaces.toArray(Namespace[]::new);
+            this.hashCode = Objects.hash(System.identityHashCode(factory), expression, filter, variableNames,
+                Arrays.hashCode(this.namespaces));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return factory == other.factory && hashCode == other.hashCode && expression.equals(other.expression)
+                && Objects.equals(filter, other.filter) && variableNames.equals(other.variableNames)
+                && sameNamespaces(namespaces, other.namespaces);
+        }
+
+        /** {@link Namespace#equals(Object)} ignores the prefix, but the prefix matters for an XPath */
+        private static boolean sameNamespaces(Namespace[] a, Namespace[] b) {
+            if (a.length != b.length) {
+                return false;
+            }
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i] && !(a[i].getPrefix().equals(b[i].getPrefix()) && a[i].equals(b[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
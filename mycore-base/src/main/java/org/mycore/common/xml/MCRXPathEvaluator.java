@@ -30,7 +30,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.Parent;
 import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
 import org.mycore.common.MCRConstants;
 import org.mycore.common.config.MCRConfiguration2;
@@ -116,9 +115,8 @@ public class MCRXPathEvaluator {
 
     public Object evaluateFirst(String xPathExpression) {
         try {
-            XPathExpression<Object> xPath = XPATH_FACTORY.compile(xPathExpression, Filters.fpassthrough(), variables,
-                MCRConstants.getStandardNamespaces());
-            return xPath.evaluateFirst(context);
+            return MCRXPathCache.evaluateFirst(XPATH_FACTORY, xPathExpression, Filters.fpassthrough(), variables,
+                MCRConstants.getStandardNamespaces(), context);
         } catch (Exception ex) {
             LOGGER.warn("unable to evaluate XPath: {}", xPathExpression);
             LOGGER.warn("XPath factory used is {} {}", XPATH_FACTORY.getClass().getCanonicalName(),
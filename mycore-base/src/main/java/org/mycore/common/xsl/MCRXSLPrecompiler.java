@@ -0,0 +1,275 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.common.xsl;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.servlet.ServletContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRClassTools;
+import org.mycore.common.MCRSystemUserInformation;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.content.transformer.MCRContentTransformer;
+import org.mycore.common.content.transformer.MCRXSLTransformer;
+import org.mycore.common.events.MCRStartupHandler;
+import org.mycore.common.xml.MCRLayoutService;
+import org.mycore.util.concurrent.MCRFixedUserCallable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Compiles XSL stylesheets into the cache of {@link MCRXSLTransformer}, so that the first users after a deploy do
+ * not have to wait for the compilation.
+ *
+ * If <code>MCR.LayoutService.Precompile.Enabled</code> is true, the web application compiles the stylesheets in
+ * <code>MCR.LayoutService.Precompile.Stylesheets</code> in the background at startup using
+ * <code>MCR.LayoutService.Precompile.Threads</code> threads. Entries are resource names like
+ * <code>xsl/layout.xsl</code> or glob patterns like <code>xsl/*.xsl</code>, where <code>*</code> does not match
+ * <code>/</code> and <code>**</code> does.
+ *
+ * For stylesheets directly in <code>xsl/</code>, the transformer that {@link MCRLayoutService} builds for the page
+ * is compiled as well, which chains the stylesheet with <code>MCR.LayoutTransformerFactory.Default.Stylesheets</code>.
+ */
+public class MCRXSLPrecompiler implements MCRStartupHandler.AutoExecutable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String CONFIG_PREFIX = "MCR.LayoutService.Precompile.";
+
+    private static final Pattern LAYOUT_STYLESHEET = Pattern.compile("xsl/([^/]+)\\.xsl");
+
+    @Override
+    public String getName() {
+        return "XSL Precompiler";
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public void startUp(ServletContext servletContext) {
+        if (servletContext == null || !MCRConfiguration2.getBoolean(CONFIG_PREFIX + "Enabled").orElse(false)) {
+            return;
+        }
+        List<String> patterns = getConfiguredStylesheets();
+        int threads = MCRConfiguration2.getInt(CONFIG_PREFIX + "Threads")
+            .orElse(Runtime.getRuntime().availableProcessors());
+        Thread precompiler = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            Map<String, Long> compileTimes = compile(findStylesheets(patterns), threads);
+            long failed = compileTimes.values().stream().filter(time -> time < 0).count();
+            LOGGER.info("Precompiled {} stylesheets in {} ms, {} failed.", compileTimes.size() - failed,
+                System.currentTimeMillis() - start, failed);
+        }, "XSL-Precompiler");
+        precompiler.setDaemon(true);
+        precompiler.start();
+    }
+
+    /**
+     * Returns the stylesheets and patterns of <code>MCR.LayoutService.Precompile.Stylesheets</code>.
+     */
+    public static List<String> getConfiguredStylesheets() {
+        return MCRConfiguration2.getString(CONFIG_PREFIX + "Stylesheets")
+            .map(MCRConfiguration2::splitValue)
+            .map(s -> s.collect(Collectors.toList()))
+            .orElseGet(Collections::emptyList);
+    }
+
+    /**
+     * Resolves glob patterns to the names of all matching XSL resources. Entries without wildcards are returned
+     * unchanged.
+     *
+     * @param patterns resource names or glob patterns
+     * @return the sorted resource names
+     */
+    public static SortedSet<String> findStylesheets(Collection<String> patterns) {
+        SortedSet<String> stylesheets = new TreeSet<>();
+        for (String pattern : patterns) {
+            int wildcard = indexOfWildcard(pattern);
+            if (wildcard < 0) {
+                stylesheets.add(pattern);
+                continue;
+            }
+            String baseDir = pattern.substring(0, pattern.lastIndexOf('/', wildcard) + 1);
+            Pattern regex = toRegex(pattern);
+            try {
+                listResources(baseDir).stream()
+                    .filter(name -> regex.matcher(name).matches())
+                    .forEach(stylesheets::add);
+            } catch (IOException | URISyntaxException e) {
+                LOGGER.error("Could not list stylesheets matching {}", pattern, e);
+            }
+        }
+        return stylesheets;
+    }
+
+    /**
+     * Compiles the given stylesheets in parallel into the cache of {@link MCRXSLTransformer} and the layout
+     * transformers built for them by {@link MCRLayoutService#getLayoutTransformerFactory()}.
+     *
+     * @param stylesheets the resource names of the stylesheets
+     * @param threads the number of threads used for compilation
+     * @return the compile time in milliseconds for every stylesheet, -1 if it could not be compiled
+     */
+    public static Map<String, Long> compile(Collection<String> stylesheets, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads),
+            new ThreadFactoryBuilder().setNameFormat("XSL-Precompiler-#%d").build());
+        try {
+            Map<String, Future<Long>> futures = new LinkedHashMap<>();
+            for (String stylesheet : stylesheets) {
+                futures.put(stylesheet, executor.submit(new MCRFixedUserCallable<>(
+                    () -> compile(MCRXSLTransformer.getInstance(stylesheet)) + compileLayoutTransformer(stylesheet),
+                    MCRSystemUserInformation.getSystemUserInstance())));
+            }
+            Map<String, Long> compileTimes = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Long>> future : futures.entrySet()) {
+                compileTimes.put(future.getKey(), getCompileTime(future.getKey(), future.getValue()));
+            }
+            return compileTimes;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Compiles the stylesheets of the given transformer.
+     *
+     * @return the compile time in milliseconds
+     */
+    public static long compile(MCRXSLTransformer transformer) throws Exception {
+        long start = System.currentTimeMillis();
+        transformer.compileTemplates();
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Compiles the transformer {@link MCRLayoutService} uses for pages rendered with the given stylesheet.
+     *
+     * @return the compile time in milliseconds
+     */
+    private static long compileLayoutTransformer(String stylesheet) throws Exception {
+        Matcher matcher = LAYOUT_STYLESHEET.matcher(stylesheet);
+        if (!matcher.matches()) {
+            return 0;
+        }
+        MCRContentTransformer transformer = MCRLayoutService.getLayoutTransformerFactory()
+            .getTransformer(matcher.group(1) + "-default");
+        return transformer instanceof MCRXSLTransformer ? compile((MCRXSLTransformer) transformer) : 0;
+    }
+
+    private static long getCompileTime(String stylesheet, Future<Long> future) {
+        try {
+            long time = future.get();
+            LOGGER.debug("Compiled {} in {} ms.", stylesheet, time);
+            return time;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            LOGGER.error("Could not compile {}", stylesheet, e.getCause());
+            return -1;
+        }
+    }
+
+    private static int indexOfWildcard(String pattern) {
+        int star = pattern.indexOf('*');
+        int question = pattern.indexOf('?');
+        return star < 0 ? question : (question < 0 ? star : Math.min(star, question));
+    }
+
+    static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Lists the names of all resources below the given directory in directories and jar files of the class path.
+     */
+    private static List<String> listResources(String baseDir) throws IOException, URISyntaxException {
+        List<String> names = new ArrayList<>();
+        Enumeration<URL> baseURLs = MCRClassTools.getClassLoader().getResources(baseDir);
+        while (baseURLs.hasMoreElements()) {
+            URL baseURL = baseURLs.nextElement();
+            URLConnection connection = baseURL.openConnection();
+            if (connection instanceof JarURLConnection) {
+                JarURLConnection jarConnection = (JarURLConnection) connection;
+                jarConnection.setUseCaches(false);
+                try (JarFile jarFile = jarConnection.getJarFile()) {
+                    jarFile.stream()
+                        .filter(entry -> !entry.isDirectory())
+                        .map(JarEntry::getName)
+                        .filter(name -> name.startsWith(baseDir))
+                        .forEach(names::add);
+                }
+            } else if ("file".equals(baseURL.getProtocol())) {
+                Path basePath = Paths.get(baseURL.toURI());
+                try (Stream<Path> files = Files.walk(basePath)) {
+                    files.filter(Files::isRegularFile)
+                        .map(file -> baseDir + basePath.relativize(file).toString().replace('\\', '/'))
+                        .forEach(names::add);
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -63,6 +63,8 @@ import org.mycore.datamodel.ifs2.MCRVersioningMetadataStore;
 import org.mycore.datamodel.metadata.MCRObject;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.metadata.history.MCRMetadataHistoryManager;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 import org.xml.sax.SAXException;
 
 /**
@@ -105,6 +107,8 @@ public class MCRXMLMetadataManager {
 
     private static final Logger LOGGER = LogManager.getLogger(MCRXMLMetadataManager.class);
 
+    private static final MCRTimer RETRIEVE_TIMER = MCRMetrics.timer("store", "op", "retrieve");
+
     /** The singleton */
     private static MCRXMLMetadataManager SINGLETON;
 
@@ -537,13 +541,16 @@ public class MCRXMLMetadataManager {
     }
 
     public MCRContent retrieveContent(MCRObjectID mcrid) throws IOException {
-        MCRContent metadata;
-        MCRStoredMetadata storedMetadata = retrieveStoredMetadata(mcrid);
-        if (storedMetadata == null || storedMetadata.isDeleted()) {
-            return null;
+        long start = RETRIEVE_TIMER.start();
+        try {
+            MCRStoredMetadata storedMetadata = retrieveStoredMetadata(mcrid);
+            if (storedMetadata == null || storedMetadata.isDeleted()) {
+                return null;
+            }
+            return storedMetadata.getMetadata();
+        } finally {
+            RETRIEVE_TIMER.stop(start);
         }
-        metadata = storedMetadata.getMetadata();
-        return metadata;
     }
 
     /**
@@ -0,0 +1,124 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.mycore.common.content.MCRContent;
+
+/**
+ * Represents an XML metadata document that is stored in a local filesystem
+ * store, with all versions kept in the version directory of a
+ * {@link MCRBlobVersioningMetadataStore}.
+ */
+public class MCRBlobVersionedMetadata extends MCRVersionedMetadata {
+
+    MCRBlobVersionedMetadata(MCRMetadataStore store, Path fo, int id, String docType, boolean deleted) {
+        super(store, fo, id, docType, deleted);
+        revision = () -> {
+            try {
+                List<MCRMetadataVersion> versions = listVersions();
+                return versions.isEmpty() ? Optional.empty()
+                    : Optional.of(versions.get(versions.size() - 1).getRevision());
+            } catch (IOException e) {
+                LOGGER.error("Could not get last revision of {}_{}", getStore().getID(), id, e);
+                return Optional.empty();
+            }
+        };
+    }
+
+    @Override
+    public MCRBlobVersioningMetadataStore getStore() {
+        return (MCRBlobVersioningMetadataStore) store;
+    }
+
+    @Override
+    void commit(String mode) throws IOException {
+        char type = "create".equals(mode) ? MCRMetadataVersion.CREATED : MCRMetadataVersion.UPDATED;
+        long newRevision = getStore().addVersion(this, type).getRevision();
+        revision = () -> Optional.of(newRevision);
+    }
+
+    /**
+     * Updates the version stored in the local filesystem to the latest version
+     * in the version directory.
+     */
+    @Override
+    public void update() throws Exception {
+        MCRMetadataVersion latest = getRevision(-1);
+        if (latest == null) {
+            return;
+        }
+        latest.retrieve().sendTo(path);
+        long rev = latest.getRevision();
+        revision = () -> Optional.of(rev);
+    }
+
+    @Override
+    public List<MCRMetadataVersion> listVersions() throws IOException {
+        return getStore().listVersions(this);
+    }
+
+    @Override
+    public MCRMetadataVersion getRevision(long revision) throws IOException {
+        List<MCRMetadataVersion> versions = listVersions();
+        if (revision < 0) {
+            return versions.stream()
+                .filter(version -> version.getType() != MCRMetadataVersion.DELETED)
+                .reduce((first, second) -> second)
+                .orElseGet(() -> {
+                    LOGGER.warn("Metadata object {} in store {} has no last revision!", getID(), getStore().getID());
+                    return null;
+                });
+        }
+        return versions.stream()
+            .filter(version -> version.getRevision() == revision)
+            .findAny()
+            .orElseGet(() -> {
+                LOGGER.warn("Metadata object {} in store {} has no revision ''{}''!", getID(), getStore().getID(),
+                    revision);
+                return null;
+            });
+    }
+
+    @Override
+    public long getLastPresentRevision() {
+        try {
+            MCRMetadataVersion version = getRevision(-1);
+            return version == null ? -1 : version.getRevision();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isUpToDate() throws IOException {
+        List<MCRMetadataVersion> versions = listVersions();
+        return versions.isEmpty() || versions.get(versions.size() - 1).getRevision() <= getRevision();
+    }
+
+    @Override
+    MCRContent retrieveVersion(MCRMetadataVersion version) throws IOException {
+        return getStore().retrieveVersion(getID(), version.getRevision());
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRPersistenceException;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRUtils;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.config.MCRConfigurationException;
+import org.mycore.common.content.MCRByteContent;
+import org.mycore.common.content.MCRContent;
+import org.mycore.common.content.streams.MCRByteArrayOutputStream;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLogEntryPath;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+
+/**
+ * Stores metadata objects in a local filesystem structure and keeps all versions
+ * as compressed, content-addressed blobs in a local version directory. This is an
+ * alternative to the Subversion repository used by {@link MCRVersioningMetadataStore},
+ * supporting the same {@link MCRMetadataVersion} API.
+ *
+ * Every version is stored once as gzip compressed file named by the SHA-256 checksum of
+ * its content below <code>blobs/</code>, so identical versions of any object share the
+ * same blob. For every object an append-only revision log below <code>log/</code> lists
+ * revision number, type, date, checksum and user of each version. Revision numbers are
+ * unique and increasing over the whole store.
+ *
+ * MCR.IFS2.Store.DocPortal_document.Class=org.mycore.datamodel.ifs2.MCRBlobVersioningMetadataStore
+ * MCR.IFS2.Store.DocPortal_document.VersionBaseDir=/foo/versions/DocPortal_document
+ *
+ * If <code>VersionBaseDir</code> is not set, the directory <code>BaseDir</code> with the extension
+ * <code>.versions</code> is used. Existing history can be imported from the Subversion repository
+ * configured in <code>SVNRepositoryURL</code> via {@link #importSVNHistory(SVNURL)}.
+ */
+public class MCRBlobVersioningMetadataStore extends MCRVersioningMetadataStore {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final char SEPARATOR = '\t';
+
+    private static final String NO_BLOB = "-";
+
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Number of revisions that are reserved at once in the revision file
+     */
+    private static final long REVISION_BLOCK_SIZE = 1000;
+
+    private final Object[] locks = Stream.generate(Object::new).limit(LOCK_STRIPES).toArray();
+
+    private final Object revisionLock = new Object();
+
+    private Path versionBaseDirectory;
+
+    private long nextRevision;
+
+    private long reservedRevision;
+
+    @Override
+    protected void setupVersioning(String type) {
+        versionBaseDirectory = MCRConfiguration2.getString("MCR.IFS2.Store." + type + ".VersionBaseDir")
+            .map(Paths::get)
+            .orElseGet(() -> baseDirectory.resolveSibling(baseDirectory.getFileName() + ".versions"));
+        LOGGER.info("Versioning metadata store {} version directory: {}", type, versionBaseDirectory);
+        try {
+            Files.createDirectories(getBlobDirectory());
+            Files.createDirectories(getLogDirectory());
+            Path revisionFile = getRevisionFile();
+            nextRevision = Files.exists(revisionFile)
+                ? Long.parseLong(new String(Files.readAllBytes(revisionFile), StandardCharsets.US_ASCII).trim())
+                : 1;
+            reservedRevision = nextRevision;
+        } catch (IOException | NumberFormatException e) {
+            throw new MCRConfigurationException("Error initializing version directory " + versionBaseDirectory, e);
+        }
+    }
+
+    Path getVersionBaseDirectory() {
+        return versionBaseDirectory;
+    }
+
+    private Path getBlobDirectory() {
+        return versionBaseDirectory.resolve("blobs");
+    }
+
+    private Path getLogDirectory() {
+        return versionBaseDirectory.resolve("log");
+    }
+
+    private Path getRevisionFile() {
+        return versionBaseDirectory.resolve("revision");
+    }
+
+    private Path getLogFile(int id) {
+        return getLogDirectory().resolve(getSlotPath(id) + ".log");
+    }
+
+    private Path getBlob(String checksum) {
+        return getBlobDirectory().resolve(checksum.substring(0, 2)).resolve(checksum.substring(2) + ".gz");
+    }
+
+    private Object getLock(int id) {
+        return locks[Math.floorMod(id, LOCK_STRIPES)];
+    }
+
+    private long nextRevision() throws IOException {
+        synchronized (revisionLock) {
+            if (nextRevision >= reservedRevision) {
+                // reserve a block of revision numbers, so that they are never reused after a restart
+                reserveRevisions(nextRevision + REVISION_BLOCK_SIZE);
+            }
+            return nextRevision++;
+        }
+    }
+
+    private void reserveRevisions(long reserved) throws IOException {
+        Path revisionFile = getRevisionFile();
+        Path tempFile = revisionFile.resolveSibling("revision.tmp");
+        Files.write(tempFile, Long.toString(reserved).getBytes(StandardCharsets.US_ASCII),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+            StandardOpenOption.SYNC);
+        Files.move(tempFile, revisionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        reservedRevision = reserved;
+    }
+
+    /**
+     * Stores the content as blob, if no blob with the same checksum exists.
+     *
+     * @return the checksum of the content
+     */
+    private String storeBlob(byte[] content) throws IOException {
+        String checksum = getChecksum(content);
+        Path blob = getBlob(checksum);
+        if (Files.exists(blob)) {
+            return checksum;
+        }
+        Files.createDirectories(blob.getParent());
+        Path tempFile = Files.createTempFile(blob.getParent(), checksum, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                out.write(content);
+            }
+            Files.move(tempFile, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // stored concurrently
+            LOGGER.debug("Blob {} already exists.", checksum);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return checksum;
+    }
+
+    private byte[] readBlob(String checksum) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(getBlob(checksum)))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String getChecksum(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            return MCRUtils.toHexString(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new MCRException(e);
+        }
+    }
+
+    /**
+     * Adds a new version of the metadata object to its revision log.
+     *
+     * @param vm
+     *            the metadata object
+     * @param type
+     *            one of {@link MCRMetadataVersion#CREATED}, {@link MCRMetadataVersion#UPDATED} or
+     *            {@link MCRMetadataVersion#DELETED}
+     * @return the new version
+     */
+    MCRMetadataVersion addVersion(MCRBlobVersionedMetadata vm, char type) throws IOException {
+        String user = MCRSessionMgr.getCurrentSession().getUserInformation().getUserID();
+        String checksum = type == MCRMetadataVersion.DELETED ? NO_BLOB : storeBlob(Files.readAllBytes(vm.path));
+        return addVersion(vm, nextRevision(), type, new Date(), user, checksum);
+    }
+
+    private MCRMetadataVersion addVersion(MCRBlobVersionedMetadata vm, long revision, char type, Date date,
+        String user, String checksum) throws IOException {
+        String entry = String.valueOf(revision) + SEPARATOR + type + SEPARATOR + date.getTime() + SEPARATOR
+            + checksum + SEPARATOR + user.replace(SEPARATOR, ' ').replace('\n', ' ') + '\n';
+        Path logFile = getLogFile(vm.getID());
+        synchronized (getLock(vm.getID())) {
+            Files.createDirectories(logFile.getParent());
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+        }
+        LOGGER.info("Stored revision {} of {}_{}", revision, getID(), vm.getID());
+        return new MCRMetadataVersion(vm, revision, user, date, type);
+    }
+
+    /**
+     * Lists all versions of the metadata object in ascending order of revision.
+     */
+    List<MCRMetadataVersion> listVersions(MCRBlobVersionedMetadata vm) throws IOException {
+        List<MCRMetadataVersion> versions = new ArrayList<>();
+        for (String[] entry : readLog(vm.getID())) {
+            versions.add(new MCRMetadataVersion(vm, Long.parseLong(entry[0]), entry[4],
+                new Date(Long.parseLong(entry[2])), entry[1].charAt(0)));
+        }
+        return versions;
+    }
+
+    /**
+     * Retrieves the content stored for the given revision of the metadata object.
+     */
+    MCRContent retrieveVersion(int id, long revision) throws IOException {
+        for (String[] entry : readLog(id)) {
+            if (Long.parseLong(entry[0]) == revision && !NO_BLOB.equals(entry[3])) {
+                byte[] content = readBlob(entry[3]);
+                return new MCRByteContent(content, 0, content.length, Long.parseLong(entry[2]));
+            }
+        }
+        throw new IOException("Revision " + revision + " of " + getID() + "_" + id + " does not exist.");
+    }
+
+    private List<String[]> readLog(int id) throws IOException {
+        Path logFile = getLogFile(id);
+        List<String> lines;
+        synchronized (getLock(id)) {
+            if (!Files.exists(logFile)) {
+                return Collections.emptyList();
+            }
+            lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        }
+        List<String[]> entries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            String[] entry = line.split(String.valueOf(SEPARATOR), 5);
+            if (entry.length == 5) {
+                entries.add(entry);
+            } else if (!line.isEmpty()) {
+                LOGGER.warn("Ignoring invalid entry in revision log {}: {}", logFile, line);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    protected void deleteInRepository(int id) {
+        try {
+            addVersion(buildDeletedMetadataObject(getSlot(id), id), MCRMetadataVersion.DELETED);
+        } catch (IOException e) {
+            LOGGER.error("Error while storing delete marker of {}_{}", getID(), id, e);
+        }
+    }
+
+    @Override
+    protected MCRVersionedMetadata buildMetadataObject(Path fo, int id) {
+        return new MCRBlobVersionedMetadata(this, fo, id, super.forceDocType, false);
+    }
+
+    @Override
+    protected MCRVersionedMetadata buildDeletedMetadataObject(Path fo, int id) {
+        return new MCRBlobVersionedMetadata(this, fo, id, super.forceDocType, true);
+    }
+
+    /**
+     * Checks that all blobs in the version directory match their checksum.
+     *
+     * @throws MCRPersistenceException if a blob is corrupt
+     */
+    @Override
+    public void verify() throws MCRPersistenceException {
+        AtomicInteger count = new AtomicInteger();
+        try (Stream<Path> blobs = Files.walk(getBlobDirectory())) {
+            blobs.filter(Files::isRegularFile)
+                .filter(blob -> blob.getFileName().toString().endsWith(".gz"))
+                .forEach(blob -> {
+                    String fileName = blob.getFileName().toString();
+                    String checksum = blob.getParent().getFileName()
+                        + fileName.substring(0, fileName.length() - ".gz".length());
+                    try {
+                        if (!checksum.equals(getChecksum(readBlob(checksum)))) {
+                            throw new MCRPersistenceException("Checksum mismatch of blob " + blob);
+                        }
+                    } catch (IOException e) {
+                        throw new MCRPersistenceException("Could not read blob " + blob, e);
+                    }
+                    count.incrementAndGet();
+                });
+        } catch (IOException e) {
+            throw new MCRPersistenceException("Could not verify version directory " + versionBaseDirectory, e);
+        }
+        LOGGER.info("Verified {} blobs in '{}'.", count.get(), versionBaseDirectory);
+    }
+
+    /**
+     * Imports the complete history of all metadata objects of this store from a
+     * Subversion repository used by {@link MCRVersioningMetadataStore} before.
+     * Revision numbers, users and dates are kept. The version directory should be
+     * empty before the import.
+     *
+     * @param svnURL
+     *            the URL of the Subversion repository
+     * @return the number of imported versions
+     */
+    public int importSVNHistory(SVNURL svnURL) throws IOException {
+        SVNRepository logRepository = null;
+        SVNRepository fileRepository = null;
+        try {
+            logRepository = SVNRepositoryFactory.create(svnURL);
+            SVNRepository files = SVNRepositoryFactory.create(svnURL);
+            fileRepository = files;
+            long latestRevision = logRepository.getLatestRevision();
+            AtomicInteger imported = new AtomicInteger();
+            logRepository.log(new String[] { "" }, 0, latestRevision, true, true, 0, false, null, logEntry -> {
+                for (SVNLogEntryPath entryPath : logEntry.getChangedPaths().values()) {
+                    Optional<Integer> id = getIDFromSVNPath(entryPath.getPath());
+                    if (id.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        MCRBlobVersionedMetadata vm = (MCRBlobVersionedMetadata) buildDeletedMetadataObject(
+                            getSlot(id.get()), id.get());
+                        char type = entryPath.getType() == SVNLogEntryPath.TYPE_DELETED ? MCRMetadataVersion.DELETED
+                            : entryPath.getType() == SVNLogEntryPath.TYPE_ADDED ? MCRMetadataVersion.CREATED
+                                : MCRMetadataVersion.UPDATED;
+                        String checksum = NO_BLOB;
+                        if (type != MCRMetadataVersion.DELETED) {
+                            MCRByteArrayOutputStream baos = new MCRByteArrayOutputStream();
+                            files.getFile(entryPath.getPath(), logEntry.getRevision(), null, baos);
+                            checksum = storeBlob(Arrays.copyOf(baos.getBuffer(), baos.size()));
+                        }
+                        addVersion(vm, logEntry.getRevision(), type, logEntry.getDate(),
+                            Optional.ofNullable(logEntry.getAuthor()).orElse("unknown"), checksum);
+                        imported.incrementAndGet();
+                    } catch (IOException e) {
+                        throw new MCRPersistenceException("Could not import " + entryPath.getPath() + " in revision "
+                            + logEntry.getRevision(), e);
+                    }
+                }
+            });
+            synchronized (revisionLock) {
+                if (nextRevision <= latestRevision) {
+                    nextRevision = latestRevision + 1;
+                    reserveRevisions(nextRevision + REVISION_BLOCK_SIZE);
+                }
+            }
+            LOGGER.info("Imported {} versions of store {} from {}.", imported.get(), getID(), svnURL);
+            return imported.get();
+        } catch (SVNException e) {
+            throw new IOException("Could not import SVN history from " + svnURL, e);
+        } finally {
+            if (logRepository != null) {
+                logRepository.closeSession();
+            }
+            if (fileRepository != null) {
+                fileRepository.closeSession();
+            }
+        }
+    }
+
+    /**
+     * Imports the history from the Subversion repository configured in
+     * <code>MCR.IFS2.Store.&lt;ID&gt;.SVNRepositoryURL</code>.
+     *
+     * @see #importSVNHistory(SVNURL)
+     */
+    public int importSVNHistory() throws IOException {
+        String repositoryURL = MCRConfiguration2.getStringOrThrow("MCR.IFS2.Store." + getID() + ".SVNRepositoryURL");
+        try {
+            return importSVNHistory(SVNURL.parseURIEncoded(repositoryURL));
+        } catch (SVNException e) {
+            throw new MCRConfigurationException("Invalid SVN repository URL: " + repositoryURL, e);
+        }
+    }
+
+    private Optional<Integer> getIDFromSVNPath(String svnPath) {
+        String fileName = svnPath.substring(svnPath.lastIndexOf('/') + 1);
+        if (!fileName.startsWith(prefix) || !fileName.endsWith(suffix)
+            || fileName.length() != prefix.length() + idLength + suffix.length()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Integer.parseInt(fileName.substring(prefix.length(), prefix.length() + idLength)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
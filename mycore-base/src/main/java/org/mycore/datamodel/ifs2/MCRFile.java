@@ -19,6 +19,7 @@
 package org.mycore.datamodel.ifs2;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -28,7 +29,9 @@ import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.Element;
+import org.mycore.common.MCRUtils;
 import org.mycore.common.content.MCRContent;
+import org.mycore.common.content.MCRPathContent;
 import org.mycore.common.content.streams.MCRDevNull;
 import org.mycore.datamodel.ifs.MCRContentInputStream;
 import org.mycore.datamodel.niofs.MCRFileAttributes;
@@ -127,6 +130,35 @@ public class MCRFile extends MCRStoredNode {
         }
     }
 
+    /**
+     * Sets the content of this file by moving the given local file into the store.
+     *
+     * The file is renamed if it resides on the same filesystem as the store, so no content is written at all.
+     * Otherwise it is copied and deleted afterwards.
+     *
+     * @param source
+     *            the local file to move, does not exist after this method returns
+     * @param md5
+     *            the already known MD5 checksum of the source, or null if it should be calculated
+     * @return true, if the file was renamed, false if it had to be copied
+     */
+    public boolean moveContentFrom(Path source, String md5) throws IOException {
+        try {
+            Files.move(source, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.debug("Cannot rename {} to {}, copying content.", source, path);
+            String copiedMD5 = setContent(new MCRPathContent(source));
+            if (md5 != null && !md5.equals(copiedMD5)) {
+                throw new IOException("MD5 mismatch while copying " + source + ": expected " + md5 + " but was "
+                    + copiedMD5);
+            }
+            Files.delete(source);
+            return false;
+        }
+        setMD5(md5 == null ? MCRUtils.getMD5Sum(Files.newInputStream(path)) : md5);
+        return true;
+    }
+
     /**
      * updates the MD5 sum of this file to the given value.
      *
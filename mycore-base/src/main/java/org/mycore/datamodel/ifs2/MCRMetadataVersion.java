@@ -30,16 +30,12 @@ import javax.xml.bind.annotation.XmlTransient;
 
 import org.jdom2.JDOMException;
 import org.mycore.common.MCRUsageException;
-import org.mycore.common.content.MCRByteContent;
 import org.mycore.common.content.MCRContent;
-import org.mycore.common.content.streams.MCRByteArrayOutputStream;
-import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNLogEntry;
-import org.tmatesoft.svn.core.io.SVNRepository;
 
 /**
  * Provides information about a stored version of metadata and allows to
- * retrieve that version from SVN
+ * retrieve that version from the version repository
  * 
  * @author Frank Lützenkirchen
  */
@@ -123,10 +119,28 @@ public class MCRMetadataVersion {
      *            the type of commit
      */
     MCRMetadataVersion(MCRVersionedMetadata vm, SVNLogEntry logEntry, char type) {
+        this(vm, logEntry.getRevision(), logEntry.getAuthor(), logEntry.getDate(), type);
+    }
+
+    /**
+     * Creates a new metadata version info object
+     *
+     * @param vm
+     *            the metadata document this version belongs to
+     * @param revision
+     *            the revision number of this version
+     * @param user
+     *            the user that created this version
+     * @param date
+     *            the date this version was created
+     * @param type
+     *            the type of commit
+     */
+    MCRMetadataVersion(MCRVersionedMetadata vm, long revision, String user, Date date, char type) {
         this.vm = vm;
-        revision = logEntry.getRevision();
-        user = logEntry.getAuthor();
-        date = logEntry.getDate();
+        this.revision = revision;
+        this.user = user;
+        this.date = date;
         this.type = Type.fromValue(type);
     }
 
@@ -189,15 +203,7 @@ public class MCRMetadataVersion {
             String msg = "You can not retrieve a deleted version, retrieve a previous version instead";
             throw new MCRUsageException(msg);
         }
-        try {
-            SVNRepository repository = vm.getStore().getRepository();
-            MCRByteArrayOutputStream baos = new MCRByteArrayOutputStream();
-            repository.getFile(vm.getStore().getSlotPath(vm.getID()), revision, null, baos);
-            baos.close();
-            return new MCRByteContent(baos.getBuffer(), 0, baos.size(), getDate().getTime());
-        } catch (SVNException e) {
-            throw new IOException(e);
-        }
+        return vm.retrieveVersion(this);
     }
 
     /**
@@ -31,6 +31,7 @@ import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.JDOMException;
+import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.MCRUsageException;
 import org.mycore.common.content.MCRByteContent;
 import org.mycore.common.content.MCRContent;
@@ -83,13 +84,17 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
         super(store, fo, id, docType);
         super.deleted = deleted;
         revision = () -> {
+            SVNRepository repository = null;
             try {
+                repository = getStore().getRepository();
                 // 1. current revision, 2. deleted revision, empty()
-                return Optional.ofNullable(Optional.ofNullable(getStore().getRepository().info(getFilePath(), -1))
+                return Optional.ofNullable(Optional.ofNullable(repository.info(getFilePath(), -1))
                     .map(SVNDirEntry::getRevision).orElseGet(this::getLastRevision));
             } catch (SVNException e) {
                 LOGGER.error("Could not get last revision of {}_{}", getStore().getID(), id, e);
                 return Optional.empty();
+            } finally {
+                getStore().releaseRepository(repository);
             }
         };
     }
@@ -132,10 +137,21 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
     }
 
     void commit(String mode) throws IOException {
+        String commitMsg = mode + "d metadata object " + store.getID() + "_" + id + " in store";
+        MCRVersioningCommitQueue commitQueue = getStore().getCommitQueue();
+        if (commitQueue != null) {
+            SVNCommitInfo info = commitQueue.submit(id, false,
+                MCRSessionMgr.getCurrentSession().getUserInformation().getUserID(), commitMsg);
+            if (info != null) {
+                revision = () -> Optional.of(info.getNewRevision());
+            }
+            return;
+        }
         // Commit to SVN
         SVNCommitInfo info;
+        SVNRepository repository = null;
         try {
-            SVNRepository repository = getStore().getRepository();
+            repository = getStore().getRepository();
 
             // Check which paths already exist in SVN
             String[] paths = store.getSlotPaths(id);
@@ -149,7 +165,6 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
             existing += 1;
 
             // Start commit editor
-            String commitMsg = mode + "d metadata object " + store.getID() + "_" + id + " in store";
             ISVNEditor editor = repository.getCommitEditor(commitMsg, null);
             editor.openRoot(-1);
 
@@ -185,7 +200,14 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
 
             info = editor.closeEdit();
         } catch (SVNException e) {
+            if (repository != null) {
+                // do not reuse a connection with an unfinished commit
+                repository.closeSession();
+                repository = null;
+            }
             throw new IOException(e);
+        } finally {
+            getStore().releaseRepository(repository);
         }
         revision = () -> Optional.of(info.getNewRevision());
         LOGGER.info("SVN commit of {} finished, new revision {}", mode, getRevision());
@@ -224,7 +246,12 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
     public void update() throws Exception {
         SVNRepository repository = getStore().getRepository();
         MCRByteArrayOutputStream baos = new MCRByteArrayOutputStream();
-        long rev = repository.getFile(getFilePath(), -1, null, baos);
+        long rev;
+        try {
+            rev = repository.getFile(getFilePath(), -1, null, baos);
+        } finally {
+            getStore().releaseRepository(repository);
+        }
         revision = () -> Optional.of(rev);
         baos.close();
         new MCRByteContent(baos.getBuffer(), 0, baos.size(), this.getLastModified().getTime()).sendTo(path);
@@ -238,9 +265,10 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
      */
     @SuppressWarnings("unchecked")
     public List<MCRMetadataVersion> listVersions() throws IOException {
+        SVNRepository repository = null;
         try {
             List<MCRMetadataVersion> versions = new ArrayList<>();
-            SVNRepository repository = getStore().getRepository();
+            repository = getStore().getRepository();
             String path = getFilePath();
             String dir = getDirectory();
 
@@ -262,6 +290,30 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
             return versions;
         } catch (SVNException svnExc) {
             throw new IOException(svnExc);
+        } finally {
+            getStore().releaseRepository(repository);
+        }
+    }
+
+    /**
+     * Retrieves the content of the given version of this metadata object.
+     *
+     * @param version
+     *            a version of this metadata object, which is not a deleted version
+     * @return the metadata document as it was in this version
+     */
+    MCRContent retrieveVersion(MCRMetadataVersion version) throws IOException {
+        SVNRepository repository = null;
+        try {
+            repository = getStore().getRepository();
+            MCRByteArrayOutputStream baos = new MCRByteArrayOutputStream();
+            repository.getFile(store.getSlotPath(id), version.getRevision(), null, baos);
+            baos.close();
+            return new MCRByteContent(baos.getBuffer(), 0, baos.size(), version.getDate().getTime());
+        } catch (SVNException e) {
+            throw new IOException(e);
+        } finally {
+            getStore().releaseRepository(repository);
         }
     }
 
@@ -275,6 +327,7 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
     }
 
     public MCRMetadataVersion getRevision(long revision) throws IOException {
+        SVNRepository repository = null;
         try {
             if (revision < 0) {
                 revision = getLastPresentRevision();
@@ -283,7 +336,7 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
                     return null;
                 }
             }
-            SVNRepository repository = getStore().getRepository();
+            repository = getStore().getRepository();
             String path = getFilePath();
             String dir = getDirectory();
             @SuppressWarnings("unchecked")
@@ -300,6 +353,8 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
             return null;
         } catch (SVNException svnExc) {
             throw new IOException(svnExc);
+        } finally {
+            getStore().releaseRepository(repository);
         }
     }
 
@@ -309,20 +364,24 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
 
     private long getLastRevision(boolean deleted) throws SVNException {
         SVNRepository repository = getStore().getRepository();
-        if (repository.getLatestRevision() == 0) {
-            //new repository cannot hold a revision yet (MCR-1196)
-            return -1;
-        }
-        final String path = getFilePath();
-        String dir = getDirectory();
-        LastRevisionLogHandler lastRevisionLogHandler = new LastRevisionLogHandler(path, deleted);
-        int limit = 0; //we stop through LastRevisionFoundException
         try {
-            repository.log(new String[] { dir }, repository.getLatestRevision(), 0, true, true, limit, false, null,
-                lastRevisionLogHandler);
-        } catch (LastRevisionFoundException ignored) {
+            if (repository.getLatestRevision() == 0) {
+                //new repository cannot hold a revision yet (MCR-1196)
+                return -1;
+            }
+            final String path = getFilePath();
+            String dir = getDirectory();
+            LastRevisionLogHandler lastRevisionLogHandler = new LastRevisionLogHandler(path, deleted);
+            int limit = 0; //we stop through LastRevisionFoundException
+            try {
+                repository.log(new String[] { dir }, repository.getLatestRevision(), 0, true, true, limit, false,
+                    null, lastRevisionLogHandler);
+            } catch (LastRevisionFoundException ignored) {
+            }
+            return lastRevisionLogHandler.getLastRevision();
+        } finally {
+            getStore().releaseRepository(repository);
         }
-        return lastRevisionLogHandler.getLastRevision();
     }
 
     private Long getLastRevision() {
@@ -353,11 +412,14 @@ public class MCRVersionedMetadata extends MCRStoredMetadata {
      */
     public boolean isUpToDate() throws IOException {
         SVNDirEntry entry;
+        SVNRepository repository = null;
         try {
-            SVNRepository repository = getStore().getRepository();
+            repository = getStore().getRepository();
             entry = repository.info(getFilePath(), -1);
         } catch (SVNException e) {
             throw new IOException(e);
+        } finally {
+            getStore().releaseRepository(repository);
         }
         return entry.getRevision() <= getRevision();
     }
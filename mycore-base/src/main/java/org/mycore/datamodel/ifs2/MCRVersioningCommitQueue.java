@@ -0,0 +1,490 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.events.MCRShutdownHandler;
+import org.mycore.common.events.MCRShutdownHandler.Closeable;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import org.tmatesoft.svn.core.SVNProperties;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collects changes of a {@link MCRVersioningMetadataStore} and commits them as a single SVN revision.
+ *
+ * In {@link MCRVersioningMetadataStore.CommitMode#GROUP} mode the caller waits until its change is part of a
+ * committed revision. While one commit is running, further changes are collected and committed together by the
+ * next caller (group commit). In {@link MCRVersioningMetadataStore.CommitMode#ASYNC} mode the caller returns as
+ * soon as the change is written to a journal file; a background thread commits the collected changes after
+ * <code>SVNCommitDelay</code> milliseconds or when <code>SVNCommitBatchSize</code> changes are pending. Entries
+ * left in the journal after a crash are committed when the store is initialized again.
+ *
+ * The log message of every single object change is kept in the revision property <code>mcr:log:{id}</code>, the
+ * user who initiated the change in <code>mcr:user:{id}</code>.
+ */
+final class MCRVersioningCommitQueue implements Closeable {
+
+    static final String LOG_PROPERTY_PREFIX = "mcr:log:";
+
+    static final String USER_PROPERTY_PREFIX = "mcr:user:";
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final char JOURNAL_SEPARATOR = '\t';
+
+    private final MCRVersioningMetadataStore store;
+
+    private final MCRVersioningMetadataStore.CommitMode mode;
+
+    private final int batchSize;
+
+    private final Path journal;
+
+    /** Held while a batch is committed, package-private so tests can hold back commits */
+    final Object commitLock = new Object();
+
+    private final ScheduledExecutorService committer;
+
+    private Map<Integer, PendingChange> pending = new TreeMap<>();
+
+    private CompletableFuture<SVNCommitInfo> currentBatch = new CompletableFuture<>();
+
+    private FileChannel journalChannel;
+
+    MCRVersioningCommitQueue(MCRVersioningMetadataStore store, MCRVersioningMetadataStore.CommitMode mode,
+        int batchSize, long delay, Path journal) {
+        this.store = Objects.requireNonNull(store);
+        this.mode = Objects.requireNonNull(mode);
+        this.batchSize = Math.max(1, batchSize);
+        this.journal = journal;
+        if (mode == MCRVersioningMetadataStore.CommitMode.ASYNC) {
+            committer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("MCRVersioningCommitQueue-" + store.getID())
+                .setDaemon(true)
+                .build());
+            committer.scheduleWithFixedDelay(this::flushQuietly, delay, delay, TimeUnit.MILLISECONDS);
+        } else {
+            committer = null;
+        }
+        if (mode != MCRVersioningMetadataStore.CommitMode.SYNC) {
+            // a SYNC queue is only used once to recover the journal
+            MCRShutdownHandler.getInstance().addCloseable(this);
+        }
+    }
+
+    /**
+     * Commits changes that are left in the journal by a previous run that was not shut down cleanly.
+     */
+    void recover() throws IOException {
+        if (journal == null || !Files.exists(journal)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        synchronized (this) {
+            for (String line : lines) {
+                PendingChange change = PendingChange.fromJournal(line);
+                if (change != null) {
+                    merge(change);
+                }
+            }
+        }
+        LOGGER.info("Recovering {} pending SVN commits of store {} from {}", lines.size(), store.getID(), journal);
+        flush();
+    }
+
+    /**
+     * Submits a change of the metadata object with the given id.
+     *
+     * @return the commit info of the revision that contains the change, or <code>null</code> in asynchronous mode
+     */
+    SVNCommitInfo submit(int id, boolean delete, String user, String message) throws IOException {
+        PendingChange change = new PendingChange(id, delete, user, message);
+        CompletableFuture<SVNCommitInfo> batch;
+        int pendingCount;
+        synchronized (this) {
+            if (mode == MCRVersioningMetadataStore.CommitMode.ASYNC) {
+                appendToJournal(change);
+            }
+            merge(change);
+            batch = currentBatch;
+            pendingCount = pending.size();
+        }
+        if (mode == MCRVersioningMetadataStore.CommitMode.ASYNC) {
+            if (pendingCount >= batchSize) {
+                committer.execute(this::flushQuietly);
+            }
+            return null;
+        }
+        synchronized (commitLock) {
+            if (!batch.isDone()) {
+                flush();
+            }
+        }
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for SVN commit of " + store.getID() + "_" + id, e);
+        } catch (ExecutionException e) {
+            throw new IOException("SVN commit failed for " + store.getID() + "_" + id, e.getCause());
+        }
+    }
+
+    /**
+     * Commits all pending changes in a single SVN revision.
+     */
+    void flush() throws IOException {
+        synchronized (commitLock) {
+            Map<Integer, PendingChange> changes;
+            CompletableFuture<SVNCommitInfo> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                changes = pending;
+                batch = currentBatch;
+                pending = new TreeMap<>();
+                currentBatch = new CompletableFuture<>();
+            }
+            try {
+                SVNCommitInfo info = commit(changes.values());
+                synchronized (this) {
+                    rewriteJournal();
+                }
+                batch.complete(info);
+            } catch (IOException | RuntimeException e) {
+                if (mode == MCRVersioningMetadataStore.CommitMode.ASYNC) {
+                    // keep journaled changes for the next try
+                    synchronized (this) {
+                        Map<Integer, PendingChange> newer = pending;
+                        pending = changes;
+                        newer.values().forEach(this::merge);
+                    }
+                }
+                batch.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of metadata objects with changes that are not committed yet.
+     */
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOGGER.error("Error while committing pending changes of store {} to SVN, will retry.", store.getID(), e);
+        }
+    }
+
+    private void merge(PendingChange change) {
+        pending.merge(change.id, change, PendingChange::mergeWith);
+    }
+
+    private SVNCommitInfo commit(Iterable<PendingChange> changes) throws IOException {
+        long start = System.currentTimeMillis();
+        SVNRepository repository = null;
+        ISVNEditor editor = null;
+        boolean committed = false;
+        try {
+            PendingChange first = changes.iterator().next();
+            repository = store.getRepository(first.user);
+            Map<String, Boolean> existingPaths = new HashMap<>();
+            List<PendingChange> effective = new ArrayList<>();
+            for (PendingChange change : changes) {
+                String filePath = store.getSlotPath(change.id);
+                boolean existsInSVN = exists(repository, existingPaths, filePath);
+                boolean existsLocally = Files.exists(store.getSlot(change.id));
+                if (change.delete ? existsInSVN : existsLocally) {
+                    effective.add(change);
+                } else {
+                    LOGGER.debug("Skipping obsolete change of {}_{}", store.getID(), change.id);
+                }
+            }
+            if (effective.isEmpty()) {
+                committed = true;
+                return null;
+            }
+
+            SVNProperties revisionProperties = new SVNProperties();
+            for (PendingChange change : effective) {
+                revisionProperties.put(LOG_PROPERTY_PREFIX + change.id, String.join("\n", change.messages));
+                revisionProperties.put(USER_PROPERTY_PREFIX + change.id, change.user);
+            }
+            String commitMsg = effective.size() == 1 ? String.join("\n", effective.get(0).messages)
+                : "Committed " + effective.size() + " metadata objects in store " + store.getID() + ":\n"
+                    + effective.stream().flatMap(c -> c.messages.stream()).collect(Collectors.joining("\n"));
+            editor = repository.getCommitEditor(commitMsg, null, false, revisionProperties, null);
+            editor.openRoot(-1);
+
+            List<String> openDirs = new ArrayList<>();
+            for (PendingChange change : effective) {
+                String[] paths = store.getSlotPaths(change.id);
+                int common = 0;
+                while (common < openDirs.size() && common < paths.length - 1
+                    && openDirs.get(common).equals(paths[common])) {
+                    common++;
+                }
+                while (openDirs.size() > common) {
+                    editor.closeDir();
+                    openDirs.remove(openDirs.size() - 1);
+                }
+                for (int i = common; i < paths.length - 1; i++) {
+                    if (exists(repository, existingPaths, paths[i])) {
+                        editor.openDir(paths[i], -1);
+                    } else {
+                        LOGGER.debug("SVN create directory {}", paths[i]);
+                        editor.addDir(paths[i], null, -1);
+                        existingPaths.put(paths[i], true);
+                    }
+                    openDirs.add(paths[i]);
+                }
+                String filePath = paths[paths.length - 1];
+                if (change.delete) {
+                    editor.deleteEntry(filePath, -1);
+                } else {
+                    sendFile(editor, filePath, exists(repository, existingPaths, filePath),
+                        store.getSlot(change.id));
+                }
+            }
+            for (int i = 0; i < openDirs.size(); i++) {
+                editor.closeDir();
+            }
+            editor.closeDir(); // root
+            SVNCommitInfo info = editor.closeEdit();
+            editor = null;
+            committed = true;
+            LOGGER.info("SVN commit of {} changes in store {} finished in {} ms, new revision {}",
+                effective.size(), store.getID(), System.currentTimeMillis() - start, info.getNewRevision());
+            if (MCRVersioningMetadataStore.shouldSyncLastModifiedOnSVNCommit()) {
+                syncLastModified(effective, info);
+            }
+            return info;
+        } catch (SVNException e) {
+            throw new IOException(e);
+        } finally {
+            if (editor != null) {
+                try {
+                    editor.abortEdit();
+                } catch (SVNException | RuntimeException abortException) {
+                    LOGGER.warn("Could not abort SVN commit in store {}.", store.getID(), abortException);
+                }
+            }
+            if (committed) {
+                store.releaseRepository(repository);
+            } else if (repository != null) {
+                // do not give a connection in an unknown state back to the pool
+                repository.closeSession();
+            }
+        }
+    }
+
+    private void sendFile(ISVNEditor editor, String filePath, boolean existsInSVN, Path source)
+        throws SVNException, IOException {
+        if (existsInSVN) {
+            editor.openFile(filePath, -1);
+        } else {
+            editor.addFile(filePath, null, -1);
+        }
+        editor.applyTextDelta(filePath, null);
+        SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+        String checksum;
+        try (InputStream in = Files.newInputStream(source)) {
+            checksum = deltaGenerator.sendDelta(filePath, in, editor, true);
+        }
+        if (store.shouldForceXML()) {
+            editor.changeFileProperty(filePath, SVNProperty.MIME_TYPE, SVNPropertyValue.create("text/xml"));
+        }
+        editor.closeFile(filePath, checksum);
+    }
+
+    private static boolean exists(SVNRepository repository, Map<String, Boolean> existingPaths, String path)
+        throws SVNException {
+        Boolean exists = existingPaths.get(path);
+        if (exists == null) {
+            exists = repository.checkPath(path, -1) != SVNNodeKind.NONE;
+            existingPaths.put(path, exists);
+        }
+        return exists;
+    }
+
+    private void syncLastModified(List<PendingChange> changes, SVNCommitInfo info) {
+        FileTime commitTime = FileTime.from(info.getDate().toInstant());
+        for (PendingChange change : changes) {
+            if (change.delete) {
+                continue;
+            }
+            try {
+                Files.setLastModifiedTime(store.getSlot(change.id), commitTime);
+            } catch (IOException e) {
+                LOGGER.warn("Could not set last modified of {}_{} to SVN commit time.", store.getID(), change.id,
+                    e);
+            }
+        }
+    }
+
+    private void appendToJournal(PendingChange change) throws IOException {
+        if (journal == null) {
+            return;
+        }
+        if (journalChannel == null) {
+            journalChannel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        }
+        journalChannel.write(ByteBuffer.wrap(change.toJournal().getBytes(StandardCharsets.UTF_8)));
+        journalChannel.force(false);
+    }
+
+    private void rewriteJournal() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        if (journalChannel != null) {
+            journalChannel.close();
+            journalChannel = null;
+        }
+        if (pending.isEmpty()) {
+            Files.deleteIfExists(journal);
+            return;
+        }
+        Path tempJournal = journal.resolveSibling(journal.getFileName() + ".tmp");
+        StringBuilder sb = new StringBuilder();
+        pending.values().forEach(change -> sb.append(change.toJournal()));
+        Files.write(tempJournal, sb.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(tempJournal, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void prepareClose() {
+        if (committer != null) {
+            committer.shutdown();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (committer != null) {
+            try {
+                committer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+        synchronized (this) {
+            if (journalChannel != null) {
+                try {
+                    journalChannel.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not close SVN commit journal {}", journal, e);
+                }
+                journalChannel = null;
+            }
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return DEFAULT_PRIORITY + 1;
+    }
+
+    private static final class PendingChange {
+
+        private final int id;
+
+        private final boolean delete;
+
+        private final String user;
+
+        private final List<String> messages;
+
+        private PendingChange(int id, boolean delete, String user, String message) {
+            this(id, delete, user, new ArrayList<>(List.of(message)));
+        }
+
+        private PendingChange(int id, boolean delete, String user, List<String> messages) {
+            this.id = id;
+            this.delete = delete;
+            this.user = user;
+            this.messages = messages;
+        }
+
+        private PendingChange mergeWith(PendingChange newer) {
+            List<String> mergedMessages = new ArrayList<>(messages);
+            mergedMessages.addAll(newer.messages);
+            return new PendingChange(id, newer.delete, newer.user, mergedMessages);
+        }
+
+        private String toJournal() {
+            return messages.stream()
+                .map(message -> String.valueOf(id) + JOURNAL_SEPARATOR + (delete ? MCRMetadataVersion.DELETED
+                    : MCRMetadataVersion.UPDATED) + JOURNAL_SEPARATOR + user + JOURNAL_SEPARATOR
+                    + message.replace('\n', ' ').replace(JOURNAL_SEPARATOR, ' ') + '\n')
+                .collect(Collectors.joining());
+        }
+
+        private static PendingChange fromJournal(String line) {
+            String[] parts = line.split(String.valueOf(JOURNAL_SEPARATOR), 4);
+            if (parts.length != 4) {
+                LOGGER.warn("Ignoring invalid SVN commit journal entry: {}", line);
+                return null;
+            }
+            return new PendingChange(Integer.parseInt(parts[0]),
+                parts[1].charAt(0) == MCRMetadataVersion.DELETED, parts[2], parts[3]);
+        }
+    }
+}
@@ -22,8 +22,15 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -57,6 +64,18 @@ import org.tmatesoft.svn.core.wc.admin.SVNAdminEvent;
  *
  * MCR.IFS2.Store.DocPortal_document.SVNRepositoryURL=file:///foo/svnroot/
  *
+ * By default every change results in its own SVN commit. To reduce commit overhead during imports, changes can
+ * be committed in groups or asynchronously (see {@link CommitMode}):
+ *
+ * MCR.IFS2.Store.DocPortal_document.SVNCommitMode=sync|group|async
+ * MCR.IFS2.Store.DocPortal_document.SVNCommitBatchSize=100
+ * MCR.IFS2.Store.DocPortal_document.SVNCommitDelay=1000
+ * MCR.IFS2.Store.DocPortal_document.SVNCommitJournal=/foo/bar.svn-journal
+ *
+ * If not set for a store, the properties MCR.IFS2.SVNCommitMode, MCR.IFS2.SVNCommitBatchSize and
+ * MCR.IFS2.SVNCommitDelay are used. Up to MCR.IFS2.SVNRepositoryPoolSize SVN repository connections are kept
+ * for reuse.
+ *
  * @author Frank Lützenkirchen
  */
 public class MCRVersioningMetadataStore extends MCRMetadataStore {
@@ -65,6 +84,14 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
 
     protected SVNURL repURL;
 
+    private final Queue<SVNRepository> repositoryPool = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pooledRepositories = new AtomicInteger();
+
+    private int maxPooledRepositories;
+
+    private MCRVersioningCommitQueue commitQueue;
+
     protected static final boolean SYNC_LAST_MODIFIED_ON_SVN_COMMIT = MCRConfiguration2
         .getBoolean("MCR.IFS2.SyncLastModifiedOnSVNCommit").orElse(true);
 
@@ -75,13 +102,23 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
     @Override
     protected void init(String type) {
         super.init(type);
-        setupSVN(type);
+        setupVersioning(type);
     }
 
     @Override
     protected void init(MCRStoreConfig config) {
         super.init(config);
-        setupSVN(config.getID());
+        setupVersioning(config.getID());
+    }
+
+    /**
+     * Initializes the repository that keeps the versions of the metadata objects.
+     *
+     * @param type
+     *            the ID of this store
+     */
+    protected void setupVersioning(String type) {
+        setupSVN(type);
     }
 
     private void setupSVN(String type) {
@@ -108,6 +145,37 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
             String msg = "Error initializing SVN repository at URL " + repositoryURI;
             throw new MCRConfigurationException(msg, ex);
         }
+        maxPooledRepositories = getSVNProperty(type, "SVNRepositoryPoolSize").map(Integer::parseInt).orElse(8);
+        setupCommitQueue(type);
+    }
+
+    private void setupCommitQueue(String type) {
+        CommitMode commitMode = getSVNProperty(type, "SVNCommitMode")
+            .map(mode -> CommitMode.valueOf(mode.toUpperCase(Locale.ROOT)))
+            .orElse(CommitMode.SYNC);
+        int batchSize = getSVNProperty(type, "SVNCommitBatchSize").map(Integer::parseInt).orElse(100);
+        long delay = getSVNProperty(type, "SVNCommitDelay").map(Long::parseLong).orElse(1000L);
+        Path journal = MCRConfiguration2.getString("MCR.IFS2.Store." + type + ".SVNCommitJournal")
+            .map(Paths::get)
+            .orElseGet(() -> baseDirectory.resolveSibling(baseDirectory.getFileName() + ".svn-journal"));
+        try {
+            if (commitMode == CommitMode.SYNC) {
+                if (Files.exists(journal)) {
+                    new MCRVersioningCommitQueue(this, CommitMode.SYNC, batchSize, delay, journal).recover();
+                }
+                return;
+            }
+            LOGGER.info("Versioning metadata store {} uses {} SVN commits.", type, commitMode);
+            commitQueue = new MCRVersioningCommitQueue(this, commitMode, batchSize, delay, journal);
+            commitQueue.recover();
+        } catch (IOException e) {
+            throw new MCRPersistenceException("Could not commit pending changes from journal " + journal, e);
+        }
+    }
+
+    private static Optional<String> getSVNProperty(String type, String name) {
+        return MCRConfiguration2.getString("MCR.IFS2.Store." + type + "." + name)
+            .or(() -> MCRConfiguration2.getString("MCR.IFS2." + name));
     }
 
     /**
@@ -125,14 +193,23 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
 
     /**
      * Returns the SVN repository used to manage metadata versions in this
-     * store.
+     * store. The repository connection is taken from a pool, if available,
+     * and should be given back via {@link #releaseRepository(SVNRepository)}.
      *
      * @return the SVN repository used to manage metadata versions in this
      *         store.
      */
     SVNRepository getRepository() throws SVNException {
-        SVNRepository repository = SVNRepositoryFactory.create(repURL);
-        String user = MCRSessionMgr.getCurrentSession().getUserInformation().getUserID();
+        return getRepository(MCRSessionMgr.getCurrentSession().getUserInformation().getUserID());
+    }
+
+    SVNRepository getRepository(String user) throws SVNException {
+        SVNRepository repository = repositoryPool.poll();
+        if (repository == null) {
+            repository = SVNRepositoryFactory.create(repURL);
+        } else {
+            pooledRepositories.decrementAndGet();
+        }
         SVNAuthentication[] auth = {
             SVNUserNameAuthentication.newInstance(user, false, repURL, false) };
         BasicAuthenticationManager authManager = new BasicAuthenticationManager(auth);
@@ -140,6 +217,38 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
         return repository;
     }
 
+    /**
+     * Gives back a repository connection obtained by {@link #getRepository()} for later reuse.
+     */
+    void releaseRepository(SVNRepository repository) {
+        if (repository == null) {
+            return;
+        }
+        if (pooledRepositories.incrementAndGet() <= maxPooledRepositories) {
+            repositoryPool.offer(repository);
+        } else {
+            pooledRepositories.decrementAndGet();
+            repository.closeSession();
+        }
+    }
+
+    /**
+     * Returns the queue collecting changes to commit, or <code>null</code> if every change is committed
+     * synchronously.
+     */
+    MCRVersioningCommitQueue getCommitQueue() {
+        return commitQueue;
+    }
+
+    /**
+     * Commits all changes that are waiting for a group or asynchronous SVN commit.
+     */
+    public void flushPendingCommits() throws IOException {
+        if (commitQueue != null) {
+            commitQueue.flush();
+        }
+    }
+
     /**
      * Returns the URL of the SVN repository used to manage metadata versions in
      * this store.
@@ -161,8 +270,9 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
             LOGGER.warn("Cannot verify non local SVN repository '{}'.", replURLStr);
             return;
         }
+        SVNRepository repository = null;
         try {
-            SVNRepository repository = getRepository();
+            repository = getRepository();
             long latestRevision = repository.getLatestRevision();
             if (latestRevision == 0) {
                 LOGGER.warn("Cannot verify SVN repository '{}' with no revisions.", replURLStr);
@@ -199,6 +309,8 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
         } catch (Exception e) {
             throw new MCRPersistenceException("SVN repository contains errors and could not be verified: " + replURLStr,
                 e);
+        } finally {
+            releaseRepository(repository);
         }
     }
 
@@ -228,7 +340,7 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
         if (metadata != null) {
             return metadata;
         }
-        return new MCRVersionedMetadata(this, getSlot(id), id, super.forceDocType, true);
+        return buildDeletedMetadataObject(getSlot(id), id);
     }
 
     /**
@@ -242,22 +354,59 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
 
     @Override
     public void delete(int id) throws IOException {
+        if (commitQueue != null) {
+            super.delete(id);
+            commitQueue.submit(id, true, MCRSessionMgr.getCurrentSession().getUserInformation().getUserID(),
+                "Deleted metadata object " + getID() + "_" + id + " in store");
+            return;
+        }
+        try {
+            deleteInRepository(id);
+        } finally {
+            super.delete(id);
+        }
+    }
+
+    /**
+     * Records the deletion of the metadata object with the given ID in the
+     * version repository. Errors are logged only, as the object is deleted in
+     * the local store anyway.
+     *
+     * @param id
+     *            the ID of the deleted metadata object
+     */
+    protected void deleteInRepository(int id) {
         String commitMsg = "Deleted metadata object " + getID() + "_" + id + " in store";
         // Commit to SVN
         SVNCommitInfo info;
+        SVNRepository repository = null;
+        ISVNEditor editor = null;
+        boolean committed = false;
         try {
-            SVNRepository repository = getRepository();
-            ISVNEditor editor = repository.getCommitEditor(commitMsg, null);
+            repository = getRepository();
+            editor = repository.getCommitEditor(commitMsg, null);
             editor.openRoot(-1);
             editor.deleteEntry("/" + getSlotPath(id), -1);
             editor.closeDir();
 
             info = editor.closeEdit();
+            committed = true;
             LOGGER.info("SVN commit of delete finished, new revision {}", info.getNewRevision());
         } catch (SVNException e) {
             LOGGER.error("Error while deleting {} in SVN ", id, e);
         } finally {
-            super.delete(id);
+            if (committed) {
+                releaseRepository(repository);
+            } else if (repository != null) {
+                if (editor != null) {
+                    try {
+                        editor.abortEdit();
+                    } catch (SVNException | RuntimeException e) {
+                        LOGGER.warn("Could not abort SVN commit of delete {}", id, e);
+                    }
+                }
+                repository.closeSession();
+            }
         }
     }
 
@@ -266,4 +415,37 @@ public class MCRVersioningMetadataStore extends MCRMetadataStore {
         return new MCRVersionedMetadata(this, fo, id, super.forceDocType, false);
     }
 
+    /**
+     * Builds a metadata object for a deleted version, which can be restored.
+     *
+     * @param fo
+     *            the file that stored the data
+     * @param id
+     *            the ID of the metadata object
+     */
+    protected MCRVersionedMetadata buildDeletedMetadataObject(Path fo, int id) {
+        return new MCRVersionedMetadata(this, fo, id, super.forceDocType, true);
+    }
+
+    /**
+     * Defines when changes of metadata objects are committed to the SVN repository.
+     */
+    public enum CommitMode {
+        /**
+         * Every change is committed in its own SVN revision before the store operation returns.
+         */
+        SYNC,
+
+        /**
+         * Changes of concurrent store operations are committed together in one SVN revision. The store operation
+         * returns after its change is committed.
+         */
+        GROUP,
+
+        /**
+         * Changes are written to a journal and committed in background, many changes in one SVN revision.
+         */
+        ASYNC
+    }
+
 }
@@ -45,8 +45,10 @@ import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.common.MCRSession;
 import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.MCRSystemUserInformation;
+import org.mycore.common.MCRUsageException;
 import org.mycore.datamodel.common.MCRCreatorCache;
 import org.mycore.datamodel.common.MCRXMLMetadataManager;
+import org.mycore.datamodel.ifs2.MCRBlobVersioningMetadataStore;
 import org.mycore.datamodel.ifs2.MCRMetadataStore;
 import org.mycore.datamodel.ifs2.MCRMetadataVersion;
 import org.mycore.datamodel.ifs2.MCRVersionedMetadata;
@@ -155,6 +157,19 @@ public class MCRMetadataHistoryCommands {
         getHistoryItems(objId).sequential().forEach(em::persist);
     }
 
+    @MCRCommand(syntax = "import svn versions of base {0}",
+        help = "imports all versions of objects/derivates with base id {0} from the SVN repository configured"
+            + " in MCR.IFS2.Store.{0}.SVNRepositoryURL into the configured MCRBlobVersioningMetadataStore")
+    public static void importSVNVersions(String baseId) throws IOException {
+        MCRMetadataStore store = MCRXMLMetadataManager.instance().getStore(baseId, true);
+        if (!(store instanceof MCRBlobVersioningMetadataStore)) {
+            throw new MCRUsageException("Store of " + baseId + " is not a MCRBlobVersioningMetadataStore: "
+                + store.getClass().getName());
+        }
+        int count = ((MCRBlobVersioningMetadataStore) store).importSVNHistory();
+        LogManager.getLogger().info("Imported {} versions of {}.", count, baseId);
+    }
+
     private static Stream<MCRMetaHistoryItem> getHistoryItems(MCRObjectID objId) {
         return objId.getTypeId().equals("derivate") ? buildDerivateHistory(objId)
             : buildObjectHistory(objId);
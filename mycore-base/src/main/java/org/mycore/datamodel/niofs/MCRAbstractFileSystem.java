@@ -30,6 +30,7 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.nio.file.spi.FileSystemProvider;
@@ -171,6 +172,25 @@ public abstract class MCRAbstractFileSystem extends FileSystem {
      */
     public abstract void removeRoot(String owner) throws FileSystemException;
 
+    /**
+     * Moves a file from the default file system into this file system, replacing an existing target.
+     *
+     * Implementations should rename the file if possible and register it with the given MD5 sum, so that
+     * the content is neither written nor read again. This default implementation copies the file and deletes
+     * the source afterwards.
+     *
+     * @param source a regular file of the default file system, does not exist after this method returns
+     * @param target the target file, its parent directory has to exist
+     * @param md5 the already known MD5 sum of <code>source</code> or <code>null</code>
+     * @return true, if the file was moved without copying its content
+     * @throws IOException if moving or copying the file fails
+     */
+    public boolean moveFrom(Path source, MCRPath target, String md5) throws IOException {
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(source);
+        return false;
+    }
+
     @Override
     public void close() throws IOException {
         throw new UnsupportedOperationException();
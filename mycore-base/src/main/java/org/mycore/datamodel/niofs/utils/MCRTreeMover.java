@@ -0,0 +1,149 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.niofs.utils;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.datamodel.niofs.MCRAbstractFileSystem;
+import org.mycore.datamodel.niofs.MCRPath;
+
+/**
+ * {@link java.nio.file.FileVisitor} that recursively moves a local directory into a {@link MCRPath}.
+ *
+ * Files are handed over to {@link MCRAbstractFileSystem#moveFrom(Path, MCRPath, String)}, so they are renamed
+ * instead of copied if source and target share a file system. Unlike {@link MCRTreeCopier} every failure is
+ * propagated to the caller.
+ */
+public class MCRTreeMover extends SimpleFileVisitor<Path> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Path source;
+
+    private final MCRPath target;
+
+    private final Function<Path, String> md5Lookup;
+
+    private final boolean restartTransaction;
+
+    private int files;
+
+    private int movedFiles;
+
+    private long bytes;
+
+    /**
+     * @param source local directory to move
+     * @param target existing target directory
+     * @param md5Lookup returns the known MD5 sum of a source file or <code>null</code>
+     * @param restartTransaction if the current transaction should be committed before every file
+     */
+    public MCRTreeMover(Path source, MCRPath target, Function<Path, String> md5Lookup, boolean restartTransaction)
+        throws NoSuchFileException {
+        if (Files.notExists(target)) {
+            throw new NoSuchFileException(target.toString(), null, "Target directory does not exist.");
+        }
+        this.source = source;
+        this.target = target;
+        this.md5Lookup = md5Lookup;
+        this.restartTransaction = restartTransaction;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        if (dir.equals(source)) {
+            return FileVisitResult.CONTINUE;
+        }
+        try {
+            Files.createDirectory(toTarget(dir));
+        } catch (FileAlreadyExistsException e) {
+            // directory already exists
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        if (restartTransaction && MCRSessionMgr.hasCurrentSession()) {
+            MCRSession currentSession = MCRSessionMgr.getCurrentSession();
+            currentSession.commitTransaction();
+            currentSession.beginTransaction();
+        }
+        if (target.getFileSystem().moveFrom(file, toTarget(file), md5Lookup.apply(file))) {
+            movedFiles++;
+        }
+        files++;
+        bytes += attrs.size();
+        return FileVisitResult.CONTINUE;
+    }
+
+    private MCRPath toTarget(Path file) {
+        MCRPath result = target;
+        for (Path name : source.relativize(file)) {
+            result = (MCRPath) result.resolve(name.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of files processed so far.
+     */
+    public int getFiles() {
+        return files;
+    }
+
+    /**
+     * Returns the number of files that were renamed without copying their content.
+     */
+    public int getMovedFiles() {
+        return movedFiles;
+    }
+
+    /**
+     * Returns the total size of all files processed so far.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Logs the throughput of this mover.
+     *
+     * @param millis the time spent walking the source directory
+     */
+    public void logThroughput(long millis) {
+        double mbPerSecond = bytes / 1024d / 1024d / Math.max(millis, 1) * 1000;
+        LOGGER.info(() -> String.format(Locale.ROOT,
+            "Moved %d files (%d bytes) to %s in %d ms (%.2f MB/s): %d renamed, %d copied", files, bytes, target,
+            millis, mbPerSecond, movedFiles, files - movedFiles));
+    }
+}
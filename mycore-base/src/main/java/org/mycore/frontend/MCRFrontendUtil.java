@@ -169,7 +169,11 @@ public class MCRFrontendUtil {
     public static void configureSession(MCRSession session, HttpServletRequest request, HttpServletResponse response) {
         session.setServletJob(new MCRServletJob(request, response));
         // language
-        getProperty(request, "lang").ifPresent(session::setCurrentLanguage);
+        getProperty(request, "lang").ifPresent(lang -> {
+            // a selected language has to be kept for the next request
+            session.makeStateful();
+            session.setCurrentLanguage(lang);
+        });
 
         // Set the IP of the current session
         if (session.getCurrentIP().length() == 0) {
@@ -178,7 +182,7 @@ public class MCRFrontendUtil {
 
         // set BASE_URL_ATTRIBUTE to MCRSession
         if (request.getAttribute(BASE_URL_ATTRIBUTE) != null) {
-            session.put(BASE_URL_ATTRIBUTE, request.getAttribute(BASE_URL_ATTRIBUTE));
+            session.putTransient(BASE_URL_ATTRIBUTE, request.getAttribute(BASE_URL_ATTRIBUTE));
         }
 
         // Store XSL.*.SESSION parameters to MCRSession
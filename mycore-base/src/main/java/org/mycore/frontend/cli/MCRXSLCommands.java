@@ -0,0 +1,85 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.cli;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCache;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.content.transformer.MCRXSLTransformer;
+import org.mycore.common.xsl.MCRXSLPrecompiler;
+import org.mycore.frontend.cli.annotation.MCRCommand;
+import org.mycore.frontend.cli.annotation.MCRCommandGroup;
+
+/**
+ * Commands to compile XSL stylesheets and to inspect the stylesheet cache.
+ */
+@MCRCommandGroup(name = "XSL Commands")
+public class MCRXSLCommands extends MCRAbstractCommands {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @MCRCommand(syntax = "compile stylesheets {0}",
+        help = "Compiles the stylesheets {0}, a comma separated list of resource names or glob patterns like "
+            + "xsl/*.xsl, and reports the compile time of each stylesheet.",
+        order = 10)
+    public static void compileStylesheets(String stylesheets) {
+        compile(MCRConfiguration2.splitValue(stylesheets).collect(Collectors.toList()));
+    }
+
+    @MCRCommand(syntax = "compile configured stylesheets",
+        help = "Compiles the stylesheets of MCR.LayoutService.Precompile.Stylesheets and reports the compile time of "
+            + "each stylesheet.",
+        order = 20)
+    public static void compileConfiguredStylesheets() {
+        compile(MCRXSLPrecompiler.getConfiguredStylesheets());
+    }
+
+    @MCRCommand(syntax = "show stylesheet cache statistics",
+        help = "Shows size, hit rate and evictions of the stylesheet cache.",
+        order = 30)
+    public static void showCacheStatistics() {
+        MCRCache<String, MCRXSLTransformer> cache = MCRXSLTransformer.getInstanceCache();
+        LOGGER.info("Stylesheet cache:\n{}", cache);
+    }
+
+    private static void compile(List<String> patterns) {
+        SortedSet<String> stylesheets = MCRXSLPrecompiler.findStylesheets(patterns);
+        LOGGER.info("Compiling {} stylesheets...", stylesheets.size());
+        long total = 0;
+        int failed = 0;
+        for (String stylesheet : stylesheets) {
+            // use a new instance, so cached templates do not hide the compile time
+            try {
+                long time = MCRXSLPrecompiler.compile(new MCRXSLTransformer(stylesheet));
+                total += time;
+                LOGGER.info("{} ms\t{}", time, stylesheet);
+            } catch (Exception e) {
+                failed++;
+                LOGGER.error("Could not compile {}", stylesheet, e);
+            }
+        }
+        LOGGER.info("Compiled {} stylesheets in {} ms, {} failed.", stylesheets.size() - failed, total, failed);
+    }
+}
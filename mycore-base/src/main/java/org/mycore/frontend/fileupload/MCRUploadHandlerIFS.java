@@ -222,15 +222,21 @@ public class MCRUploadHandlerIFS extends MCRUploadHandler {
             }
         };
 
-        try (InputStream fIn = preprocessInputStream(path, in, length, tempFileSupplier)) {
+        try (InputStream fIn = in) {
+            Path processedFile = preprocessInputStream(path, fIn, length, tempFileSupplier);
             if (rootDir == null) {
                 //MCR-1376: Create derivate only if at least one file was successfully uploaded
                 prepareUpload();
             }
             MCRPath file = getFile(path);
             LOGGER.info("Creating file {}.", file);
-            Files.copy(fIn, file, StandardCopyOption.REPLACE_EXISTING);
-            return tempFiles.isEmpty() ? length : Files.size(tempFiles.stream().reduce((a, b) -> b).get());
+            if (processedFile == null) {
+                Files.copy(fIn, file, StandardCopyOption.REPLACE_EXISTING);
+                return length;
+            }
+            long processedLength = Files.size(processedFile);
+            file.getFileSystem().moveFrom(processedFile, file, null);
+            return processedLength;
         } finally {
             tempFiles.stream().filter(Files::exists).forEach((tempFilePath) -> {
                 try {
@@ -245,12 +251,18 @@ public class MCRUploadHandlerIFS extends MCRUploadHandler {
         }
     }
 
-    private InputStream preprocessInputStream(String path, InputStream in, long length, Supplier<Path> tempFileSupplier)
+    /**
+     * Runs all matching {@link MCRPostUploadFileProcessor} on the given input.
+     *
+     * @return the processed temporary file or <code>null</code>, if no processor applies and <code>in</code> was not
+     * consumed
+     */
+    private Path preprocessInputStream(String path, InputStream in, long length, Supplier<Path> tempFileSupplier)
         throws IOException {
         List<MCRPostUploadFileProcessor> activeProcessors = FILE_PROCESSORS.stream().filter(p -> p.isProcessable(path))
             .collect(Collectors.toList());
         if (activeProcessors.isEmpty()) {
-            return in;
+            return null;
         }
         Path currentTempFile = tempFileSupplier.get();
         try (InputStream initialIS = in) {
@@ -264,7 +276,7 @@ public class MCRUploadHandlerIFS extends MCRUploadHandler {
         for (MCRPostUploadFileProcessor pufp : activeProcessors) {
             currentTempFile = pufp.processFile(path, currentTempFile, tempFileSupplier);
         }
-        return Files.newInputStream(currentTempFile);
+        return currentTempFile;
     }
 
     private MCRPath getFile(String path) throws IOException {
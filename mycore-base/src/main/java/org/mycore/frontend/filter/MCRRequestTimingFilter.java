@@ -0,0 +1,140 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.frontend.filter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRRequestTimings;
+
+/**
+ * Adds a <code>Server-Timing</code> header with the time spent per instrumented subsystem to every response, if
+ * {@link MCRMetrics} and <code>MCR.Metrics.ServerTiming.Enabled</code> are enabled. The breakdown is logged on
+ * debug level, too.
+ *
+ * The header is set when the response body is first written, so later work is only contained in the log message.
+ */
+public class MCRRequestTimingFilter implements Filter {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private boolean serverTimingEnabled;
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        serverTimingEnabled = MCRConfiguration2.getBoolean("MCR.Metrics.ServerTiming.Enabled").orElse(false);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+        if (!serverTimingEnabled || !MCRMetrics.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        MCRRequestTimings.begin();
+        TimingResponseWrapper responseWrapper = new TimingResponseWrapper((HttpServletResponse) response, start);
+        try {
+            chain.doFilter(request, responseWrapper);
+        } finally {
+            responseWrapper.addServerTiming();
+            String timings = MCRRequestTimings.toServerTiming(MCRRequestTimings.end(), System.nanoTime() - start);
+            LOGGER.debug("{} {}: {}", ((HttpServletRequest) request).getMethod(),
+                ((HttpServletRequest) request).getRequestURI(), timings);
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static class TimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final long start;
+
+        private boolean headerAdded;
+
+        TimingResponseWrapper(HttpServletResponse response, long start) {
+            super(response);
+            this.start = start;
+        }
+
+        void addServerTiming() {
+            if (!headerAdded && !isCommitted()) {
+                headerAdded = true;
+                setHeader(SERVER_TIMING,
+                    MCRRequestTimings.toServerTiming(MCRRequestTimings.get(), System.nanoTime() - start));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -141,7 +141,8 @@ public class MCRErrorServlet extends HttpServlet {
 
     private void setWebAppBaseURL(MCRSession session, HttpServletRequest request) {
         if (request.getAttribute(MCRFrontendUtil.BASE_URL_ATTRIBUTE) != null) {
-            session.put(MCRFrontendUtil.BASE_URL_ATTRIBUTE, request.getAttribute(MCRFrontendUtil.BASE_URL_ATTRIBUTE));
+            session.putTransient(MCRFrontendUtil.BASE_URL_ATTRIBUTE,
+                request.getAttribute(MCRFrontendUtil.BASE_URL_ATTRIBUTE));
         }
     }
 
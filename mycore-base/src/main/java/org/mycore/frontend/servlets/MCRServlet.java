@@ -77,6 +77,8 @@ import org.xml.sax.SAXParseException;
 public class MCRServlet extends HttpServlet {
     public static final String ATTR_MYCORE_SESSION = "mycore.session";
 
+    private static final String ATTR_STATELESS_SESSION = "mycore.session.stateless";
+
     private static final String CURRENT_THREAD_NAME_KEY = "currentThreadName";
 
     private static final String INITIAL_SERVLET_NAME_KEY = "currentServletName";
@@ -187,7 +189,17 @@ public class MCRServlet extends HttpServlet {
         doGetPost(job);
     }
 
+    /**
+     * Returns the MCRSession of the given request. If <code>MCR.Session.Stateless.Enabled</code> is true, a GET or
+     * HEAD request without HTTP session gets a stateless guest session, that is stored in a new HTTP session only
+     * once data is stored in it.
+     *
+     * @see MCRSession#isStateless()
+     */
     public static MCRSession getSession(HttpServletRequest req) {
+        if (isStatelessRequest(req)) {
+            return getStatelessSession(req);
+        }
         boolean reusedSession = req.isRequestedSessionIdValid();
         HttpSession theSession = req.getSession(true);
         if (reusedSession) {
@@ -234,26 +246,7 @@ public class MCRServlet extends HttpServlet {
         // store the HttpSession ID in MCRSession
         if (session.put("http.session", theSession.getId()) == null) {
             //first request
-            session.beginTransaction(); //for MCRTranslation.getAvailableLanguages()
-            try {
-                String acceptLanguage = req.getHeader("Accept-Language");
-                if (acceptLanguage != null) {
-                    List<Locale.LanguageRange> languageRanges = Locale.LanguageRange.parse(acceptLanguage);
-                    LOGGER.debug("accept languages: {}", languageRanges);
-                    MCRSession finalSession = session;
-                    Optional
-                        .ofNullable(Locale.lookupTag(languageRanges, MCRTranslation.getAvailableLanguages()))
-                        .ifPresent(selectedLanguage -> {
-                            LOGGER.debug("selected language: {}", selectedLanguage);
-                            finalSession.setCurrentLanguage(selectedLanguage);
-                        });
-                }
-            } finally {
-                if (session.transactionRequiresRollback()) {
-                    session.rollbackTransaction();
-                }
-                session.commitTransaction();
-            }
+            setLanguageFromRequest(req, session);
         }
         // Forward MCRSessionID to XSL Stylesheets
         req.setAttribute("XSL.MCRSessionID", session.getID());
@@ -261,6 +254,71 @@ public class MCRServlet extends HttpServlet {
         return session;
     }
 
+    /**
+     * Returns true, if the request may be served by a stateless guest session: stateless sessions are enabled by
+     * <code>MCR.Session.Stateless.Enabled</code>, the request is a GET or HEAD request and has no HTTP session.
+     */
+    private static boolean isStatelessRequest(HttpServletRequest req) {
+        return MCRConfiguration2.getBoolean("MCR.Session.Stateless.Enabled").orElse(false)
+            && ("GET".equals(req.getMethod()) || "HEAD".equals(req.getMethod()))
+            && req.getSession(false) == null;
+    }
+
+    private static MCRSession getStatelessSession(HttpServletRequest req) {
+        MCRSession session = Optional.ofNullable(req.getAttribute(ATTR_STATELESS_SESSION))
+            .map(MCRSession.class::cast)
+            .filter(s -> s.getID() != null)
+            .orElse(null);
+        if (session != null) {
+            return session;
+        }
+        MCRSessionMgr.unlock();
+        session = MCRSessionMgr.createStatelessSession(s -> bindToNewHttpSession(req, s));
+        req.setAttribute(ATTR_STATELESS_SESSION, session);
+        setLanguageFromRequest(req, session);
+        // Forward MCRSessionID to XSL Stylesheets
+        req.setAttribute("XSL.MCRSessionID", session.getID());
+        return session;
+    }
+
+    /**
+     * Stores a stateless session, that just became stateful, in a new HTTP session.
+     */
+    private static void bindToNewHttpSession(HttpServletRequest req, MCRSession session) {
+        try {
+            HttpSession theSession = req.getSession(true);
+            LOGGER.info("Created new HTTP session {} for stateful MCRSession {}", theSession.getId(), session.getID());
+            theSession.setAttribute(ATTR_MYCORE_SESSION, new MCRSessionResolver(session));
+            session.put("http.session", theSession.getId());
+        } catch (IllegalStateException e) {
+            LOGGER.warn("Could not create HTTP session for MCRSession {}, response is already committed.",
+                session.getID());
+        }
+    }
+
+    private static void setLanguageFromRequest(HttpServletRequest req, MCRSession session) {
+        String acceptLanguage = req.getHeader("Accept-Language");
+        if (acceptLanguage == null) {
+            return;
+        }
+        session.beginTransaction(); //for MCRTranslation.getAvailableLanguages()
+        try {
+            List<Locale.LanguageRange> languageRanges = Locale.LanguageRange.parse(acceptLanguage);
+            LOGGER.debug("accept languages: {}", languageRanges);
+            Optional
+                .ofNullable(Locale.lookupTag(languageRanges, MCRTranslation.getAvailableLanguages()))
+                .ifPresent(selectedLanguage -> {
+                    LOGGER.debug("selected language: {}", selectedLanguage);
+                    session.setCurrentLanguage(selectedLanguage);
+                });
+        } finally {
+            if (session.transactionRequiresRollback()) {
+                session.rollbackTransaction();
+            }
+            session.commitTransaction();
+        }
+    }
+
     private static void bindSessionToRequest(HttpServletRequest req, String servletName, MCRSession session) {
         if (!isSessionBoundToRequest(req)) {
             // Bind current session to this thread:
@@ -384,9 +442,22 @@ public class MCRServlet extends HttpServlet {
         if (getProperty(req, INITIAL_SERVLET_NAME_KEY).equals(servletName)) {
             // current Servlet not called via RequestDispatcher
             MCRSessionMgr.releaseCurrentSession();
+            closeUnboundSession(req);
         }
     }
 
+    /**
+     * Closes a stateless session that became stateful but could not be stored in an HTTP session.
+     * No later request could reach it.
+     */
+    private static void closeUnboundSession(HttpServletRequest req) {
+        Optional.ofNullable(req.getAttribute(ATTR_STATELESS_SESSION))
+            .map(MCRSession.class::cast)
+            .filter(session -> !session.isStateless() && session.getID() != null)
+            .filter(session -> session.get("http.session") == null)
+            .ifPresent(MCRSession::close);
+    }
+
     private static boolean isBrokenPipe(Throwable throwable) {
         String message = throwable.getMessage();
         if (message != null && throwable instanceof IOException && message.contains("Broken pipe")) {
@@ -0,0 +1,62 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events. Use {@link MCRMetrics#counter(String, String...)} to get an instance.
+ */
+public final class MCRCounter extends MCRInstrument implements MCRCounterMBean {
+
+    private final LongAdder count = new LongAdder();
+
+    MCRCounter(String name, Map<String, String> tags) {
+        super(name, tags);
+    }
+
+    /**
+     * Increments this counter by one, if metrics are enabled.
+     */
+    public void increment() {
+        if (MCRMetrics.isEnabled()) {
+            count.increment();
+        }
+    }
+
+    /**
+     * Increments this counter by the given value, if metrics are enabled.
+     */
+    public void add(long value) {
+        if (MCRMetrics.isEnabled()) {
+            count.add(value);
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+    }
+}
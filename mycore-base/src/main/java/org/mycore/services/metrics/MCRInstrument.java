@@ -0,0 +1,60 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.metrics;
+
+import java.util.Map;
+
+/**
+ * Common base of {@link MCRTimer} and {@link MCRCounter}.
+ */
+public abstract class MCRInstrument {
+
+    private final String name;
+
+    private final Map<String, String> tags;
+
+    MCRInstrument(String name, Map<String, String> tags) {
+        this.name = name;
+        this.tags = tags;
+    }
+
+    /**
+     * Returns the name of the measured subsystem or event.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the tags of this instrument in the order they were defined.
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Resets all values of this instrument.
+     */
+    public abstract void reset();
+
+    @Override
+    public String toString() {
+        return tags.isEmpty() ? name : name + tags;
+    }
+}
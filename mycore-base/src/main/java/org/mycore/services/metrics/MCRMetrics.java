@@ -0,0 +1,127 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.services.mbeans.MCRJMXBridge;
+
+/**
+ * Registry of {@link MCRTimer} and {@link MCRCounter} instances used to instrument hot code paths.
+ *
+ * Instruments should be created once and kept in a static field:
+ * <pre>
+ * private static final MCRTimer TIMER = MCRMetrics.timer("xslt", "op", "transform");
+ *
+ * long start = TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     TIMER.stop(start);
+ * }
+ * </pre>
+ * If metrics are disabled by <code>MCR.Metrics.Enabled</code>, {@link MCRTimer#start()} does not even read the
+ * clock and {@link MCRTimer#stop(long)} returns immediately. If <code>MCR.Metrics.JMX.Enabled</code> is true,
+ * every instrument is registered as an MBean of type <code>MCRMetrics</code>.
+ */
+public final class MCRMetrics {
+
+    static final String JMX_TYPE = "MCRMetrics";
+
+    private static final Map<String, MCRTimer> TIMERS = new ConcurrentHashMap<>();
+
+    private static final Map<String, MCRCounter> COUNTERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = MCRConfiguration2.getBoolean("MCR.Metrics.Enabled").orElse(false);
+
+    private static final boolean JMX_ENABLED = MCRConfiguration2.getBoolean("MCR.Metrics.JMX.Enabled")
+        .orElse(false);
+
+    private MCRMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        MCRMetrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the timer with the given name and tags, creating it if necessary.
+     *
+     * @param name the name of the measured subsystem, e.g. <code>xslt</code>
+     * @param tags alternating tag names and values
+     */
+    public static MCRTimer timer(String name, String... tags) {
+        return getInstrument(TIMERS, name, tags, MCRTimer::new);
+    }
+
+    /**
+     * Returns the counter with the given name and tags, creating it if necessary.
+     *
+     * @param name the name of the counted event, e.g. <code>jpa.entitymanager</code>
+     * @param tags alternating tag names and values
+     */
+    public static MCRCounter counter(String name, String... tags) {
+        return getInstrument(COUNTERS, name, tags, MCRCounter::new);
+    }
+
+    public static Collection<MCRTimer> getTimers() {
+        return Collections.unmodifiableCollection(TIMERS.values());
+    }
+
+    public static Collection<MCRCounter> getCounters() {
+        return Collections.unmodifiableCollection(COUNTERS.values());
+    }
+
+    /**
+     * Resets all timers and counters.
+     */
+    public static void reset() {
+        TIMERS.values().forEach(MCRTimer::reset);
+        COUNTERS.values().forEach(MCRCounter::reset);
+    }
+
+    private static <T extends MCRInstrument> T getInstrument(Map<String, T> instruments, String name, String[] tags,
+        BiFunction<String, Map<String, String>, T> factory) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags have to be pairs of name and value: " + String.join(",", tags));
+        }
+        Map<String, String> tagMap = new LinkedHashMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            tagMap.put(tags[i], tags[i + 1]);
+        }
+        String key = tagMap.isEmpty() ? name : name + "." + String.join(".", tagMap.values());
+        return instruments.computeIfAbsent(key, k -> {
+            T instrument = factory.apply(name, Collections.unmodifiableMap(tagMap));
+            if (JMX_ENABLED) {
+                MCRJMXBridge.register(instrument, JMX_TYPE, k);
+            }
+            return instrument;
+        });
+    }
+}
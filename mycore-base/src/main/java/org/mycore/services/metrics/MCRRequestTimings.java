@@ -0,0 +1,99 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the time spent per subsystem during a single request, if started by {@link #begin()} on the current
+ * thread. Timings are named by the timer name followed by its tag values, e.g. <code>jpa.commit</code>. Durations
+ * of nested timers, e.g. URI resolution inside a XSL transformation, are contained in both.
+ */
+public final class MCRRequestTimings {
+
+    // characters not allowed in a Server-Timing metric name
+    private static final Pattern NON_TOKEN_CHARS = Pattern.compile("[^\\w!#$%&'*+^`|~-]");
+
+    private static final ThreadLocal<Map<String, long[]>> CURRENT = new ThreadLocal<>();
+
+    private MCRRequestTimings() {
+    }
+
+    /**
+     * Starts collecting timings for the current thread.
+     */
+    public static void begin() {
+        CURRENT.set(new LinkedHashMap<>());
+    }
+
+    /**
+     * Returns the collected timings so far without stopping the collection.
+     *
+     * @return a map of timing name to an array of count and total nanoseconds, empty if not collecting
+     */
+    public static Map<String, long[]> get() {
+        Map<String, long[]> timings = CURRENT.get();
+        return timings == null ? Map.of() : timings;
+    }
+
+    /**
+     * Stops collecting timings for the current thread.
+     *
+     * @return see {@link #get()}
+     */
+    public static Map<String, long[]> end() {
+        Map<String, long[]> timings = get();
+        CURRENT.remove();
+        return timings;
+    }
+
+    static void record(String name, long nanos) {
+        Map<String, long[]> timings = CURRENT.get();
+        if (timings != null) {
+            long[] values = timings.computeIfAbsent(name, k -> new long[2]);
+            values[0]++;
+            values[1] += nanos;
+        }
+    }
+
+    /**
+     * Formats timings as value of a <code>Server-Timing</code> HTTP header.
+     *
+     * @param timings as returned by {@link #get()}
+     * @param totalNanos the duration of the whole request
+     */
+    public static String toServerTiming(Map<String, long[]> timings, long totalNanos) {
+        String subsystems = timings.entrySet().stream()
+            .map(e -> String.format(Locale.ROOT, "%s;dur=%.3f;desc=\"%d calls\"",
+                NON_TOKEN_CHARS.matcher(e.getKey()).replaceAll("-"),
+                toMillis(e.getValue()[1]), e.getValue()[0]))
+            .collect(Collectors.joining(", "));
+        String total = String.format(Locale.ROOT, "total;dur=%.3f", toMillis(totalNanos));
+        return subsystems.isEmpty() ? total : subsystems + ", " + total;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the number and duration of operations. Use {@link MCRMetrics#timer(String, String...)} to get an
+ * instance.
+ *
+ * Recording a duration does not allocate any objects, unless a per request breakdown is collected by
+ * {@link MCRRequestTimings}.
+ */
+public final class MCRTimer extends MCRInstrument implements MCRTimerMBean {
+
+    // System.nanoTime() may return any value, 0 included
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    private final String requestTimingName;
+
+    MCRTimer(String name, Map<String, String> tags) {
+        super(name, tags);
+        // tag values keep e.g. jpa commit and jpa query apart in the per request breakdown
+        this.requestTimingName = tags.isEmpty() ? name : name + "." + String.join(".", tags.values());
+    }
+
+    /**
+     * Starts a measurement.
+     *
+     * @return the start time to pass to {@link #stop(long)}
+     */
+    public long start() {
+        return MCRMetrics.isEnabled() ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Stops a measurement started by {@link #start()}.
+     */
+    public void stop(long start) {
+        if (start != DISABLED) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a duration measured elsewhere.
+     */
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        MCRRequestTimings.record(requestTimingName, nanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return toMillis(getTotalNanos());
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalMillis() / count;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return toMillis(getMaxNanos());
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs tasks one after another on a single threaded executor and coalesces updates of the same key.
+ *
+ * An update submitted by {@link #update(Object, Runnable)} is delayed by the configured window. If another update
+ * for the same key arrives within this window, it replaces the pending one, so only the latest update of every key
+ * is run. Tasks submitted by {@link #execute(Runnable)} are never dropped. All updates that were submitted before such
+ * a task are run before it, so the order of updates and other tasks is preserved.
+ *
+ * The executor must run its tasks sequentially, e.g. one created by
+ * {@link java.util.concurrent.Executors#newSingleThreadScheduledExecutor()}. It may be shared by many instances.
+ * Updates and tasks submitted after the executor was shut down are dropped.
+ *
+ * @param <K> the type of the keys of coalesced updates
+ */
+public class MCRCoalescingExecutor<K> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final ScheduledExecutorService executor;
+
+    private final long windowMillis;
+
+    private final Map<K, Runnable> pending = new LinkedHashMap<>();
+
+    private final AtomicLong superseded = new AtomicLong();
+
+    private boolean flushScheduled;
+
+    /**
+     * @param executor a single threaded executor that runs the tasks
+     * @param windowMillis the time in milliseconds an update is delayed, 0 to run every update
+     */
+    public MCRCoalescingExecutor(ScheduledExecutorService executor, long windowMillis) {
+        this.executor = executor;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Submits an update for the given key, that replaces a pending update of the same key.
+     *
+     * @param key identifies the updated object
+     * @param update the update, which should send the state of the object at the time it is run
+     */
+    public void update(K key, Runnable update) {
+        synchronized (pending) {
+            if (isShutdown(key)) {
+                return;
+            }
+            try {
+                if (windowMillis <= 0) {
+                    executor.execute(() -> run(update));
+                    return;
+                }
+                if (pending.put(key, update) != null) {
+                    superseded.incrementAndGet();
+                }
+                if (!flushScheduled) {
+                    executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                    flushScheduled = true;
+                }
+            } catch (RejectedExecutionException e) {
+                rejected(key, e);
+            }
+        }
+    }
+
+    /**
+     * Submits a task that runs after all updates submitted so far.
+     *
+     * @param task the task to run
+     */
+    public void execute(Runnable task) {
+        synchronized (pending) {
+            if (isShutdown(task)) {
+                return;
+            }
+            try {
+                if (!pending.isEmpty()) {
+                    List<Runnable> updates = drain();
+                    executor.execute(() -> updates.forEach(MCRCoalescingExecutor::run));
+                }
+                executor.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                rejected(task, e);
+            }
+        }
+    }
+
+    /**
+     * Drops all pending updates without running them.
+     */
+    public void clear() {
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Returns the number of updates that were replaced by a later update of the same key.
+     */
+    public long getSupersededCount() {
+        return superseded.get();
+    }
+
+    private boolean isShutdown(Object dropped) {
+        if (executor.isShutdown()) {
+            pending.clear();
+            LOGGER.debug("Dropping {}, the executor is shut down.", dropped);
+            return true;
+        }
+        return false;
+    }
+
+    private void rejected(Object dropped, RejectedExecutionException e) {
+        if (!isShutdown(dropped)) {
+            throw e;
+        }
+    }
+
+    private void flush() {
+        List<Runnable> updates;
+        synchronized (pending) {
+            flushScheduled = false;
+            updates = drain();
+        }
+        updates.forEach(MCRCoalescingExecutor::run);
+    }
+
+    private List<Runnable> drain() {
+        List<Runnable> updates = new ArrayList<>(pending.values());
+        pending.clear();
+        return updates;
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while running task {}.", task, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.util.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link ExecutorService} that runs every task with the {@link org.mycore.common.MCRSession} of the thread that
+ * submitted it. The session is captured by {@link MCRSessionSnapshot#capture()} on submission, so chained
+ * {@link java.util.concurrent.CompletableFuture} stages that use this executor keep the session as well.
+ *
+ * <pre>
+ * ExecutorService executor = new MCRSessionPropagatingExecutorService(Executors.newFixedThreadPool(4), false);
+ * CompletableFuture.supplyAsync(this::readManifest, executor).thenApplyAsync(this::toJson, executor);
+ * </pre>
+ */
+public class MCRSessionPropagatingExecutorService implements ExecutorService, MCRDecorator<ExecutorService> {
+
+    private final ExecutorService delegate;
+
+    private final boolean transactional;
+
+    /**
+     * @param delegate the executor that runs the tasks
+     * @param transactional if every task should run in a database transaction of its own
+     */
+    public MCRSessionPropagatingExecutorService(ExecutorService delegate, boolean transactional) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.transactional = transactional;
+    }
+
+    private <T> Callable<T> wrap(Callable<T> task) {
+        return MCRSessionSnapshot.capture().wrap(task, transactional);
+    }
+
+    private <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+        MCRSessionSnapshot snapshot = MCRSessionSnapshot.capture();
+        return tasks.stream().map(task -> snapshot.wrap(task, transactional)).collect(Collectors.toList());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(MCRSessionSnapshot.capture().wrap(command, transactional));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(wrap(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return delegate.submit(MCRSessionSnapshot.capture().wrap(task, transactional), result);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return delegate.submit(MCRSessionSnapshot.capture().wrap(task, transactional));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return delegate.invokeAll(wrap(tasks));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return delegate.invokeAll(wrap(tasks), timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+        throws InterruptedException, ExecutionException {
+        return delegate.invokeAny(wrap(tasks));
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+        return delegate.invokeAny(wrap(tasks), timeout, unit);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public ExecutorService get() {
+        return delegate;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.util.concurrent;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.frontend.servlets.MCRServletJob;
+
+/**
+ * A captured {@link MCRSession} context that can be restored in another thread.
+ *
+ * {@link MCRSessionMgr} binds the current session to a thread, so the session is lost when work continues in
+ * another thread, e.g. in an executor, a {@link java.util.concurrent.CompletableFuture} stage or after an
+ * asynchronous servlet request was started. Capture the context in the thread that owns the session and wrap the
+ * work that runs elsewhere:
+ * <pre>
+ * MCRSessionSnapshot snapshot = MCRSessionSnapshot.capture();
+ * CompletableFuture.supplyAsync(snapshot.wrap(this::readManifest), executor)
+ *     .thenApplyAsync(snapshot.wrap(this::toJson), executor);
+ * </pre>
+ * {@link MCRSessionPropagatingExecutorService} does this for every submitted task.
+ *
+ * The snapshot carries the session and the servlet job. Database transactions and
+ * {@link MCRSession#onCommit(Runnable) onCommit} tasks are bound to the thread and its entity manager, so they are
+ * not transferred: wrapped work either runs without a transaction or in a new transaction of its own.
+ */
+public final class MCRSessionSnapshot {
+
+    private static final MCRSessionSnapshot EMPTY = new MCRSessionSnapshot(null, null);
+
+    private final MCRSession session;
+
+    private final MCRServletJob servletJob;
+
+    private MCRSessionSnapshot(MCRSession session, MCRServletJob servletJob) {
+        this.session = session;
+        this.servletJob = servletJob;
+    }
+
+    /**
+     * Captures the session bound to the current thread. If no session is bound, the snapshot is empty and
+     * restoring it does nothing.
+     */
+    public static MCRSessionSnapshot capture() {
+        if (!MCRSessionMgr.hasCurrentSession()) {
+            return EMPTY;
+        }
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        return new MCRSessionSnapshot(session, session.getServletJob().orElse(null));
+    }
+
+    /**
+     * Returns a snapshot that restores the given session without a servlet job.
+     */
+    public static MCRSessionSnapshot of(MCRSession session) {
+        return new MCRSessionSnapshot(session, null);
+    }
+
+    public Optional<MCRSession> getSession() {
+        return Optional.ofNullable(session);
+    }
+
+    /**
+     * Binds the captured session to the current thread until the returned scope is closed. Afterwards the
+     * session that was bound before, if any, is bound again. If the captured session is already bound to the
+     * current thread, nothing is changed.
+     *
+     * <pre>
+     * try (MCRSessionSnapshot.Scope scope = snapshot.restore()) {
+     *     ...
+     * }
+     * </pre>
+     */
+    public Scope restore() {
+        if (session == null || isCurrentSession(session)) {
+            return () -> {
+            };
+        }
+        boolean wasLocked = MCRSessionMgr.isLocked();
+        MCRSession previous = MCRSessionMgr.hasCurrentSession() ? MCRSessionMgr.getCurrentSession() : null;
+        if (previous != null) {
+            MCRSessionMgr.releaseCurrentSession();
+        }
+        MCRSessionMgr.setCurrentSession(session);
+        if (servletJob != null) {
+            session.setServletJob(servletJob);
+        }
+        return () -> {
+            MCRSessionMgr.releaseCurrentSession();
+            if (previous != null) {
+                MCRSessionMgr.setCurrentSession(previous);
+            } else if (!wasLocked) {
+                MCRSessionMgr.unlock();
+            }
+        };
+    }
+
+    private static boolean isCurrentSession(MCRSession session) {
+        return MCRSessionMgr.hasCurrentSession() && !MCRSessionMgr.isLocked()
+            && MCRSessionMgr.getCurrentSession() == session;
+    }
+
+    /**
+     * Wraps the callable, so it runs with the captured session.
+     *
+     * @param transactional if the callable should run in a new database transaction, that is committed if the
+     *                      callable returns normally and rolled back otherwise. If the captured session has an
+     *                      active transaction in the executing thread, that transaction is used.
+     */
+    public <V> Callable<V> wrap(Callable<V> callable, boolean transactional) {
+        return () -> {
+            try (Scope scope = restore()) {
+                if (!transactional || session == null || session.isTransactionActive()) {
+                    return callable.call();
+                }
+                return callInTransaction(callable);
+            }
+        };
+    }
+
+    /**
+     * Wraps the runnable, so it runs with the captured session.
+     *
+     * @see #wrap(Callable, boolean)
+     */
+    public Runnable wrap(Runnable runnable, boolean transactional) {
+        Callable<Object> callable = wrap(Executors.callable(runnable), transactional);
+        return () -> call(callable);
+    }
+
+    /**
+     * Wraps the supplier, e.g. for {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier)}, so it
+     * runs with the captured session and without transaction.
+     */
+    public <T> Supplier<T> wrap(Supplier<T> supplier) {
+        Callable<T> callable = supplier::get;
+        Callable<T> wrapped = wrap(callable, false);
+        return () -> call(wrapped);
+    }
+
+    /**
+     * Wraps the function, e.g. for {@link java.util.concurrent.CompletableFuture#thenApplyAsync(Function)}, so it
+     * runs with the captured session and without transaction.
+     */
+    public <T, R> Function<T, R> wrap(Function<T, R> function) {
+        return t -> {
+            Callable<R> callable = () -> function.apply(t);
+            return call(wrap(callable, false));
+        };
+    }
+
+    private <V> V callInTransaction(Callable<V> callable) throws Exception {
+        session.beginTransaction();
+        boolean committed = false;
+        try {
+            V result = callable.call();
+            session.commitTransaction();
+            committed = true;
+            return result;
+        } finally {
+            if (!committed && session.isTransactionActive()) {
+                session.rollbackTransaction();
+            }
+        }
+    }
+
+    private static <V> V call(Callable<V> callable) {
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MCRException(e);
+        }
+    }
+
+    /**
+     * A restored session context, that is left by {@link #close()}.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
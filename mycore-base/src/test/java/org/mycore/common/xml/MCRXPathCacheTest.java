@@ -0,0 +1,109 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.common.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jaxen.JaxenException;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRConstants;
+import org.mycore.common.MCRTestCase;
+import org.mycore.services.metrics.MCRMetrics;
+
+public class MCRXPathCacheTest extends MCRTestCase {
+
+    private Element root;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        MCRXPathCache.clear();
+        MCRMetrics.setEnabled(true);
+        MCRMetrics.reset();
+        root = new Element("document");
+        root.addContent(new Element("title").setAttribute("type", "main").setText("title1"));
+        root.addContent(new Element("title").setAttribute("type", "alternative").setText("title2"));
+        new Document(root);
+    }
+
+    @After
+    @Override
+    public void tearDown() throws Exception {
+        MCRMetrics.setEnabled(false);
+        super.tearDown();
+    }
+
+    @Test
+    public void testVariablesAreBoundPerEvaluation() {
+        String xPath = "title[@type=$type]";
+        assertEquals("title1", evaluateTitle(xPath, "main"));
+        assertEquals("title2", evaluateTitle(xPath, "alternative"));
+        assertEquals("title1", evaluateTitle(xPath, "main"));
+        assertEquals(1, getCount("miss"));
+        assertEquals(2, getCount("hit"));
+    }
+
+    @Test
+    public void testNamespacePrefixIsPartOfKey() {
+        Namespace mods = MCRConstants.MODS_NAMESPACE;
+        root.addContent(new Element("title", mods).setText("modsTitle"));
+        XPathFactory factory = XPathFactory.instance();
+        List<Element> found = MCRXPathCache.evaluate(factory, "x:title", Filters.element(), null,
+            List.of(Namespace.getNamespace("x", mods.getURI())), root);
+        assertEquals(1, found.size());
+        found = MCRXPathCache.evaluate(factory, "x:title", Filters.element(), null,
+            List.of(Namespace.getNamespace("x", "http://www.mycore.org/unknown")), root);
+        assertEquals(0, found.size());
+        assertEquals(2, getCount("miss"));
+    }
+
+    @Test
+    public void testRootExpr() throws JaxenException {
+        String xPath = "document/title[@type='main']";
+        assertSame(MCRXPathCache.getRootExpr(xPath), MCRXPathCache.getRootExpr(xPath));
+        assertEquals(1, getCount("miss"));
+        assertEquals(1, getCount("hit"));
+    }
+
+    private String evaluateTitle(String xPath, String type) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("type", type);
+        Element title = MCRXPathCache.evaluateFirst(XPathFactory.instance(), xPath, Filters.element(), variables,
+            MCRConstants.getStandardNamespaces(), root);
+        return title.getText();
+    }
+
+    private long getCount(String result) {
+        return MCRMetrics.counter("xpath.cache", "result", result).getCount();
+    }
+}
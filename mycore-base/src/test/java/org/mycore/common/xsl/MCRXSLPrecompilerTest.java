@@ -0,0 +1,86 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.common.xsl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.content.transformer.MCRContentTransformer;
+import org.mycore.common.content.transformer.MCRXSLTransformer;
+import org.mycore.common.xml.MCRLayoutService;
+
+public class MCRXSLPrecompilerTest extends MCRTestCase {
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.LayoutTransformerFactory.Default.Stylesheets", "xsl/copynodes.xsl");
+        return testProperties;
+    }
+
+    @Test
+    public void testToRegex() {
+        Pattern pattern = MCRXSLPrecompiler.toRegex("xsl/*.xsl");
+        assertTrue(pattern.matcher("xsl/copynodes.xsl").matches());
+        assertFalse(pattern.matcher("xsl/functions/i18n.xsl").matches());
+        assertFalse(pattern.matcher("xsl/copynodes.xslt").matches());
+        assertTrue(MCRXSLPrecompiler.toRegex("xsl/**.xsl").matcher("xsl/functions/i18n.xsl").matches());
+        assertTrue(MCRXSLPrecompiler.toRegex("xsl/copynode?.xsl").matcher("xsl/copynodes.xsl").matches());
+    }
+
+    @Test
+    public void testFindStylesheets() {
+        SortedSet<String> stylesheets = MCRXSLPrecompiler.findStylesheets(Arrays.asList("xsl/*.xsl", "xsl/foo.xsl"));
+        assertTrue(stylesheets.contains("xsl/copynodes.xsl"));
+        assertTrue("Names without wildcards should be kept", stylesheets.contains("xsl/foo.xsl"));
+        assertTrue(stylesheets.stream().allMatch(name -> name.startsWith("xsl/") && name.endsWith(".xsl")));
+        assertTrue(MCRXSLPrecompiler.findStylesheets(Collections.singletonList("nonexisting/*.xsl")).isEmpty());
+    }
+
+    @Test
+    public void testCompile() {
+        Map<String, Long> compileTimes = MCRXSLPrecompiler
+            .compile(Arrays.asList("xsl/copynodes.xsl", "xsl/nonexisting.xsl"), 2);
+        assertEquals(2, compileTimes.size());
+        assertTrue(compileTimes.get("xsl/copynodes.xsl") >= 0);
+        assertEquals(-1L, compileTimes.get("xsl/nonexisting.xsl").longValue());
+    }
+
+    @Test
+    public void testCompileLayoutTransformer() {
+        Map<String, Long> compileTimes = MCRXSLPrecompiler
+            .compile(Collections.singletonList("xsl/junit-page.xsl"), 1);
+        assertTrue(compileTimes.get("xsl/junit-page.xsl") >= 0);
+        MCRContentTransformer transformer = MCRLayoutService.getLayoutTransformerFactory()
+            .getTransformer("junit-page-default");
+        assertSame(MCRXSLTransformer.class, transformer.getClass());
+        assertTrue("Layout transformer should be compiled", ((MCRXSLTransformer) transformer).isCompiled());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.common.content.MCRContent;
+import org.mycore.common.content.MCRJDOMContent;
+
+/**
+ * JUnit test for MCRBlobVersioningMetadataStore
+ */
+public class MCRBlobVersioningMetadataStoreTest extends MCRIFS2TestCase {
+
+    private static final String SVN_STORE_ID = "SVNTEST";
+
+    @Rule
+    public TemporaryFolder versionBaseDir = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder svnBaseDir = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder svnRepositoryDir = new TemporaryFolder();
+
+    private MCRBlobVersioningMetadataStore blobStore;
+
+    @Override
+    protected void createStore() throws Exception {
+        blobStore = MCRStoreManager.createStore(STORE_ID, MCRBlobVersioningMetadataStore.class);
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        MCRStoreManager.removeStore(SVN_STORE_ID);
+    }
+
+    @Override
+    public MCRStore getGenericStore() {
+        return blobStore;
+    }
+
+    @Test
+    public void versioning() throws Exception {
+        Document xml1 = new Document(new Element("bingo"));
+        MCRVersionedMetadata vm = blobStore.create(new MCRJDOMContent(xml1));
+        long baseRev = vm.getRevision();
+        assertTrue(baseRev > 0);
+        assertTrue(vm.isUpToDate());
+
+        Document xml2 = new Document(new Element("bango"));
+        vm.update(new MCRJDOMContent(xml2));
+        assertTrue(vm.getRevision() > baseRev);
+
+        List<MCRMetadataVersion> versions = blobStore.retrieve(vm.getID()).listVersions();
+        assertEquals(2, versions.size());
+        assertEquals(MCRMetadataVersion.CREATED, versions.get(0).getType());
+        assertEquals(MCRMetadataVersion.UPDATED, versions.get(1).getType());
+        assertEquals(new MCRJDOMContent(xml1).asString(), versions.get(0).retrieve().asString());
+
+        versions.get(0).restore();
+        assertEquals(new MCRJDOMContent(xml1).asString(), blobStore.retrieve(vm.getID()).getMetadata().asString());
+        assertEquals(3, vm.listVersions().size());
+    }
+
+    @Test
+    public void delete() throws Exception {
+        Document xml1 = new Document(new Element("root"));
+        MCRVersionedMetadata vm = blobStore.create(new MCRJDOMContent(xml1));
+        long createRev = vm.getRevision();
+        vm.delete();
+        assertFalse(blobStore.exists(vm.getID()));
+
+        MCRVersionedMetadata deleted = blobStore.retrieve(vm.getID());
+        assertTrue(deleted.isDeleted());
+        assertTrue(deleted.isDeletedInRepository());
+        assertEquals(createRev, deleted.getLastPresentRevision());
+
+        deleted.getRevision(createRev).restore();
+        assertTrue(blobStore.exists(vm.getID()));
+        assertEquals(new MCRJDOMContent(xml1).asString(), blobStore.retrieve(vm.getID()).getMetadata().asString());
+    }
+
+    @Test
+    public void deduplicate() throws Exception {
+        Document xml = new Document(new Element("root"));
+        blobStore.create(new MCRJDOMContent(xml));
+        MCRVersionedMetadata vm = blobStore.create(new MCRJDOMContent(xml));
+        vm.update(new MCRJDOMContent(xml));
+        try (Stream<Path> blobs = Files.walk(blobStore.getVersionBaseDirectory().resolve("blobs"))) {
+            assertEquals("Identical versions should share one blob", 1, blobs.filter(Files::isRegularFile).count());
+        }
+        blobStore.verify();
+    }
+
+    @Test
+    public void importSVNHistory() throws Exception {
+        MCRVersioningMetadataStore svnStore = MCRStoreManager.createStore(SVN_STORE_ID,
+            MCRVersioningMetadataStore.class);
+        Document xml1 = new Document(new Element("root"));
+        Document xml2 = new Document(new Element("update"));
+        MCRVersionedMetadata svnVm = svnStore.create(new MCRJDOMContent(xml1));
+        svnVm.update(new MCRJDOMContent(xml2));
+        MCRVersionedMetadata svnDeleted = svnStore.create(new MCRJDOMContent(xml1));
+        svnDeleted.delete();
+
+        assertEquals(4, blobStore.importSVNHistory(svnStore.getRepositoryURL()));
+        List<MCRMetadataVersion> svnVersions = svnVm.listVersions();
+        List<MCRMetadataVersion> versions = blobStore.retrieve(svnVm.getID()).listVersions();
+        assertEquals(svnVersions.size(), versions.size());
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(svnVersions.get(i).getRevision(), versions.get(i).getRevision());
+            assertEquals(svnVersions.get(i).getType(), versions.get(i).getType());
+            assertEquals(svnVersions.get(i).retrieve().asString(), versions.get(i).retrieve().asString());
+        }
+        assertTrue(blobStore.retrieve(svnDeleted.getID()).isDeletedInRepository());
+
+        MCRContent xml3 = new MCRJDOMContent(new Document(new Element("new")));
+        MCRVersionedMetadata vm = blobStore.create(xml3);
+        assertNotNull(vm);
+        assertTrue("New revisions must follow imported revisions",
+            vm.getRevision() > svnVersions.get(svnVersions.size() - 1).getRevision());
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.IFS2.Store.TEST.VersionBaseDir", versionBaseDir.getRoot().getAbsolutePath());
+        testProperties.put("MCR.IFS2.Store." + SVN_STORE_ID + ".BaseDir", svnBaseDir.getRoot().getAbsolutePath());
+        testProperties.put("MCR.IFS2.Store." + SVN_STORE_ID + ".SlotLayout", "4-2-2");
+        testProperties.put("MCR.IFS2.Store." + SVN_STORE_ID + ".Prefix", STORE_ID + "_");
+        try {
+            testProperties.put("MCR.IFS2.Store." + SVN_STORE_ID + ".SVNRepositoryURL",
+                svnRepositoryDir.getRoot().toURI().toURL().toString());
+        } catch (MalformedURLException e) {
+            Assert.fail(e.getMessage());
+        }
+        return testProperties;
+    }
+}
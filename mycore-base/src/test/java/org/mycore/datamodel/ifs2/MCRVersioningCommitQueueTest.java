@@ -0,0 +1,136 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.common.content.MCRJDOMContent;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+
+/**
+ * JUnit test for group and asynchronous commits of {@link MCRVersioningMetadataStore}
+ */
+public class MCRVersioningCommitQueueTest extends MCRIFS2VersioningTestCase {
+
+    @Rule
+    public TemporaryFolder journalDir = new TemporaryFolder();
+
+    @Test
+    public void asyncCommit() throws Exception {
+        MCRVersioningMetadataStore store = getVersStore();
+        MCRVersionedMetadata vm1 = store.create(new MCRJDOMContent(new Document(new Element("root"))));
+        MCRVersionedMetadata vm2 = store.create(new MCRJDOMContent(new Document(new Element("root"))));
+        assertTrue("Journal should contain pending changes", Files.exists(getJournal()));
+        assertEquals(-1, vm1.getRevision());
+
+        store.flushPendingCommits();
+        assertFalse("Journal should be empty after commit", Files.exists(getJournal()));
+        assertTrue(vm1.getRevision() > 0);
+        assertEquals("Both changes should be committed in one revision", vm1.getRevision(), vm2.getRevision());
+        assertEquals(1, vm1.listVersions().size());
+
+        vm1.update(new MCRJDOMContent(new Document(new Element("update"))));
+        vm1.update(new MCRJDOMContent(new Document(new Element("update2"))));
+        store.delete(vm2.getID());
+        store.flushPendingCommits();
+        assertEquals("Updates should be coalesced", 2, vm1.listVersions().size());
+        assertTrue(store.retrieve(vm2.getID()).isDeletedInRepository());
+    }
+
+    @Test
+    public void groupCommit() throws Exception {
+        MCRVersioningMetadataStore store = getVersStore();
+        List<MCRVersionedMetadata> objects = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            objects.add(store.create(new MCRJDOMContent(new Document(new Element("root")))));
+        }
+        MCRVersioningCommitQueue queue = new MCRVersioningCommitQueue(store,
+            MCRVersioningMetadataStore.CommitMode.GROUP, 100, 0, null);
+        ExecutorService executor = Executors.newFixedThreadPool(objects.size());
+        try {
+            List<Future<SVNCommitInfo>> commits = new ArrayList<>();
+            // hold back the first commit until every thread has submitted its change
+            synchronized (queue.commitLock) {
+                for (MCRVersionedMetadata vm : objects) {
+                    commits.add(executor.submit(() -> queue.submit(vm.getID(), false, "junit", "group commit")));
+                }
+                while (queue.getPendingCount() < objects.size()) {
+                    Thread.sleep(10);
+                }
+            }
+            Set<Long> revisions = new HashSet<>();
+            for (Future<SVNCommitInfo> commit : commits) {
+                SVNCommitInfo info = commit.get(1, TimeUnit.MINUTES);
+                assertNotNull("Every caller should get the commit info of its revision", info);
+                revisions.add(info.getNewRevision());
+            }
+            assertEquals("All changes should be committed in one revision", 1, revisions.size());
+            assertEquals(0, queue.getPendingCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void recover() throws Exception {
+        MCRVersioningMetadataStore store = getVersStore();
+        MCRVersionedMetadata vm = store.create(new MCRJDOMContent(new Document(new Element("root"))));
+        assertEquals(-1, vm.getRevision());
+
+        // simulates a restart without flushing pending commits
+        MCRVersioningCommitQueue queue = new MCRVersioningCommitQueue(store,
+            MCRVersioningMetadataStore.CommitMode.ASYNC, 100, Long.MAX_VALUE, getJournal());
+        queue.recover();
+        assertTrue(vm.getRevision() > 0);
+        assertFalse(Files.exists(getJournal()));
+    }
+
+    private Path getJournal() {
+        return journalDir.getRoot().toPath().resolve("TEST.svn-journal");
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.IFS2.Store.TEST.SVNCommitMode", "async");
+        testProperties.put("MCR.IFS2.Store.TEST.SVNCommitDelay", String.valueOf(Long.MAX_VALUE / 2));
+        testProperties.put("MCR.IFS2.Store.TEST.SVNCommitJournal", getJournal().toString());
+        return testProperties;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.content.MCRJDOMContent;
+
+/**
+ * Compares create, update and listVersions of {@link MCRVersioningMetadataStore} and
+ * {@link MCRBlobVersioningMetadataStore}. Run with <code>-DMCR.Benchmark=true</code>.
+ */
+public class MCRVersioningStoreBenchmarkTest extends MCRTestCase {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int OBJECTS = 200;
+
+    private static final int UPDATES = 5;
+
+    @Rule
+    public TemporaryFolder svnBaseDir = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder svnRepositoryDir = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder blobBaseDir = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder blobVersionDir = new TemporaryFolder();
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("Benchmark is disabled", Boolean.getBoolean("MCR.Benchmark"));
+        super.setUp();
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        if (!Boolean.getBoolean("MCR.Benchmark")) {
+            return;
+        }
+        super.tearDown();
+        MCRStoreManager.removeStore("SVNBENCH");
+        MCRStoreManager.removeStore("BLOBBENCH");
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        run(MCRStoreManager.createStore("SVNBENCH", MCRVersioningMetadataStore.class));
+        run(MCRStoreManager.createStore("BLOBBENCH", MCRBlobVersioningMetadataStore.class));
+    }
+
+    private void run(MCRVersioningMetadataStore store) throws Exception {
+        List<MCRVersionedMetadata> objects = new ArrayList<>(OBJECTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < OBJECTS; i++) {
+            objects.add(store.create(new MCRJDOMContent(new Document(new Element("root").setText("0")))));
+        }
+        long created = System.nanoTime();
+        for (int u = 1; u <= UPDATES; u++) {
+            for (MCRVersionedMetadata vm : objects) {
+                vm.update(new MCRJDOMContent(new Document(new Element("root").setText(String.valueOf(u)))));
+            }
+        }
+        long updated = System.nanoTime();
+        for (MCRVersionedMetadata vm : objects) {
+            Assert.assertEquals(UPDATES + 1, store.retrieve(vm.getID()).listVersions().size());
+        }
+        long listed = System.nanoTime();
+        LOGGER.info("{}: create {} ms, update {} ms, listVersions {} ms for {} objects with {} updates",
+            store.getClass().getSimpleName(), (created - start) / 1_000_000, (updated - created) / 1_000_000,
+            (listed - updated) / 1_000_000, OBJECTS, UPDATES);
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.IFS2.Store.SVNBENCH.BaseDir", svnBaseDir.getRoot().getAbsolutePath());
+        testProperties.put("MCR.IFS2.Store.SVNBENCH.SlotLayout", "4-2-2");
+        testProperties.put("MCR.IFS2.Store.BLOBBENCH.BaseDir", blobBaseDir.getRoot().getAbsolutePath());
+        testProperties.put("MCR.IFS2.Store.BLOBBENCH.SlotLayout", "4-2-2");
+        testProperties.put("MCR.IFS2.Store.BLOBBENCH.VersionBaseDir", blobVersionDir.getRoot().getAbsolutePath());
+        try {
+            testProperties.put("MCR.IFS2.Store.SVNBENCH.SVNRepositoryURL",
+                svnRepositoryDir.getRoot().toURI().toURL().toString());
+        } catch (MalformedURLException e) {
+            Assert.fail(e.getMessage());
+        }
+        return testProperties;
+    }
+}
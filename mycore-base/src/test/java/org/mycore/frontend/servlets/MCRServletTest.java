@@ -0,0 +1,178 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.servlets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.junit.Test;
+import org.mycore.access.MCRAccessBaseImpl;
+import org.mycore.access.MCRAccessManager;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRSessionResolver;
+import org.mycore.common.MCRTestCase;
+
+public class MCRServletTest extends MCRTestCase {
+
+    private static final String SERVLET_NAME = "MCRServletTest";
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Session.Stateless.Enabled", "true");
+        testProperties.put("MCR.Access.Class", MCRAccessBaseImpl.class.getName());
+        return testProperties;
+    }
+
+    @Test
+    public void testStatelessCrawl() throws Exception {
+        int sessionCount = MCRSessionMgr.getAllSessions().size();
+        int httpSessionCount = TestRequest.HTTP_SESSIONS.get();
+        long avoided = MCRSessionMgr.getAvoidedSessionCount();
+        int pages = 100;
+        for (int i = 0; i < pages; i++) {
+            TestRequest request = new TestRequest("GET");
+            MCRServlet.initializeMCRSession(request.proxy, SERVLET_NAME);
+            MCRSession session = MCRSessionMgr.getCurrentSession();
+            assertTrue(session.isStateless());
+            assertSame(session, MCRServlet.getSession(request.proxy));
+            session.putTransient("page", i);
+            // every page checks permissions, the second check is served by the access cache
+            assertTrue(MCRAccessManager.checkPermission(MCRAccessManager.PERMISSION_READ));
+            assertTrue(MCRAccessManager.checkPermission(MCRAccessManager.PERMISSION_READ));
+            assertTrue("Access checks should keep the session stateless", session.isStateless());
+            MCRServlet.cleanupMCRSession(request.proxy, SERVLET_NAME);
+            assertNull("Stateless request should not create an HTTP session", request.httpSession);
+        }
+        assertEquals(sessionCount, MCRSessionMgr.getAllSessions().size());
+        assertEquals(httpSessionCount, TestRequest.HTTP_SESSIONS.get());
+        assertEquals(avoided + pages, MCRSessionMgr.getAvoidedSessionCount());
+    }
+
+    @Test
+    public void testStatefulOnWrite() throws Exception {
+        int sessionCount = MCRSessionMgr.getAllSessions().size();
+        long avoided = MCRSessionMgr.getAvoidedSessionCount();
+        TestRequest request = new TestRequest("GET");
+        MCRServlet.initializeMCRSession(request.proxy, SERVLET_NAME);
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        assertTrue(session.isStateless());
+        session.put("key", "value");
+        assertFalse(session.isStateless());
+        assertSame(session, MCRSessionMgr.getAllSessions().get(session.getID()));
+        assertNotNull("Stateful session should be stored in an HTTP session", request.httpSession);
+        MCRSessionResolver resolver = (MCRSessionResolver) request.sessionAttributes
+            .get(MCRServlet.ATTR_MYCORE_SESSION);
+        assertEquals(session.getID(), resolver.getSessionID());
+        MCRServlet.cleanupMCRSession(request.proxy, SERVLET_NAME);
+        assertEquals(sessionCount + 1, MCRSessionMgr.getAllSessions().size());
+        assertEquals(avoided, MCRSessionMgr.getAvoidedSessionCount());
+        session.close();
+        assertEquals(sessionCount, MCRSessionMgr.getAllSessions().size());
+    }
+
+    @Test
+    public void testPostIsStateful() throws Exception {
+        TestRequest request = new TestRequest("POST");
+        MCRServlet.initializeMCRSession(request.proxy, SERVLET_NAME);
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        assertFalse(session.isStateless());
+        assertNotNull(request.httpSession);
+        MCRServlet.cleanupMCRSession(request.proxy, SERVLET_NAME);
+        session.close();
+    }
+
+    /**
+     * Minimal {@link HttpServletRequest} without an existing HTTP session.
+     */
+    private static class TestRequest {
+
+        private static final AtomicInteger HTTP_SESSIONS = new AtomicInteger();
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private final Map<String, Object> sessionAttributes = new HashMap<>();
+
+        private HttpSession httpSession;
+
+        private final HttpServletRequest proxy;
+
+        TestRequest(String method) {
+            proxy = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getCharacterEncoding":
+                            return "UTF-8";
+                        case "getRemoteAddr":
+                            return "127.0.0.1";
+                        case "getAttribute":
+                            return attributes.get(args[0]);
+                        case "setAttribute":
+                            return attributes.put((String) args[0], args[1]);
+                        case "removeAttribute":
+                            return attributes.remove(args[0]);
+                        case "isRequestedSessionIdValid":
+                            return false;
+                        case "getSession":
+                            if (httpSession == null && (args == null || (Boolean) args[0])) {
+                                httpSession = createHttpSession();
+                            }
+                            return httpSession;
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        private HttpSession createHttpSession() {
+            HTTP_SESSIONS.incrementAndGet();
+            return (HttpSession) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { HttpSession.class }, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "getId":
+                            return "test";
+                        case "getCreationTime":
+                            return 0L;
+                        case "getAttribute":
+                            return sessionAttributes.get(args[0]);
+                        case "setAttribute":
+                            return sessionAttributes.put((String) args[0], args[1]);
+                        default:
+                            return null;
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.services.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+
+public class MCRMetricsTest extends MCRTestCase {
+
+    @After
+    public void disable() {
+        MCRMetrics.setEnabled(false);
+        MCRMetrics.reset();
+        MCRRequestTimings.end();
+    }
+
+    @Test
+    public void timer() {
+        MCRTimer timer = MCRMetrics.timer("test", "op", "timer");
+        assertSame(timer, MCRMetrics.timer("test", "op", "timer"));
+        assertEquals("timer", timer.getTags().get("op"));
+
+        MCRMetrics.setEnabled(false);
+        timer.stop(timer.start());
+        assertEquals("Disabled timer should not record.", 0, timer.getCount());
+
+        MCRMetrics.setEnabled(true);
+        timer.record(2_000_000);
+        timer.record(4_000_000);
+        assertEquals(2, timer.getCount());
+        assertEquals(6_000_000, timer.getTotalNanos());
+        assertEquals(4_000_000, timer.getMaxNanos());
+        assertEquals(3d, timer.getMeanMillis(), 0.0001);
+
+        timer.stop(0);
+        assertEquals("A start time of 0 is a valid nano time.", 3, timer.getCount());
+    }
+
+    @Test
+    public void counter() {
+        MCRCounter counter = MCRMetrics.counter("test", "op", "counter");
+        counter.increment();
+        assertEquals("Disabled counter should not count.", 0, counter.getCount());
+        MCRMetrics.setEnabled(true);
+        counter.increment();
+        counter.add(2);
+        assertEquals(3, counter.getCount());
+        MCRMetrics.reset();
+        assertEquals(0, counter.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTags() {
+        MCRMetrics.timer("test", "op");
+    }
+
+    @Test
+    public void requestTimings() {
+        MCRMetrics.setEnabled(true);
+        MCRTimer timer = MCRMetrics.timer("test", "op", "request");
+        timer.record(1_000_000);
+        assertTrue("Timings should only be collected after begin().", MCRRequestTimings.get().isEmpty());
+
+        MCRRequestTimings.begin();
+        timer.record(1_000_000);
+        timer.record(2_000_000);
+        MCRMetrics.timer("test", "op", "other").record(500_000);
+        Map<String, long[]> timings = MCRRequestTimings.end();
+        assertEquals(2, timings.get("test.request")[0]);
+        assertEquals(3_000_000, timings.get("test.request")[1]);
+        assertEquals("Timers with other tags should be recorded separately", 1, timings.get("test.other")[0]);
+        assertEquals("test-request;dur=3.000;desc=\"2 calls\", test-other;dur=0.500;desc=\"1 calls\", "
+            + "total;dur=5.000", MCRRequestTimings.toServerTiming(timings, 5_000_000));
+    }
+}
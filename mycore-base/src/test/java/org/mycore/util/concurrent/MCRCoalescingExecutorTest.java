@@ -0,0 +1,130 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MCRCoalescingExecutorTest {
+
+    private ScheduledExecutorService executor;
+
+    private List<String> sent;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        sent = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCoalesce() throws InterruptedException {
+        MCRCoalescingExecutor<String> coalescer = new MCRCoalescingExecutor<>(executor, 200);
+        coalescer.update("a", () -> sent.add("a1"));
+        coalescer.update("b", () -> sent.add("b1"));
+        coalescer.update("a", () -> sent.add("a2"));
+        awaitTermination();
+        assertEquals(Arrays.asList("a2", "b1"), sent);
+        assertEquals(1, coalescer.getSupersededCount());
+    }
+
+    @Test
+    public void testOrdering() throws InterruptedException {
+        MCRCoalescingExecutor<String> coalescer = new MCRCoalescingExecutor<>(executor, 10_000);
+        coalescer.execute(() -> sent.add("add a"));
+        coalescer.update("a", () -> sent.add("a1"));
+        coalescer.update("a", () -> sent.add("a2"));
+        coalescer.execute(() -> sent.add("remove a"));
+        coalescer.update("b", () -> sent.add("b1"));
+        CountDownLatch lastTask = new CountDownLatch(1);
+        coalescer.execute(() -> {
+            sent.add("property");
+            lastTask.countDown();
+        });
+        // the window of 10 seconds is not over yet
+        assertTrue("Last task should run without waiting for the window", lastTask.await(5, TimeUnit.SECONDS));
+        assertEquals("Updates should run before later tasks without waiting for the window",
+            Arrays.asList("add a", "a2", "remove a", "b1", "property"), sent);
+    }
+
+    @Test
+    public void testFinalState() throws InterruptedException {
+        MCRCoalescingExecutor<String> coalescer = new MCRCoalescingExecutor<>(executor, 500);
+        AtomicInteger progress = new AtomicInteger();
+        for (int i = 1; i <= 1000; i++) {
+            progress.set(i);
+            coalescer.update("a", () -> sent.add(String.valueOf(progress.get())));
+        }
+        awaitTermination();
+        assertTrue("Superseded progress values should be dropped: " + sent.size(), sent.size() < 1000);
+        assertEquals("1000", sent.get(sent.size() - 1));
+    }
+
+    @Test
+    public void testNoWindow() throws InterruptedException {
+        MCRCoalescingExecutor<String> coalescer = new MCRCoalescingExecutor<>(executor, 0);
+        coalescer.update("a", () -> sent.add("a1"));
+        coalescer.update("a", () -> sent.add("a2"));
+        awaitTermination();
+        assertEquals(Arrays.asList("a1", "a2"), sent);
+    }
+
+    @Test
+    public void testClear() throws InterruptedException {
+        MCRCoalescingExecutor<String> coalescer = new MCRCoalescingExecutor<>(executor, 200);
+        coalescer.update("a", () -> sent.add("a1"));
+        coalescer.clear();
+        awaitTermination();
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testShutdown() throws InterruptedException {
+        MCRCoalescingExecutor<String> coalescer = new MCRCoalescingExecutor<>(executor, 200);
+        awaitTermination();
+        coalescer.update("a", () -> sent.add("a1"));
+        coalescer.execute(() -> sent.add("property"));
+        assertTrue("Tasks submitted after shutdown should be dropped", sent.isEmpty());
+    }
+
+    private void awaitTermination() throws InterruptedException {
+        // delayed tasks are still run after shutdown
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTestCase;
+
+public class MCRSessionSnapshotTest extends MCRTestCase {
+
+    private ExecutorService pool;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    @Override
+    public void tearDown() throws Exception {
+        pool.shutdownNow();
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
+    @Test
+    public void restoreInOtherThread() throws Exception {
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        MCRSessionSnapshot snapshot = MCRSessionSnapshot.capture();
+        assertEquals(session.getID(), pool.submit(snapshot.wrap(MCRSessionSnapshotTest::currentSessionID, false)).get());
+        assertFalse("Session should be released after task", pool.submit(MCRSessionMgr::hasCurrentSession).get());
+        assertSame(session, MCRSessionMgr.getCurrentSession());
+    }
+
+    @Test
+    public void restoreInSameThread() throws Exception {
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        MCRSessionSnapshot snapshot = MCRSessionSnapshot.capture();
+        assertEquals(session.getID(), snapshot.wrap(MCRSessionSnapshotTest::currentSessionID, false).call());
+        assertTrue(MCRSessionMgr.hasCurrentSession());
+        assertSame(session, MCRSessionMgr.getCurrentSession());
+    }
+
+    @Test
+    public void propagatingExecutorService() throws Exception {
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        ExecutorService executor = new MCRSessionPropagatingExecutorService(pool, false);
+        String sessionIDs = CompletableFuture.supplyAsync(MCRSessionSnapshotTest::currentSessionID, executor)
+            .thenApplyAsync(id -> id + "," + currentSessionID(), executor)
+            .get(10, TimeUnit.SECONDS);
+        assertEquals(session.getID() + "," + session.getID(), sessionIDs);
+        assertFalse("Session should be released after task", pool.submit(MCRSessionMgr::hasCurrentSession).get());
+    }
+
+    @Test
+    public void emptySnapshot() throws Exception {
+        MCRSessionSnapshot snapshot = pool.submit(MCRSessionSnapshot::capture).get();
+        assertFalse(snapshot.getSession().isPresent());
+        assertFalse(pool.submit(snapshot.wrap(MCRSessionMgr::hasCurrentSession, false)).get());
+    }
+
+    private static String currentSessionID() {
+        return MCRSessionMgr.hasCurrentSession() ? MCRSessionMgr.getCurrentSession().getID() : null;
+    }
+}
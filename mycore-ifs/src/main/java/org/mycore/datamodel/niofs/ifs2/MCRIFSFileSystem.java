@@ -23,12 +23,14 @@ import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystemException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Comparator;
 import java.util.Objects;
 
 import org.apache.logging.log4j.LogManager;
 import org.mycore.datamodel.ifs2.MCRDirectory;
+import org.mycore.datamodel.ifs2.MCRFile;
 import org.mycore.datamodel.ifs2.MCRStore;
 import org.mycore.datamodel.ifs2.MCRStoreCenter;
 import org.mycore.datamodel.metadata.MCRObjectID;
@@ -137,4 +139,18 @@ public class MCRIFSFileSystem extends MCRAbstractFileSystem {
         LogManager.getLogger(getClass()).info("Removed root directory: {}", rootPath);
     }
 
+    @Override
+    public boolean moveFrom(Path source, MCRPath target, String md5) throws IOException {
+        MCRPath tgt = MCRFileSystemUtils.checkPathAbsolute(target);
+        boolean fireCreateEvent = Files.notExists(tgt);
+        MCRFile targetFile = MCRFileSystemUtils.getMCRFile(tgt, true, false, !fireCreateEvent);
+        boolean moved = targetFile.moveContentFrom(source, md5);
+        if (fireCreateEvent) {
+            MCRPathEventHelper.fireFileCreateEvent(tgt, targetFile.getBasicFileAttributes());
+        } else {
+            MCRPathEventHelper.fireFileUpdateEvent(tgt, targetFile.getBasicFileAttributes());
+        }
+        return moved;
+    }
+
 }
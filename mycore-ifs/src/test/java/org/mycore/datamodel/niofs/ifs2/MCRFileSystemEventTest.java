@@ -46,11 +46,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mycore.common.MCRTestCase;
+import org.mycore.common.MCRUtils;
 import org.mycore.common.events.MCREvent;
 import org.mycore.common.events.MCREventHandlerBase;
 import org.mycore.common.events.MCREventManager;
 import org.mycore.datamodel.ifs2.MCRStoreManager;
 import org.mycore.datamodel.niofs.MCRAbstractFileSystem;
+import org.mycore.datamodel.niofs.MCRFileAttributes;
 import org.mycore.datamodel.niofs.MCRPath;
 
 public class MCRFileSystemEventTest extends MCRTestCase {
@@ -146,6 +148,29 @@ public class MCRFileSystemEventTest extends MCRTestCase {
         Assert.assertEquals("Hello World!", new String(bytes, StandardCharsets.UTF_8));
     }
 
+    @Test
+    public void testMoveFrom() throws IOException {
+        final MCRAbstractFileSystem fileSystem = (MCRAbstractFileSystem) derivateRoot.getFileSystem();
+        fileSystem.createRoot(MCRPath.toMCRPath(derivateRoot).getOwner());
+        MCRPath file = MCRPath.toMCRPath(derivateRoot.resolve("File.txt"));
+        Path source = exportFolder.newFile("upload.txt").toPath();
+        Files.writeString(source, "Hello World!", StandardCharsets.UTF_8);
+        String md5 = MCRUtils.getMD5Sum(Files.newInputStream(source));
+        Assert.assertTrue(register.getEntries().isEmpty());
+        fileSystem.moveFrom(source, file, md5);
+        Assert.assertTrue(Files.notExists(source));
+        Assert.assertEquals(1, countEvents(MCREvent.CREATE_EVENT));
+        Assert.assertEquals("Hello World!", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertEquals(md5, Files.readAttributes(file, MCRFileAttributes.class).md5sum());
+        register.clear();
+        Path update = exportFolder.newFile("update.txt").toPath();
+        Files.writeString(update, "Hello Update!", StandardCharsets.UTF_8);
+        fileSystem.moveFrom(update, file, null);
+        Assert.assertEquals(1, countEvents(MCREvent.UPDATE_EVENT));
+        Assert.assertEquals(MCRUtils.getMD5Sum(Files.newInputStream(file)),
+            Files.readAttributes(file, MCRFileAttributes.class).md5sum());
+    }
+
     @Test
     public void testDirectoryStream() throws IOException {
         Path dir1 = derivateRoot.resolve("dir1");
@@ -41,7 +41,7 @@ public class MCRIIIFBaseURLFilter implements ContainerRequestFilter {
         if (httpRequest.getAttribute(BASE_URL_ATTRIBUTE) != null) {
             final MCRSession currentSession = MCRSessionMgr.getCurrentSession();
             if (currentSession != null) {
-                currentSession.put(BASE_URL_ATTRIBUTE, httpRequest.getAttribute(BASE_URL_ATTRIBUTE));
+                currentSession.putTransient(BASE_URL_ATTRIBUTE, httpRequest.getAttribute(BASE_URL_ATTRIBUTE));
             }
         }
     }
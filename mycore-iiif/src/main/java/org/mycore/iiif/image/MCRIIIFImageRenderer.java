@@ -0,0 +1,184 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.iiif.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.access.MCRAccessException;
+import org.mycore.common.MCRCache;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.iiif.image.impl.MCRIIIFImageBusyException;
+import org.mycore.iiif.image.impl.MCRIIIFImageImpl;
+import org.mycore.iiif.image.impl.MCRIIIFImageNotFoundException;
+import org.mycore.iiif.image.impl.MCRIIIFImageProvidingException;
+import org.mycore.iiif.image.impl.MCRIIIFUnsupportedFormatException;
+import org.mycore.iiif.image.model.MCRIIIFImageQuality;
+import org.mycore.iiif.image.model.MCRIIIFImageSourceRegion;
+import org.mycore.iiif.image.model.MCRIIIFImageTargetRotation;
+import org.mycore.iiif.image.model.MCRIIIFImageTargetSize;
+
+/**
+ * Renders and encodes IIIF images with bounded memory usage.
+ *
+ * <ul>
+ *     <li>Images stored exactly as requested are sent as they are, see
+ *     {@link MCRIIIFImageImpl#provideStored}.</li>
+ *     <li>The number of pixels rendered concurrently is limited by <code>MCR.IIIFImage.Render.MaxPixels</code>.
+ *     A request waits up to <code>MCR.IIIFImage.Render.MaxWaitMillis</code> for free capacity, otherwise a
+ *     {@link MCRIIIFImageBusyException} is thrown.</li>
+ *     <li>Image writers are pooled per format.</li>
+ *     <li>Encoded images up to <code>MCR.IIIFImage.Render.Cache.MaxImageBytes</code> are kept in a cache of
+ *     <code>MCR.IIIFImage.Render.Cache.Size</code> entries, so popular regions are rendered only once.</li>
+ * </ul>
+ */
+public final class MCRIIIFImageRenderer {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int MAX_PIXELS = MCRConfiguration2
+        .getOrThrow("MCR.IIIFImage.Render.MaxPixels", Integer::parseInt);
+
+    private static final long MAX_WAIT_MILLIS = MCRConfiguration2
+        .getOrThrow("MCR.IIIFImage.Render.MaxWaitMillis", Long::parseLong);
+
+    private static final int MAX_CACHED_IMAGE_BYTES = MCRConfiguration2
+        .getOrThrow("MCR.IIIFImage.Render.Cache.MaxImageBytes", Integer::parseInt);
+
+    private static final Semaphore PIXEL_BUDGET = new Semaphore(MAX_PIXELS, true);
+
+    private static final MCRCache<String, byte[]> IMAGE_CACHE = new MCRCache<>(
+        MCRConfiguration2.getOrThrow("MCR.IIIFImage.Render.Cache.Size", Integer::parseInt), "IIIF rendered images");
+
+    private static final Map<String, Queue<ImageWriter>> IMAGE_WRITERS = new ConcurrentHashMap<>();
+
+    private MCRIIIFImageRenderer() {
+    }
+
+    /**
+     * Returns the encoded image for a IIIF image request. The permission of the current user is checked by
+     * {@link MCRIIIFImageImpl#checkAccess(String)} before the cache is used.
+     *
+     * @param lastModified the last modification of the image, used to detect outdated cache entries
+     * @throws MCRIIIFImageBusyException if the image could not be rendered, because the server is busy
+     * @throws MCRAccessException if the current user may not view the image
+     */
+    public static byte[] render(MCRIIIFImageImpl impl, String identifier, long lastModified,
+        MCRIIIFImageSourceRegion region, MCRIIIFImageTargetSize targetSize, MCRIIIFImageTargetRotation rotation,
+        MCRIIIFImageQuality imageQuality, String format)
+        throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRIIIFUnsupportedFormatException,
+        MCRAccessException {
+        // the cache is shared by all users
+        impl.checkAccess(identifier);
+        String cacheKey = String.join("|", impl.getImplName(), identifier, region.toString(), targetSize.toString(),
+            rotation.toString(), imageQuality.toString(), format);
+        byte[] cachedImage = IMAGE_CACHE.getIfUpToDate(cacheKey, lastModified);
+        if (cachedImage != null) {
+            return cachedImage;
+        }
+
+        Optional<byte[]> storedImage = impl.provideStored(identifier, region, targetSize, rotation, imageQuality,
+            format);
+        if (storedImage.isPresent()) {
+            LOGGER.debug("Sending stored image for {}.", cacheKey);
+            return storedImage.get();
+        }
+
+        int pixels = (int) Math.min(MAX_PIXELS, getPixels(targetSize, rotation));
+        acquire(pixels);
+        byte[] image;
+        try {
+            BufferedImage provide = impl.provide(identifier, region, targetSize, rotation, imageQuality, format);
+            image = encode(provide, format);
+        } catch (IOException e) {
+            throw new MCRIIIFImageProvidingException("Error while encoding image!", e);
+        } finally {
+            PIXEL_BUDGET.release(pixels);
+        }
+        if (image.length <= MAX_CACHED_IMAGE_BYTES) {
+            IMAGE_CACHE.put(cacheKey, image);
+        }
+        return image;
+    }
+
+    private static long getPixels(MCRIIIFImageTargetSize targetSize, MCRIIIFImageTargetRotation rotation) {
+        double radians = Math.toRadians(rotation.getDegrees());
+        double sin = Math.abs(Math.sin(radians));
+        double cos = Math.abs(Math.cos(radians));
+        long width = (long) (targetSize.getWidth() * cos + targetSize.getHeight() * sin);
+        long height = (long) (targetSize.getWidth() * sin + targetSize.getHeight() * cos);
+        return Math.max(1, width * height);
+    }
+
+    private static void acquire(int pixels) throws MCRIIIFImageBusyException {
+        try {
+            if (!PIXEL_BUDGET.tryAcquire(pixels, MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new MCRIIIFImageBusyException(
+                    "Too many images are rendered at the moment, could not render " + pixels + " pixels.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MCRIIIFImageBusyException("Interrupted while waiting to render " + pixels + " pixels.");
+        }
+    }
+
+    /**
+     * Encodes an image with a pooled {@link ImageWriter}.
+     */
+    public static byte[] encode(BufferedImage image, String format) throws IOException {
+        String formatName = format.toLowerCase(Locale.ROOT);
+        Queue<ImageWriter> writers = IMAGE_WRITERS.computeIfAbsent(formatName, f -> new ConcurrentLinkedQueue<>());
+        ImageWriter writer = writers.poll();
+        if (writer == null) {
+            Iterator<ImageWriter> availableWriters = ImageIO.getImageWritersByFormatName(formatName);
+            if (!availableWriters.hasNext()) {
+                throw new IOException("No image writer available for format " + format);
+            }
+            writer = availableWriters.next();
+        }
+        try (ByteArrayOutputStream bout = new ByteArrayOutputStream(64 * 1024);
+            ImageOutputStream out = ImageIO.createImageOutputStream(bout)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), writer.getDefaultWriteParam());
+            out.flush();
+            return bout.toByteArray();
+        } finally {
+            writer.reset();
+            writers.add(writer);
+        }
+    }
+}
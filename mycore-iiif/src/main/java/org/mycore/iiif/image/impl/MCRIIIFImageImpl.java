@@ -23,6 +23,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import org.mycore.access.MCRAccessException;
 import org.mycore.common.MCRException;
@@ -94,6 +95,32 @@ public abstract class MCRIIIFImageImpl {
         throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRIIIFUnsupportedFormatException,
         MCRAccessException;
 
+    /**
+     * Returns the encoded image, if it is already stored exactly as requested, e.g. as a tile. This allows sending
+     * the image without decoding and encoding it again. The default implementation returns an empty Optional.
+     */
+    public Optional<byte[]> provideStored(String identifier,
+        MCRIIIFImageSourceRegion region,
+        MCRIIIFImageTargetSize targetSize,
+        MCRIIIFImageTargetRotation rotation,
+        MCRIIIFImageQuality imageQuality,
+        String format)
+        throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRAccessException {
+        return Optional.empty();
+    }
+
+    /**
+     * Checks if the current user may view the image. Called before cached images are returned, so implementations
+     * should override this with a check that does not read the image. The default implementation calls
+     * {@link #getInformation(String)}, which checks the permission, too.
+     *
+     * @throws MCRAccessException if the current user may not view the image
+     */
+    public void checkAccess(String identifier)
+        throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRAccessException {
+        getInformation(identifier);
+    }
+
     public abstract MCRIIIFImageInformation getInformation(String identifier)
         throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRAccessException;
 
@@ -25,14 +25,12 @@ import static org.mycore.iiif.image.MCRIIIFImageUtil.encodeImageIdentifier;
 import static org.mycore.iiif.image.MCRIIIFImageUtil.getIIIFURL;
 import static org.mycore.iiif.image.MCRIIIFImageUtil.getImpl;
 
-import java.awt.image.BufferedImage;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Date;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
-import javax.imageio.ImageIO;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -40,13 +38,14 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.access.MCRAccessException;
 import org.mycore.frontend.jersey.MCRCacheControl;
 import org.mycore.iiif.common.MCRIIIFMediaTypeHelper;
+import org.mycore.iiif.image.MCRIIIFImageRenderer;
+import org.mycore.iiif.image.impl.MCRIIIFImageBusyException;
 import org.mycore.iiif.image.impl.MCRIIIFImageImpl;
 import org.mycore.iiif.image.impl.MCRIIIFImageNotFoundException;
 import org.mycore.iiif.image.impl.MCRIIIFImageProvidingException;
@@ -75,6 +74,8 @@ public class MCRIIIFImageResource {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static final int RETRY_AFTER_SECONDS = 1;
+
     @Context
     Request request;
 
@@ -166,8 +167,8 @@ public class MCRIIIFImageResource {
 
             MCRIIIFImageQuality imageQuality = MCRIIIFImageQuality.fromString(quality);
 
-            BufferedImage provide = impl
-                .provide(identifier, sourceRegion, targetSize, parsedRotation, imageQuality, format);
+            byte[] image = MCRIIIFImageRenderer.render(impl, identifier, information.lastModified, sourceRegion,
+                targetSize, parsedRotation, imageQuality, format);
 
             Response.Status status = rp.isCompleteValid() ? Response.Status.OK : Response.Status.BAD_REQUEST;
 
@@ -177,13 +178,19 @@ public class MCRIIIFImageResource {
                 .header("Profile", buildProfileURL())
                 .type("image/" + format)
                 .lastModified(new Date(information.lastModified))
-                .entity((StreamingOutput) outputStream -> ImageIO.write(provide, format, outputStream)).build();
+                .entity(image).build();
         } catch (MCRIIIFImageNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
         } catch (IllegalArgumentException | MCRIIIFUnsupportedFormatException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
         } catch (MCRAccessException e) {
             return Response.status(Response.Status.FORBIDDEN).entity(e.getMessage()).build();
+        } catch (MCRIIIFImageBusyException e) {
+            LOGGER.warn(e.getMessage());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .entity(e.getMessage())
+                .build();
         } catch (Exception e) {
             LOGGER.error(() -> "Error while getting Image " + identifier + " from " + implStr + " with region: " +
                 region + ", size: " + size + ", rotation: " + rotation + ", quality: " + quality + ", format: " +
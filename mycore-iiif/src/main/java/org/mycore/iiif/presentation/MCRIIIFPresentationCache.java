@@ -0,0 +1,260 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.iiif.presentation;
+
+import static org.mycore.iiif.presentation.MCRIIIFPresentationUtil.correctIDs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCache;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRUtils;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.iiif.presentation.impl.MCRIIIFPresentationImpl;
+import org.mycore.iiif.presentation.model.basic.MCRIIIFManifest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Caches IIIF presentation manifests together with their serialized JSON, so a manifest is built and serialized
+ * only once. Entries are removed by {@link MCRIIIFPresentationCacheEventHandler} if the underlying derivate or
+ * object changes. The number of cached manifests is limited by <code>MCR.IIIFPresentation.Cache.Size</code>.
+ */
+public final class MCRIIIFPresentationCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String KEY_SEPARATOR = "|";
+
+    private static final boolean GZIP = MCRConfiguration2.getBoolean("MCR.IIIFPresentation.Cache.Gzip")
+        .orElse(true);
+
+    private static final MCRCache<String, Entry> CACHE = new MCRCache<>(
+        MCRConfiguration2.getOrThrow("MCR.IIIFPresentation.Cache.Size", Integer::parseInt),
+        MCRIIIFPresentationCache.class.getName());
+
+    private static final Map<String, CompletableFuture<Entry>> PENDING = new ConcurrentHashMap<>();
+
+    // builds in progress per identifier, removed when the last build is finished
+    private static final Map<String, BuildState> BUILDS = new ConcurrentHashMap<>();
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private MCRIIIFPresentationCache() {
+    }
+
+    /**
+     * Returns the cached manifest, building and serializing it with pretty printing if necessary. Concurrent
+     * requests for the same manifest wait for a single build. A manifest that is invalidated while it is built is
+     * returned, but not cached.
+     *
+     * @param impl the implementation as given in the request, may be empty for the default implementation
+     * @param identifier the identifier of the manifest
+     */
+    public static Entry get(String impl, String identifier) {
+        String key = impl + KEY_SEPARATOR + identifier;
+        Entry entry = CACHE.get(key);
+        if (entry != null) {
+            LOGGER.debug("Manifest {}:{} served from cache", impl, identifier);
+            return entry;
+        }
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> running = PENDING.putIfAbsent(key, future);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        long generation = BUILDS.merge(identifier, new BuildState(0, 1), BuildState::addBuild).generation;
+        try {
+            entry = build(impl, identifier);
+            return entry;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            finishBuild(key, identifier, generation, entry);
+            if (entry != null) {
+                future.complete(entry);
+            }
+            PENDING.remove(key, future);
+        }
+    }
+
+    /**
+     * Caches the built entry, unless the identifier was invalidated since the build was started.
+     *
+     * @param entry the built entry or <code>null</code>, if the build failed
+     */
+    private static void finishBuild(String key, String identifier, long generation, Entry entry) {
+        BUILDS.computeIfPresent(identifier, (id, state) -> {
+            if (entry != null && state.generation == generation) {
+                CACHE.put(key, entry);
+            } else if (entry != null) {
+                LOGGER.info("Manifest {} was invalidated while it was built, not caching it.", key);
+            }
+            return state.builds > 1 ? new BuildState(state.generation, state.builds - 1) : null;
+        });
+    }
+
+    /**
+     * Removes all cached manifests of the given identifier.
+     */
+    public static void invalidate(String identifier) {
+        String suffix = KEY_SEPARATOR + identifier;
+        BUILDS.compute(identifier, (id, state) -> {
+            CACHE.keys().stream()
+                .filter(key -> key.endsWith(suffix) && key.indexOf(KEY_SEPARATOR) == key.length() - suffix.length())
+                .forEach(key -> {
+                    LOGGER.info("Removing manifest {} from cache.", key);
+                    CACHE.remove(key);
+                });
+            // running builds must not cache their manifest
+            return state == null ? null : new BuildState(state.generation + 1, state.builds);
+        });
+    }
+
+    /**
+     * Returns the number of identifiers with manifests that are built at the moment.
+     */
+    static int getBuildingCount() {
+        return BUILDS.size();
+    }
+
+    /**
+     * Removes all cached manifests.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static Entry build(String impl, String identifier) {
+        long startTime = System.currentTimeMillis();
+        MCRIIIFManifest manifest = MCRIIIFPresentationImpl.getInstance(impl).getManifest(identifier);
+        MCRIIIFPresentationManifestQuickAccess quickAccess = new MCRIIIFPresentationManifestQuickAccess(manifest);
+        correctIDs(manifest, impl, identifier);
+        byte[] json = GSON.toJson(manifest).getBytes(StandardCharsets.UTF_8);
+        Entry entry = new Entry(quickAccess, json, GZIP ? gzip(json) : null, getETag(json));
+        LOGGER.info("Manifest {}:{} generation needed: {}ms", impl, identifier,
+            System.currentTimeMillis() - startTime);
+        return entry;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(bout)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bout.toByteArray();
+    }
+
+    private static String getETag(byte[] data) {
+        try {
+            return MCRUtils.toHexString(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new MCRException(e);
+        }
+    }
+
+    /**
+     * The number of running builds of an identifier and the number of invalidations since the first of them was
+     * started.
+     */
+    private static final class BuildState {
+
+        private final long generation;
+
+        private final int builds;
+
+        private BuildState(long generation, int builds) {
+            this.generation = generation;
+            this.builds = builds;
+        }
+
+        private BuildState addBuild(BuildState other) {
+            return new BuildState(generation, builds + other.builds);
+        }
+    }
+
+    /**
+     * A cached manifest.
+     */
+    public static final class Entry {
+
+        private final MCRIIIFPresentationManifestQuickAccess quickAccess;
+
+        private final byte[] json;
+
+        private final byte[] gzippedJSON;
+
+        private final String eTag;
+
+        private Entry(MCRIIIFPresentationManifestQuickAccess quickAccess, byte[] json, byte[] gzippedJSON,
+            String eTag) {
+            this.quickAccess = quickAccess;
+            this.json = json;
+            this.gzippedJSON = gzippedJSON;
+            this.eTag = eTag;
+        }
+
+        public MCRIIIFPresentationManifestQuickAccess getQuickAccess() {
+            return quickAccess;
+        }
+
+        /**
+         * Returns the manifest serialized as UTF-8 encoded JSON.
+         */
+        public byte[] getJSON() {
+            return json;
+        }
+
+        /**
+         * Returns the gzip compressed JSON or <code>null</code>, if <code>MCR.IIIFPresentation.Cache.Gzip</code>
+         * is false.
+         */
+        public byte[] getGzippedJSON() {
+            return gzippedJSON;
+        }
+
+        /**
+         * Returns the MD5 sum of the JSON to be used as strong entity tag.
+         */
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
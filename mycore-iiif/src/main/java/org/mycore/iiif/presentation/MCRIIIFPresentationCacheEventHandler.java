@@ -0,0 +1,93 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.iiif.presentation;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.niofs.MCRPath;
+
+/**
+ * Removes manifests from {@link MCRIIIFPresentationCache} if the derivate, one of its files (e.g. the mets.xml) or
+ * the object owning the derivate changes.
+ */
+public class MCRIIIFPresentationCacheEventHandler extends MCREventHandlerBase {
+
+    @Override
+    protected void handleObjectUpdated(MCREvent evt, MCRObject obj) {
+        invalidateDerivates(obj);
+    }
+
+    @Override
+    protected void handleObjectDeleted(MCREvent evt, MCRObject obj) {
+        invalidateDerivates(obj);
+    }
+
+    @Override
+    protected void handleObjectRepaired(MCREvent evt, MCRObject obj) {
+        invalidateDerivates(obj);
+    }
+
+    @Override
+    protected void handleDerivateUpdated(MCREvent evt, MCRDerivate der) {
+        MCRIIIFPresentationCache.invalidate(der.getId().toString());
+    }
+
+    @Override
+    protected void handleDerivateDeleted(MCREvent evt, MCRDerivate der) {
+        MCRIIIFPresentationCache.invalidate(der.getId().toString());
+    }
+
+    @Override
+    protected void handleDerivateRepaired(MCREvent evt, MCRDerivate der) {
+        MCRIIIFPresentationCache.invalidate(der.getId().toString());
+    }
+
+    @Override
+    protected void handlePathCreated(MCREvent evt, Path path, BasicFileAttributes attrs) {
+        invalidatePath(path);
+    }
+
+    @Override
+    protected void handlePathUpdated(MCREvent evt, Path path, BasicFileAttributes attrs) {
+        invalidatePath(path);
+    }
+
+    @Override
+    protected void handlePathDeleted(MCREvent evt, Path path, BasicFileAttributes attrs) {
+        invalidatePath(path);
+    }
+
+    private void invalidateDerivates(MCRObject obj) {
+        MCRIIIFPresentationCache.invalidate(obj.getId().toString());
+        obj.getStructure().getDerivates()
+            .forEach(derivate -> MCRIIIFPresentationCache.invalidate(derivate.getXLinkHref()));
+    }
+
+    private void invalidatePath(Path path) {
+        if (path instanceof MCRPath) {
+            MCRIIIFPresentationCache.invalidate(((MCRPath) path).getOwner());
+        }
+    }
+}
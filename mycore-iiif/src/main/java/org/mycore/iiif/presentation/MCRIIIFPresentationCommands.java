@@ -0,0 +1,81 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.iiif.presentation;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.frontend.cli.MCRAbstractCommands;
+import org.mycore.frontend.cli.MCRCommandUtils;
+import org.mycore.frontend.cli.MCRObjectCommands;
+import org.mycore.frontend.cli.annotation.MCRCommand;
+import org.mycore.frontend.cli.annotation.MCRCommandGroup;
+
+/**
+ * Commands to fill the {@link MCRIIIFPresentationCache} in advance. As the cache is held in memory, these commands
+ * are only useful in the web command line interface of a running application.
+ */
+@MCRCommandGroup(name = "IIIF Presentation Commands")
+public class MCRIIIFPresentationCommands extends MCRAbstractCommands {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @MCRCommand(syntax = "build iiif manifest for {0} with implementation {1}",
+        help = "builds the IIIF manifest of {0} with the presentation implementation {1} and caches it",
+        order = 10)
+    public static void buildManifest(String identifier, String impl) {
+        MCRIIIFPresentationCache.Entry entry = MCRIIIFPresentationCache.get(impl, identifier);
+        LOGGER.info("Cached IIIF manifest {}:{} with {} bytes.", impl, identifier, entry.getJSON().length);
+    }
+
+    @MCRCommand(syntax = "build iiif manifest for {0}",
+        help = "builds the IIIF manifest of {0} with the default presentation implementation and caches it",
+        order = 20)
+    public static void buildManifest(String identifier) {
+        buildManifest(identifier, "");
+    }
+
+    @MCRCommand(syntax = "build iiif manifests for selected",
+        help = "builds the IIIF manifests of the selected derivates with the default presentation implementation",
+        order = 30)
+    public static List<String> buildManifestsForSelected() {
+        return MCRObjectCommands.getSelectedObjectIDs().stream()
+            .map(id -> "build iiif manifest for " + id)
+            .collect(Collectors.toList());
+    }
+
+    @MCRCommand(syntax = "build iiif manifests for project id {0}",
+        help = "builds the IIIF manifests of all derivates of project {0} with the default presentation implementation",
+        order = 40)
+    public static List<String> buildManifestsForProjectID(String projectID) {
+        return MCRCommandUtils.getIdsForProjectAndType(projectID, "derivate")
+            .map(id -> "build iiif manifest for " + id)
+            .collect(Collectors.toList());
+    }
+
+    @MCRCommand(syntax = "clear iiif manifest cache",
+        help = "removes all IIIF manifests from the cache",
+        order = 50)
+    public static void clearCache() {
+        MCRIIIFPresentationCache.clear();
+    }
+}
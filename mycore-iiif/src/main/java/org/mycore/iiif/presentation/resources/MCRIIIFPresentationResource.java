@@ -18,25 +18,26 @@
 
 package org.mycore.iiif.presentation.resources;
 
-import static org.mycore.iiif.presentation.MCRIIIFPresentationUtil.correctIDs;
-
-import java.util.Date;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.mycore.common.MCRCache;
 import org.mycore.frontend.jersey.MCRCacheControl;
 import org.mycore.iiif.common.MCRIIIFMediaTypeHelper;
+import org.mycore.iiif.presentation.MCRIIIFPresentationCache;
 import org.mycore.iiif.presentation.MCRIIIFPresentationManifestQuickAccess;
-import org.mycore.iiif.presentation.impl.MCRIIIFPresentationImpl;
-import org.mycore.iiif.presentation.model.basic.MCRIIIFManifest;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -44,17 +45,18 @@ import com.google.gson.GsonBuilder;
 @Path("/presentation/v2{noop: /?}{impl: ([a-zA-Z0-9]+)?}")
 public class MCRIIIFPresentationResource {
 
-    private static final Logger LOGGER = LogManager.getLogger();
-
-    private static final MCRCache<String, MCRIIIFPresentationManifestQuickAccess> CACHE = new MCRCache<>(1000,
-        MCRIIIFPresentationResource.class.getName());
-
     private static final String IMPL_PARAM = "impl";
 
     private static final String NAME_PARAM = "name";
 
     private static final String IDENTIFIER_PARAM = "identifier";
 
+    @Context
+    Request request;
+
+    @Context
+    HttpHeaders headers;
+
     @GET
     @Produces(MCRIIIFMediaTypeHelper.APPLICATION_LD_JSON)
     @Path("collection/{" + NAME_PARAM + "}")
@@ -71,28 +73,35 @@ public class MCRIIIFPresentationResource {
         sMaxAge = @MCRCacheControl.Age(time = 1, unit = TimeUnit.DAYS))
     public Response getManifest(@PathParam(IMPL_PARAM) String impl, @PathParam(IDENTIFIER_PARAM) String identifier)
         throws CloneNotSupportedException {
-        MCRIIIFPresentationManifestQuickAccess quickAccess = getManifestQuickAccess(impl, identifier);
-        String manifestAsJSON = getGson().toJson(quickAccess.getManifest());
-        return addHeaders(Response.ok()).entity(manifestAsJSON).build();
+        MCRIIIFPresentationCache.Entry entry = MCRIIIFPresentationCache.get(impl, identifier);
+        EntityTag eTag = new EntityTag(entry.getETag());
+        Response.ResponseBuilder notModified = Optional.ofNullable(request)
+            .map(r -> r.evaluatePreconditions(eTag))
+            .orElse(null);
+        if (notModified != null) {
+            return addHeaders(notModified).build();
+        }
+        Response.ResponseBuilder builder = addHeaders(Response.ok()).tag(eTag).header(HttpHeaders.VARY,
+            HttpHeaders.ACCEPT_ENCODING);
+        if (entry.getGzippedJSON() != null && acceptsGzip()) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").entity(entry.getGzippedJSON()).build();
+        }
+        return builder.entity(entry.getJSON()).build();
+    }
+
+    private boolean acceptsGzip() {
+        return Optional.ofNullable(headers)
+            .map(h -> h.getRequestHeader(HttpHeaders.ACCEPT_ENCODING))
+            .stream()
+            .flatMap(List::stream)
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(encoding -> encoding.replace(" ", "").toLowerCase(Locale.ROOT))
+            .filter(encoding -> encoding.equals("gzip") || encoding.startsWith("gzip;"))
+            .anyMatch(encoding -> !encoding.matches("gzip;q=0(\\.0*)?"));
     }
 
     protected MCRIIIFPresentationManifestQuickAccess getManifestQuickAccess(String impl, String identifier) {
-        MCRIIIFPresentationManifestQuickAccess quickAccess = CACHE
-            .getIfUpToDate(impl + identifier, TimeUnit.HOURS.toMillis(1));
-        if (quickAccess == null) {
-            long startTime = new Date().getTime();
-            MCRIIIFManifest manifest = MCRIIIFPresentationImpl.getInstance(impl).getManifest(identifier);
-            long endTime = new Date().getTime();
-            long timeNeeded = endTime - startTime;
-            LOGGER.info("Manifest {}:{} generation needed: {}ms", impl, identifier, timeNeeded);
-
-            quickAccess = new MCRIIIFPresentationManifestQuickAccess(manifest);
-            CACHE.put(impl + identifier, quickAccess);
-            correctIDs(manifest, impl, identifier);
-        } else {
-            LOGGER.info("Manifest {}:{} served from cache", impl, identifier);
-        }
-        return quickAccess;
+        return MCRIIIFPresentationCache.get(impl, identifier).getQuickAccess();
     }
 
     protected Response.ResponseBuilder addHeaders(Response.ResponseBuilder builder) {
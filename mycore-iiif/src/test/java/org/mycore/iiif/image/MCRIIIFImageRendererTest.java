@@ -0,0 +1,246 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.iiif.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mycore.access.MCRAccessException;
+import org.mycore.common.MCRTestCase;
+import org.mycore.iiif.image.impl.MCRIIIFImageBusyException;
+import org.mycore.iiif.image.impl.MCRIIIFImageImpl;
+import org.mycore.iiif.image.impl.MCRIIIFImageNotFoundException;
+import org.mycore.iiif.image.impl.MCRIIIFImageProvidingException;
+import org.mycore.iiif.image.model.MCRIIIFImageInformation;
+import org.mycore.iiif.image.model.MCRIIIFImageProfile;
+import org.mycore.iiif.image.model.MCRIIIFImageQuality;
+import org.mycore.iiif.image.model.MCRIIIFImageSourceRegion;
+import org.mycore.iiif.image.model.MCRIIIFImageTargetRotation;
+import org.mycore.iiif.image.model.MCRIIIFImageTargetSize;
+import org.mycore.iiif.image.resources.MCRIIIFImageResource;
+
+public class MCRIIIFImageRendererTest extends MCRTestCase {
+
+    private static final int MAX_PIXELS = 100 * 100;
+
+    private static final MCRIIIFImageTargetRotation NO_ROTATION = new MCRIIIFImageTargetRotation(false, 0);
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.IIIFImage.Default", "Test");
+        testProperties.put("MCR.IIIFImage.Test", TestImageImpl.class.getName());
+        testProperties.put("MCR.IIIFImage.Render.MaxPixels", String.valueOf(MAX_PIXELS));
+        testProperties.put("MCR.IIIFImage.Render.MaxWaitMillis", "100");
+        testProperties.put("MCR.IIIFImage.Render.Cache.MaxImageBytes", "1000000");
+        testProperties.put("MCR.IIIFImage.Render.Cache.Size", "10");
+        return testProperties;
+    }
+
+    @After
+    public void resetImpl() {
+        TestImageImpl.provided.set(0);
+        TestImageImpl.denied = false;
+        TestImageImpl.stored = null;
+        TestImageImpl.blocking = null;
+        TestImageImpl.release = null;
+        TestImageImpl.entered.drainPermits();
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        long lastModified = System.currentTimeMillis();
+        byte[] image = render("cached", 10, 10, lastModified);
+        assertSame("Second request should be served from cache.", image, render("cached", 10, 10, lastModified));
+        assertEquals(1, TestImageImpl.provided.get());
+
+        render("cached", 20, 10, lastModified);
+        assertEquals("Other size should not hit the cache.", 2, TestImageImpl.provided.get());
+
+        render("cached", 10, 10, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
+        assertEquals("Modified image should not hit the cache.", 3, TestImageImpl.provided.get());
+    }
+
+    @Test
+    public void testAccessCheckedBeforeCache() throws Exception {
+        long lastModified = System.currentTimeMillis();
+        render("protected", 10, 10, lastModified);
+        TestImageImpl.denied = true;
+        try {
+            render("protected", 10, 10, lastModified);
+            fail("Cached image should not be returned without permission.");
+        } catch (MCRAccessException e) {
+            assertEquals(1, TestImageImpl.provided.get());
+        }
+    }
+
+    @Test
+    public void testStoredImage() throws Exception {
+        TestImageImpl.stored = new byte[] { 1, 2, 3 };
+        assertArrayEquals(TestImageImpl.stored, render("stored", 256, 256, System.currentTimeMillis()));
+        assertEquals("Stored image should not be rendered.", 0, TestImageImpl.provided.get());
+    }
+
+    @Test
+    public void testPixelBudget() throws Exception {
+        long lastModified = System.currentTimeMillis();
+        // larger images are limited to the whole budget, so they can still be rendered
+        assertNotNull(render("large", 1000, 1000, lastModified));
+
+        TestImageImpl.blocking = new CountDownLatch(1);
+        CompletableFuture<byte[]> half = CompletableFuture.supplyAsync(() -> {
+            try {
+                return render("half", 100, 50, lastModified);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            assertTrue(TestImageImpl.entered.tryAcquire(10, TimeUnit.SECONDS));
+            // the other half of the budget is still free
+            TestImageImpl.blocking = null;
+            assertNotNull(render("otherHalf", 100, 50, lastModified));
+            try {
+                render("full", 100, 100, lastModified);
+                fail("Image should not be rendered without free pixel budget.");
+            } catch (MCRIIIFImageBusyException e) {
+                // expected
+            }
+        } finally {
+            releaseBlocked();
+        }
+        assertNotNull(half.get(10, TimeUnit.SECONDS));
+        assertNotNull("Budget should be released after rendering.", render("full", 100, 100, lastModified));
+    }
+
+    @Test
+    public void testBusyResponse() throws Exception {
+        long lastModified = System.currentTimeMillis();
+        TestImageImpl.blocking = new CountDownLatch(1);
+        CompletableFuture<byte[]> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return render("blocking", 100, 100, lastModified);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            assertTrue(TestImageImpl.entered.tryAcquire(10, TimeUnit.SECONDS));
+            Response response = new MCRIIIFImageResource().getImage("Test", "busy", "full", "full", "0", "default",
+                "png");
+            assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
+            assertNotNull(response.getHeaderString("Retry-After"));
+        } finally {
+            releaseBlocked();
+        }
+        assertNotNull(blocked.get(10, TimeUnit.SECONDS));
+    }
+
+    private static void releaseBlocked() {
+        CountDownLatch release = TestImageImpl.release;
+        if (release != null) {
+            release.countDown();
+        }
+    }
+
+    private static byte[] render(String identifier, int width, int height, long lastModified) throws Exception {
+        return MCRIIIFImageRenderer.render(MCRIIIFImageImpl.getInstance("Test"), identifier, lastModified,
+            new MCRIIIFImageSourceRegion(0, 0, width, height), new MCRIIIFImageTargetSize(width, height), NO_ROTATION,
+            MCRIIIFImageQuality.color, "png");
+    }
+
+    public static class TestImageImpl extends MCRIIIFImageImpl {
+
+        static final AtomicInteger provided = new AtomicInteger();
+
+        static final Semaphore entered = new Semaphore(0);
+
+        static volatile boolean denied;
+
+        static volatile byte[] stored;
+
+        static volatile CountDownLatch blocking;
+
+        static volatile CountDownLatch release;
+
+        public TestImageImpl(String implName) {
+            super(implName);
+        }
+
+        @Override
+        public BufferedImage provide(String identifier, MCRIIIFImageSourceRegion region,
+            MCRIIIFImageTargetSize targetSize, MCRIIIFImageTargetRotation rotation, MCRIIIFImageQuality imageQuality,
+            String format) throws MCRIIIFImageProvidingException {
+            provided.incrementAndGet();
+            CountDownLatch latch = blocking;
+            if (latch != null) {
+                release = latch;
+                entered.release();
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MCRIIIFImageProvidingException("Interrupted", e);
+                }
+            }
+            return new BufferedImage(targetSize.getWidth(), targetSize.getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+
+        @Override
+        public Optional<byte[]> provideStored(String identifier, MCRIIIFImageSourceRegion region,
+            MCRIIIFImageTargetSize targetSize, MCRIIIFImageTargetRotation rotation, MCRIIIFImageQuality imageQuality,
+            String format) {
+            return Optional.ofNullable(stored);
+        }
+
+        @Override
+        public void checkAccess(String identifier) throws MCRAccessException {
+            if (denied) {
+                throw MCRAccessException.missingPermission("View " + identifier, identifier, "view");
+            }
+        }
+
+        @Override
+        public MCRIIIFImageInformation getInformation(String identifier) throws MCRIIIFImageNotFoundException {
+            return new MCRIIIFImageInformation(null, identifier, null, 100, 100, System.currentTimeMillis());
+        }
+
+        @Override
+        public MCRIIIFImageProfile getProfile() {
+            return new MCRIIIFImageProfile();
+        }
+    }
+}
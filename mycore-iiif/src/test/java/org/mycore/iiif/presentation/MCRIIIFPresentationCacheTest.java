@@ -0,0 +1,170 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.iiif.presentation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.events.MCREvent;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRMetaEnrichedLinkID;
+import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.metadata.MCRObjectID;
+
+public class MCRIIIFPresentationCacheTest extends MCRTestCase {
+
+    private static final String IMPL = "Test";
+
+    private static final String DERIVATE_ID = "junit_derivate_00000001";
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.baseurl", "http://localhost/");
+        testProperties.put("MCR.Metadata.Type.derivate", Boolean.TRUE.toString());
+        testProperties.put("MCR.Metadata.Type.test", Boolean.TRUE.toString());
+        testProperties.put("MCR.IIIFPresentation.Default", IMPL);
+        testProperties.put("MCR.IIIFPresentation." + IMPL, MCRIIIFPresentationTestImpl.class.getName());
+        testProperties.put("MCR.IIIFPresentation.Cache.Size", "10");
+        testProperties.put("MCR.IIIFPresentation.Cache.Gzip", Boolean.TRUE.toString());
+        return testProperties;
+    }
+
+    @Before
+    public void resetCache() {
+        MCRIIIFPresentationCache.clear();
+        MCRIIIFPresentationTestImpl.reset();
+    }
+
+    @After
+    public void releaseBuilds() {
+        CountDownLatch blocking = MCRIIIFPresentationTestImpl.blocking;
+        if (blocking != null) {
+            blocking.countDown();
+        }
+    }
+
+    @Test
+    public void testCached() {
+        MCRIIIFPresentationCache.Entry entry = MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        assertSame(entry, MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID));
+        assertEquals(1, MCRIIIFPresentationTestImpl.BUILDS.get());
+        assertTrue(new String(entry.getJSON(), StandardCharsets.UTF_8).contains("Manifest of " + DERIVATE_ID));
+        assertEquals("Manifest of " + DERIVATE_ID, entry.getQuickAccess().getManifest().getLabel());
+
+        MCRIIIFPresentationCache.get(IMPL, "junit_derivate_00000002");
+        assertEquals(2, MCRIIIFPresentationTestImpl.BUILDS.get());
+    }
+
+    @Test
+    public void testETagAndGzip() throws IOException {
+        MCRIIIFPresentationCache.Entry entry = MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        assertEquals("ETag should be the MD5 sum of the JSON.", 32, entry.getETag().length());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(entry.getGzippedJSON()))) {
+            assertArrayEquals(entry.getJSON(), in.readAllBytes());
+        }
+
+        MCRIIIFPresentationCache.invalidate(DERIVATE_ID);
+        MCRIIIFPresentationCache.Entry rebuilt = MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        assertEquals("Unchanged manifest should keep its ETag.", entry.getETag(), rebuilt.getETag());
+        assertNotEquals(entry.getETag(), MCRIIIFPresentationCache.get(IMPL, "junit_derivate_00000002").getETag());
+    }
+
+    @Test
+    public void testInvalidateOnDerivateEvent() {
+        MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        MCRIIIFPresentationCache.get(IMPL, "junit_derivate_00000002");
+
+        MCRDerivate derivate = new MCRDerivate();
+        derivate.setId(MCRObjectID.getInstance(DERIVATE_ID));
+        MCREvent evt = new MCREvent(MCREvent.DERIVATE_TYPE, MCREvent.UPDATE_EVENT);
+        evt.put(MCREvent.DERIVATE_KEY, derivate);
+        new MCRIIIFPresentationCacheEventHandler().doHandleEvent(evt);
+
+        MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        MCRIIIFPresentationCache.get(IMPL, "junit_derivate_00000002");
+        assertEquals("Only the updated derivate should be built again.", 3,
+            MCRIIIFPresentationTestImpl.BUILDS.get());
+    }
+
+    @Test
+    public void testInvalidateOnObjectEvent() {
+        MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+
+        MCRObject object = new MCRObject();
+        object.setId(MCRObjectID.getInstance("junit_test_00000001"));
+        MCRMetaEnrichedLinkID derivateLink = new MCRMetaEnrichedLinkID();
+        derivateLink.setReference(MCRObjectID.getInstance(DERIVATE_ID), null, null);
+        // addDerivate() would look up the derivate in the metadata store
+        object.getStructure().getDerivates().add(derivateLink);
+        MCREvent evt = new MCREvent(MCREvent.OBJECT_TYPE, MCREvent.UPDATE_EVENT);
+        evt.put(MCREvent.OBJECT_KEY, object);
+        new MCRIIIFPresentationCacheEventHandler().doHandleEvent(evt);
+
+        MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        assertEquals("Derivates of an updated object should be built again.", 2,
+            MCRIIIFPresentationTestImpl.BUILDS.get());
+    }
+
+    @Test
+    public void testInvalidateDuringBuild() throws Exception {
+        MCRIIIFPresentationTestImpl.blocking = new CountDownLatch(1);
+        CompletableFuture<MCRIIIFPresentationCache.Entry> build = CompletableFuture
+            .supplyAsync(() -> MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID));
+        assertTrue(MCRIIIFPresentationTestImpl.ENTERED.tryAcquire(10, TimeUnit.SECONDS));
+        MCRIIIFPresentationCache.invalidate(DERIVATE_ID);
+        MCRIIIFPresentationTestImpl.blocking.countDown();
+        assertEquals(1, MCRIIIFPresentationTestImpl.BUILDS.get());
+        build.get(10, TimeUnit.SECONDS);
+
+        MCRIIIFPresentationTestImpl.blocking = null;
+        MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        assertEquals("Manifest invalidated during its build should not be cached.", 2,
+            MCRIIIFPresentationTestImpl.BUILDS.get());
+        MCRIIIFPresentationCache.get(IMPL, DERIVATE_ID);
+        assertEquals(2, MCRIIIFPresentationTestImpl.BUILDS.get());
+        assertEquals("Finished builds should not be tracked", 0, MCRIIIFPresentationCache.getBuildingCount());
+    }
+
+    @Test
+    public void testInvalidateWithoutBuild() {
+        for (int i = 1; i <= 5; i++) {
+            MCRIIIFPresentationCache.invalidate("junit_derivate_0000000" + i);
+        }
+        assertEquals("Invalidations should not be tracked without a running build", 0,
+            MCRIIIFPresentationCache.getBuildingCount());
+    }
+}
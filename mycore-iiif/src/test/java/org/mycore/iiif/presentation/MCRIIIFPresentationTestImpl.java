@@ -0,0 +1,67 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.iiif.presentation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mycore.iiif.presentation.impl.MCRIIIFPresentationImpl;
+import org.mycore.iiif.presentation.model.basic.MCRIIIFManifest;
+
+/**
+ * Builds empty manifests labeled with their identifier and counts the builds.
+ */
+public class MCRIIIFPresentationTestImpl extends MCRIIIFPresentationImpl {
+
+    public static final AtomicInteger BUILDS = new AtomicInteger();
+
+    public static final Semaphore ENTERED = new Semaphore(0);
+
+    public static volatile CountDownLatch blocking;
+
+    public MCRIIIFPresentationTestImpl(String implName) {
+        super(implName);
+    }
+
+    public static void reset() {
+        BUILDS.set(0);
+        ENTERED.drainPermits();
+        blocking = null;
+    }
+
+    @Override
+    public MCRIIIFManifest getManifest(String id) {
+        BUILDS.incrementAndGet();
+        CountDownLatch latch = blocking;
+        if (latch != null) {
+            ENTERED.release();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        MCRIIIFManifest manifest = new MCRIIIFManifest();
+        manifest.setId(id);
+        manifest.setLabel("Manifest of " + id);
+        return manifest;
+    }
+}
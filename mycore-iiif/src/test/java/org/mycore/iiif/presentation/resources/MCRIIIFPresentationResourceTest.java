@@ -0,0 +1,119 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.iiif.presentation.resources;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.iiif.presentation.MCRIIIFPresentationCache;
+import org.mycore.iiif.presentation.MCRIIIFPresentationTestImpl;
+
+public class MCRIIIFPresentationResourceTest extends MCRTestCase {
+
+    private static final String IMPL = "Test";
+
+    private static final String IDENTIFIER = "junit_derivate_00000001";
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.baseurl", "http://localhost/");
+        testProperties.put("MCR.IIIFPresentation.Default", IMPL);
+        testProperties.put("MCR.IIIFPresentation." + IMPL, MCRIIIFPresentationTestImpl.class.getName());
+        testProperties.put("MCR.IIIFPresentation.Cache.Size", "10");
+        testProperties.put("MCR.IIIFPresentation.Cache.Gzip", Boolean.TRUE.toString());
+        return testProperties;
+    }
+
+    @Before
+    public void resetCache() {
+        MCRIIIFPresentationCache.clear();
+        MCRIIIFPresentationTestImpl.reset();
+    }
+
+    @Test
+    public void testETag() throws Exception {
+        MCRIIIFPresentationCache.Entry entry = MCRIIIFPresentationCache.get(IMPL, IDENTIFIER);
+
+        Response response = getResource(null, null).getManifest(IMPL, IDENTIFIER);
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(new EntityTag(entry.getETag()), response.getEntityTag());
+        assertArrayEquals(entry.getJSON(), (byte[]) response.getEntity());
+
+        Response notModified = getResource(entry.getETag(), null).getManifest(IMPL, IDENTIFIER);
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), notModified.getStatus());
+        assertNull(notModified.getEntity());
+
+        Response modified = getResource("outdated", null).getManifest(IMPL, IDENTIFIER);
+        assertEquals(Response.Status.OK.getStatusCode(), modified.getStatus());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        MCRIIIFPresentationCache.Entry entry = MCRIIIFPresentationCache.get(IMPL, IDENTIFIER);
+
+        Response gzipped = getResource(null, "deflate, gzip").getManifest(IMPL, IDENTIFIER);
+        assertEquals("gzip", gzipped.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzipped.getHeaderString(HttpHeaders.VARY));
+        assertArrayEquals(entry.getGzippedJSON(), (byte[]) gzipped.getEntity());
+
+        Response refused = getResource(null, "gzip;q=0, identity").getManifest(IMPL, IDENTIFIER);
+        assertNull(refused.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(entry.getJSON(), (byte[]) refused.getEntity());
+
+        Response plain = getResource(null, null).getManifest(IMPL, IDENTIFIER);
+        assertNull(plain.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private static MCRIIIFPresentationResource getResource(String ifNoneMatch, String acceptEncoding) {
+        MCRIIIFPresentationResource resource = new MCRIIIFPresentationResource();
+        resource.request = (Request) Proxy.newProxyInstance(Request.class.getClassLoader(),
+            new Class<?>[] { Request.class }, (proxy, method, args) -> {
+                if ("evaluatePreconditions".equals(method.getName()) && args != null && args.length == 1
+                    && args[0] instanceof EntityTag) {
+                    EntityTag eTag = (EntityTag) args[0];
+                    return eTag.getValue().equals(ifNoneMatch) ? Response.notModified(eTag) : null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        resource.headers = (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(),
+            new Class<?>[] { HttpHeaders.class }, (proxy, method, args) -> {
+                if ("getRequestHeader".equals(method.getName())) {
+                    return HttpHeaders.ACCEPT_ENCODING.equals(args[0]) && acceptEncoding != null
+                        ? List.of(acceptEncoding)
+                        : null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        return resource;
+    }
+}
@@ -22,9 +22,7 @@ import java.io.File;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.Document;
 import org.mycore.common.config.MCRConfiguration2;
-import org.mycore.common.content.MCRJDOMContent;
 import org.mycore.frontend.cli.MCRAbstractCommands;
 import org.mycore.frontend.cli.annotation.MCRCommand;
 import org.mycore.frontend.cli.annotation.MCRCommandGroup;
@@ -48,10 +46,10 @@ public final class MCRGoogleSitemapCommands extends MCRAbstractCommands {
     private static Logger LOGGER = LogManager.getLogger(MCRGoogleSitemapCommands.class.getName());
 
     /**
-     * The build and store method.
+     * The build and store method. Sitemap files whose objects did not change are kept.
      */
     @MCRCommand(syntax = "build google sitemap",
-        help = "Creates the google sitemap(s) in webapps directory.",
+        help = "Creates the google sitemap(s) in webapps directory, unchanged sitemap files are kept.",
         order = 10)
     public static void buildSitemap() throws Exception {
         // check time
@@ -60,33 +58,22 @@ public final class MCRGoogleSitemapCommands extends MCRAbstractCommands {
         // init
         File webappBaseDir = new File(MCRConfiguration2.getStringOrThrow("MCR.WebApplication.basedir"));
         MCRGoogleSitemapCommon common = new MCRGoogleSitemapCommon(webappBaseDir);
-        // remove old files
-        common.removeSitemapFiles();
-        // compute number of files
-        int number = common.checkSitemapFile();
+        int number = common.buildSitemaps();
         LOGGER.debug("Build Google number of URL files {}.", Integer.toString(number));
-        if (number == 1) {
-            String fn = common.getFileName(1, true);
-            File xml = new File(fn);
-            Document jdom = common.buildSingleSitemap();
-            LOGGER.info("Write Google sitemap file {}.", fn);
-            new MCRJDOMContent(jdom).sendTo(xml);
-        } else {
-            String fn = common.getFileName(1, true);
-            File xml = new File(fn);
-            Document jdom = common.buildSitemapIndex(number);
-            LOGGER.info("Write Google sitemap file {}.", fn);
-            new MCRJDOMContent(jdom).sendTo(xml);
-            for (int i = 0; i < number; i++) {
-                fn = common.getFileName(i + 2, true);
-                xml = new File(fn);
-                jdom = common.buildPartSitemap(i);
-                LOGGER.info("Write Google sitemap file {}.", fn);
-                new MCRJDOMContent(jdom).sendTo(xml);
-            }
-        }
         // check time
         LOGGER.debug("Google sitemap request took {}ms.", System.currentTimeMillis() - start);
     }
 
+    /**
+     * Removes all sitemap files and builds them again.
+     */
+    @MCRCommand(syntax = "rebuild google sitemap",
+        help = "Removes all google sitemap files and creates them again in webapps directory.",
+        order = 20)
+    public static void rebuildSitemap() throws Exception {
+        File webappBaseDir = new File(MCRConfiguration2.getStringOrThrow("MCR.WebApplication.basedir"));
+        new MCRGoogleSitemapCommon(webappBaseDir).removeSitemapFiles();
+        buildSitemap();
+    }
+
 }
@@ -19,31 +19,47 @@
 package org.mycore.frontend.indexbrowser;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.NotDirectoryException;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.TimeZone;
-import java.util.stream.Collectors;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.solr.client.solrj.SolrQuery;
-import org.apache.solr.client.solrj.SolrServerException;
-import org.apache.solr.client.solrj.response.QueryResponse;
-import org.jdom2.Document;
-import org.jdom2.Element;
-import org.jdom2.Namespace;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.mycore.common.MCRUtils;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.datamodel.common.MCRObjectIDDate;
 import org.mycore.datamodel.ifs2.MCRObjectIDDateImpl;
 import org.mycore.solr.MCRSolrClientFactory;
+import org.mycore.solr.search.MCRSolrSearchUtils;
 
 /**
  * This class implements all common methods to create the sitemap data.
@@ -55,13 +71,18 @@ import org.mycore.solr.MCRSolrClientFactory;
  * <li>MCR.WebApplication.basedir - the directory where the web application is stored</li>
  * <li>MCR.GoogleSitemap.Directory - the directory where the sitemap should be stored relative to
  *      MCR.WebApplication.basedir (it could be empty)</li>
- * <li>MCR.GoogleSitemap.Types - a list of MCRObject types, they should be included</li>
+ * <li>MCR.GoogleSitemap.SolrQuery - the query selecting the objects, they should be included</li>
  * <li>MCR.GoogleSitemap.Freq - the frequency of harvesting, 'monthly' is default<li>
  * <li>MCR.GoogleSitemap.Style - a style extension for the URL in form of ?XSL.Style={style}, default is empty</li>
  * <li>MCR.GoogleSitemap.ObjectPath - the path to get the MCRObject in the sitemap URL, 'receive/' is default</li>
  * <li>MCR.GoogleSitemap.NumberOfURLs - the number of URLs in one sitemap file, 10000 is default</li>
+ * <li>MCR.GoogleSitemap.Compress - write the sitemap files of an index gzip compressed, true is default</li>
  * </ul>
  *
+ * The objects are read from Solr page by page with a cursor mark and written to the sitemap files as they arrive,
+ * so memory usage does not depend on the number of objects. A fingerprint of the objects in every sitemap file is
+ * kept in sitemap_google_state.properties, files whose objects did not change are not written again.
+ *
  * see http://www.sitemaps.org/de/protocol.html
  *
  * @author Frank Lützenkirchen
@@ -75,19 +96,26 @@ public final class MCRGoogleSitemapCommon {
     /** Zone information **/
     private static final Locale SITEMAP_LOCALE = Locale.ROOT;
 
-    private static final TimeZone SITEMAP_TIMEZONE = TimeZone.getTimeZone("UTC");
-
     /** The namespaces */
-    private static final Namespace NS = Namespace.getNamespace("http://www.sitemaps.org/schemas/sitemap/0.9");
+    private static final String NS_URL = "http://www.sitemaps.org/schemas/sitemap/0.9";
 
     private static final String XSI_URL = "http://www.w3.org/2001/XMLSchema-instance";
 
-    private static final Namespace XSI_NAMESPACE = Namespace.getNamespace("xsi", XSI_URL);
-
     private static final String SITEINDEX_SCHEMA = "http://www.sitemaps.org/schemas/sitemap/0.9 http://www.sitemaps.org/schemas/sitemap/0.9/siteindex.xsd";
 
     private static final String SITEMAP_SCHEMA = "http://www.sitemaps.org/schemas/sitemap/0.9 http://www.sitemaps.org/schemas/sitemap/0.9/sitemap.xsd";
 
+    private static final String FILE_PREFIX = "sitemap_google";
+
+    /** The file storing the fingerprints of the last generated sitemap files */
+    private static final String STATE_FILE = FILE_PREFIX + "_state.properties";
+
+    private static final String SINGLE_SITEMAP_KEY = "single";
+
+    private static final int ROWS_PER_REQUEST = 1000;
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
     /** The directory path to store sitemaps relative to MCR.WebApplication.basedir */
     private static final String CDIR = MCRConfiguration2.getString("MCR.GoogleSitemap.Directory").orElse("");
 
@@ -104,6 +132,9 @@ public final class MCRGoogleSitemapCommon {
     /** The filter query for selecting objects to present in google sitemap */
     private static final String SOLR_QUERY = MCRConfiguration2.getStringOrThrow("MCR.GoogleSitemap.SolrQuery");
 
+    /** Write the sitemap files of an index gzip compressed */
+    private static final boolean COMPRESS = MCRConfiguration2.getBoolean("MCR.GoogleSitemap.Compress").orElse(true);
+
     /** The logger */
     private static Logger LOGGER = LogManager.getLogger(MCRGoogleSitemapCommon.class.getName());
 
@@ -120,20 +151,28 @@ public final class MCRGoogleSitemapCommon {
     private final File webappBaseDir;
 
     /** The base URL */
-    private String baseurl = MCRConfiguration2.getString("MCR.baseurl").orElse("");
+    private final String baseurl;
 
-    /** local data */
-    private List<MCRObjectIDDate> objidlist = null;
+    private final SolrClient solrClient;
 
     /** The constructor 
      * @throws NotDirectoryException */
     public MCRGoogleSitemapCommon(File baseDir) throws NotDirectoryException {
+        this(MCRConfiguration2.getString("MCR.baseurl").orElse(""), baseDir);
+    }
+
+    public MCRGoogleSitemapCommon(String baseURL, File baseDir) throws NotDirectoryException {
+        this(baseURL, baseDir, MCRSolrClientFactory.getMainSolrClient());
+    }
+
+    MCRGoogleSitemapCommon(String baseURL, File baseDir, SolrClient solrClient) throws NotDirectoryException {
         if (!Objects.requireNonNull(baseDir, "baseDir may not be null.").isDirectory()) {
             throw new NotDirectoryException(baseDir.getAbsolutePath());
         }
         this.webappBaseDir = baseDir;
+        this.baseurl = baseURL;
+        this.solrClient = solrClient;
         LOGGER.info("Using webappbaseDir: {}", baseDir.getAbsolutePath());
-        objidlist = new ArrayList<>();
         if ((numberOfURLs < 1) || (numberOfURLs > 50000)) {
             numberOfURLs = 50000;
         }
@@ -145,11 +184,6 @@ public final class MCRGoogleSitemapCommon {
         }
     }
 
-    public MCRGoogleSitemapCommon(String baseURL, File baseDir) throws NotDirectoryException {
-        this(baseDir);
-        this.baseurl = baseURL;
-    }
-
     private static NumberFormat getNumberFormat() {
         NumberFormat nf = NumberFormat.getIntegerInstance(SITEMAP_LOCALE);
         nf.setMinimumFractionDigits(5);
@@ -157,40 +191,51 @@ public final class MCRGoogleSitemapCommon {
     }
 
     /**
-     * The method computes the number of sitemap files. If we have less than
-     * <em>numberOfURLs</em> URLs and only one MyCoRe type the sitemap_google.xml
-     * contained all URLs. Otherwise it split the sitemap in an sitemap_google.xml
-     * index file and a lot of sitemap_google_xxxx.xml URL files.
+     * Builds the sitemap files. If we have no more than <em>numberOfURLs</em> URLs, sitemap_google.xml contains all
+     * URLs. Otherwise sitemap_google.xml is an index of the sitemap_google_xxxx.xml(.gz) URL files.
      *
-     * @return the number of files, one for a single sitemap_google.xml file, more than
-     *         one for the index and all parts.
+     * Sitemap files whose objects did not change since the last run are kept, URL files that are no longer
+     * needed are removed.
      *
+     * @return the number of URL files listed in the index, 0 if sitemap_google.xml contains all URLs
+     * @throws IOException if Solr could not be queried or a file could not be written
      */
-    protected int checkSitemapFile() throws IOException {
-        int number = 0;
-        QueryResponse response;
-        SolrQuery query = new SolrQuery();
-        query.setQuery(SOLR_QUERY);
-        query.setRows(Integer.MAX_VALUE);
-        query.setParam("fl", "id,modified");
-
-        try {
-            response = MCRSolrClientFactory.getMainSolrClient().query(query);
-            objidlist = response.getResults().stream().map((document) -> {
-                String id = (String) document.getFieldValue("id");
-                Date modified = (Date) document.getFieldValue("modified");
-
-                return new MCRObjectIDDateImpl(modified, id);
-            }).collect(Collectors.toList());
-
-        } catch (SolrServerException e) {
-            LOGGER.error(e);
-        }
-        number = objidlist.size() / numberOfURLs;
-        if (objidlist.size() % numberOfURLs != 0) {
-            number++;
+    public int buildSitemaps() throws IOException {
+        synchronized (MCRGoogleSitemapCommon.class) {
+            Properties lastState = loadState();
+            Properties state = new Properties();
+            ModifiableSolrParams params = new ModifiableSolrParams();
+            params.set(CommonParams.Q, SOLR_QUERY);
+            params.set(CommonParams.FL, "id,modified");
+            List<MCRObjectIDDate> objects = new ArrayList<>(numberOfURLs);
+            int parts = 0;
+            try (Stream<SolrDocument> documents = MCRSolrSearchUtils.streamWithCursor(solrClient, params,
+                ROWS_PER_REQUEST)) {
+                Iterator<SolrDocument> iterator = documents.iterator();
+                while (iterator.hasNext()) {
+                    if (objects.size() == numberOfURLs) {
+                        parts++;
+                        writeURLFile(getFileName(parts + 1, true), String.valueOf(parts), objects, lastState, state);
+                        objects.clear();
+                    }
+                    SolrDocument document = iterator.next();
+                    objects.add(new MCRObjectIDDateImpl((Date) document.getFieldValue("modified"),
+                        (String) document.getFieldValue("id")));
+                }
+            } catch (IllegalStateException e) {
+                throw new IOException("Could not query objects for the sitemap.", e);
+            }
+            if (parts == 0) {
+                writeURLFile(getFileName(1, true), SINGLE_SITEMAP_KEY, objects, lastState, state);
+            } else {
+                parts++;
+                writeURLFile(getFileName(parts + 1, true), String.valueOf(parts), objects, lastState, state);
+                writeSitemapIndex(parts, state);
+            }
+            removeStaleFiles(parts);
+            storeState(state);
+            return parts;
         }
-        return number;
     }
 
     /**
@@ -203,9 +248,9 @@ public final class MCRGoogleSitemapCommon {
      * @return a path to sitemap_google.xml
      */
     protected String getFileName(int number, boolean withpath) {
-        String fn = "sitemap_google.xml";
+        String fn = FILE_PREFIX + ".xml";
         if (number > 1) {
-            fn = "sitemap_google_" + number_format.format(number - 1) + ".xml";
+            fn = FILE_PREFIX + "_" + number_format.format(number - 1) + (COMPRESS ? ".xml.gz" : ".xml");
         }
         String localPath = fn;
         if (CDIR.length() != 0) {
@@ -218,93 +263,167 @@ public final class MCRGoogleSitemapCommon {
     }
 
     /**
-     * The method build the sitemap_google.xml JDOM document over all items.
-     *
-     * @return The sitemap_google.xml as JDOM document
+     * Writes a sitemap file with the URLs of the given objects, unless the objects are the same as in the last run.
      */
-    protected Document buildSingleSitemap() throws Exception {
-        LOGGER.debug("Build Google URL sitemap_google.xml for whole items.");
-        // build document frame
-        Element urlset = new Element("urlset", NS);
-        urlset.addNamespaceDeclaration(XSI_NAMESPACE);
-        urlset.setAttribute("noNamespaceSchemaLocation", SITEMAP_SCHEMA, XSI_NAMESPACE);
-        Document jdom = new Document(urlset);
-        // build over all types
-        for (MCRObjectIDDate objectIDDate : objidlist) {
-            urlset.addContent(buildURLElement(objectIDDate));
+    private void writeURLFile(String fileName, String key, List<MCRObjectIDDate> objects, Properties lastState,
+        Properties state) throws IOException {
+        String fingerprint = getFingerprint(objects);
+        Date lastModified = objects.stream()
+            .map(MCRObjectIDDate::getLastModified)
+            .filter(Objects::nonNull)
+            .max(Date::compareTo)
+            .orElseGet(Date::new);
+        state.setProperty(key, fingerprint);
+        state.setProperty(key + ".lastmod", formatDate(lastModified));
+        File file = new File(fileName);
+        if (fingerprint.equals(lastState.getProperty(key)) && file.isFile()) {
+            LOGGER.debug("Google sitemap file {} is up to date.", fileName);
+            return;
         }
-        return jdom;
+        LOGGER.info("Write Google sitemap file {}.", fileName);
+        writeXML(file, COMPRESS && !key.equals(SINGLE_SITEMAP_KEY), xml -> {
+            xml.writeStartElement("urlset");
+            xml.writeDefaultNamespace(NS_URL);
+            xml.writeNamespace("xsi", XSI_URL);
+            xml.writeAttribute(XSI_URL, "schemaLocation", SITEMAP_SCHEMA);
+            for (MCRObjectIDDate objectIDDate : objects) {
+                xml.writeStartElement("url");
+                writeElement(xml, "loc", getURL(objectIDDate.getId()));
+                if (objectIDDate.getLastModified() != null) {
+                    writeElement(xml, "lastmod", formatDate(objectIDDate.getLastModified()));
+                }
+                writeElement(xml, "changefreq", FREQ);
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
     }
 
     /**
-     * The method call the database and build the sitemap_google.xml JDOM document.
+     * Writes the index sitemap_google.xml with the last modification date of the objects of every URL file.
      *
      * @param number
-     *            number of this file - '1' = sitemap_google.xml - '&gt; 1' sitemap_google_xxx.xml
-     * @return The sitemap.xml as JDOM document
+     *            number of indexed files (must greater than 1
      */
-    protected Document buildPartSitemap(int number) throws Exception {
-        LOGGER.debug("Build Google URL sitemap list number {}", Integer.toString(number));
-        // build document frame
-        Element urlset = new Element("urlset", NS);
-        urlset.addNamespaceDeclaration(XSI_NAMESPACE);
-        urlset.setAttribute("schemaLocation", SITEMAP_SCHEMA, XSI_NAMESPACE);
-        Document jdom = new Document(urlset);
-
-        // build over all types
-        int start = numberOfURLs * (number);
-        int stop = numberOfURLs * (number + 1);
-        if (stop > objidlist.size()) {
-            stop = objidlist.size();
-        }
-        LOGGER.debug("Build Google URL in range from {} to {}.", Integer.toString(start), Integer.toString(stop - 1));
-        for (int i = start; i < stop; i++) {
-            MCRObjectIDDate objectIDDate = objidlist.get(i);
-            urlset.addContent(buildURLElement(objectIDDate));
-
-        }
-        return jdom;
+    private void writeSitemapIndex(int number, Properties state) throws IOException {
+        LOGGER.info("Write Google sitemap index with {} files.", number);
+        writeXML(new File(getFileName(1, true)), false, xml -> {
+            xml.writeStartElement("sitemapindex");
+            xml.writeDefaultNamespace(NS_URL);
+            xml.writeNamespace("xsi", XSI_URL);
+            xml.writeAttribute(XSI_URL, "schemaLocation", SITEINDEX_SCHEMA);
+            for (int i = 1; i <= number; i++) {
+                xml.writeStartElement("sitemap");
+                writeElement(xml, "loc", (baseurl + getFileName(i + 1, false)).trim());
+                writeElement(xml, "lastmod", state.getProperty(i + ".lastmod"));
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
     }
 
-    private Element buildURLElement(MCRObjectIDDate objectIDDate) {
-        String mcrID = objectIDDate.getId();
+    private String getURL(String mcrID) {
         StringBuilder sb = new StringBuilder(1024);
         sb.append(baseurl).append(OBJECT_PATH).append(mcrID);
         if ((STYLE != null) && (STYLE.trim().length() > 0)) {
             sb.append("?XSL.Style=").append(STYLE);
         }
-        // build entry
-        Element url = new Element("url", NS);
-        url.addContent(new Element("loc", NS).addContent(sb.toString()));
-        String datestr = formatter.format(objectIDDate.getLastModified());
-        url.addContent(new Element("lastmod", NS).addContent(datestr));
-        url.addContent(new Element("changefreq", NS).addContent(FREQ));
-        return url;
+        return sb.toString();
+    }
+
+    /**
+     * Returns a fingerprint of everything that is written for the given objects.
+     */
+    private String getFingerprint(List<MCRObjectIDDate> objects) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(getURL("").getBytes(StandardCharsets.UTF_8));
+        digest.update(FREQ.getBytes(StandardCharsets.UTF_8));
+        for (MCRObjectIDDate objectIDDate : objects) {
+            digest.update(objectIDDate.getId().getBytes(StandardCharsets.UTF_8));
+            Date lastModified = objectIDDate.getLastModified();
+            digest.update(
+                String.valueOf(lastModified == null ? 0 : lastModified.getTime()).getBytes(StandardCharsets.UTF_8));
+        }
+        return MCRUtils.toHexString(digest.digest());
+    }
+
+    private static String formatDate(Date date) {
+        synchronized (formatter) {
+            return formatter.format(date);
+        }
+    }
+
+    private static void writeElement(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Writes the XML to a temporary file that replaces the given file when complete, so the sitemap can be
+     * delivered while it is built.
+     */
+    private static void writeXML(File file, boolean compress, XMLWriterAction action) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream fileOut = new FileOutputStream(tempFile);
+            OutputStream out = compress ? new GZIPOutputStream(fileOut, 64 * 1024) : fileOut) {
+            XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            action.write(xml);
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw new IOException("Could not write " + file, e);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Properties loadState() throws IOException {
+        Properties state = new Properties();
+        File stateFile = new File(new File(webappBaseDir, CDIR), STATE_FILE);
+        if (stateFile.isFile()) {
+            try (InputStream in = new FileInputStream(stateFile)) {
+                state.load(in);
+            }
+        }
+        return state;
+    }
+
+    private void storeState(Properties state) throws IOException {
+        File stateFile = new File(new File(webappBaseDir, CDIR), STATE_FILE);
+        try (OutputStream out = new FileOutputStream(stateFile)) {
+            state.store(out, "Fingerprints of the Google sitemap files");
+        }
     }
 
     /**
-     * The method build the index sitemap_google.xml JDOM document.
+     * Removes the URL files that are not part of the current sitemap.
      *
-     * @param number
-     *            number of indexed files (must greater than 1
-     * @return The index sitemap_google.xml as JDOM document
+     * @param number number of URL files in the current sitemap
      */
-    protected Document buildSitemapIndex(int number) {
-        LOGGER.debug("Build Google sitemap number {}", Integer.toString(number));
-        // build document frame
-        Element index = new Element("sitemapindex", NS);
-        index.addNamespaceDeclaration(XSI_NAMESPACE);
-        index.setAttribute("schemaLocation", SITEINDEX_SCHEMA, XSI_NAMESPACE);
-        Document jdom = new Document(index);
-        // build over all files
-        for (int i = 0; i < number; i++) {
-            Element sitemap = new Element("sitemap", NS);
-            index.addContent(sitemap);
-            sitemap.addContent(new Element("loc", NS).addContent((baseurl + getFileName(i + 2, false)).trim()));
-            String datestr = formatter.format((new GregorianCalendar(SITEMAP_TIMEZONE, SITEMAP_LOCALE)).getTime());
-            sitemap.addContent(new Element("lastmod", NS).addContent(datestr.trim()));
+    private void removeStaleFiles(int number) {
+        Set<String> current = new HashSet<>();
+        current.add(new File(getFileName(1, true)).getName());
+        current.add(STATE_FILE);
+        for (int i = 1; i <= number; i++) {
+            current.add(new File(getFileName(i + 1, true)).getName());
+        }
+        File[] files = new File(webappBaseDir, CDIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith(FILE_PREFIX) && !current.contains(file.getName())) {
+                    LOGGER.info("Remove stale Google sitemap file {}", file.getName());
+                    file.delete();
+                }
+            }
         }
-        return jdom;
     }
 
     /**
@@ -315,11 +434,16 @@ public final class MCRGoogleSitemapCommon {
         File[] li = dir.listFiles();
         if (li != null) {
             for (File fi : li) {
-                if (fi.getName().startsWith("sitemap_google")) {
+                if (fi.getName().startsWith(FILE_PREFIX)) {
                     LOGGER.debug("Remove file {}", fi.getName());
                     fi.delete();
                 }
             }
         }
     }
+
+    @FunctionalInterface
+    private interface XMLWriterAction {
+        void write(XMLStreamWriter xml) throws XMLStreamException;
+    }
 }
@@ -22,11 +22,8 @@ import java.io.File;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.Document;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.content.MCRFileContent;
-import org.mycore.common.content.MCRJDOMContent;
-import org.mycore.common.xml.MCRXMLParserFactory;
 import org.mycore.frontend.MCRFrontendUtil;
 import org.mycore.frontend.servlets.MCRServlet;
 import org.mycore.frontend.servlets.MCRServletJob;
@@ -61,42 +58,15 @@ public final class MCRGoogleSitemapServlet extends MCRServlet {
             .orElseGet(() -> new File(MCRConfiguration2.getStringOrThrow("MCR.WebApplication.basedir")));
         MCRGoogleSitemapCommon common = new MCRGoogleSitemapCommon(MCRFrontendUtil.getBaseURL(job.getRequest()),
             baseDir);
-        int number = common.checkSitemapFile();
-        LOGGER.debug("Build Google number of URL files {}.", Integer.toString(number));
-        Document jdom = null;
         // check if sitemap_google.xml exist
         String fnsm = common.getFileName(1, true);
         LOGGER.debug("Build Google check file {}", fnsm);
         File fi = new File(fnsm);
-        if (fi.isFile()) {
-            jdom = MCRXMLParserFactory.getNonValidatingParser().parseXML(new MCRFileContent(fi));
-            if (jdom == null) {
-                if (number == 1) {
-                    jdom = common.buildSingleSitemap();
-                } else {
-                    jdom = common.buildSitemapIndex(number);
-                }
-            }
-            //send XML output
-            getLayoutService().doLayout(job.getRequest(), job.getResponse(), new MCRJDOMContent(jdom));
-            return;
-        }
-        // remove old files
-        common.removeSitemapFiles();
-        // build new return and URL files
-        if (number == 1) {
-            jdom = common.buildSingleSitemap();
-        } else {
-            for (int i = 0; i < number; i++) {
-                String fn = common.getFileName(i + 2, true);
-                File xml = new File(fn);
-                jdom = common.buildPartSitemap(i);
-                LOGGER.info("Write Google sitemap file {}.", fn);
-                new MCRJDOMContent(jdom).sendTo(xml);
-            }
-            jdom = common.buildSitemapIndex(number);
+        if (!fi.isFile()) {
+            int number = common.buildSitemaps();
+            LOGGER.debug("Build Google number of URL files {}.", Integer.toString(number));
         }
         // send XML output
-        getLayoutService().doLayout(job.getRequest(), job.getResponse(), new MCRJDOMContent(jdom));
+        getLayoutService().doLayout(job.getRequest(), job.getResponse(), new MCRFileContent(fi));
     }
 }
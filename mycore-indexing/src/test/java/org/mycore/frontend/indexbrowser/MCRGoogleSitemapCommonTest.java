@@ -0,0 +1,192 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.indexbrowser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.common.MCRTestCase;
+
+public class MCRGoogleSitemapCommonTest extends MCRTestCase {
+
+    private static final long OLD_FILE_TIME = 1_000_000_000_000L;
+
+    @Rule
+    public TemporaryFolder webappDir = new TemporaryFolder();
+
+    private SolrStandIn solrClient;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        solrClient = new SolrStandIn();
+    }
+
+    @Test
+    public void buildSingleSitemap() throws Exception {
+        addObjects(1, 2);
+        assertEquals(0, buildSitemaps());
+        Document sitemap = parse(new File(webappDir.getRoot(), "sitemap_google.xml"), false);
+        assertEquals("urlset", sitemap.getRootElement().getName());
+        assertEquals(2, sitemap.getRootElement().getChildren().size());
+        assertEquals(1, solrClient.requests);
+    }
+
+    @Test
+    public void buildSitemapIndex() throws Exception {
+        addObjects(1, 7);
+        assertEquals(3, buildSitemaps());
+        Document index = parse(new File(webappDir.getRoot(), "sitemap_google.xml"), false);
+        assertEquals("sitemapindex", index.getRootElement().getName());
+        assertEquals(3, index.getRootElement().getChildren().size());
+        List<File> parts = getParts();
+        assertEquals(3, parts.size());
+        assertEquals(3, parse(parts.get(0), true).getRootElement().getChildren().size());
+        assertEquals(1, parse(parts.get(2), true).getRootElement().getChildren().size());
+        assertEquals(1, solrClient.requests);
+
+        // only the part with the changed object is written again
+        for (File part : parts) {
+            assertTrue(part.setLastModified(OLD_FILE_TIME));
+        }
+        solrClient.objects.put("mcr_test_00000005", new Date());
+        assertEquals(3, buildSitemaps());
+        assertEquals(OLD_FILE_TIME, parts.get(0).lastModified());
+        assertTrue(parts.get(1).lastModified() > OLD_FILE_TIME);
+        assertEquals(OLD_FILE_TIME, parts.get(2).lastModified());
+
+        // parts that are no longer needed are removed
+        solrClient.objects.clear();
+        addObjects(1, 2);
+        assertEquals(0, buildSitemaps());
+        assertTrue(getParts().isEmpty());
+        assertFalse(parts.get(0).exists());
+    }
+
+    private int buildSitemaps() throws IOException {
+        return new MCRGoogleSitemapCommon("http://localhost/", webappDir.getRoot(), solrClient).buildSitemaps();
+    }
+
+    private void addObjects(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            solrClient.objects.put(String.format(Locale.ROOT, "mcr_test_%08d", i), new Date(i * 1000L));
+        }
+    }
+
+    private List<File> getParts() {
+        List<File> parts = new ArrayList<>();
+        for (File file : webappDir.getRoot().listFiles()) {
+            if (file.getName().startsWith("sitemap_google_") && file.getName().endsWith(".xml.gz")) {
+                parts.add(file);
+            }
+        }
+        parts.sort(null);
+        return parts;
+    }
+
+    private static Document parse(File file, boolean compressed) throws IOException, JDOMException {
+        try (InputStream fileIn = Files.newInputStream(file.toPath());
+            InputStream in = compressed ? new GZIPInputStream(fileIn) : fileIn) {
+            return new SAXBuilder().build(in);
+        }
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.GoogleSitemap.SolrQuery", "objectKind:mycoreobject");
+        testProperties.put("MCR.GoogleSitemap.NumberOfURLs", "3");
+        testProperties.put("MCR.GoogleSitemap.Compress", "true");
+        return testProperties;
+    }
+
+    /**
+     * Answers cursor mark queries from a sorted map of object IDs and modification dates.
+     */
+    private static class SolrStandIn extends SolrClient {
+
+        private static final long serialVersionUID = 1L;
+
+        final TreeMap<String, Date> objects = new TreeMap<>();
+
+        int requests;
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public NamedList<Object> request(SolrRequest request, String collection) {
+            SolrParams params = request.getParams();
+            assertNull("Cursor mark paging must not use start", params.get(CommonParams.START));
+            requests++;
+            String cursorMark = params.get(CursorMarkParams.CURSOR_MARK_PARAM);
+            int rows = params.getInt(CommonParams.ROWS);
+            List<String> ids = new ArrayList<>(CursorMarkParams.CURSOR_MARK_START.equals(cursorMark)
+                ? objects.keySet()
+                : objects.tailMap(cursorMark, false).keySet());
+            SolrDocumentList results = new SolrDocumentList();
+            results.setNumFound(objects.size());
+            for (String id : ids.subList(0, Math.min(rows, ids.size()))) {
+                SolrDocument document = new SolrDocument();
+                document.setField("id", id);
+                document.setField("modified", objects.get(id));
+                results.add(document);
+            }
+            String nextCursorMark = results.isEmpty() ? cursorMark
+                : (String) results.get(results.size() - 1).getFieldValue("id");
+            NamedList<Object> response = new NamedList<>();
+            response.add("response", results);
+            response.add(CursorMarkParams.CURSOR_MARK_NEXT, nextCursorMark);
+            return response;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
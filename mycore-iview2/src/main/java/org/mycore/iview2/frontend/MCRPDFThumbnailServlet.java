@@ -71,7 +71,7 @@ public class MCRPDFThumbnailServlet extends MCRContentServlet {
             boolean centered = !"no".equals(centerThumb);
             int thumbnailSize = imgSize == null ? this.thumbnailSize : Integer.parseInt(imgSize);
             BasicFileAttributes attrs = Files.readAttributes(pdfFile, BasicFileAttributes.class);
-            MCRContent imageContent = pdfTools.getThumnail(pdfFile, attrs, thumbnailSize, centered);
+            MCRContent imageContent = pdfTools.getCachedThumbnail(pdfFile, thumbnailSize, centered);
             if (imageContent != null) {
                 resp.setHeader("Cache-Control", "max-age=" + MAX_AGE);
                 Date expires = new Date(System.currentTimeMillis() + MAX_AGE * 1000);
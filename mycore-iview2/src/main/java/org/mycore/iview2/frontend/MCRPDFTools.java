@@ -22,10 +22,12 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,6 +39,10 @@ import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDDe
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageDestination;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.mycore.common.content.MCRContent;
+import org.mycore.common.content.MCRStreamContent;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.media.services.MCRThumbnailCache;
+import org.mycore.media.services.MCRThumbnailUtils;
 import org.mycore.tools.MCRPNGTools;
 
 /**
@@ -79,8 +85,7 @@ public class MCRPDFTools implements AutoCloseable {
      * @throws IOException
      */
     public static BufferedImage getThumbnail(int thumbnailSize, Path pdfFile, boolean centered) throws IOException {
-        InputStream fileIS = Files.newInputStream(pdfFile);
-        try (PDDocument pdf = PDDocument.load(fileIS)) {
+        try (PDDocument pdf = MCRThumbnailUtils.loadPDF(pdfFile)) {
             PDFRenderer pdfRenderer = new PDFRenderer(pdf);
             final PDPage page = resolveOpenActionPage(pdf);
             BufferedImage level1Image = pdfRenderer.renderImage(pdf.getPages().indexOf(page));
@@ -170,6 +175,22 @@ public class MCRPDFTools implements AutoCloseable {
         return pngContent;
     }
 
+    /**
+     * Returns the thumbnail of a PDF file in a derivate from {@link MCRThumbnailCache}, so the PDF is only
+     * rendered once per size.
+     */
+    MCRContent getCachedThumbnail(MCRPath pdfFile, int thumbnailSize, boolean centered) throws IOException {
+        String variant = "pdf-" + thumbnailSize + (centered ? "-centered" : "");
+        SeekableByteChannel thumbnail = MCRThumbnailCache.getInstance()
+            .openThumbnail(MCRThumbnailUtils.getMD5(pdfFile), variant, "png",
+                () -> Optional.of(getThumbnail(thumbnailSize, pdfFile, centered)))
+            .orElseThrow(() -> new IOException("Could not render thumbnail of " + pdfFile));
+        MCRContent pngContent = new MCRStreamContent(Channels.newInputStream(thumbnail));
+        pngContent.setMimeType("image/png");
+        pngContent.setLastModified(Files.getLastModifiedTime(pdfFile).toMillis());
+        return pngContent;
+    }
+
     @Override
     public void close() throws Exception {
         this.pngTools.close();
@@ -21,8 +21,9 @@ package org.mycore.iview2.frontend;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,16 +31,10 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
 import java.util.Date;
 import java.util.Locale;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
@@ -48,12 +43,15 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.JDOMException;
+import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.datamodel.niofs.MCRPathUtils;
 import org.mycore.frontend.servlets.MCRServlet;
 import org.mycore.frontend.servlets.MCRServletJob;
 import org.mycore.imagetiler.MCRImage;
 import org.mycore.imagetiler.MCRTiledPictureProps;
 import org.mycore.iview2.services.MCRIView2Tools;
+import org.mycore.media.services.MCRThumbnailCache;
+import org.mycore.media.services.MCRThumbnailUtils;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -66,13 +64,6 @@ import com.google.common.cache.LoadingCache;
 public class MCRThumbnailServlet extends MCRServlet {
     private static final long serialVersionUID = 1506443527774956290L;
 
-    //stores max png size for byte array buffer of output
-    private AtomicInteger maxPngSize = new AtomicInteger(64 * 1024);
-
-    private ImageWriteParam imageWriteParam;
-
-    private ConcurrentLinkedQueue<ImageWriter> imageWriters = new ConcurrentLinkedQueue<>();
-
     private static Logger LOGGER = LogManager.getLogger(MCRThumbnailServlet.class);
 
     private int thumbnailSize = MCRImage.getTileSize();
@@ -95,13 +86,6 @@ public class MCRThumbnailServlet extends MCRServlet {
     @Override
     public void init() throws ServletException {
         super.init();
-        imageWriters = new ConcurrentLinkedQueue<>();
-        imageWriteParam = ImageIO.getImageWritersBySuffix("png").next().getDefaultWriteParam();
-        try {
-            imageWriteParam.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
-        } catch (UnsupportedOperationException e) {
-            LOGGER.warn("Your PNG encoder does not support progressive PNGs.");
-        }
         String thSize = getInitParameter("thumbnailSize");
         if (thSize != null) {
             thumbnailSize = Integer.parseInt(thSize);
@@ -109,14 +93,6 @@ public class MCRThumbnailServlet extends MCRServlet {
         LOGGER.info("{}: setting thumbnail size to {}", getServletName(), thumbnailSize);
     }
 
-    @Override
-    public void destroy() {
-        for (ImageWriter imageWriter : imageWriters) {
-            imageWriter.dispose();
-        }
-        super.destroy();
-    }
-
     @Override
     protected long getLastModified(HttpServletRequest request) {
         return modifiedCache.getUnchecked(request.getPathInfo());
@@ -140,31 +116,28 @@ public class MCRThumbnailServlet extends MCRServlet {
             String centerThumb = job.getRequest().getParameter("centerThumb");
             //defaults to "yes"
             boolean centered = !"no".equals(centerThumb);
-            BufferedImage thumbnail = getThumbnail(iviewFile, centered);
-
-            if (thumbnail != null) {
+            MCRPath imageFile = MCRPath.getPath(thumbnailInfo.derivate, thumbnailInfo.imagePath);
+            String variant = "iview-" + thumbnailSize + (centered ? "-centered" : "");
+            Optional<SeekableByteChannel> thumbnail = MCRThumbnailCache.getInstance()
+                .openThumbnail(MCRThumbnailUtils.getMD5(imageFile), variant, "png", () -> {
+                    try {
+                        return Optional.ofNullable(getThumbnail(iviewFile, centered));
+                    } catch (JDOMException e) {
+                        throw new IOException(e);
+                    }
+                });
+
+            if (thumbnail.isPresent()) {
                 job.getResponse().setHeader("Cache-Control", "max-age=" + MCRTileServlet.MAX_AGE);
                 job.getResponse().setContentType("image/png");
                 job.getResponse().setDateHeader("Last-Modified", fileAttributes.lastModifiedTime().toMillis());
                 Date expires = new Date(System.currentTimeMillis() + MCRTileServlet.MAX_AGE * 1000);
                 LOGGER.debug("Last-Modified: {}, expire on: {}", fileAttributes.lastModifiedTime(), expires);
                 job.getResponse().setDateHeader("Expires", expires.getTime());
-
-                ImageWriter imageWriter = getImageWriter();
-                try (ServletOutputStream sout = job.getResponse().getOutputStream();
-                    ByteArrayOutputStream bout = new ByteArrayOutputStream(maxPngSize.get());
-                    ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(bout)) {
-                    imageWriter.setOutput(imageOutputStream);
-                    //tile = addWatermark(scaleBufferedImage(tile));        
-                    IIOImage iioImage = new IIOImage(thumbnail, null, null);
-                    imageWriter.write(null, iioImage, imageWriteParam);
-                    int contentLength = bout.size();
-                    maxPngSize.set(Math.max(maxPngSize.get(), contentLength));
-                    job.getResponse().setContentLength(contentLength);
-                    bout.writeTo(sout);
-                } finally {
-                    imageWriter.reset();
-                    imageWriters.add(imageWriter);
+                try (SeekableByteChannel channel = thumbnail.get();
+                    ServletOutputStream sout = job.getResponse().getOutputStream()) {
+                    job.getResponse().setContentLengthLong(channel.size());
+                    Channels.newInputStream(channel).transferTo(sout);
                 }
             } else {
                 job.getResponse().sendError(HttpServletResponse.SC_NOT_FOUND);
@@ -224,14 +197,6 @@ public class MCRThumbnailServlet extends MCRServlet {
         return bicubic;
     }
 
-    private ImageWriter getImageWriter() {
-        ImageWriter imageWriter = imageWriters.poll();
-        if (imageWriter == null) {
-            imageWriter = ImageIO.getImageWritersBySuffix("png").next();
-        }
-        return imageWriter;
-    }
-
     private static class ThumnailInfo {
         String derivate, imagePath;
 
@@ -20,6 +20,7 @@ package org.mycore.iview2.iiif;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemNotFoundException;
@@ -29,10 +30,13 @@ import java.util.Arrays;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -74,8 +78,12 @@ public class MCRIVIEWIIIFImageImpl extends MCRIIIFImageImpl {
 
     private static final Logger LOGGER = LogManager.getLogger(MCRIVIEWIIIFImageImpl.class);
 
+    private static final int TILE_SIZE = 256;
+
     private final java.util.List<String> transparentFormats;
 
+    private final Queue<ImageReader> imageReaders = new ConcurrentLinkedQueue<>();
+
     private final MCRTileFileProvider tileFileProvider;
 
     public MCRIVIEWIIIFImageImpl(String implName) {
@@ -186,10 +194,10 @@ public class MCRIVIEWIIIFImageImpl extends MCRIIIFImageImpl {
             y2 = region.getY2() * zoomLevelScale;
 
         // now we detect the tiles to draw!
-        int x1Tile = (int) Math.floor(x1 / 256),
-            y1Tile = (int) Math.floor(y1 / 256),
-            x2Tile = (int) Math.ceil(x2 / 256),
-            y2Tile = (int) Math.ceil(y2 / 256);
+        int x1Tile = (int) Math.floor(x1 / TILE_SIZE),
+            y1Tile = (int) Math.floor(y1 / TILE_SIZE),
+            x2Tile = (int) Math.ceil(x2 / TILE_SIZE),
+            y2Tile = (int) Math.ceil(y2 / TILE_SIZE);
 
         try (FileSystem zipFileSystem = MCRIView2Tools.getFileSystem(oTileFile.get())) {
             Path rootPath = zipFileSystem.getPath("/");
@@ -214,12 +222,17 @@ public class MCRIVIEWIIIFImageImpl extends MCRIIIFImageImpl {
             LOGGER.info(String.format(Locale.ROOT, "Using zoom-level: %d and scales %s/%s!", sourceZoomLevel,
                 drawScaleX, drawScaleY));
 
-            for (int x = x1Tile; x < x2Tile; x++) {
-                for (int y = y1Tile; y < y2Tile; y++) {
-                    ImageReader imageReader = MCRIView2Tools.getTileImageReader();
-                    BufferedImage tile = MCRIView2Tools.readTile(rootPath, imageReader, sourceZoomLevel, x, y);
-                    graphics.drawImage(tile, x * 256, y * 256, null);
+            ImageReader imageReader = getImageReader();
+            try {
+                for (int x = x1Tile; x < x2Tile; x++) {
+                    for (int y = y1Tile; y < y2Tile; y++) {
+                        BufferedImage tile = MCRIView2Tools.readTile(rootPath, imageReader, sourceZoomLevel, x, y);
+                        graphics.drawImage(tile, x * TILE_SIZE, y * TILE_SIZE, null);
+                    }
                 }
+            } finally {
+                imageReaders.add(imageReader);
+                graphics.dispose();
             }
 
         } catch (IOException e) {
@@ -229,6 +242,95 @@ public class MCRIVIEWIIIFImageImpl extends MCRIIIFImageImpl {
         return targetImage;
     }
 
+    /**
+     * Returns the stored tile, if the region and size of the request exactly match one tile of a zoom level and the
+     * tile is requested as JPEG without rotation and quality conversion.
+     */
+    @Override
+    public Optional<byte[]> provideStored(String identifier,
+        MCRIIIFImageSourceRegion region,
+        MCRIIIFImageTargetSize targetSize,
+        MCRIIIFImageTargetRotation rotation,
+        MCRIIIFImageQuality imageQuality,
+        String format) throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRAccessException {
+        String lowerFormat = format.toLowerCase(Locale.ENGLISH);
+        if (rotation.getDegrees() != 0 || rotation.isMirrored() || imageQuality != MCRIIIFImageQuality.color
+            || !("jpg".equals(lowerFormat) || "jpeg".equals(lowerFormat))) {
+            return Optional.empty();
+        }
+        int sourceWidth = region.getX2() - region.getX1();
+        int sourceHeight = region.getY2() - region.getY1();
+        if (targetSize.getWidth() <= 0 || targetSize.getWidth() > TILE_SIZE || targetSize.getHeight() > TILE_SIZE) {
+            return Optional.empty();
+        }
+        // only downscaling by a power of two maps to a zoom level
+        int zoomOut = (int) Math.round(Math.log((double) sourceWidth / targetSize.getWidth()) / Math.log(2));
+        if (zoomOut < 0 || zoomOut >= Integer.SIZE - 9) {
+            return Optional.empty();
+        }
+        int tileSpan = TILE_SIZE << zoomOut;
+        if (region.getX1() % tileSpan != 0 || region.getY1() % tileSpan != 0) {
+            return Optional.empty();
+        }
+
+        MCRTileInfo tileInfo = createTileInfo(identifier);
+        Optional<Path> oTileFile = tileFileProvider.getTileFile(tileInfo);
+        if (oTileFile.isEmpty()) {
+            throw new MCRIIIFImageNotFoundException(identifier);
+        }
+        checkTileFile(identifier, tileInfo, oTileFile.get());
+
+        try (FileSystem zipFileSystem = MCRIView2Tools.getFileSystem(oTileFile.get())) {
+            Path rootPath = zipFileSystem.getPath("/");
+            MCRTiledPictureProps props = MCRTiledPictureProps.getInstanceFromDirectory(rootPath);
+            int zoomLevel = props.getZoomlevel() - zoomOut;
+            if (zoomLevel < 0
+                || region.getX2() != Math.min(region.getX1() + tileSpan, props.getWidth())
+                || region.getY2() != Math.min(region.getY1() + tileSpan, props.getHeight())) {
+                return Optional.empty();
+            }
+            Path tile = rootPath.resolve(String.format(Locale.ROOT, "%d/%d/%d.jpg", zoomLevel,
+                region.getY1() / tileSpan, region.getX1() / tileSpan));
+            if (Files.notExists(tile)) {
+                return Optional.empty();
+            }
+            byte[] tileBytes = Files.readAllBytes(tile);
+            if (!hasSize(tileBytes, targetSize)) {
+                return Optional.empty();
+            }
+            LOGGER.debug("Sending stored tile {} of {}.", tile, identifier);
+            return Optional.of(tileBytes);
+        } catch (IOException e) {
+            throw new MCRIIIFImageProvidingException("Error while reading tile!", e);
+        }
+    }
+
+    private boolean hasSize(byte[] image, MCRIIIFImageTargetSize size) throws IOException {
+        ImageReader imageReader = getImageReader();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            imageReader.setInput(iis, true);
+            return imageReader.getWidth(0) == size.getWidth() && imageReader.getHeight(0) == size.getHeight();
+        } finally {
+            imageReader.reset();
+            imageReaders.add(imageReader);
+        }
+    }
+
+    private ImageReader getImageReader() {
+        ImageReader imageReader = imageReaders.poll();
+        return imageReader == null ? MCRIView2Tools.getTileImageReader() : imageReader;
+    }
+
+    @Override
+    public void checkAccess(String identifier) throws MCRIIIFImageNotFoundException, MCRAccessException {
+        MCRTileInfo tileInfo = createTileInfo(identifier);
+        Optional<Path> oTileFile = tileFileProvider.getTileFile(tileInfo);
+        if (oTileFile.isEmpty()) {
+            throw new MCRIIIFImageNotFoundException(identifier);
+        }
+        checkTileFile(identifier, tileInfo, oTileFile.get());
+    }
+
     public MCRIIIFImageInformation getInformation(String identifier)
         throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException, MCRAccessException {
         try {
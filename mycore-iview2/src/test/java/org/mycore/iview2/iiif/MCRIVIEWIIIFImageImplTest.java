@@ -0,0 +1,179 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.iview2.iiif;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.access.MCRAccessException;
+import org.mycore.common.MCRTestCase;
+import org.mycore.iiif.image.MCRIIIFImageRenderer;
+import org.mycore.iiif.image.impl.MCRIIIFImageNotFoundException;
+import org.mycore.iiif.image.impl.MCRIIIFImageProvidingException;
+import org.mycore.iiif.image.impl.MCRIIIFUnsupportedFormatException;
+import org.mycore.iiif.image.model.MCRIIIFImageQuality;
+import org.mycore.iiif.image.model.MCRIIIFImageSourceRegion;
+import org.mycore.iiif.image.model.MCRIIIFImageTargetRotation;
+import org.mycore.iiif.image.model.MCRIIIFImageTargetSize;
+import org.mycore.imagetiler.MCRImage;
+import org.mycore.imagetiler.MCRTileEventHandler;
+import org.mycore.iview2.backend.MCRTileInfo;
+import org.mycore.iview2.services.MCRIView2Tools;
+
+public class MCRIVIEWIIIFImageImplTest extends MCRTestCase {
+
+    private static final String DERIVATE_ID = "junit_derivate_00000001";
+
+    private static final String IMAGE_PATH = "image.png";
+
+    private static final String IDENTIFIER = DERIVATE_ID + ":/" + IMAGE_PATH;
+
+    private static final MCRIIIFImageTargetRotation NO_ROTATION = new MCRIIIFImageTargetRotation(false, 0);
+
+    private TestImageImpl impl;
+
+    private Path tiledFile;
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Module-iview2.DirectoryForTiles",
+            junitFolder.getRoot().toPath().resolve("tiles").toString());
+        testProperties.put("MCR.IIIFImage.Iview", TestImageImpl.class.getName());
+        testProperties.put("MCR.IIIFImage.Iview.MaxImageBytes", "1073741824");
+        testProperties.put("MCR.IIIFImage.Iview.TransparentFormats", "png");
+        testProperties.put("MCR.IIIFImage.Render.MaxPixels", "67108864");
+        testProperties.put("MCR.IIIFImage.Render.MaxWaitMillis", "10000");
+        testProperties.put("MCR.IIIFImage.Render.Cache.MaxImageBytes", "262144");
+        testProperties.put("MCR.IIIFImage.Render.Cache.Size", "10");
+        return testProperties;
+    }
+
+    @Before
+    public void tileImage() throws Exception {
+        // 300x200 pixels are tiled into zoom level 0 and 1
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        Path imageFile = junitFolder.newFile(IMAGE_PATH).toPath();
+        ImageIO.write(image, "png", imageFile.toFile());
+        MCRImage tiler = MCRImage.getInstance(imageFile, DERIVATE_ID, IMAGE_PATH);
+        tiler.setTileDir(MCRIView2Tools.getTileDir());
+        tiler.tile(new MCRTileEventHandler() {
+            @Override
+            public void preImageReaderCreated() {
+            }
+
+            @Override
+            public void postImageReaderCreated() {
+            }
+        });
+        tiledFile = MCRImage.getTiledFile(MCRIView2Tools.getTileDir(), DERIVATE_ID, IMAGE_PATH);
+        impl = new TestImageImpl("Iview");
+    }
+
+    @After
+    public void resetImpl() {
+        TestImageImpl.PROVIDED.set(0);
+    }
+
+    @Test
+    public void testStoredTile() throws Exception {
+        MCRIIIFImageSourceRegion region = new MCRIIIFImageSourceRegion(0, 0, 256, 200);
+        MCRIIIFImageTargetSize size = new MCRIIIFImageTargetSize(256, 200);
+        byte[] image = MCRIIIFImageRenderer.render(impl, IDENTIFIER, Files.getLastModifiedTime(tiledFile).toMillis(),
+            region, size, NO_ROTATION, MCRIIIFImageQuality.color, "jpg");
+        assertArrayEquals("The stored tile should be sent as it is", readTile("1/0/0.jpg"), image);
+        assertEquals("The stored tile should not be rendered", 0, TestImageImpl.PROVIDED.get());
+
+        byte[] scaled = MCRIIIFImageRenderer.render(impl, IDENTIFIER,
+            Files.getLastModifiedTime(tiledFile).toMillis(), new MCRIIIFImageSourceRegion(0, 0, 300, 200),
+            new MCRIIIFImageTargetSize(150, 100), NO_ROTATION, MCRIIIFImageQuality.color, "jpg");
+        assertArrayEquals("Zoom level 0 should be sent as it is", readTile("0/0/0.jpg"), scaled);
+        assertEquals(0, TestImageImpl.PROVIDED.get());
+    }
+
+    @Test
+    public void testNoStoredTile() throws Exception {
+        assertFalse("Unaligned regions should be rendered", impl.provideStored(IDENTIFIER,
+            new MCRIIIFImageSourceRegion(10, 0, 266, 200), new MCRIIIFImageTargetSize(256, 200), NO_ROTATION,
+            MCRIIIFImageQuality.color, "jpg").isPresent());
+        assertFalse("Other formats should be rendered", impl.provideStored(IDENTIFIER,
+            new MCRIIIFImageSourceRegion(0, 0, 256, 200), new MCRIIIFImageTargetSize(256, 200), NO_ROTATION,
+            MCRIIIFImageQuality.color, "png").isPresent());
+        assertFalse("Gray images should be rendered", impl.provideStored(IDENTIFIER,
+            new MCRIIIFImageSourceRegion(0, 0, 256, 200), new MCRIIIFImageTargetSize(256, 200), NO_ROTATION,
+            MCRIIIFImageQuality.gray, "jpg").isPresent());
+
+        MCRIIIFImageRenderer.render(impl, IDENTIFIER, Files.getLastModifiedTime(tiledFile).toMillis(),
+            new MCRIIIFImageSourceRegion(10, 0, 266, 200), new MCRIIIFImageTargetSize(256, 200), NO_ROTATION,
+            MCRIIIFImageQuality.color, "jpg");
+        assertEquals(1, TestImageImpl.PROVIDED.get());
+    }
+
+    private byte[] readTile(String tilePath) throws Exception {
+        try (FileSystem zipFileSystem = MCRIView2Tools.getFileSystem(tiledFile)) {
+            Path tile = zipFileSystem.getPath("/").resolve(tilePath);
+            assertTrue("Tile should exist: " + tilePath, Files.exists(tile));
+            return Files.readAllBytes(tile);
+        }
+    }
+
+    public static class TestImageImpl extends MCRIVIEWIIIFImageImpl {
+
+        static final AtomicInteger PROVIDED = new AtomicInteger();
+
+        public TestImageImpl(String implName) {
+            super(implName);
+        }
+
+        @Override
+        public BufferedImage provide(String identifier, MCRIIIFImageSourceRegion region,
+            MCRIIIFImageTargetSize targetSize, MCRIIIFImageTargetRotation rotation, MCRIIIFImageQuality imageQuality,
+            String format) throws MCRIIIFImageNotFoundException, MCRIIIFImageProvidingException,
+            MCRIIIFUnsupportedFormatException, MCRAccessException {
+            PROVIDED.incrementAndGet();
+            return super.provide(identifier, region, targetSize, rotation, imageQuality, format);
+        }
+
+        @Override
+        protected boolean checkPermission(String identifier, MCRTileInfo tileInfo) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.media.events;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.common.events.MCRShutdownHandler;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.media.services.MCRThumbnailCache;
+import org.mycore.media.services.MCRThumbnailUtils;
+import org.mycore.util.concurrent.MCRTransactionableRunnable;
+
+/**
+ * Renders the thumbnails of the main file of a derivate into the {@link MCRThumbnailCache} after the derivate was
+ * created or updated, so the first request does not have to wait for them. The sizes to render are configured by
+ * <code>MCR.Media.Thumbnail.Cache.PregenerateSizes</code>.
+ */
+public class MCRThumbnailCacheEventHandler extends MCREventHandlerBase {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final ExecutorService EXECUTOR = initExecutor();
+
+    private static final List<Integer> SIZES = MCRConfiguration2
+        .getOrThrow("MCR.Media.Thumbnail.Cache.PregenerateSizes", MCRConfiguration2::splitValue)
+        .map(Integer::parseInt)
+        .collect(Collectors.toList());
+
+    private static ExecutorService initExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "MCRThumbnailCache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MCRShutdownHandler.getInstance().addCloseable(executor::shutdownNow);
+        return executor;
+    }
+
+    @Override
+    protected void handleDerivateCreated(MCREvent evt, MCRDerivate der) {
+        pregenerate(der);
+    }
+
+    @Override
+    protected void handleDerivateUpdated(MCREvent evt, MCRDerivate der) {
+        pregenerate(der);
+    }
+
+    @Override
+    protected void handleDerivateRepaired(MCREvent evt, MCRDerivate der) {
+        pregenerate(der);
+    }
+
+    private void pregenerate(MCRDerivate der) {
+        String mainDoc = der.getDerivate().getInternals().getMainDoc();
+        if (mainDoc == null || mainDoc.isEmpty()) {
+            return;
+        }
+        MCRPath mainFile = MCRPath.getPath(der.getId().toString(), '/' + mainDoc);
+        Runnable task = new MCRTransactionableRunnable(() -> {
+            for (int size : SIZES) {
+                try {
+                    MCRThumbnailUtils.getCachedThumbnail(mainFile, size, "png");
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Could not create thumbnail of {} with size {}.", mainFile, size, e);
+                }
+            }
+        });
+        MCRSessionMgr.getCurrentSession().onCommit(() -> EXECUTOR.submit(task));
+    }
+}
@@ -18,16 +18,15 @@
 
 package org.mycore.media.frontend.jersey;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.attribute.FileTime;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -36,6 +35,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
@@ -45,7 +45,7 @@ import org.mycore.datamodel.metadata.MCRMetadataManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.frontend.jersey.MCRJerseyUtil;
-import org.mycore.media.services.MCRThumbnailGenerator;
+import org.mycore.media.services.MCRThumbnailUtils;
 
 @Path("thumbnail")
 public class MCRThumbnailResource {
@@ -95,31 +95,16 @@ public class MCRThumbnailResource {
                         if (resp != null) {
                             return resp.build();
                         }
-                        String mimeType = Files.probeContentType(mainFile);
-                        List<MCRThumbnailGenerator> generators = MCRConfiguration2
-                            .getOrThrow("MCR.Media.Thumbnail.Generators", MCRConfiguration2::splitValue)
-                            .map(MCRConfiguration2::<MCRThumbnailGenerator>instantiateClass)
-                            .filter(thumbnailGenerator -> thumbnailGenerator.matchesFileType(mimeType, mainFile))
-                            .collect(Collectors.toList());
-                        final Optional<BufferedImage> thumbnail = generators.stream()
-                            .map(thumbnailGenerator -> {
-                                try {
-                                    return thumbnailGenerator.getThumbnail(mainFile, size);
-                                } catch (IOException e) {
-                                    throw new UncheckedIOException(e);
-                                }
-                            })
-                            .filter(Optional::isPresent)
-                            .map(Optional::get)
-                            .findFirst();
+                        String format = "jpg".equals(ext) || "jpeg".equals(ext) ? "jpg" : "png";
+                        // the entity stream is closed by JAX-RS after it is written
+                        final Optional<SeekableByteChannel> thumbnail = MCRThumbnailUtils
+                            .openCachedThumbnail(mainFile, size, format);
                         if (thumbnail.isPresent()) {
                             CacheControl cc = new CacheControl();
                             cc.setMaxAge((int) TimeUnit.DAYS.toSeconds(1));
-                            String type = "image/png";
-                            if ("jpg".equals(ext) || "jpeg".equals(ext)) {
-                                type = "image/jpeg";
-                            }
-                            return Response.ok(thumbnail.get())
+                            String type = "jpg".equals(format) ? "image/jpeg" : "image/png";
+                            return Response.ok(Channels.newInputStream(thumbnail.get()))
+                                .header(HttpHeaders.CONTENT_LENGTH, thumbnail.get().size())
                                 .cacheControl(cc)
                                 .lastModified(lastModifiedDate)
                                 .type(type)
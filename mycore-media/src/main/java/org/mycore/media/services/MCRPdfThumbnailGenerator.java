@@ -21,8 +21,6 @@ package org.mycore.media.services;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -46,7 +44,7 @@ public class MCRPdfThumbnailGenerator implements MCRThumbnailGenerator {
 
     @Override
     public Optional<BufferedImage> getThumbnail(MCRPath path, int size) throws IOException {
-        try (InputStream fileIS = Files.newInputStream(path); PDDocument pdf = PDDocument.load(fileIS)) {
+        try (PDDocument pdf = MCRThumbnailUtils.loadPDF(path)) {
             final PDPage page = resolveOpenActionPage(pdf);
             float pdfWidth = page.getCropBox().getWidth();
             float pdfHeight = page.getCropBox().getHeight();
@@ -0,0 +1,337 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.media.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
+
+/**
+ * Disk based cache of rendered thumbnails.
+ *
+ * Thumbnails are keyed by the MD5 sum of the source file, a variant describing size and rendering options and the
+ * image format, so a changed file never hits an outdated thumbnail and no invalidation is required. The cache lives
+ * in <code>MCR.Media.Thumbnail.Cache.Directory</code> and is limited to <code>MCR.Media.Thumbnail.Cache.MaxSize</code>
+ * bytes; the least recently used thumbnails are removed first. Concurrent requests for the same missing thumbnail
+ * render it only once.
+ *
+ * A thumbnail may be evicted at any time, so readers should use
+ * {@link #openThumbnail(String, String, String, Renderer)}. It opens the file while eviction is blocked, and an
+ * evicted file that is still open can be read to its end.
+ */
+public final class MCRThumbnailCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final MCRCounter HITS = MCRMetrics.counter("thumbnail", "cache", "hit");
+
+    private static final MCRCounter MISSES = MCRMetrics.counter("thumbnail", "cache", "miss");
+
+    private static final MCRTimer RENDER_TIMER = MCRMetrics.timer("thumbnail", "op", "render");
+
+    private static final String EVICTED_SUFFIX = ".evicted";
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private final LinkedHashMap<Path, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Map<Path, CompletableFuture<Optional<Path>>> pending = new ConcurrentHashMap<>();
+
+    private long size;
+
+    MCRThumbnailCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        loadIndex();
+    }
+
+    public static MCRThumbnailCache getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Renders a thumbnail.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        Optional<BufferedImage> render() throws IOException;
+    }
+
+    /**
+     * Returns the cached thumbnail, rendering and storing it first if it is missing.
+     *
+     * @param md5 the MD5 sum of the source file
+     * @param variant describes size and options of the thumbnail, e.g. <code>512</code> or <code>256-centered</code>
+     * @param format the image format, <code>png</code> or <code>jpg</code>
+     * @param renderer renders the thumbnail on a cache miss
+     * @return the thumbnail file or empty, if the renderer could not create a thumbnail; the file may be evicted
+     * before it is read, use {@link #openThumbnail(String, String, String, Renderer)} to read it
+     */
+    public Optional<Path> getThumbnail(String md5, String variant, String format, Renderer renderer)
+        throws IOException {
+        Path file = getFile(md5, variant, format);
+        if (isCached(file)) {
+            HITS.increment();
+            return Optional.of(file);
+        }
+        CompletableFuture<Optional<Path>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> running = pending.putIfAbsent(file, future);
+        if (running != null) {
+            LOGGER.debug("Waiting for thumbnail {} rendered by another thread.", file);
+            return await(running);
+        }
+        try {
+            MISSES.increment();
+            Optional<Path> result = render(file, format, renderer);
+            future.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(file, future);
+        }
+    }
+
+    /**
+     * Opens the cached thumbnail for reading, rendering and storing it first if it is missing.
+     *
+     * @param md5 the MD5 sum of the source file
+     * @param variant describes size and options of the thumbnail, e.g. <code>512</code> or <code>256-centered</code>
+     * @param format the image format, <code>png</code> or <code>jpg</code>
+     * @param renderer renders the thumbnail on a cache miss
+     * @return a channel to read the thumbnail, that has to be closed by the caller, or empty, if the renderer could
+     * not create a thumbnail
+     */
+    public Optional<SeekableByteChannel> openThumbnail(String md5, String variant, String format,
+        Renderer renderer) throws IOException {
+        Path file = getFile(md5, variant, format);
+        // a thumbnail may be evicted by a concurrent render before it is opened, so try again once
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (getThumbnail(md5, variant, format, renderer).isEmpty()) {
+                return Optional.empty();
+            }
+            synchronized (this) {
+                if (isCached(file)) {
+                    return Optional.of(Files.newByteChannel(file));
+                }
+            }
+        }
+        throw new IOException("Thumbnail " + file + " was evicted before it could be opened.");
+    }
+
+    /**
+     * Returns true, if the thumbnail is already cached.
+     */
+    public boolean contains(String md5, String variant, String format) {
+        return isCached(getFile(md5, variant, format));
+    }
+
+    /**
+     * Returns the total size of all cached thumbnails in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private Optional<Path> await(CompletableFuture<Optional<Path>> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for thumbnail.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while rendering thumbnail.", e.getCause());
+        }
+    }
+
+    private Optional<Path> render(Path file, String format, Renderer renderer) throws IOException {
+        long start = RENDER_TIMER.start();
+        Optional<BufferedImage> thumbnail;
+        try {
+            thumbnail = renderer.render();
+        } finally {
+            RENDER_TIMER.stop(start);
+        }
+        if (thumbnail.isEmpty()) {
+            return Optional.empty();
+        }
+        Files.createDirectories(file.getParent());
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            BufferedImage image = thumbnail.get();
+            String formatName = getFormatName(format);
+            if ("jpeg".equals(formatName)) {
+                image = removeAlpha(image);
+            }
+            if (!ImageIO.write(image, formatName, tempFile.toFile())) {
+                throw new IOException("No image writer available for format " + format);
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        add(file, Files.size(file));
+        return Optional.of(file);
+    }
+
+    private synchronized boolean isCached(Path file) {
+        if (index.get(file) == null) {
+            return false;
+        }
+        if (Files.notExists(file)) {
+            size -= index.remove(file);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void add(Path file, long fileSize) {
+        Long oldSize = index.put(file, fileSize);
+        size += fileSize - (oldSize == null ? 0 : oldSize);
+        Iterator<Map.Entry<Path, Long>> entries = index.entrySet().iterator();
+        while (size > maxSize && entries.hasNext()) {
+            Map.Entry<Path, Long> eldest = entries.next();
+            if (eldest.getKey().equals(file)) {
+                continue;
+            }
+            evict(eldest.getKey());
+            size -= eldest.getValue();
+            entries.remove();
+        }
+    }
+
+    /**
+     * Removes a thumbnail that may still be read through a channel opened by {@link #openThumbnail}. The file is
+     * renamed first, so the name is free for a new thumbnail at once, and then deleted. Open channels can still read
+     * a deleted file, as Java opens files with shared delete access on Windows, too.
+     */
+    private static void evict(Path file) {
+        try {
+            Path evicted = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + EVICTED_SUFFIX);
+            Files.move(file, evicted, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(evicted);
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Thumbnail {} was already removed from cache.", file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove thumbnail {} from cache.", file, e);
+        }
+    }
+
+    private Path getFile(String md5, String variant, String format) {
+        String safeVariant = variant.replaceAll("[^a-zA-Z0-9_-]", "_");
+        String safeFormat = format.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "_");
+        String key = md5.toLowerCase(Locale.ROOT);
+        return directory.resolve(key.substring(0, 2)).resolve(key + "-" + safeVariant + "." + safeFormat);
+    }
+
+    private void loadIndex() {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> thumbnails = files
+                .filter(Files::isRegularFile)
+                .sorted(Comparator.comparing(MCRThumbnailCache::getLastModified))
+                .collect(Collectors.toList());
+            for (Path thumbnail : thumbnails) {
+                String fileName = thumbnail.getFileName().toString();
+                if (fileName.endsWith(".tmp") || fileName.endsWith(EVICTED_SUFFIX)) {
+                    Files.deleteIfExists(thumbnail);
+                } else {
+                    add(thumbnail, Files.size(thumbnail));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Thumbnail removed while loading cache index.", e);
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.warn("Could not load thumbnail cache index of {}.", directory, e);
+        }
+        LOGGER.info("Thumbnail cache {} contains {} files with {} bytes.", directory, index.size(), size);
+    }
+
+    private static Long getLastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String getFormatName(String format) {
+        String lowerFormat = format.toLowerCase(Locale.ROOT);
+        return "jpg".equals(lowerFormat) ? "jpeg" : lowerFormat;
+    }
+
+    private static BufferedImage removeAlpha(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgbImage.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgbImage;
+    }
+
+    private static final class InstanceHolder {
+        private static final MCRThumbnailCache INSTANCE = new MCRThumbnailCache(
+            MCRConfiguration2.getOrThrow("MCR.Media.Thumbnail.Cache.Directory", Paths::get),
+            MCRConfiguration2.getOrThrow("MCR.Media.Thumbnail.Cache.MaxSize", Long::parseLong));
+    }
+}
@@ -19,9 +19,100 @@
 package org.mycore.media.services;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.niofs.MCRFileAttributes;
+import org.mycore.datamodel.niofs.MCRPath;
 
 public class MCRThumbnailUtils {
 
+    /**
+     * Returns the thumbnail of a file from {@link MCRThumbnailCache}, rendering it by the first matching
+     * generator of <code>MCR.Media.Thumbnail.Generators</code> if it is not cached yet.
+     *
+     * @param file the file to get the thumbnail for
+     * @param size the size of the shortest side in pixel
+     * @param format the image format, <code>png</code> or <code>jpg</code>
+     * @return the cached thumbnail or empty, if no generator supports the file
+     */
+    public static Optional<Path> getCachedThumbnail(MCRPath file, int size, String format) throws IOException {
+        return MCRThumbnailCache.getInstance().getThumbnail(getMD5(file), String.valueOf(size), format,
+            () -> getThumbnail(file, size));
+    }
+
+    /**
+     * Opens the thumbnail of a file from {@link MCRThumbnailCache} like {@link #getCachedThumbnail}. Use this method
+     * to read the thumbnail, as the cached file may be evicted at any time.
+     *
+     * @param file the file to get the thumbnail for
+     * @param size the size of the shortest side in pixel
+     * @param format the image format, <code>png</code> or <code>jpg</code>
+     * @return a channel to read the thumbnail, that has to be closed by the caller, or empty, if no generator supports
+     * the file
+     */
+    public static Optional<SeekableByteChannel> openCachedThumbnail(MCRPath file, int size, String format)
+        throws IOException {
+        return MCRThumbnailCache.getInstance().openThumbnail(getMD5(file), String.valueOf(size), format,
+            () -> getThumbnail(file, size));
+    }
+
+    private static Optional<BufferedImage> getThumbnail(MCRPath file, int size) throws IOException {
+        String mimeType = Files.probeContentType(file);
+        List<MCRThumbnailGenerator> generators = MCRConfiguration2
+            .getOrThrow("MCR.Media.Thumbnail.Generators", MCRConfiguration2::splitValue)
+            .map(MCRConfiguration2::<MCRThumbnailGenerator>instantiateClass)
+            .filter(thumbnailGenerator -> thumbnailGenerator.matchesFileType(mimeType, file))
+            .collect(Collectors.toList());
+        try {
+            return generators.stream()
+                .map(thumbnailGenerator -> {
+                    try {
+                        return thumbnailGenerator.getThumbnail(file, size);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the MD5 sum of a file in a derivate.
+     */
+    public static String getMD5(MCRPath file) throws IOException {
+        return Files.readAttributes(file, MCRFileAttributes.class).md5sum();
+    }
+
+    /**
+     * Loads a PDF document. If the file is stored in the local file system, only the parts of the document that are
+     * required are read instead of loading the whole file into memory.
+     */
+    public static PDDocument loadPDF(Path pdfFile) throws IOException {
+        Path physicalPath = pdfFile instanceof MCRPath ? ((MCRPath) pdfFile).toPhysicalPath() : pdfFile;
+        if (physicalPath != null && physicalPath.getFileSystem().equals(FileSystems.getDefault())) {
+            return PDDocument.load(physicalPath.toFile(), MemoryUsageSetting.setupMainMemoryOnly());
+        }
+        try (InputStream fileIS = Files.newInputStream(pdfFile)) {
+            return PDDocument.load(fileIS, MemoryUsageSetting.setupTempFileOnly());
+        }
+    }
+
     public static int getImageType(BufferedImage image) {
         int colorType = 12;
         for (int x = 0; x < image.getWidth(); x++) {
@@ -0,0 +1,203 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.media.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.services.metrics.MCRMetrics;
+
+public class MCRThumbnailCacheTest extends MCRTestCase {
+
+    private static final String MD5_A = "aa000000000000000000000000000000";
+
+    private static final String MD5_B = "bb000000000000000000000000000000";
+
+    private static final String MD5_C = "cc000000000000000000000000000000";
+
+    private long thumbnailSize;
+
+    @Before
+    public void enableMetrics() throws IOException {
+        MCRMetrics.setEnabled(true);
+        MCRThumbnailCache probe = new MCRThumbnailCache(junitFolder.newFolder().toPath(), Long.MAX_VALUE);
+        probe.getThumbnail(MD5_A, "1", "png", MCRThumbnailCacheTest::render);
+        thumbnailSize = probe.getSize();
+        MCRMetrics.reset();
+    }
+
+    @After
+    public void disableMetrics() {
+        MCRMetrics.setEnabled(false);
+        MCRMetrics.reset();
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        Path directory = junitFolder.newFolder().toPath();
+        MCRThumbnailCache cache = new MCRThumbnailCache(directory, 2 * thumbnailSize);
+        Path a = cache.getThumbnail(MD5_A, "1", "png", MCRThumbnailCacheTest::render).orElseThrow();
+        Path b = cache.getThumbnail(MD5_B, "1", "png", MCRThumbnailCacheTest::render).orElseThrow();
+        // a is used more recently than b now
+        assertTrue(cache.contains(MD5_A, "1", "png"));
+        cache.getThumbnail(MD5_C, "1", "png", MCRThumbnailCacheTest::render);
+
+        assertTrue(cache.contains(MD5_A, "1", "png"));
+        assertFalse("Least recently used thumbnail should be evicted.", cache.contains(MD5_B, "1", "png"));
+        assertTrue(cache.contains(MD5_C, "1", "png"));
+        assertTrue(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertEquals(2 * thumbnailSize, cache.getSize());
+        assertEquals("Only cached thumbnails should be left on disk.", 2, listFiles(directory).size());
+
+        MCRThumbnailCache reloaded = new MCRThumbnailCache(directory, 2 * thumbnailSize);
+        assertEquals(2 * thumbnailSize, reloaded.getSize());
+        assertTrue(reloaded.contains(MD5_A, "1", "png"));
+    }
+
+    @Test
+    public void testOpenThumbnailSurvivesEviction() throws IOException {
+        Path directory = junitFolder.newFolder().toPath();
+        MCRThumbnailCache cache = new MCRThumbnailCache(directory, thumbnailSize);
+        try (SeekableByteChannel channel = cache.openThumbnail(MD5_A, "1", "png", MCRThumbnailCacheTest::render)
+            .orElseThrow()) {
+            cache.getThumbnail(MD5_B, "1", "png", MCRThumbnailCacheTest::render);
+            assertFalse(cache.contains(MD5_A, "1", "png"));
+
+            assertEquals(thumbnailSize, channel.size());
+            InputStream in = Channels.newInputStream(channel);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(in.readAllBytes()));
+            assertNotNull("Evicted thumbnail should still be readable.", image);
+            assertEquals(1, image.getWidth());
+        }
+        assertEquals(1, listFiles(directory).size());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        MCRThumbnailCache cache = new MCRThumbnailCache(junitFolder.newFolder().toPath(), Long.MAX_VALUE);
+        AtomicInteger renderCount = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        MCRThumbnailCache.Renderer renderer = () -> {
+            renderCount.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return render();
+        };
+        int threadCount = 4;
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            List<Future<Optional<Path>>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(() -> cache.getThumbnail(MD5_A, "1", "png", renderer)));
+            }
+            // the renderer and all waiting threads are blocked before the rendering completes
+            long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (threads.size() < threadCount
+                || !threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+                assertTrue("Threads did not block on the rendering thumbnail.", System.currentTimeMillis() < timeout);
+                Thread.sleep(10);
+            }
+            release.countDown();
+            Path thumbnail = results.get(0).get(10, TimeUnit.SECONDS).orElseThrow();
+            for (Future<Optional<Path>> result : results) {
+                assertEquals(thumbnail, result.get(10, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals("Thumbnail should be rendered only once.", 1, renderCount.get());
+        assertEquals(1, MCRMetrics.counter("thumbnail", "cache", "miss").getCount());
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        MCRThumbnailCache cache = new MCRThumbnailCache(junitFolder.newFolder().toPath(), Long.MAX_VALUE);
+        AtomicInteger renderCount = new AtomicInteger();
+        MCRThumbnailCache.Renderer renderer = () -> {
+            renderCount.incrementAndGet();
+            return render();
+        };
+        cache.getThumbnail(MD5_A, "1", "png", renderer);
+        cache.getThumbnail(MD5_A, "1", "png", renderer);
+        cache.getThumbnail(MD5_A, "1", "jpg", renderer);
+        assertEquals(2, renderCount.get());
+        assertEquals(1, MCRMetrics.counter("thumbnail", "cache", "hit").getCount());
+        assertEquals(2, MCRMetrics.counter("thumbnail", "cache", "miss").getCount());
+        assertEquals(2, MCRMetrics.timer("thumbnail", "op", "render").getCount());
+    }
+
+    @Test
+    public void testNoThumbnail() throws IOException {
+        MCRThumbnailCache cache = new MCRThumbnailCache(junitFolder.newFolder().toPath(), Long.MAX_VALUE);
+        assertFalse(cache.getThumbnail(MD5_A, "1", "png", Optional::empty).isPresent());
+        assertFalse(cache.openThumbnail(MD5_A, "1", "png", Optional::empty).isPresent());
+        assertFalse(cache.contains(MD5_A, "1", "png"));
+        assertEquals(0, cache.getSize());
+    }
+
+    private static Optional<BufferedImage> render() {
+        return Optional.of(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mets.events;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.tools.MCRMetsCache;
+
+/**
+ * Removes generated METS documents from {@link MCRMetsCache} if a file of the derivate changes or the derivate is
+ * deleted. Changes of the derivate or its owner object are detected by their last modified dates.
+ */
+public class MCRMetsCacheEventHandler extends MCREventHandlerBase {
+
+    @Override
+    protected void handleDerivateDeleted(MCREvent evt, MCRDerivate der) {
+        MCRMetsCache.getInstance().remove(der.getId());
+    }
+
+    @Override
+    protected void handlePathCreated(MCREvent evt, Path path, BasicFileAttributes attrs) {
+        removePath(path);
+    }
+
+    @Override
+    protected void handlePathUpdated(MCREvent evt, Path path, BasicFileAttributes attrs) {
+        removePath(path);
+    }
+
+    @Override
+    protected void handlePathDeleted(MCREvent evt, Path path, BasicFileAttributes attrs) {
+        removePath(path);
+    }
+
+    private void removePath(Path path) {
+        if (path instanceof MCRPath) {
+            MCRMetsCache.getInstance().remove(MCRObjectID.getInstance(((MCRPath) path).getOwner()));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mets.events;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRSystemUserInformation;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCRShutdownHandler;
+import org.mycore.datamodel.common.MCRMarkManager;
+import org.mycore.datamodel.metadata.MCRMetadataManager;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.tools.MCRMetsSave;
+import org.mycore.util.concurrent.MCRFixedUserCallable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collects added and deleted files per derivate and updates the mets.xml once for all of them.
+ *
+ * The update of a derivate is delayed until no further file of it changed for <code>MCR.Mets.Update.Delay</code>
+ * milliseconds, but not longer than <code>MCR.Mets.Update.MaxDelay</code> milliseconds after the first change.
+ * So an upload of many files rewrites the mets.xml only a few times instead of once per file. A delay of 0 updates
+ * the mets.xml immediately.
+ */
+final class MCRMetsUpdateQueue implements MCRShutdownHandler.Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final MCRMetsUpdateQueue INSTANCE = new MCRMetsUpdateQueue(MCRMetsUpdateQueue::update);
+
+    static {
+        MCRShutdownHandler.getInstance().addCloseable(INSTANCE);
+    }
+
+    private final long delay;
+
+    private final long maxDelay;
+
+    private final BiConsumer<MCRObjectID, Set<MCRPath>> updater;
+
+    private final Map<MCRObjectID, PendingUpdate> pending = new HashMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    MCRMetsUpdateQueue(BiConsumer<MCRObjectID, Set<MCRPath>> updater) {
+        this(MCRConfiguration2.getOrThrow("MCR.Mets.Update.Delay", Long::parseLong),
+            MCRConfiguration2.getOrThrow("MCR.Mets.Update.MaxDelay", Long::parseLong), updater);
+    }
+
+    /**
+     * @param delay the time to wait for further changes of a derivate in milliseconds
+     * @param maxDelay the maximum time between the first change of a derivate and its update in milliseconds
+     * @param updater applies the changed files of a derivate
+     */
+    MCRMetsUpdateQueue(long delay, long maxDelay, BiConsumer<MCRObjectID, Set<MCRPath>> updater) {
+        this.delay = delay;
+        this.maxDelay = Math.max(delay, maxDelay);
+        this.updater = updater;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("MCRMetsUpdateQueue")
+            .setDaemon(true)
+            .build());
+    }
+
+    static MCRMetsUpdateQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a file that was created or deleted. The mets.xml of its derivate is updated later, or at once if the
+     * queue is shut down already.
+     */
+    void add(MCRPath file) {
+        MCRObjectID derivateID = MCRObjectID.getInstance(file.getOwner());
+        if (delay > 0) {
+            synchronized (pending) {
+                if (!executor.isShutdown()) {
+                    long now = System.currentTimeMillis();
+                    PendingUpdate update = pending.computeIfAbsent(derivateID, id -> new PendingUpdate(now));
+                    update.files.add(file);
+                    if (update.future != null) {
+                        update.future.cancel(false);
+                    }
+                    long wait = Math.max(0, Math.min(delay, update.firstChange + maxDelay - now));
+                    update.future = executor.schedule(() -> flush(derivateID), wait, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            }
+        }
+        updater.accept(derivateID, Set.of(file));
+    }
+
+    private void flush(MCRObjectID derivateID) {
+        PendingUpdate update;
+        synchronized (pending) {
+            update = pending.remove(derivateID);
+        }
+        if (update != null) {
+            updater.accept(derivateID, update.files);
+        }
+    }
+
+    private static void update(MCRObjectID derivateID, Set<MCRPath> files) {
+        try {
+            new MCRFixedUserCallable<>(() -> {
+                if (MCRMetadataManager.exists(derivateID) && !MCRMarkManager.instance()
+                    .isMarkedForDeletion(MCRMetadataManager.retrieveMCRDerivate(derivateID))) {
+                    MCRMetsSave.updateMetsOnFileChanges(derivateID, files);
+                }
+                return null;
+            }, MCRSystemUserInformation.getJanitorInstance()).call();
+        } catch (Exception e) {
+            LOGGER.error("Error while updating mets file of {}", derivateID, e);
+        }
+    }
+
+    @Override
+    public void prepareClose() {
+        List<MCRObjectID> derivateIDs;
+        synchronized (pending) {
+            executor.shutdown();
+            derivateIDs = new ArrayList<>(pending.keySet());
+        }
+        if (!derivateIDs.isEmpty()) {
+            LOGGER.info("Updating mets files of {} derivates before shutdown.", derivateIDs.size());
+        }
+        derivateIDs.forEach(this::flush);
+    }
+
+    @Override
+    public void close() {
+        //pending updates were written in prepareClose()
+    }
+
+    private static final class PendingUpdate {
+
+        private final long firstChange;
+
+        private final Set<MCRPath> files = new LinkedHashSet<>();
+
+        private ScheduledFuture<?> future;
+
+        PendingUpdate(long firstChange) {
+            this.firstChange = firstChange;
+        }
+    }
+}
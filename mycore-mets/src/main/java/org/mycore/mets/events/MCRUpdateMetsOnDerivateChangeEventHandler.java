@@ -22,8 +22,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.events.MCREvent;
 import org.mycore.common.events.MCREventHandlerBase;
 import org.mycore.datamodel.common.MCRMarkManager;
@@ -36,11 +36,13 @@ import org.mycore.mets.tools.MCRMetsSave;
 /**
  * EventHandler updates the mets.xml after a file is added to an existing
  * derivate.
+ *
+ * The changed files are handed over to {@link MCRMetsUpdateQueue} after the current transaction is committed, so
+ * the mets.xml is updated once for many files of an upload.
  * 
  * @author shermann
  */
 public class MCRUpdateMetsOnDerivateChangeEventHandler extends MCREventHandlerBase {
-    private static final Logger LOGGER = LogManager.getLogger(MCRUpdateMetsOnDerivateChangeEventHandler.class);
 
     private String mets = MCRMetsSave.getMetsFileName();
 
@@ -83,12 +85,7 @@ public class MCRUpdateMetsOnDerivateChangeEventHandler extends MCREventHandlerBa
         if (!checkUpdateMets(evt, file, attrs)) {
             return;
         }
-        MCRPath mcrPath = MCRPath.toMCRPath(file);
-        try {
-            MCRMetsSave.updateMetsOnFileDelete(mcrPath);
-        } catch (Exception e) {
-            LOGGER.error("Error while updating mets file", e);
-        }
+        enqueue(MCRPath.toMCRPath(file));
     }
 
     @Override
@@ -96,12 +93,18 @@ public class MCRUpdateMetsOnDerivateChangeEventHandler extends MCREventHandlerBa
         if (!checkUpdateMets(evt, file, attrs)) {
             return;
         }
-        MCRPath mcrPath = MCRPath.toMCRPath(file);
-        try {
-            MCRMetsSave.updateMetsOnFileAdd(mcrPath);
-        } catch (Exception e) {
-            LOGGER.error("Error while updating mets file", e);
+        enqueue(MCRPath.toMCRPath(file));
+    }
+
+    private void enqueue(MCRPath file) {
+        if (MCRSessionMgr.hasCurrentSession()) {
+            MCRSession session = MCRSessionMgr.getCurrentSession();
+            if (session.isTransactionActive()) {
+                session.onCommit(() -> MCRMetsUpdateQueue.getInstance().add(file));
+                return;
+            }
         }
+        MCRMetsUpdateQueue.getInstance().add(file);
     }
 
     @Override
@@ -44,7 +44,7 @@ import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.iiif.presentation.impl.MCRIIIFPresentationImpl;
 import org.mycore.iiif.presentation.model.basic.MCRIIIFManifest;
-import org.mycore.mets.model.MCRMETSGeneratorFactory;
+import org.mycore.mets.tools.MCRMetsCache;
 import org.mycore.mets.tools.MCRMetsSave;
 import org.xml.sax.SAXException;
 
@@ -110,8 +110,8 @@ public class MCRMetsIIIFPresentationImpl extends MCRIIIFPresentationImpl {
         return content.asXML();
     }
 
-    private synchronized MCRJDOMContent generateMets(String id) {
-        final Document document = MCRMETSGeneratorFactory.create(MCRPath.getPath(id, "/")).generate().asDocument();
+    private synchronized MCRJDOMContent generateMets(String id) throws IOException {
+        final Document document = MCRMetsCache.getInstance().getGeneratedMets(MCRObjectID.getInstance(id));
         if (STORE_METS_ON_GENERATE) {
             MCRMetsSave.saveMets(document, MCRObjectID.getInstance(id));
         }
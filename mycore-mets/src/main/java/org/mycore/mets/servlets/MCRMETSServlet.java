@@ -50,7 +50,7 @@ import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.frontend.MCRFrontendUtil;
 import org.mycore.frontend.servlets.MCRServlet;
 import org.mycore.frontend.servlets.MCRServletJob;
-import org.mycore.mets.model.MCRMETSGeneratorFactory;
+import org.mycore.mets.tools.MCRMetsCache;
 import org.mycore.mets.tools.MCRMetsSave;
 
 /**
@@ -137,7 +137,7 @@ public class MCRMETSServlet extends MCRServlet {
             content.setDocType("mets");
             return content;
         } else {
-            Document mets = MCRMETSGeneratorFactory.create(MCRPath.getPath(derivate, "/")).generate().asDocument();
+            Document mets = MCRMetsCache.getInstance().getGeneratedMets(MCRObjectID.getInstance(derivate));
             if (!metsExists && STORE_METS_ON_GENERATE) {
                 MCRMetsSave.saveMets(mets, MCRObjectID.getInstance(derivate));
             }
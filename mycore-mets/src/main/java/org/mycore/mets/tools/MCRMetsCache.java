@@ -0,0 +1,319 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mets.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.common.MCRXMLMetadataManager;
+import org.mycore.datamodel.metadata.MCRMetadataManager;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.model.MCRMETSGeneratorFactory;
+import org.mycore.services.mbeans.MCRJMXBridge;
+
+/**
+ * Disk cache of METS documents generated for derivates by {@link MCRMETSGeneratorFactory}.
+ *
+ * A generated document is stored per derivate and the last modified dates of the derivate, its owner object and
+ * its file tree, so it is generated again as soon as one of them changes.
+ * {@link org.mycore.mets.events.MCRMetsCacheEventHandler} removes
+ * the entries of a derivate when a file of it changes or the derivate is deleted. The cache holds at most
+ * <code>MCR.Mets.GeneratedCache.Capacity</code> documents below <code>MCR.Mets.GeneratedCache.Directory</code>;
+ * if it is full, the least recently used documents are removed. Statistics are available as MBean of type
+ * <code>MCRMetsCache</code>.
+ */
+public final class MCRMetsCache implements MCRMetsCacheMBean {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String CONFIG_PREFIX = "MCR.Mets.GeneratedCache.";
+
+    private static final MCRMetsCache INSTANCE = new MCRMetsCache();
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final int capacity;
+
+    private final Source source;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private MCRMetsCache() {
+        enabled = MCRConfiguration2.getBoolean(CONFIG_PREFIX + "Enabled").orElse(false);
+        directory = enabled ? Paths.get(MCRConfiguration2.getStringOrThrow(CONFIG_PREFIX + "Directory")) : null;
+        capacity = MCRConfiguration2.getInt(CONFIG_PREFIX + "Capacity").orElse(1000);
+        source = new DerivateSource();
+        if (enabled) {
+            size.set(listFiles().size());
+            MCRJMXBridge.register(this, "MCRMetsCache", "generated");
+        }
+    }
+
+    /**
+     * Creates an enabled cache that is not registered as MBean.
+     */
+    MCRMetsCache(Path directory, int capacity, Source source) {
+        this.enabled = true;
+        this.directory = directory;
+        this.capacity = capacity;
+        this.source = source;
+        size.set(listFiles().size());
+    }
+
+    public static MCRMetsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the generated METS document of a derivate, from the cache if it is up to date.
+     *
+     * @param derivateID the derivate
+     * @return a new document, that may be modified by the caller
+     */
+    public Document getGeneratedMets(MCRObjectID derivateID) throws IOException {
+        if (!enabled) {
+            return source.generate(derivateID);
+        }
+        Path file = getShardDirectory(derivateID)
+            .resolve(derivateID + "_" + source.getVersion(derivateID) + ".xml");
+        if (Files.isRegularFile(file)) {
+            try {
+                Document mets = new SAXBuilder().build(file.toFile());
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                hits.incrementAndGet();
+                return mets;
+            } catch (IOException | JDOMException e) {
+                LOGGER.warn("Could not read cached mets {}, generating it again.", file, e);
+            }
+        }
+        misses.incrementAndGet();
+        Document mets = source.generate(derivateID);
+        store(file, derivateID, mets);
+        return mets;
+    }
+
+    Path getShardDirectory(MCRObjectID derivateID) {
+        return directory.resolve(String.format(Locale.ROOT, "%02x", derivateID.hashCode() & 0xff));
+    }
+
+    private void store(Path file, MCRObjectID derivateID, Document mets) {
+        try {
+            Path dir = file.getParent();
+            Files.createDirectories(dir);
+            removeVersions(dir, derivateID);
+            Path tempFile = Files.createTempFile(dir, derivateID.toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                new XMLOutputter(Format.getRawFormat()).output(mets, out);
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (size.incrementAndGet() > capacity) {
+                evict();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not store generated mets {} in cache.", file, e);
+        }
+    }
+
+    /**
+     * Removes the cached documents of a derivate.
+     */
+    public void remove(MCRObjectID derivateID) {
+        if (!enabled) {
+            return;
+        }
+        Path dir = getShardDirectory(derivateID);
+        if (Files.isDirectory(dir)) {
+            removeVersions(dir, derivateID);
+        }
+    }
+
+    private void removeVersions(Path dir, MCRObjectID derivateID) {
+        try (DirectoryStream<Path> versions = Files.newDirectoryStream(dir, derivateID + "_*.xml")) {
+            for (Path version : versions) {
+                if (Files.deleteIfExists(version)) {
+                    size.updateAndGet(current -> current > 0 ? current - 1 : current);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove cached mets of {} in {}.", derivateID, dir, e);
+        }
+    }
+
+    /**
+     * Removes the least recently used documents, until the cache is filled to 90% of its capacity.
+     */
+    private synchronized void evict() {
+        List<Path> files = listFiles();
+        int toRemove = files.size() - capacity * 9 / 10;
+        if (toRemove <= 0) {
+            size.set(files.size());
+            return;
+        }
+        files.sort(Comparator.comparing(MCRMetsCache::getLastModifiedTime));
+        int removed = 0;
+        for (Path file : files.subList(0, toRemove)) {
+            try {
+                if (Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not remove cached mets {}.", file, e);
+            }
+        }
+        evictions.addAndGet(removed);
+        size.set(files.size() - removed);
+        LOGGER.info("Removed {} least recently used documents from mets cache.", removed);
+    }
+
+    private List<Path> listFiles() {
+        if (Files.notExists(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.find(directory, 2,
+            (path, attrs) -> attrs.isRegularFile() && path.getFileName().toString().endsWith(".xml"))) {
+            return files.collect(Collectors.toList());
+        } catch (IOException e) {
+            LOGGER.warn("Could not list mets cache directory {}.", directory, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        long requests = hits.get() + misses.get();
+        return requests == 0 ? 0 : (double) hits.get() / requests;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return size.get();
+    }
+
+    @Override
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        listFiles().forEach(file -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warn("Could not remove cached mets {}.", file, e);
+            }
+        });
+        size.set(0);
+    }
+
+    /**
+     * Generates the documents of derivates and determines their version.
+     */
+    interface Source {
+
+        /**
+         * Returns a string that changes if the generated document of the derivate changes. It must be usable as
+         * part of a file name.
+         */
+        String getVersion(MCRObjectID derivateID) throws IOException;
+
+        Document generate(MCRObjectID derivateID);
+    }
+
+    /**
+     * Versions documents by the last modified dates of the derivate, its owner object and its file tree.
+     */
+    private static final class DerivateSource implements Source {
+
+        @Override
+        public String getVersion(MCRObjectID derivateID) throws IOException {
+            MCRXMLMetadataManager metadataManager = MCRXMLMetadataManager.instance();
+            long derivateModified = metadataManager.getLastModified(derivateID);
+            MCRObjectID ownerID = MCRMetadataManager.getObjectId(derivateID, 10, TimeUnit.MINUTES);
+            long ownerModified = ownerID == null ? -1 : metadataManager.getLastModified(ownerID);
+            long treeModified = Files.getLastModifiedTime(MCRPath.getPath(derivateID.toString(), "/")).toMillis();
+            return String.format(Locale.ROOT, "%d_%d_%d", derivateModified, ownerModified, treeModified);
+        }
+
+        @Override
+        public Document generate(MCRObjectID derivateID) {
+            return MCRMETSGeneratorFactory.create(MCRPath.getPath(derivateID.toString(), "/")).generate()
+                .asDocument();
+        }
+    }
+}
@@ -40,7 +40,6 @@ import org.mycore.common.content.MCRPathContent;
 import org.mycore.datamodel.common.MCRLinkTableManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.niofs.MCRPath;
-import org.mycore.mets.model.MCRMETSGeneratorFactory;
 
 /**
  * returns a structured METS document for any valid MyCoRe ID (object or
@@ -71,7 +70,7 @@ public class MCRMetsResolver implements URIResolver {
                 //ignoreNodes.add(metsFile);
                 return new MCRPathContent(metsPath).getSource();
             }
-            Document mets = MCRMETSGeneratorFactory.create(MCRPath.getPath(id, "/")).generate().asDocument();
+            Document mets = MCRMetsCache.getInstance().getGeneratedMets(MCRObjectID.getInstance(id));
             return new JDOMSource(mets);
         } catch (Exception e) {
             throw new TransformerException(e);
@@ -490,6 +490,35 @@ public class MCRMetsSave {
         }
     }
 
+    /**
+     * Updates the mets.xml belonging to the given derivate after a number of files were added or deleted. The
+     * mets.xml is read and written only once. Files that exist are added to the mets document, if they are missing,
+     * files that do not exist anymore are removed.
+     *
+     * @param derivateID the derivate containing the files
+     * @param files the files that were added or deleted
+     */
+    public static synchronized void updateMetsOnFileChanges(MCRObjectID derivateID, Collection<MCRPath> files)
+        throws JDOMException, SAXException, IOException {
+        Document mets = getCurrentMets(derivateID.toString());
+        if (mets == null) {
+            LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
+            return;
+        }
+        boolean changed = false;
+        for (MCRPath file : files) {
+            Document modified = Files.exists(file) ? updateOnFileAdd(mets, file) : updateOnFileDelete(mets, file);
+            if (modified != null) {
+                mets = modified;
+                changed = true;
+            }
+        }
+        if (changed) {
+            LOGGER.info("Updating mets file of \"{}\" after {} file changes", derivateID, files.size());
+            saveMets(mets, derivateID);
+        }
+    }
+
     /**
      * Inserts the given URNs into the mets document.
      *
@@ -0,0 +1,186 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+
+public class MCRMetsUpdateQueueTest extends MCRTestCase {
+
+    private static final String DERIVATE_1 = "junit_derivate_00000001";
+
+    private static final String DERIVATE_2 = "junit_derivate_00000002";
+
+    private BlockingQueue<Update> updates;
+
+    private MCRMetsUpdateQueue queue;
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.derivate", Boolean.TRUE.toString());
+        return testProperties;
+    }
+
+    @Before
+    public void createUpdates() {
+        updates = new LinkedBlockingQueue<>();
+    }
+
+    @After
+    public void closeQueue() {
+        if (queue != null) {
+            queue.prepareClose();
+        }
+    }
+
+    private void createQueue(long delay, long maxDelay) {
+        queue = new MCRMetsUpdateQueue(delay, maxDelay, this::record);
+    }
+
+    private void record(MCRObjectID derivateID, Set<MCRPath> files) {
+        updates.add(new Update(derivateID, files, System.nanoTime()));
+    }
+
+    private static MCRPath file(String derivateID, String path) {
+        return MCRPath.getPath(derivateID, path);
+    }
+
+    private Update nextUpdate() throws InterruptedException {
+        Update update = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull("Mets file should be updated", update);
+        return update;
+    }
+
+    @Test
+    public void immediate() {
+        createQueue(0, 0);
+        queue.add(file(DERIVATE_1, "/a.tif"));
+        Update update = updates.poll();
+        assertNotNull("Delay of 0 should update on add", update);
+        assertEquals(Set.of(file(DERIVATE_1, "/a.tif")), update.files);
+        queue.add(file(DERIVATE_1, "/b.tif"));
+        assertEquals(Set.of(file(DERIVATE_1, "/b.tif")), updates.poll().files);
+    }
+
+    @Test
+    public void batchPerDerivate() throws InterruptedException {
+        createQueue(200, 10000);
+        queue.add(file(DERIVATE_1, "/a.tif"));
+        queue.add(file(DERIVATE_2, "/c.tif"));
+        queue.add(file(DERIVATE_1, "/b.tif"));
+        // a file that changed twice is reconciled once
+        queue.add(file(DERIVATE_1, "/a.tif"));
+        Update first = nextUpdate();
+        Update second = nextUpdate();
+        Update update1 = first.derivateID.toString().equals(DERIVATE_1) ? first : second;
+        Update update2 = first == update1 ? second : first;
+        assertEquals(MCRObjectID.getInstance(DERIVATE_1), update1.derivateID);
+        assertEquals(Set.of(file(DERIVATE_1, "/a.tif"), file(DERIVATE_1, "/b.tif")), update1.files);
+        assertEquals(MCRObjectID.getInstance(DERIVATE_2), update2.derivateID);
+        assertEquals(Set.of(file(DERIVATE_2, "/c.tif")), update2.files);
+        assertNull("Every derivate should be updated once", updates.poll(400, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void debounce() throws InterruptedException {
+        createQueue(300, 10000);
+        queue.add(file(DERIVATE_1, "/a.tif"));
+        Thread.sleep(150);
+        long lastChange = System.nanoTime();
+        queue.add(file(DERIVATE_1, "/b.tif"));
+        Update update = nextUpdate();
+        long waited = TimeUnit.NANOSECONDS.toMillis(update.time - lastChange);
+        assertTrue("Update should wait for the delay after the last change, but waited " + waited + " ms",
+            waited >= 300);
+        assertEquals(Set.of(file(DERIVATE_1, "/a.tif"), file(DERIVATE_1, "/b.tif")), update.files);
+    }
+
+    @Test
+    public void maxDelay() throws InterruptedException {
+        createQueue(300, 600);
+        long firstChange = System.nanoTime();
+        long end = firstChange + TimeUnit.MILLISECONDS.toNanos(1500);
+        int i = 0;
+        while (System.nanoTime() < end && updates.isEmpty()) {
+            queue.add(file(DERIVATE_1, "/" + i++ + ".tif"));
+            Thread.sleep(50);
+        }
+        Update update = nextUpdate();
+        long waited = TimeUnit.NANOSECONDS.toMillis(update.time - firstChange);
+        assertTrue("Continuous changes should be written after the max delay, but waited " + waited + " ms",
+            waited >= 600 && waited < 1500);
+        assertTrue(update.files.size() > 1);
+    }
+
+    @Test
+    public void defaultDelayAndShutdown() throws InterruptedException {
+        assertEquals("2000", MCRConfiguration2.getStringOrThrow("MCR.Mets.Update.Delay"));
+        queue = new MCRMetsUpdateQueue(this::record);
+        queue.add(file(DERIVATE_1, "/a.tif"));
+        queue.add(file(DERIVATE_2, "/b.tif"));
+        assertNull("Update should be delayed", updates.poll(500, TimeUnit.MILLISECONDS));
+        queue.prepareClose();
+        assertEquals("Pending updates should be written on shutdown", 2, updates.size());
+        assertEquals(Set.of(MCRObjectID.getInstance(DERIVATE_1), MCRObjectID.getInstance(DERIVATE_2)),
+            Set.of(updates.poll().derivateID, updates.poll().derivateID));
+        assertNull("Scheduled updates should not run again", updates.poll(2500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void addAfterShutdown() {
+        createQueue(200, 10000);
+        queue.prepareClose();
+        queue.add(file(DERIVATE_1, "/a.tif"));
+        Update update = updates.poll();
+        assertNotNull("Files added after shutdown should be updated at once", update);
+        assertEquals(Set.of(file(DERIVATE_1, "/a.tif")), update.files);
+    }
+
+    private static final class Update {
+
+        private final MCRObjectID derivateID;
+
+        private final Set<MCRPath> files;
+
+        private final long time;
+
+        Update(MCRObjectID derivateID, Set<MCRPath> files, long time) {
+            this.derivateID = derivateID;
+            this.files = Set.copyOf(files);
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.events.MCREvent;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.events.MCRMetsCacheEventHandler;
+
+public class MCRMetsCacheTest extends MCRTestCase {
+
+    private Path directory;
+
+    private TestSource source;
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.derivate", Boolean.TRUE.toString());
+        testProperties.put("MCR.Mets.GeneratedCache.Enabled", Boolean.TRUE.toString());
+        testProperties.put("MCR.Mets.GeneratedCache.Directory",
+            junitFolder.getRoot().toPath().resolve("mets-generated").toString());
+        return testProperties;
+    }
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = junitFolder.newFolder().toPath();
+        source = new TestSource();
+    }
+
+    private static MCRObjectID derivate(int number) {
+        return MCRObjectID.getInstance(MCRObjectID.formatID("junit_derivate", number));
+    }
+
+    private static List<Path> cachedFiles(MCRMetsCache cache, MCRObjectID derivateID) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path dir = cache.getShardDirectory(derivateID);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, derivateID + "_*.xml")) {
+                stream.forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    @Test
+    public void hitAndMiss() throws IOException {
+        MCRMetsCache cache = new MCRMetsCache(directory, 10, source);
+        MCRObjectID derivateID = derivate(1);
+        Document mets = cache.getGeneratedMets(derivateID);
+        assertEquals(derivateID.toString(), mets.getRootElement().getAttributeValue("ID"));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cachedFiles(cache, derivateID).size());
+
+        mets.getRootElement().setAttribute("ID", "modified");
+        Document cached = cache.getGeneratedMets(derivateID);
+        assertEquals("Modifications of a returned document should not change the cache", derivateID.toString(),
+            cached.getRootElement().getAttributeValue("ID"));
+        assertEquals(1, source.generated(derivateID));
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5, cache.getHitRate(), 0);
+        assertEquals(1, cache.getCurrentSize());
+    }
+
+    @Test
+    public void newVersion() throws IOException {
+        MCRMetsCache cache = new MCRMetsCache(directory, 10, source);
+        MCRObjectID derivateID = derivate(1);
+        cache.getGeneratedMets(derivateID);
+        source.versions.put(derivateID, "2");
+        cache.getGeneratedMets(derivateID);
+        assertEquals("Changed derivate should be generated again", 2, source.generated(derivateID));
+        assertEquals(2, cache.getMisses());
+        List<Path> files = cachedFiles(cache, derivateID);
+        assertEquals("Only the current version should be stored", 1, files.size());
+        assertEquals(derivateID + "_2.xml", files.get(0).getFileName().toString());
+        assertEquals(1, cache.getCurrentSize());
+    }
+
+    @Test
+    public void remove() throws IOException {
+        MCRMetsCache cache = new MCRMetsCache(directory, 10, source);
+        cache.getGeneratedMets(derivate(1));
+        cache.getGeneratedMets(derivate(2));
+        cache.remove(derivate(1));
+        assertTrue(cachedFiles(cache, derivate(1)).isEmpty());
+        assertEquals(1, cache.getCurrentSize());
+        cache.getGeneratedMets(derivate(1));
+        cache.getGeneratedMets(derivate(2));
+        assertEquals(2, source.generated(derivate(1)));
+        assertEquals(1, source.generated(derivate(2)));
+        cache.clear();
+        assertEquals(0, cache.getCurrentSize());
+        assertTrue(cachedFiles(cache, derivate(2)).isEmpty());
+    }
+
+    @Test
+    public void invalidFile() throws IOException {
+        MCRMetsCache cache = new MCRMetsCache(directory, 10, source);
+        MCRObjectID derivateID = derivate(1);
+        cache.getGeneratedMets(derivateID);
+        Files.write(cachedFiles(cache, derivateID).get(0), "<mets".getBytes(StandardCharsets.UTF_8));
+        Document mets = cache.getGeneratedMets(derivateID);
+        assertEquals(derivateID.toString(), mets.getRootElement().getAttributeValue("ID"));
+        assertEquals(2, source.generated(derivateID));
+        cache.getGeneratedMets(derivateID);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws IOException {
+        MCRMetsCache cache = new MCRMetsCache(directory, 10, source);
+        long time = System.currentTimeMillis() - 100_000;
+        for (int i = 1; i <= 10; i++) {
+            cache.getGeneratedMets(derivate(i));
+            Files.setLastModifiedTime(cachedFiles(cache, derivate(i)).get(0), FileTime.fromMillis(time + i * 1000));
+        }
+        // a hit marks the document as recently used
+        cache.getGeneratedMets(derivate(1));
+        cache.getGeneratedMets(derivate(11));
+        assertEquals("Cache should be reduced to 90% of its capacity", 9, cache.getCurrentSize());
+        assertEquals(2, cache.getEvictions());
+        assertFalse(cachedFiles(cache, derivate(1)).isEmpty());
+        assertTrue(cachedFiles(cache, derivate(2)).isEmpty());
+        assertTrue(cachedFiles(cache, derivate(3)).isEmpty());
+        assertFalse(cachedFiles(cache, derivate(4)).isEmpty());
+        assertFalse(cachedFiles(cache, derivate(11)).isEmpty());
+
+        MCRMetsCache restarted = new MCRMetsCache(directory, 10, source);
+        assertEquals("Size should be restored from the directory", 9, restarted.getCurrentSize());
+        restarted.getGeneratedMets(derivate(4));
+        assertEquals(1, restarted.getHits());
+    }
+
+    @Test
+    public void eventHandler() throws IOException {
+        MCRMetsCache cache = MCRMetsCache.getInstance();
+        MCRObjectID derivateID = derivate(1);
+        MCRObjectID otherID = derivate(2);
+        Path otherFile = createEntry(cache, otherID);
+        MCRMetsCacheEventHandler handler = new MCRMetsCacheEventHandler();
+        BasicFileAttributes attrs = Files.readAttributes(otherFile, BasicFileAttributes.class);
+
+        for (String eventType : List.of(MCREvent.CREATE_EVENT, MCREvent.UPDATE_EVENT, MCREvent.DELETE_EVENT)) {
+            Path file = createEntry(cache, derivateID);
+            MCREvent evt = new MCREvent(MCREvent.PATH_TYPE, eventType);
+            evt.put(MCREvent.PATH_KEY, MCRPath.getPath(derivateID.toString(), "/image.tif"));
+            evt.put(MCREvent.FILEATTR_KEY, attrs);
+            handler.doHandleEvent(evt);
+            assertTrue(eventType + " of a file should remove the cached documents", Files.notExists(file));
+        }
+
+        Path file = createEntry(cache, derivateID);
+        MCRDerivate derivate = new MCRDerivate();
+        derivate.setId(derivateID);
+        MCREvent evt = new MCREvent(MCREvent.DERIVATE_TYPE, MCREvent.DELETE_EVENT);
+        evt.put(MCREvent.DERIVATE_KEY, derivate);
+        handler.doHandleEvent(evt);
+        assertTrue("Deleting the derivate should remove the cached documents", Files.notExists(file));
+        assertTrue("Documents of other derivates should be kept", Files.exists(otherFile));
+    }
+
+    private static Path createEntry(MCRMetsCache cache, MCRObjectID derivateID) throws IOException {
+        Path dir = Files.createDirectories(cache.getShardDirectory(derivateID));
+        return Files.write(dir.resolve(derivateID + "_1_2_3.xml"), "<mets />".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class TestSource implements MCRMetsCache.Source {
+
+        private final Map<MCRObjectID, String> versions = new HashMap<>();
+
+        private final Map<MCRObjectID, AtomicInteger> generated = new HashMap<>();
+
+        @Override
+        public String getVersion(MCRObjectID derivateID) {
+            return versions.getOrDefault(derivateID, "1");
+        }
+
+        @Override
+        public Document generate(MCRObjectID derivateID) {
+            generated.computeIfAbsent(derivateID, id -> new AtomicInteger()).incrementAndGet();
+            return new Document(new Element("mets").setAttribute("ID", derivateID.toString()));
+        }
+
+        int generated(MCRObjectID derivateID) {
+            return generated.getOrDefault(derivateID, new AtomicInteger()).get();
+        }
+    }
+}
@@ -59,7 +59,7 @@ class MCRDataSourceFactory {
             String uri = MCRConfiguration2.getStringOrThrow(prefix + "URI");
 
             MCRIdentifierType idType = MCRIdentifierTypeFactory.instance().getType(typeID);
-            MCRIdentifierResolver resolver = new MCRIdentifierResolver(idType, uri);
+            MCRIdentifierResolver resolver = new MCRIdentifierResolver(sourceID, idType, uri);
             dataSource.addResolver(resolver);
         }
         return dataSource;
@@ -23,7 +23,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,6 +37,7 @@ import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
 import org.mycore.common.MCRConstants;
 import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCRShutdownHandler;
 import org.mycore.mods.MCRMODSSorter;
 import org.mycore.util.concurrent.MCRTransactionableCallable;
 
@@ -72,6 +76,9 @@ import org.mycore.util.concurrent.MCRTransactionableCallable;
  * At the end, the data of D is merged.
  * So building groups of data sources with braces can be used to express data source priority.
  *
+ * The data sources are queried in parallel by a thread pool shared by all enrichers. Its size is configured by
+ * MCR.MODS.EnrichmentResolver.MaxThreads
+ *
  * @author Frank L\u00FCtzenkirchen
  */
 class MCREnricher {
@@ -80,6 +87,8 @@ class MCREnricher {
 
     private static final String XPATH_HOST_SERIES = "mods:relatedItem[@type='host' or @type='series']";
 
+    private static final ExecutorService EXECUTOR = createExecutor();
+
     private XPathExpression<Element> xPath2FindNestedObjects;
 
     private String dsConfig;
@@ -129,20 +138,32 @@ class MCREnricher {
             .stream()
             .map(MCRTransactionableCallable::new)
             .collect(Collectors.toList());
-        ExecutorService executor = Executors.newFixedThreadPool(calls.size());
         try {
             while (idPool.hasNewIdentifiers()) {
                 idPool.buildNewIdentifiersIn(publication);
                 idPool.continueWithNewIdentifiers();
-                executor.invokeAll(calls);
+                EXECUTOR.invokeAll(calls);
             }
         } catch (InterruptedException ex) {
             LOGGER.warn(ex);
-        } finally {
-            executor.shutdown();
+            Thread.currentThread().interrupt();
         }
     }
 
+    private static ExecutorService createExecutor() {
+        int maxThreads = MCRConfiguration2.getInt("MCR.MODS.EnrichmentResolver.MaxThreads").orElse(10);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "MCREnricher-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        MCRShutdownHandler.getInstance().addCloseable(executor::shutdownNow);
+        return executor;
+    }
+
     private void mergeExternalData() {
         boolean withinGroup = false;
         String delimiters = " ()";
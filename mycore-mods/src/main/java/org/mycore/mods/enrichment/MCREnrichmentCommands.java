@@ -0,0 +1,107 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mods.enrichment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.access.MCRAccessException;
+import org.mycore.common.MCRException;
+import org.mycore.datamodel.common.MCRXMLMetadataManager;
+import org.mycore.datamodel.metadata.MCRMetadataManager;
+import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.frontend.cli.MCRAbstractCommands;
+import org.mycore.frontend.cli.annotation.MCRCommand;
+import org.mycore.frontend.cli.annotation.MCRCommandGroup;
+import org.mycore.mods.MCRMODSWrapper;
+
+/**
+ * Commands to enrich the MODS of existing objects with data from external data sources.
+ *
+ * All objects share the thread pool and the response cache of the enrichment, so enriching many objects that
+ * refer to the same host or series queries the data sources only once for it.
+ *
+ * @see MCREnricher
+ */
+@MCRCommandGroup(name = "MODS Enrichment Commands")
+public class MCREnrichmentCommands extends MCRAbstractCommands {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ENRICH_OBJECT_COMMAND = "enrich mods of object %s with configuration %s";
+
+    @MCRCommand(syntax = "enrich mods of object {0} with configuration {1}",
+        help = "Enriches the MODS of object {0} with external data as configured by "
+            + "MCR.MODS.EnrichmentResolver.DataSources.{1}",
+        order = 10)
+    public static void enrichObject(String objectID, String configID) throws MCRAccessException {
+        MCRObjectID id = MCRObjectID.getInstance(objectID);
+        if (!MCRMetadataManager.exists(id)) {
+            throw new MCRException("Object " + objectID + " does not exist.");
+        }
+        MCRObject object = MCRMetadataManager.retrieveMCRObject(id);
+        if (!MCRMODSWrapper.isSupported(object)) {
+            LOGGER.warn("Object {} does not contain MODS, skipping enrichment.", objectID);
+            return;
+        }
+        new MCREnricher(configID).enrich(new MCRMODSWrapper(object).getMODS());
+        MCRMetadataManager.update(object);
+        LOGGER.info("Enriched MODS of object {}.", objectID);
+    }
+
+    @MCRCommand(syntax = "enrich mods of all objects of base {0} with configuration {1}",
+        help = "Enriches the MODS of all objects of base {0} (e.g. mir_mods) with external data as configured by "
+            + "MCR.MODS.EnrichmentResolver.DataSources.{1}",
+        order = 20)
+    public static List<String> enrichObjectsOfBase(String base, String configID) {
+        return buildCommands(MCRXMLMetadataManager.instance().listIDsForBase(base).stream(), configID);
+    }
+
+    @MCRCommand(syntax = "enrich mods of objects in file {0} with configuration {1}",
+        help = "Enriches the MODS of all objects listed in file {0} (one ID per line) with external data as "
+            + "configured by MCR.MODS.EnrichmentResolver.DataSources.{1}",
+        order = 30)
+    public static List<String> enrichObjectsInFile(String fileName, String configID) throws IOException {
+        Path file = Paths.get(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new MCRException(String.format(Locale.ENGLISH, "File %s is not a file.", file.toAbsolutePath()));
+        }
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return buildCommands(lines.map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#")), configID);
+        }
+    }
+
+    private static List<String> buildCommands(Stream<String> objectIDs, String configID) {
+        return objectIDs
+            .map(id -> String.format(Locale.ROOT, ENRICH_OBJECT_COMMAND, id, configID))
+            .collect(Collectors.toList());
+    }
+}
@@ -22,10 +22,13 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.Element;
+import org.mycore.common.MCRCache;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.xml.MCRURIResolver;
 
 /**
@@ -43,17 +46,34 @@ import org.mycore.common.xml.MCRURIResolver;
  * Within the URI, the pattern {0} will be replaced by the given identifier value,
  * optionally the pattern {1} will be replaced by the value uri-encoded as http request parameter
  *
+ * Responses are cached per data source, identifier type and identifier, so repeated lookups of the same identifier,
+ * e.g. during a bulk import, do not query the data source again:
+ * MCR.MODS.EnrichmentResolver.ResponseCache.Size=[number of cached responses, 0 disables the cache]
+ * MCR.MODS.EnrichmentResolver.ResponseCache.TTL=[seconds a response is valid]
+ * Failed requests are not cached.
+ *
  * @author Frank L\u00FCtzenkirchen
  */
 class MCRIdentifierResolver {
 
     private static final Logger LOGGER = LogManager.getLogger(MCRIdentifierResolver.class);
 
+    private static final String CACHE_PREFIX = "MCR.MODS.EnrichmentResolver.ResponseCache.";
+
+    private static final MCRCache<String, CachedResponse> RESPONSE_CACHE = new MCRCache<>(
+        MCRConfiguration2.getInt(CACHE_PREFIX + "Size").orElse(1000), "enrichment responses");
+
+    private static final long RESPONSE_TTL = TimeUnit.SECONDS
+        .toMillis(MCRConfiguration2.getLong(CACHE_PREFIX + "TTL").orElse(3600L));
+
+    private String dataSourceID;
+
     private MCRIdentifierType idType;
 
     private String uriPattern;
 
-    MCRIdentifierResolver(MCRIdentifierType idType, String uriPattern) {
+    MCRIdentifierResolver(String dataSourceID, MCRIdentifierType idType, String uriPattern) {
+        this.dataSourceID = dataSourceID;
         this.idType = idType;
         this.uriPattern = uriPattern;
     }
@@ -69,15 +89,35 @@ class MCRIdentifierResolver {
      * @return the publication data in MODS format, or null if the data source did not return data for this identifier
      */
     Element resolve(String identifier) {
-        Element resolved = null;
+        String cacheKey = dataSourceID + ' ' + idType.getTypeID() + ' ' + identifier;
+        CachedResponse cached = RESPONSE_CACHE.getIfUpToDate(cacheKey, System.currentTimeMillis() - RESPONSE_TTL);
+        if (cached != null) {
+            LOGGER.debug("Using cached response of {} for {}", dataSourceID, identifier);
+            return cached.get();
+        }
+
+        Element resolved;
         try {
             String uri = new MessageFormat(uriPattern, Locale.ROOT)
                 .format(new Object[] { identifier, URLEncoder.encode(identifier, StandardCharsets.UTF_8) });
-            resolved = MCRURIResolver.instance().resolve(uri);
+            resolved = normalize(MCRURIResolver.instance().resolve(uri));
         } catch (Exception ex) {
             LOGGER.error("Exception resolving " + identifier, ex);
+            return null;
         }
+        CachedResponse response = new CachedResponse(resolved);
+        RESPONSE_CACHE.put(cacheKey, response);
+        return response.get();
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    static void clearCache() {
+        RESPONSE_CACHE.clear();
+    }
 
+    private static Element normalize(Element resolved) {
         // Normalize various error/not found cases:
         if (resolved == null) {
             return null;
@@ -89,4 +129,20 @@ class MCRIdentifierResolver {
             return resolved;
         }
     }
+
+    /**
+     * A response of a data source, which may be empty. Every caller gets its own copy, as the enricher modifies it.
+     */
+    private static final class CachedResponse {
+
+        private final Element response;
+
+        CachedResponse(Element response) {
+            this.response = response == null ? null : response.clone();
+        }
+
+        Element get() {
+            return response == null ? null : response.clone();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mods.enrichment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jdom2.Element;
+import org.jdom2.output.XMLOutputter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.common.MCRConstants;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.config.MCRConfiguration2;
+
+/**
+ * Tests the enrichment with a data source that reads publications from local files.
+ */
+public class MCREnricherTest extends MCRTestCase {
+
+    private static final String DOI = "10.1000-test";
+
+    @Rule
+    public TemporaryFolder dataFolder = new TemporaryFolder();
+
+    private String uriPattern;
+
+    @Before
+    public void setUpDataSource() throws IOException {
+        uriPattern = dataFolder.getRoot().toPath().toUri() + "{0}.xml";
+        MCRConfiguration2.set("MCR.MODS.EnrichmentResolver.DataSources.test", "Local");
+        MCRConfiguration2.set("MCR.MODS.EnrichmentResolver.DataSource.Local.IdentifierTypes", "doi");
+        MCRConfiguration2.set("MCR.MODS.EnrichmentResolver.DataSource.Local.doi.URI", uriPattern);
+        MCRIdentifierResolver.clearCache();
+        writePublication(DOI, "Local Title");
+    }
+
+    @Test
+    public void enrich() {
+        Element publication = new Element("mods", MCRConstants.MODS_NAMESPACE)
+            .addContent(buildIdentifier(DOI));
+        new MCREnricher("test").enrich(publication);
+        assertEquals("Local Title", publication.getChild("titleInfo", MCRConstants.MODS_NAMESPACE)
+            .getChildText("title", MCRConstants.MODS_NAMESPACE));
+    }
+
+    @Test
+    public void responseCache() throws IOException {
+        MCRIdentifierType doi = MCRIdentifierTypeFactory.instance().getType("doi");
+        MCRIdentifierResolver resolver = new MCRIdentifierResolver("Local", doi, uriPattern);
+        Element first = resolver.resolve(DOI);
+        assertNotNull(first);
+
+        Files.delete(getFile(DOI));
+        first.removeContent();
+        Element cached = resolver.resolve(DOI);
+        assertNotNull("Response should be cached", cached);
+        assertEquals("Cached response should not be modified by callers", "Local Title",
+            cached.getChild("titleInfo", MCRConstants.MODS_NAMESPACE)
+                .getChildText("title", MCRConstants.MODS_NAMESPACE));
+
+        MCRIdentifierResolver otherSource = new MCRIdentifierResolver("Other", doi, uriPattern);
+        assertNull("Responses of other data sources should not be shared", otherSource.resolve(DOI));
+    }
+
+    private void writePublication(String doi, String title) throws IOException {
+        Element mods = new Element("mods", MCRConstants.MODS_NAMESPACE)
+            .addContent(new Element("titleInfo", MCRConstants.MODS_NAMESPACE)
+                .addContent(new Element("title", MCRConstants.MODS_NAMESPACE).setText(title)))
+            .addContent(buildIdentifier(doi));
+        try (OutputStream out = Files.newOutputStream(getFile(doi))) {
+            new XMLOutputter().output(mods, out);
+        }
+    }
+
+    private Path getFile(String doi) {
+        return dataFolder.getRoot().toPath().resolve(doi + ".xml");
+    }
+
+    private static Element buildIdentifier(String doi) {
+        return new Element("identifier", MCRConstants.MODS_NAMESPACE).setAttribute("type", "doi").setText(doi);
+    }
+}
@@ -62,16 +62,24 @@ public class MCROAICombinedSearcher extends MCROAISearcher {
 
     @Override
     public MCROAIResult query(String cursor) {
+        this.updateRunningExpirationTimer();
         if (!this.deletedSearcher.isPresent()) {
             return this.solrSearcher.query(cursor);
         }
         // deleted query, no need to ask solr
         if (isDeletedCursor(cursor)) {
+            if (this.numHits == null) {
+                this.numHits = this.solrSearcher.getNumHits() + this.deletedSearcher.get().getDeletedRecords().size();
+            }
             MCROAISimpleResult result = this.deletedSearcher.get().query(cursor);
             result.setNumHits(this.numHits);
             return result;
         }
-        return getMixedResult(this.solrSearcher.query(cursor));
+        MCROAIResult solrResult = this.solrSearcher.query(cursor);
+        if (this.numHits == null) {
+            this.numHits = solrResult.getNumHits() + this.deletedSearcher.get().getDeletedRecords().size();
+        }
+        return getMixedResult(solrResult);
     }
 
     @Override
@@ -86,6 +94,13 @@ public class MCROAICombinedSearcher extends MCROAISearcher {
         return getMixedResult(solrResult);
     }
 
+    @Override
+    public void restore(MCRSet set, Instant from, Instant until) {
+        this.solrSearcher.restore(set, from, until);
+        this.deletedSearcher.ifPresent(searcher -> searcher.restore(set, from, until));
+        this.numHits = null;
+    }
+
     @Override
     public Optional<Instant> getEarliestTimestamp() {
         Optional<Instant> solrTimestamp = this.solrSearcher.getEarliestTimestamp();
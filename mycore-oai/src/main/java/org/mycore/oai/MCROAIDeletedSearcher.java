@@ -87,6 +87,11 @@ public class MCROAIDeletedSearcher extends MCROAISearcher {
         return this.query(null);
     }
 
+    @Override
+    public void restore(MCRSet set, Instant from, Instant until) {
+        this.deletedRecords = this.searchDeleted(from, until);
+    }
+
     @Override
     public Optional<Instant> getEarliestTimestamp() {
         return MCRMetadataHistoryManager.getHistoryStart();
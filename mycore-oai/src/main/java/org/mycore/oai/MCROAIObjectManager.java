@@ -21,6 +21,8 @@
  */
 package org.mycore.oai;
 
+import java.util.Optional;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.Element;
@@ -53,6 +55,8 @@ public class MCROAIObjectManager {
 
     protected String recordUriPattern;
 
+    protected Optional<MCROAIRecordCache> recordCache;
+
     /**
      * Initialize the object manager. Its important to call this method before you
      * can retrieve records or headers!
@@ -63,6 +67,7 @@ public class MCROAIObjectManager {
         this.identify = identify;
         String configPrefix = this.identify.getConfigPrefix();
         this.recordUriPattern = MCRConfiguration2.getStringOrThrow(configPrefix + "Adapter.RecordURIPattern");
+        this.recordCache = MCROAIRecordCache.getInstance(configPrefix);
     }
 
     /**
@@ -90,7 +95,7 @@ public class MCROAIObjectManager {
             return new Record(header);
         }
         try {
-            recordElement = getJDOMRecord(getMyCoReId(header.getId()), format);
+            recordElement = getJDOMRecord(header, format);
         } catch (Exception exc) {
             LOGGER.error("unable to get record {} ({})", header.getId(), format.getPrefix(), exc);
             return null;
@@ -135,6 +140,19 @@ public class MCROAIObjectManager {
         return null;
     }
 
+    /**
+     * Returns the record of the given header from the record cache, if it is enabled, or
+     * by {@link #getJDOMRecord(String, MetadataFormat)}.
+     */
+    protected Element getJDOMRecord(Header header, MetadataFormat format) {
+        String mcrId = getMyCoReId(header.getId());
+        if (recordCache.isEmpty() || header.getDatestamp() == null || !MCRObjectID.isValid(mcrId)) {
+            return getJDOMRecord(mcrId, format);
+        }
+        return recordCache.get()
+            .get(mcrId, format.getPrefix(), header.getDatestamp(), () -> getJDOMRecord(mcrId, format));
+    }
+
     protected Element getJDOMRecord(String mcrId, MetadataFormat format) {
         String uri = formatURI(this.recordUriPattern, mcrId, format.getPrefix());
         return getURI(uri);
@@ -0,0 +1,191 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.oai;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+
+/**
+ * Disk cache of transformed OAI-PMH records.
+ *
+ * <p>A record is stored per object, metadata prefix and modification date of its header, so
+ * repeated harvests read the record from disk instead of loading the object and running the
+ * metadata format transformation again. An entry becomes invalid as soon as the object is
+ * modified. Outdated entries are replaced on the next request and removed by
+ * {@link MCROAIRecordCacheEventHandler} when the object is updated or deleted.</p>
+ *
+ * <p>The cache is enabled per OAI configuration by <code>MCR.OAIDataProvider.[config].RecordCache.Enabled</code>
+ * (defaults to <code>MCR.OAIDataProvider.RecordCache.Enabled</code>). Records are stored below
+ * <code>MCR.OAIDataProvider.RecordCache.Directory</code>. It requires that the modification date in the
+ * header changes whenever the transformed record changes, which holds for the default <code>modified</code>
+ * field of the solr searcher.</p>
+ */
+public class MCROAIRecordCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String DIRECTORY_PROPERTY = MCROAIAdapter.PREFIX + "RecordCache.Directory";
+
+    private static final MCRCounter HIT_COUNTER = MCRMetrics.counter("oai.recordcache", "result", "hit");
+
+    private static final MCRCounter MISS_COUNTER = MCRMetrics.counter("oai.recordcache", "result", "miss");
+
+    private final Path directory;
+
+    MCROAIRecordCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the record cache of an OAI configuration, if it is enabled.
+     *
+     * @param configPrefix the prefix of the OAI configuration, e.g. <code>MCR.OAIDataProvider.OAI2.</code>
+     */
+    public static Optional<MCROAIRecordCache> getInstance(String configPrefix) {
+        boolean enabled = MCRConfiguration2.getBoolean(configPrefix + "RecordCache.Enabled")
+            .or(() -> MCRConfiguration2.getBoolean(MCROAIAdapter.PREFIX + "RecordCache.Enabled"))
+            .orElse(false);
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String configName = configPrefix.substring(MCROAIAdapter.PREFIX.length(), configPrefix.length() - 1);
+        return Optional.of(new MCROAIRecordCache(getBaseDirectory().resolve(configName)));
+    }
+
+    private static Path getBaseDirectory() {
+        return Paths.get(MCRConfiguration2.getStringOrThrow(DIRECTORY_PROPERTY));
+    }
+
+    /**
+     * Returns the cached record or renders and stores it.
+     *
+     * @param mcrId the object id
+     * @param metadataPrefix the metadata prefix of the record
+     * @param modified the modification date of the record header
+     * @param renderer creates the record if it is not cached
+     * @return the record, detached from any document
+     */
+    public Element get(String mcrId, String metadataPrefix, Instant modified, Supplier<Element> renderer) {
+        Path file = getFile(mcrId, metadataPrefix, modified);
+        if (Files.isRegularFile(file)) {
+            try {
+                Element record = new SAXBuilder().build(file.toFile()).detachRootElement();
+                HIT_COUNTER.increment();
+                return record;
+            } catch (IOException | JDOMException e) {
+                LOGGER.warn("Could not read cached record {}, rendering it again.", file, e);
+            }
+        }
+        MISS_COUNTER.increment();
+        Element record = renderer.get();
+        store(file, mcrId, record);
+        return record;
+    }
+
+    private void store(Path file, String mcrId, Element record) {
+        try {
+            Path dir = file.getParent();
+            Files.createDirectories(dir);
+            removeVersions(dir, mcrId);
+            Path tempFile = Files.createTempFile(dir, mcrId, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                new XMLOutputter(Format.getRawFormat()).output(record.clone(), out);
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store record {} in cache.", file, e);
+        }
+    }
+
+    /**
+     * Removes every cached record of an object.
+     */
+    public void remove(String mcrId) {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (Stream<Path> formatDirs = Files.list(directory)) {
+            formatDirs.map(formatDir -> formatDir.resolve(getShard(mcrId)))
+                .filter(Files::isDirectory)
+                .forEach(dir -> removeVersions(dir, mcrId));
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove cached records of {}.", mcrId, e);
+        }
+    }
+
+    /**
+     * Removes the cached records of an object from the caches of all OAI configurations.
+     */
+    static void removeAll(String mcrId) {
+        Optional<Path> baseDirectory = MCRConfiguration2.getString(DIRECTORY_PROPERTY).map(Paths::get);
+        if (baseDirectory.isEmpty() || Files.notExists(baseDirectory.get())) {
+            return;
+        }
+        try (Stream<Path> configDirs = Files.list(baseDirectory.get())) {
+            configDirs.filter(Files::isDirectory)
+                .map(MCROAIRecordCache::new)
+                .forEach(cache -> cache.remove(mcrId));
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove cached records of {}.", mcrId, e);
+        }
+    }
+
+    private static void removeVersions(Path dir, String mcrId) {
+        try (DirectoryStream<Path> versions = Files.newDirectoryStream(dir, mcrId + "_*.xml")) {
+            for (Path version : versions) {
+                Files.deleteIfExists(version);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove cached records of {} in {}.", mcrId, dir, e);
+        }
+    }
+
+    private Path getFile(String mcrId, String metadataPrefix, Instant modified) {
+        return directory.resolve(metadataPrefix)
+            .resolve(getShard(mcrId))
+            .resolve(mcrId + "_" + modified.toEpochMilli() + ".xml");
+    }
+
+    private static String getShard(String mcrId) {
+        return String.format(Locale.ROOT, "%02x", mcrId.hashCode() & 0xff);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.oai;
+
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.metadata.MCRObjectID;
+
+/**
+ * Removes the records of an object from the {@link MCROAIRecordCache} after the object or
+ * one of its derivates was changed. Records that depend on derivates may change without
+ * a new modification date of the object, so they cannot be invalidated by the date alone.
+ */
+public class MCROAIRecordCacheEventHandler extends MCREventHandlerBase {
+
+    @Override
+    protected void handleObjectUpdated(MCREvent evt, MCRObject obj) {
+        remove(obj.getId());
+    }
+
+    @Override
+    protected void handleObjectDeleted(MCREvent evt, MCRObject obj) {
+        remove(obj.getId());
+    }
+
+    @Override
+    protected void handleObjectRepaired(MCREvent evt, MCRObject obj) {
+        remove(obj.getId());
+    }
+
+    @Override
+    protected void handleDerivateCreated(MCREvent evt, MCRDerivate der) {
+        remove(der.getOwnerID());
+    }
+
+    @Override
+    protected void handleDerivateUpdated(MCREvent evt, MCRDerivate der) {
+        remove(der.getOwnerID());
+    }
+
+    @Override
+    protected void handleDerivateDeleted(MCREvent evt, MCRDerivate der) {
+        remove(der.getOwnerID());
+    }
+
+    private void remove(MCRObjectID id) {
+        if (id == null) {
+            return;
+        }
+        String mcrId = id.toString();
+        MCRSessionMgr.getCurrentSession().onCommit(() -> MCROAIRecordCache.removeAll(mcrId));
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.oai;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRException;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.oai.pmh.BadResumptionTokenException;
+import org.mycore.oai.set.MCRSet;
+
+/**
+ * Self-contained resumption token of the mycore OAI-PMH implementation.
+ *
+ * <p>The token carries everything needed to continue a harvest: the metadata prefix, the set, the date range,
+ * the searcher cursor (e.g. the Solr cursorMark) and the expiration time. The payload is signed with a HMAC,
+ * so a harvest can be resumed on any node of a cluster and after a restart without server-side state.</p>
+ *
+ * <p>The secret is read from <code>MCR.OAIDataProvider.ResumptionTokens.Secret</code>. If it is not set, a random
+ * secret is generated once and stored in <code>MCR.datadir</code>, which is shared by all nodes of a cluster.</p>
+ */
+public final class MCROAIResumptionToken {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String VERSION = "1";
+
+    private static final char DELIMITER = '\n';
+
+    private static final char SIGNATURE_DELIMITER = '.';
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Set<PosixFilePermission> OWNER_READ_WRITE = PosixFilePermissions.fromString("rw-------");
+
+    private final String searchId;
+
+    private final String metadataPrefix;
+
+    private final String setId;
+
+    private final String setSpec;
+
+    private final Instant from;
+
+    private final Instant until;
+
+    private final String cursor;
+
+    private final Instant expirationTime;
+
+    public MCROAIResumptionToken(String searchId, String metadataPrefix, MCRSet set, Instant from, Instant until,
+        String cursor, Instant expirationTime) {
+        this(searchId, metadataPrefix, set == null ? null : set.getSetId(), set == null ? null : set.getSpec(), from,
+            until, cursor, expirationTime);
+    }
+
+    private MCROAIResumptionToken(String searchId, String metadataPrefix, String setId, String setSpec,
+        Instant from, Instant until, String cursor, Instant expirationTime) {
+        this.searchId = searchId;
+        this.metadataPrefix = metadataPrefix;
+        this.setId = setId;
+        this.setSpec = setSpec;
+        this.from = from;
+        this.until = until;
+        this.cursor = cursor;
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Returns the id of the searcher that issued this token. It is used to look up a locally cached searcher.
+     */
+    public String getSearchId() {
+        return searchId;
+    }
+
+    public String getMetadataPrefix() {
+        return metadataPrefix;
+    }
+
+    public MCRSet getSet() {
+        return setSpec == null ? null : new MCRSet(setId, setSpec);
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getUntil() {
+        return until;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public Instant getExpirationTime() {
+        return expirationTime;
+    }
+
+    /**
+     * Encodes and signs this token.
+     *
+     * @param configPrefix the prefix of the OAI configuration, a token is only valid for the configuration that
+     *                     issued it
+     * @return an URL safe string representation
+     */
+    public String encode(String configPrefix) {
+        String payload = String.join(String.valueOf(DELIMITER), VERSION, searchId, metadataPrefix,
+            toString(setId), toString(setSpec), toString(from), toString(until), cursor,
+            Long.toString(expirationTime.toEpochMilli()));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payloadBytes) + SIGNATURE_DELIMITER
+            + encoder.encodeToString(sign(configPrefix, payloadBytes));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode(String)}.
+     *
+     * @param token the token sent by the harvester
+     * @param configPrefix the prefix of the OAI configuration
+     * @return the decoded token
+     * @throws BadResumptionTokenException if the token is malformed, was tampered with or is expired
+     */
+    public static MCROAIResumptionToken decode(String token, String configPrefix)
+        throws BadResumptionTokenException {
+        int signatureStart = token == null ? -1 : token.lastIndexOf(SIGNATURE_DELIMITER);
+        if (signatureStart < 0) {
+            throw new BadResumptionTokenException(token);
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payloadBytes = decoder.decode(token.substring(0, signatureStart));
+            signature = decoder.decode(token.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadResumptionTokenException(token);
+        }
+        if (!MessageDigest.isEqual(signature, sign(configPrefix, payloadBytes))) {
+            LOGGER.warn("Invalid signature of resumption token {}", token);
+            throw new BadResumptionTokenException(token);
+        }
+        String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split(String.valueOf(DELIMITER), -1);
+        if (parts.length != 9 || !VERSION.equals(parts[0])) {
+            throw new BadResumptionTokenException(token);
+        }
+        MCROAIResumptionToken resumptionToken;
+        try {
+            resumptionToken = new MCROAIResumptionToken(parts[1], parts[2], toValue(parts[3]), toValue(parts[4]),
+                toInstant(parts[5]), toInstant(parts[6]), parts[7], Instant.ofEpochMilli(Long.parseLong(parts[8])));
+        } catch (RuntimeException e) {
+            throw new BadResumptionTokenException(token);
+        }
+        if (resumptionToken.getExpirationTime().isBefore(Instant.now())) {
+            LOGGER.info("Resumption token expired at {}", resumptionToken.getExpirationTime());
+            throw new BadResumptionTokenException(token);
+        }
+        return resumptionToken;
+    }
+
+    private static String toString(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String toValue(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Instant toInstant(String value) {
+        return value.isEmpty() ? null : Instant.parse(value);
+    }
+
+    private static byte[] sign(String configPrefix, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(SecretHolder.SECRET, HMAC_ALGORITHM));
+            mac.update(configPrefix.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) DELIMITER);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new MCRException("Could not sign resumption token.", e);
+        }
+    }
+
+    /**
+     * Reads the secret from the given file. If the file does not exist, it is created with a random secret that is
+     * only readable by the owner.
+     */
+    static byte[] readOrCreateSecret(Path file) throws IOException {
+        if (Files.notExists(file)) {
+            Files.createDirectories(file.getParent());
+            FileAttribute<?>[] ownerOnly = file.getFileSystem().supportedFileAttributeViews().contains("posix")
+                ? new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(OWNER_READ_WRITE) }
+                : new FileAttribute<?>[0];
+            Path tempFile = Files.createTempFile(file.getParent(), "resumptiontoken", ".tmp", ownerOnly);
+            Files.write(tempFile, randomSecret());
+            try {
+                // unlike a rename, a link never replaces a secret created concurrently by another node
+                Files.createLink(file, tempFile);
+                LOGGER.info("Created secret for resumption tokens in {}", file);
+            } catch (FileAlreadyExistsException e) {
+                LOGGER.debug("Secret for resumption tokens was created by another node.");
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        return Files.readAllBytes(file);
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private static final class SecretHolder {
+
+        private static final byte[] SECRET = loadSecret();
+
+        private static byte[] loadSecret() {
+            Optional<String> secret = MCRConfiguration2.getString(MCROAIAdapter.PREFIX + "ResumptionTokens.Secret");
+            if (secret.isPresent()) {
+                return secret.get().getBytes(StandardCharsets.UTF_8);
+            }
+            Optional<Path> secretFile = MCRConfiguration2.getString("MCR.datadir")
+                .map(dataDir -> Paths.get(dataDir, "oai", "resumptiontoken.secret"));
+            if (secretFile.isEmpty()) {
+                LOGGER.warn("Neither {} nor MCR.datadir is set. Resumption tokens will not survive a restart.",
+                    MCROAIAdapter.PREFIX + "ResumptionTokens.Secret");
+                return randomSecret();
+            }
+            Path file = secretFile.get();
+            try {
+                return readOrCreateSecret(file);
+            } catch (IOException e) {
+                throw new MCRException("Could not load secret for resumption tokens from " + file, e);
+            }
+        }
+    }
+
+}
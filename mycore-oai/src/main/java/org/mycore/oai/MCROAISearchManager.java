@@ -20,20 +20,16 @@ package org.mycore.oai;
 
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCache;
 import org.mycore.common.MCRException;
 import org.mycore.common.MCRSession;
 import org.mycore.common.MCRSessionMgr;
@@ -53,9 +49,14 @@ import org.mycore.util.concurrent.MCRTransactionableRunnable;
  * {@link MCROAISearcher} instance for each
  * {@link #searchHeader(MetadataFormat, MCRSet, Instant, Instant)}
  * and {@link #searchRecord(MetadataFormat, MCRSet, Instant, Instant)} call.
- * The resumption token created by those methods can be reused for
- * later calls to the same searcher. A searcher is dropped after an
- * expiration time. The time increases for each query call.
+ *
+ * <p>The resumption tokens created by those methods are self-contained and signed
+ * (see {@link MCROAIResumptionToken}). A later call with such a token restores the
+ * searcher from the token, so a harvest can be resumed on any node and after a
+ * restart. Searchers are additionally kept in a small local cache
+ * (<code>MCR.OAIDataProvider.ResumptionTokens.CacheSize</code>), which saves the
+ * restore and the look ahead query of the solr searcher if a harvester stays on
+ * the same node. A token expires after a time that increases for each query call.</p>
  *
  * <p>Due to token based querying it is not possible to set a current
  * position for the resumption token. Its always set to -1.</p>
@@ -66,11 +67,9 @@ public class MCROAISearchManager {
 
     protected static final Logger LOGGER = LogManager.getLogger(MCROAISearchManager.class);
 
-    protected static final String TOKEN_DELIMITER = "@";
-
     protected static int MAX_AGE;
 
-    protected Map<String, MCROAISearcher> resultMap;
+    protected MCRCache<String, MCROAISearcher> searcherCache;
 
     protected MCROAIIdentify identify;
 
@@ -90,21 +89,8 @@ public class MCROAISearchManager {
     }
 
     public MCROAISearchManager() {
-        this.resultMap = new ConcurrentHashMap<>();
-        TimerTask tt = new TimerTask() {
-            @Override
-            public void run() {
-                for (Map.Entry<String, MCROAISearcher> entry : resultMap.entrySet()) {
-                    String searchId = entry.getKey();
-                    MCROAISearcher searcher = entry.getValue();
-                    if ((searcher != null) && searcher.isExpired()) {
-                        LOGGER.info("Removing expired resumption token {}", searchId);
-                        resultMap.remove(searchId);
-                    }
-                }
-            }
-        };
-        new Timer().schedule(tt, new Date(System.currentTimeMillis() + MAX_AGE), MAX_AGE);
+        int cacheSize = MCRConfiguration2.getInt(MCROAIAdapter.PREFIX + "ResumptionTokens.CacheSize").orElse(100);
+        this.searcherCache = new MCRCache<>(cacheSize, "OAI-PMH searcher");
         runListRecordsParallel = MCRConfiguration2
             .getOrThrow(MCROAIAdapter.PREFIX + "RunListRecordsParallel", Boolean::parseBoolean);
         if (runListRecordsParallel) {
@@ -127,42 +113,74 @@ public class MCROAISearchManager {
     }
 
     public OAIDataList<Header> searchHeader(String resumptionToken) throws BadResumptionTokenException {
-        String searchId = getSearchId(resumptionToken);
-        String tokenCursor = getTokenCursor(resumptionToken);
-        MCROAISearcher searcher = this.resultMap.get(searchId);
-        if (searcher == null || tokenCursor == null || tokenCursor.length() <= 0) {
-            throw new BadResumptionTokenException(resumptionToken);
-        }
-        MCROAIResult result = searcher.query(tokenCursor);
-        return getHeaderList(searcher, result);
+        MCROAIResumptionToken token = MCROAIResumptionToken.decode(resumptionToken, identify.getConfigPrefix());
+        MCROAISearcher searcher = getSearcher(token, resumptionToken);
+        MCROAIResult result = query(searcher, token, resumptionToken);
+        return getHeaderList(searcher, result, token.getSet(), token.getFrom(), token.getUntil());
     }
 
     public OAIDataList<Record> searchRecord(String resumptionToken) throws BadResumptionTokenException {
-        String searchId = getSearchId(resumptionToken);
-        String tokenCursor = getTokenCursor(resumptionToken);
-        MCROAISearcher searcher = this.resultMap.get(searchId);
-        if (searcher == null || tokenCursor == null || tokenCursor.length() <= 0) {
-            throw new BadResumptionTokenException(resumptionToken);
-        }
-        MCROAIResult result = searcher.query(tokenCursor);
-        return getRecordList(searcher, result);
+        MCROAIResumptionToken token = MCROAIResumptionToken.decode(resumptionToken, identify.getConfigPrefix());
+        MCROAISearcher searcher = getSearcher(token, resumptionToken);
+        MCROAIResult result = query(searcher, token, resumptionToken);
+        return getRecordList(searcher, result, token.getSet(), token.getFrom(), token.getUntil());
     }
 
     public OAIDataList<Header> searchHeader(MetadataFormat format, MCRSet set, Instant from, Instant until) {
         MCROAISearcher searcher = getSearcher(this.identify, format, getPartitionSize(), setManager, objManager);
-        this.resultMap.put(searcher.getID(), searcher);
+        this.searcherCache.put(searcher.getID(), searcher);
         MCROAIResult result = searcher.query(set, from, until);
-        return getHeaderList(searcher, result);
+        return getHeaderList(searcher, result, set, from, until);
     }
 
     public OAIDataList<Record> searchRecord(MetadataFormat format, MCRSet set, Instant from, Instant until) {
         MCROAISearcher searcher = getSearcher(this.identify, format, getPartitionSize(), setManager, objManager);
-        this.resultMap.put(searcher.getID(), searcher);
+        this.searcherCache.put(searcher.getID(), searcher);
         MCROAIResult result = searcher.query(set, from, until);
-        return getRecordList(searcher, result);
+        return getRecordList(searcher, result, set, from, until);
+    }
+
+    /**
+     * Returns the locally cached searcher of the token or restores a new searcher from the token.
+     */
+    protected MCROAISearcher getSearcher(MCROAIResumptionToken token, String resumptionToken)
+        throws BadResumptionTokenException {
+        MCROAISearcher cachedSearcher = this.searcherCache.get(token.getSearchId());
+        if (cachedSearcher != null && !cachedSearcher.isExpired()) {
+            return cachedSearcher;
+        }
+        String prefix = token.getMetadataPrefix();
+        Optional<String> namespace = MCRConfiguration2
+            .getString(MCROAIAdapter.PREFIX + "MetadataFormat." + prefix + ".Namespace");
+        Optional<String> schema = MCRConfiguration2
+            .getString(MCROAIAdapter.PREFIX + "MetadataFormat." + prefix + ".Schema");
+        if (namespace.isEmpty() || schema.isEmpty()) {
+            throw new BadResumptionTokenException(resumptionToken);
+        }
+        MetadataFormat format = new MetadataFormat(prefix, namespace.get(), schema.get());
+        MCROAISearcher searcher = getSearcher(this.identify, format, getPartitionSize(), setManager, objManager);
+        try {
+            searcher.restore(token.getSet(), token.getFrom(), token.getUntil());
+        } catch (UnsupportedOperationException e) {
+            LOGGER.warn("Resumption token {} is not cached on this node and cannot be restored.", resumptionToken, e);
+            throw new BadResumptionTokenException(resumptionToken);
+        }
+        LOGGER.debug("Restored searcher {} from resumption token.", token.getSearchId());
+        this.searcherCache.put(searcher.getID(), searcher);
+        return searcher;
+    }
+
+    private MCROAIResult query(MCROAISearcher searcher, MCROAIResumptionToken token, String resumptionToken)
+        throws BadResumptionTokenException {
+        try {
+            return searcher.query(token.getCursor());
+        } catch (IllegalArgumentException e) {
+            throw new BadResumptionTokenException(resumptionToken);
+        }
     }
 
-    protected OAIDataList<Record> getRecordList(MCROAISearcher searcher, MCROAIResult result) {
+    protected OAIDataList<Record> getRecordList(MCROAISearcher searcher, MCROAIResult result, MCRSet set,
+        Instant from, Instant until) {
         OAIDataList<Record> recordList = runListRecordsParallel ? getRecordListParallel(searcher, result)
             : getRecordListSequential(searcher, result);
         if (recordList.contains(null)) {
@@ -173,7 +191,7 @@ public class MCROAISearchManager {
             }
             recordList.removeIf(Objects::isNull);
         }
-        this.setResumptionToken(recordList, searcher, result);
+        this.setResumptionToken(recordList, searcher, result, set, from, until);
         return recordList;
     }
 
@@ -208,34 +226,21 @@ public class MCROAISearchManager {
         return recordList;
     }
 
-    protected OAIDataList<Header> getHeaderList(MCROAISearcher searcher, MCROAIResult result) {
+    protected OAIDataList<Header> getHeaderList(MCROAISearcher searcher, MCROAIResult result, MCRSet set,
+        Instant from, Instant until) {
         OAIDataList<Header> headerList = new OAIDataList<>();
         headerList.addAll(result.list());
-        this.setResumptionToken(headerList, searcher, result);
+        this.setResumptionToken(headerList, searcher, result, set, from, until);
         return headerList;
     }
 
-    public String getSearchId(String token) throws BadResumptionTokenException {
-        try {
-            return token.split(TOKEN_DELIMITER)[0];
-        } catch (Exception exc) {
-            throw new BadResumptionTokenException(token);
-        }
-    }
-
-    public String getTokenCursor(String token) throws BadResumptionTokenException {
-        try {
-            String[] tokenParts = token.split(TOKEN_DELIMITER);
-            return tokenParts[tokenParts.length - 1];
-        } catch (Exception exc) {
-            throw new BadResumptionTokenException(token);
-        }
-    }
-
-    protected void setResumptionToken(OAIDataList<?> dataList, MCROAISearcher searcher, MCROAIResult result) {
+    protected void setResumptionToken(OAIDataList<?> dataList, MCROAISearcher searcher, MCROAIResult result,
+        MCRSet set, Instant from, Instant until) {
         result.nextCursor().map(cursor -> {
+            MCROAIResumptionToken token = new MCROAIResumptionToken(searcher.getID(),
+                searcher.getMetadataFormat().getPrefix(), set, from, until, cursor, searcher.getExpirationTime());
             DefaultResumptionToken rsToken = new DefaultResumptionToken();
-            rsToken.setToken(searcher.getID() + TOKEN_DELIMITER + cursor);
+            rsToken.setToken(token.encode(identify.getConfigPrefix()));
             rsToken.setCompleteListSize(result.getNumHits());
             rsToken.setExpirationDate(searcher.getExpirationTime());
             return rsToken;
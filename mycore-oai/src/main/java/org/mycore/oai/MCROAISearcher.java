@@ -84,6 +84,20 @@ public abstract class MCROAISearcher {
 
     public abstract MCROAIResult query(MCRSet set, Instant from, Instant until);
 
+    /**
+     * Restores the state of this searcher from a resumption token without querying, so that
+     * {@link #query(String)} can be called with the cursor of the token. This allows to resume
+     * a harvest on another node or after a restart.
+     *
+     * @param set the set of the original query or null
+     * @param from the lower date boundary of the original query or null
+     * @param until the upper date boundary of the original query or null
+     * @throws UnsupportedOperationException if this searcher relies on server-side state
+     */
+    public void restore(MCRSet set, Instant from, Instant until) {
+        throw new UnsupportedOperationException(getClass().getName() + " cannot be restored from a token.");
+    }
+
     /**
      * Returns the earliest created/modified record time stamp. If the earliest time stamp cannot be retrieved an
      * empty optional is returned.
@@ -24,6 +24,8 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,7 +55,8 @@ import org.mycore.solr.MCRSolrClientFactory;
 import org.mycore.solr.MCRSolrUtils;
 
 /**
- * Solr searcher implementation. Uses cursors.
+ * Solr searcher implementation. Uses cursors. As Solr cursors are stateless, a searcher
+ * can be restored on any node by {@link #restore(MCRSet, Instant, Instant)}.
  * 
  * @author Matthias Eichner
  */
@@ -120,6 +123,28 @@ public class MCROAISolrSearcher extends MCROAISearcher {
         }
     }
 
+    @Override
+    public void restore(MCRSet set, Instant from, Instant until) {
+        this.set = set;
+        this.from = from;
+        this.until = until;
+    }
+
+    /**
+     * Returns the number of hits of the current query without fetching any document.
+     *
+     * @return the number of hits
+     */
+    public int getNumHits() {
+        SolrQuery query = buildQuery();
+        query.setRows(0);
+        try {
+            return (int) MCRSolrClientFactory.getMainSolrClient().query(query).getResults().getNumFound();
+        } catch (SolrServerException | IOException e) {
+            throw new MCRException("Error while handling query.", e);
+        }
+    }
+
     private MCROAIResult handleResult(MCROAISolrResult result) throws SolrServerException, IOException {
         this.nextResult = solrQuery(result.nextCursor());
         this.lastCursor = result.nextCursor();
@@ -130,6 +155,21 @@ public class MCROAISolrSearcher extends MCROAISearcher {
     }
 
     protected MCROAISolrResult solrQuery(Optional<String> cursor) throws SolrServerException, IOException {
+        SolrQuery query = buildQuery();
+
+        // cursor
+        query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursor.orElse(CursorMarkParams.CURSOR_MARK_START));
+        query.set(CommonParams.ROWS, String.valueOf(getPartitionSize()));
+        query.set(CommonParams.SORT, "id asc");
+
+        // do the query
+        SolrClient solrClient = MCRSolrClientFactory.getMainSolrClient();
+        QueryResponse response = solrClient.query(query);
+        Collection<MCROAISetResolver<String, SolrDocument>> setResolver = getSetResolver(response.getResults());
+        return new MCROAISolrResult(response, d -> toHeader(d, setResolver));
+    }
+
+    private SolrQuery buildQuery() {
         SolrQuery query = getBaseQuery(CommonParams.Q);
 
         // set support
@@ -143,17 +183,7 @@ public class MCROAISolrSearcher extends MCROAISearcher {
             String fromUntilCondition = buildFromUntilCondition(this.from, this.until);
             query.add(CommonParams.FQ, fromUntilCondition);
         }
-
-        // cursor
-        query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursor.orElse(CursorMarkParams.CURSOR_MARK_START));
-        query.set(CommonParams.ROWS, String.valueOf(getPartitionSize()));
-        query.set(CommonParams.SORT, "id asc");
-
-        // do the query
-        SolrClient solrClient = MCRSolrClientFactory.getMainSolrClient();
-        QueryResponse response = solrClient.query(query);
-        Collection<MCROAISetResolver<String, SolrDocument>> setResolver = getSetResolver(response.getResults());
-        return new MCROAISolrResult(response, d -> toHeader(d, setResolver));
+        return query;
     }
 
     private SolrQuery getBaseQuery(String restrictionField) {
@@ -165,6 +195,7 @@ public class MCROAISolrSearcher extends MCROAISearcher {
         String[] requiredFields = Stream.concat(Stream.of("id", getModifiedField()), getRequiredFieldNames().stream())
             .toArray(String[]::new);
         query.setFields(requiredFields);
+        getRequiredFieldParameters().forEach(query::set);
         // request handler
         query.setRequestHandler(MCRConfiguration2.getString(configPrefix + "Search.RequestHandler").orElse("/select"));
         return query;
@@ -189,6 +220,17 @@ public class MCROAISolrSearcher extends MCROAISearcher {
             .collect(Collectors.toSet());
     }
 
+    private Map<String, String> getRequiredFieldParameters() {
+        Map<String, String> parameters = new HashMap<>();
+        getSetManager().getDefinedSetIds().stream()
+            .map(getSetManager()::getConfig)
+            .map(MCROAISetConfiguration::getHandler)
+            .filter(MCROAISolrSetHandler.class::isInstance)
+            .map(MCROAISolrSetHandler.class::cast)
+            .forEach(h -> parameters.putAll(h.getFieldParameters()));
+        return parameters;
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private MCROAISetHandler<SolrQuery, SolrDocument, String> cast(MCROAISetHandler handler) {
         return handler;
@@ -37,7 +37,9 @@ import org.mycore.solr.MCRSolrClientFactory;
 import org.mycore.solr.MCRSolrUtils;
 
 /**
- * Fires <code>{OAIPrefix}.Sets.{SetID}.Query</code> and limits results to the <code>id</code>s of the
+ * Uses the pseudo field added by {@link MCROAIQueryToSetHandler#getFieldNames()} to decide, if a document
+ * of the current result list matches <code>{OAIPrefix}.Sets.{SetID}.Query</code>. If the result documents
+ * do not contain that field, it fires the query and limits results to the <code>id</code>s of the
  * current result list. Every returned <code>id</code> belong to this OAI set configuration.
  * @author Thomas Scheffler (yagee)
  */
@@ -45,11 +47,14 @@ class MCROAIQuerySetResolver extends MCROAISetResolver<String, SolrDocument> {
 
     private String query;
 
+    private String membershipField;
+
     private java.util.Set<String> idsInSet;
 
-    MCROAIQuerySetResolver(String query) {
+    MCROAIQuerySetResolver(String query, String membershipField) {
         super();
         this.query = query;
+        this.membershipField = membershipField;
     }
 
     @Override
@@ -60,6 +65,13 @@ class MCROAIQuerySetResolver extends MCROAISetResolver<String, SolrDocument> {
             idsInSet = Collections.emptySet();
             return;
         }
+        if (result.stream().allMatch(doc -> doc.containsKey(membershipField))) {
+            idsInSet = result.stream()
+                .filter(doc -> Boolean.TRUE.equals(doc.getFieldValue(membershipField)))
+                .map(getIdentifier())
+                .collect(Collectors.toSet());
+            return;
+        }
         SolrClient solrClient = MCRSolrClientFactory.getMainSolrClient();
         QueryResponse response;
         try {
@@ -20,6 +20,7 @@ package org.mycore.oai.set;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -40,6 +41,8 @@ public class MCROAIQueryToSetHandler extends MCROAISolrSetHandler {
 
     String configQuery;
 
+    String membershipField;
+
     @Override
     public void init(String configPrefix, String setId) {
         super.init(configPrefix, setId);
@@ -49,6 +52,7 @@ public class MCROAIQueryToSetHandler extends MCROAISolrSetHandler {
         } else {
             this.searchField = null;
         }
+        this.membershipField = "oaiset_" + setId.replaceAll("[^A-Za-z0-9_]", "_");
     }
 
     private String getSearchField(String simpleQuery) {
@@ -60,14 +64,27 @@ public class MCROAIQueryToSetHandler extends MCROAISolrSetHandler {
             "Queries containing '" + SET_SPEC_PARAMETER + "' must be in simple form: fielName:{setSpec}");
     }
 
+    /**
+     * If the set query contains no {setSpec} parameter, the set membership is returned as pseudo field
+     * by a function query. So the membership of all documents of a result page is known without a
+     * further request.
+     */
     @Override
     public Collection<String> getFieldNames() {
         if (searchField == null) {
-            return super.getFieldNames();
+            return Collections.singleton(membershipField + ":exists(query($" + membershipField + "))");
         }
         return Collections.singleton(searchField);
     }
 
+    @Override
+    public Map<String, String> getFieldParameters() {
+        if (searchField == null) {
+            return Collections.singletonMap(membershipField, configQuery);
+        }
+        return super.getFieldParameters();
+    }
+
     @Override
     public void apply(MCRSet set, SolrQuery solrQuery) {
         String resolvedQuery = configQuery.replace(SET_SPEC_PARAMETER, set.getSpec());
@@ -95,7 +112,7 @@ public class MCROAIQueryToSetHandler extends MCROAISolrSetHandler {
     @Override
     public MCROAISetResolver<String, SolrDocument> getSetResolver(Collection<SolrDocument> result) {
         if (searchField == null) {
-            MCROAIQuerySetResolver resolver = new MCROAIQuerySetResolver(configQuery);
+            MCROAIQuerySetResolver resolver = new MCROAIQuerySetResolver(configQuery, membershipField);
             resolver.init(getConfigPrefix(), getHandlerPrefix(), getSetMap(), result,
                 MCROAISolrSetHandler::getIdentifier);
             return resolver;
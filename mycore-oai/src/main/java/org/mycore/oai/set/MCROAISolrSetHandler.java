@@ -53,6 +53,14 @@ public abstract class MCROAISolrSetHandler implements MCROAISetHandler<SolrQuery
         return Collections.emptySet();
     }
 
+    /**
+     * Returns request parameters that are referenced by {@link #getFieldNames()}, e.g. by a function query.
+     * They are added to the query of every result page.
+     */
+    public Map<String, String> getFieldParameters() {
+        return Collections.emptyMap();
+    }
+
     public MCROAISetResolver<String, SolrDocument> getSetResolver(Collection<SolrDocument> result) {
         MCROAISetResolver<String, SolrDocument> resolver = new MCROAISetResolver<>();
         resolver.init(configPrefix, handlerPrefix, getSetMap(), result, MCROAISolrSetHandler::getIdentifier);
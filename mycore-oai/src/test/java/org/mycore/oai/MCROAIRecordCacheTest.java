@@ -0,0 +1,185 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.oai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.events.MCREvent;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRMetaLinkID;
+import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.services.metrics.MCRMetrics;
+
+public class MCROAIRecordCacheTest extends MCRTestCase {
+
+    private static final String CONFIG_PREFIX = MCROAIAdapter.PREFIX + "Test.";
+
+    private static final String OTHER_CONFIG_PREFIX = MCROAIAdapter.PREFIX + "Other.";
+
+    private static final String OBJECT_ID = "junit_test_00000001";
+
+    private static final Instant MODIFIED = Instant.parse("2020-01-01T00:00:00Z");
+
+    private AtomicInteger renderCount;
+
+    private Path directory;
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.test", Boolean.TRUE.toString());
+        testProperties.put("MCR.Metadata.Type.derivate", Boolean.TRUE.toString());
+        testProperties.put(MCROAIAdapter.PREFIX + "RecordCache.Enabled", Boolean.TRUE.toString());
+        testProperties.put(MCROAIAdapter.PREFIX + "RecordCache.Directory",
+            junitFolder.getRoot().toPath().resolve("oai-records").toString());
+        testProperties.put(MCROAIAdapter.PREFIX + "Disabled.RecordCache.Enabled", Boolean.FALSE.toString());
+        return testProperties;
+    }
+
+    @Before
+    public void init() {
+        renderCount = new AtomicInteger();
+        directory = junitFolder.getRoot().toPath().resolve("oai-records");
+        MCRMetrics.setEnabled(true);
+        MCRMetrics.reset();
+    }
+
+    @After
+    public void disableMetrics() {
+        MCRMetrics.setEnabled(false);
+        MCRMetrics.reset();
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        MCROAIRecordCache cache = MCROAIRecordCache.getInstance(CONFIG_PREFIX).orElseThrow();
+        Element record = cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("first"));
+        assertEquals("first", record.getText());
+        assertEquals("first", cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("second")).getText());
+        assertEquals("Cached record should not be rendered again.", 1, renderCount.get());
+        assertEquals(1, MCRMetrics.counter("oai.recordcache", "result", "hit").getCount());
+        assertEquals(1, MCRMetrics.counter("oai.recordcache", "result", "miss").getCount());
+
+        assertEquals("Other metadata format should be rendered.", "marc",
+            cache.get(OBJECT_ID, "marc21", MODIFIED, renderer("marc")).getText());
+        assertEquals("Other configuration should be rendered.", "other",
+            MCROAIRecordCache.getInstance(OTHER_CONFIG_PREFIX).orElseThrow()
+                .get(OBJECT_ID, "oai_dc", MODIFIED, renderer("other")).getText());
+        assertEquals(3, renderCount.get());
+    }
+
+    @Test
+    public void testModified() throws IOException {
+        MCROAIRecordCache cache = MCROAIRecordCache.getInstance(CONFIG_PREFIX).orElseThrow();
+        cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("first"));
+        Element record = cache.get(OBJECT_ID, "oai_dc", MODIFIED.plusSeconds(1), renderer("second"));
+        assertEquals("Modified record should be rendered again.", "second", record.getText());
+        assertEquals(2, renderCount.get());
+        assertEquals("Outdated version should be removed.", 1, listRecords().size());
+    }
+
+    @Test
+    public void testDisabled() {
+        assertFalse(MCROAIRecordCache.getInstance(MCROAIAdapter.PREFIX + "Disabled.").isPresent());
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        MCROAIRecordCache cache = MCROAIRecordCache.getInstance(CONFIG_PREFIX).orElseThrow();
+        cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("first"));
+        cache.get(OBJECT_ID, "marc21", MODIFIED, renderer("first"));
+        cache.get("junit_test_00000002", "oai_dc", MODIFIED, renderer("first"));
+        MCROAIRecordCache.getInstance(OTHER_CONFIG_PREFIX).orElseThrow()
+            .get(OBJECT_ID, "oai_dc", MODIFIED, renderer("first"));
+
+        MCROAIRecordCache.removeAll(OBJECT_ID);
+        assertEquals("Only records of other objects should be left.", 1, listRecords().size());
+        cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("second"));
+        assertEquals(5, renderCount.get());
+    }
+
+    @Test
+    public void testInvalidateOnObjectEvent() throws IOException {
+        MCROAIRecordCache cache = MCROAIRecordCache.getInstance(CONFIG_PREFIX).orElseThrow();
+        cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("first"));
+
+        MCRObject object = new MCRObject();
+        object.setId(MCRObjectID.getInstance(OBJECT_ID));
+        MCREvent evt = new MCREvent(MCREvent.OBJECT_TYPE, MCREvent.UPDATE_EVENT);
+        evt.put(MCREvent.OBJECT_KEY, object);
+        new MCROAIRecordCacheEventHandler().doHandleEvent(evt);
+        assertEquals("Records should only be removed on commit.", 1, listRecords().size());
+        MCRSessionMgr.getCurrentSession().commitTransaction();
+
+        assertTrue(listRecords().isEmpty());
+    }
+
+    @Test
+    public void testInvalidateOnDerivateEvent() throws IOException {
+        MCROAIRecordCache cache = MCROAIRecordCache.getInstance(CONFIG_PREFIX).orElseThrow();
+        cache.get(OBJECT_ID, "oai_dc", MODIFIED, renderer("first"));
+
+        MCRDerivate derivate = new MCRDerivate();
+        derivate.setId(MCRObjectID.getInstance("junit_derivate_00000001"));
+        derivate.getDerivate().setLinkMeta(
+            new MCRMetaLinkID("linkmeta", MCRObjectID.getInstance(OBJECT_ID), null, null));
+        MCREvent evt = new MCREvent(MCREvent.DERIVATE_TYPE, MCREvent.CREATE_EVENT);
+        evt.put(MCREvent.DERIVATE_KEY, derivate);
+        new MCROAIRecordCacheEventHandler().doHandleEvent(evt);
+        MCRSessionMgr.getCurrentSession().commitTransaction();
+
+        assertTrue("Records of the owner should be removed.", listRecords().isEmpty());
+    }
+
+    private Supplier<Element> renderer(String text) {
+        return () -> {
+            renderCount.incrementAndGet();
+            return new Element("record").setText(text);
+        };
+    }
+
+    private List<Path> listRecords() throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.oai;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.oai.pmh.BadResumptionTokenException;
+import org.mycore.oai.pmh.Header;
+import org.mycore.oai.pmh.MetadataFormat;
+import org.mycore.oai.pmh.OAIDataList;
+import org.mycore.oai.set.MCRSet;
+
+public class MCROAIResumptionTokenTest extends MCRTestCase {
+
+    private static final String CONFIG_PREFIX = MCROAIAdapter.PREFIX + "Test.";
+
+    private static final Instant FROM = Instant.parse("2020-01-01T00:00:00Z");
+
+    private static final Instant UNTIL = Instant.parse("2021-01-01T00:00:00Z");
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put(MCROAIAdapter.PREFIX + "ResumptionTokens.Secret", "junit");
+        testProperties.put(MCROAIAdapter.PREFIX + "RunListRecordsParallel", Boolean.FALSE.toString());
+        testProperties.put(MCROAIAdapter.PREFIX + "MetadataFormat.oai_dc.Namespace",
+            "http://www.openarchives.org/OAI/2.0/oai_dc/");
+        testProperties.put(MCROAIAdapter.PREFIX + "MetadataFormat.oai_dc.Schema",
+            "http://www.openarchives.org/OAI/2.0/oai_dc.xsd");
+        testProperties.put(CONFIG_PREFIX + "Searcher", MCROAITestSearcher.class.getName());
+        testProperties.put(CONFIG_PREFIX + "AdminEmail", "admin@localhost");
+        testProperties.put(CONFIG_PREFIX + "RepositoryIdentifier", "localhost");
+        testProperties.put(CONFIG_PREFIX + "RecordSampleID", "oai:localhost:junit_test_00000001");
+        return testProperties;
+    }
+
+    @Before
+    public void resetSearcher() {
+        MCROAITestSearcher.RESTORES.set(0);
+        MCROAITestSearcher.restoredSet = null;
+    }
+
+    @Test
+    public void testRoundTrip() throws BadResumptionTokenException {
+        MCRSet set = new MCRSet("open_access", "open_access");
+        Instant expirationTime = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        MCROAIResumptionToken token = new MCROAIResumptionToken("search1", "oai_dc", set, FROM, UNTIL,
+            "AoE/cursor=+", expirationTime);
+
+        MCROAIResumptionToken decoded = MCROAIResumptionToken.decode(token.encode(CONFIG_PREFIX), CONFIG_PREFIX);
+        assertEquals("search1", decoded.getSearchId());
+        assertEquals("oai_dc", decoded.getMetadataPrefix());
+        assertEquals("open_access", decoded.getSet().getSetId());
+        assertEquals("open_access", decoded.getSet().getSpec());
+        assertEquals(FROM, decoded.getFrom());
+        assertEquals(UNTIL, decoded.getUntil());
+        assertEquals("AoE/cursor=+", decoded.getCursor());
+        assertEquals(expirationTime, decoded.getExpirationTime());
+
+        MCROAIResumptionToken withoutSet = MCROAIResumptionToken.decode(
+            new MCROAIResumptionToken("search2", "oai_dc", null, null, null, "0", expirationTime)
+                .encode(CONFIG_PREFIX),
+            CONFIG_PREFIX);
+        assertNull(withoutSet.getSet());
+        assertNull(withoutSet.getFrom());
+        assertNull(withoutSet.getUntil());
+    }
+
+    @Test(expected = BadResumptionTokenException.class)
+    public void testTamperedPayload() throws BadResumptionTokenException {
+        String encoded = createToken().encode(CONFIG_PREFIX);
+        int signatureStart = encoded.lastIndexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(encoded.substring(0, signatureStart)),
+            StandardCharsets.UTF_8);
+        String tamperedPayload = payload.replace("oai_dc", "marc21");
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(tamperedPayload.getBytes(StandardCharsets.UTF_8)) + encoded.substring(signatureStart);
+        MCROAIResumptionToken.decode(tampered, CONFIG_PREFIX);
+    }
+
+    @Test(expected = BadResumptionTokenException.class)
+    public void testTamperedSignature() throws BadResumptionTokenException {
+        String encoded = createToken().encode(CONFIG_PREFIX);
+        int signatureStart = encoded.lastIndexOf('.');
+        byte[] signature = Base64.getUrlDecoder().decode(encoded.substring(signatureStart + 1));
+        signature[0] ^= 1;
+        String tampered = encoded.substring(0, signatureStart + 1)
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        MCROAIResumptionToken.decode(tampered, CONFIG_PREFIX);
+    }
+
+    @Test(expected = BadResumptionTokenException.class)
+    public void testOtherConfigPrefix() throws BadResumptionTokenException {
+        String encoded = createToken().encode(CONFIG_PREFIX);
+        MCROAIResumptionToken.decode(encoded, MCROAIAdapter.PREFIX + "Other.");
+    }
+
+    @Test(expected = BadResumptionTokenException.class)
+    public void testExpired() throws BadResumptionTokenException {
+        String encoded = new MCROAIResumptionToken("search1", "oai_dc", null, FROM, UNTIL, "0",
+            Instant.now().minusSeconds(1)).encode(CONFIG_PREFIX);
+        MCROAIResumptionToken.decode(encoded, CONFIG_PREFIX);
+    }
+
+    @Test(expected = BadResumptionTokenException.class)
+    public void testMalformed() throws BadResumptionTokenException {
+        MCROAIResumptionToken.decode("no-signature", CONFIG_PREFIX);
+    }
+
+    @Test
+    public void testRestoreSearch() throws BadResumptionTokenException {
+        MCROAIIdentify identify = new MCROAIIdentify("http://localhost/oai", CONFIG_PREFIX);
+        MetadataFormat format = new MetadataFormat("oai_dc", "http://www.openarchives.org/OAI/2.0/oai_dc/",
+            "http://www.openarchives.org/OAI/2.0/oai_dc.xsd");
+        MCRSet set = new MCRSet("open_access", "open_access");
+
+        MCROAISearchManager searchManager = createSearchManager(identify);
+        OAIDataList<Header> firstPage = searchManager.searchHeader(format, set, FROM, UNTIL);
+        assertEquals(MCROAITestSearcher.HEADERS.subList(0, 2), firstPage);
+        String token = firstPage.getResumptionToken().getToken();
+
+        OAIDataList<Header> cachedPage = searchManager.searchHeader(token);
+        assertEquals(MCROAITestSearcher.HEADERS.subList(2, 4), cachedPage);
+        assertEquals("Searcher should be taken from the cache.", 0, MCROAITestSearcher.RESTORES.get());
+
+        // another node or a restarted application does not know the searcher
+        OAIDataList<Header> restoredPage = createSearchManager(identify).searchHeader(token);
+        assertEquals(MCROAITestSearcher.HEADERS.subList(2, 4), restoredPage);
+        assertEquals(1, MCROAITestSearcher.RESTORES.get());
+        assertEquals("open_access", MCROAITestSearcher.restoredSet.getSpec());
+
+        OAIDataList<Header> lastPage = createSearchManager(identify)
+            .searchHeader(restoredPage.getResumptionToken().getToken());
+        assertEquals(MCROAITestSearcher.HEADERS.subList(4, 5), lastPage);
+        assertNull(lastPage.getResumptionToken());
+    }
+
+    @Test(expected = BadResumptionTokenException.class)
+    public void testRestoreUnknownMetadataFormat() throws BadResumptionTokenException {
+        MCROAIIdentify identify = new MCROAIIdentify("http://localhost/oai", CONFIG_PREFIX);
+        String token = new MCROAIResumptionToken("search1", "unknown", null, null, null, "2",
+            Instant.now().plus(1, ChronoUnit.HOURS)).encode(CONFIG_PREFIX);
+        createSearchManager(identify).searchHeader(token);
+    }
+
+    @Test
+    public void testSecretFile() throws Exception {
+        Path secretFile = junitFolder.getRoot().toPath().resolve("oai").resolve("resumptiontoken.secret");
+        byte[] secret = MCROAIResumptionToken.readOrCreateSecret(secretFile);
+        assertEquals(32, secret.length);
+        assertArrayEquals("Secret should be created only once.", secret,
+            MCROAIResumptionToken.readOrCreateSecret(secretFile));
+        try (Stream<Path> files = Files.list(secretFile.getParent())) {
+            assertEquals("Temporary files should be removed.", 1, files.count());
+        }
+
+        Assume.assumeTrue(secretFile.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(secretFile)));
+    }
+
+    private static MCROAISearchManager createSearchManager(MCROAIIdentify identify) {
+        MCROAISearchManager searchManager = new MCROAISearchManager();
+        searchManager.init(identify, null, null, 2);
+        return searchManager;
+    }
+
+    private static MCROAIResumptionToken createToken() {
+        return new MCROAIResumptionToken("search1", "oai_dc", null, FROM, UNTIL, "2",
+            Instant.now().plus(1, ChronoUnit.HOURS));
+    }
+}
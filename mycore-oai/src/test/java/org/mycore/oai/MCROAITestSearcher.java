@@ -0,0 +1,82 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.oai;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.mycore.oai.pmh.Header;
+import org.mycore.oai.set.MCRSet;
+
+/**
+ * Searcher over a fixed list of headers, the cursor is the index of the next header.
+ */
+public class MCROAITestSearcher extends MCROAISearcher {
+
+    public static final AtomicInteger RESTORES = new AtomicInteger();
+
+    static final List<Header> HEADERS = IntStream.rangeClosed(1, 5)
+        .mapToObj(i -> new Header("oai:test:" + i, Instant.EPOCH.plusSeconds(i)))
+        .collect(Collectors.toList());
+
+    static volatile MCRSet restoredSet;
+
+    @Override
+    public Optional<Header> getHeader(String mcrId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public MCROAIResult query(String cursor) {
+        updateRunningExpirationTimer();
+        return getResult(Integer.parseInt(cursor));
+    }
+
+    @Override
+    public MCROAIResult query(MCRSet set, Instant from, Instant until) {
+        updateRunningExpirationTimer();
+        return getResult(0);
+    }
+
+    @Override
+    public void restore(MCRSet set, Instant from, Instant until) {
+        RESTORES.incrementAndGet();
+        restoredSet = set;
+    }
+
+    @Override
+    public Optional<Instant> getEarliestTimestamp() {
+        return Optional.empty();
+    }
+
+    private MCROAIResult getResult(int start) {
+        if (start < 0 || start >= HEADERS.size()) {
+            throw new IllegalArgumentException("Invalid cursor " + start);
+        }
+        int end = Math.min(start + getPartitionSize(), HEADERS.size());
+        return new MCROAISimpleResult()
+            .setHeaderList(HEADERS.subList(start, end))
+            .setNumHits(HEADERS.size())
+            .setNextCursor(end < HEADERS.size() ? Integer.toString(end) : null);
+    }
+}
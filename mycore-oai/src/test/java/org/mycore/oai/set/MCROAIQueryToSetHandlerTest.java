@@ -0,0 +1,99 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.oai.set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.SolrDocument;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.oai.MCROAIAdapter;
+import org.mycore.oai.pmh.Set;
+
+public class MCROAIQueryToSetHandlerTest extends MCRTestCase {
+
+    private static final String CONFIG_PREFIX = MCROAIAdapter.PREFIX + "Test.";
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put(CONFIG_PREFIX + "Sets.open-access.Query", "category:\"state:published\"");
+        testProperties.put(CONFIG_PREFIX + "Sets.type.Query", "genre:{setSpec}");
+        return testProperties;
+    }
+
+    @Test
+    public void testMembershipField() {
+        MCROAIQueryToSetHandler handler = createHandler("open-access");
+        assertEquals(List.of("oaiset_open_access:exists(query($oaiset_open_access))"),
+            List.copyOf(handler.getFieldNames()));
+        assertEquals(Map.of("oaiset_open_access", "category:\"state:published\""), handler.getFieldParameters());
+    }
+
+    @Test
+    public void testParameterQuery() {
+        MCROAIQueryToSetHandler handler = createHandler("type");
+        assertEquals(List.of("genre"), List.copyOf(handler.getFieldNames()));
+        assertTrue(handler.getFieldParameters().isEmpty());
+    }
+
+    @Test
+    public void testResolveFromPage() {
+        MCROAIQueryToSetHandler handler = createHandler("open-access");
+        MCRSet set = new MCRSet("open-access", "open_access");
+        handler.getSetMap().put("open-access", set);
+        List<SolrDocument> page = List.of(
+            createDocument("junit_test_00000001", true),
+            createDocument("junit_test_00000002", false),
+            createDocument("junit_test_00000003", true));
+
+        // all documents carry the membership field, so no further solr request is sent
+        MCROAISetResolver<String, SolrDocument> resolver = handler.getSetResolver(page);
+        Collection<Set> sets = resolver.getSets("junit_test_00000001");
+        assertEquals(1, sets.size());
+        assertSame(set, sets.iterator().next());
+        assertTrue(resolver.getSets("junit_test_00000002").isEmpty());
+        assertEquals(1, resolver.getSets("junit_test_00000003").size());
+    }
+
+    @Test
+    public void testResolveEmptyPage() {
+        MCROAIQueryToSetHandler handler = createHandler("open-access");
+        assertTrue(handler.getSetResolver(List.of()).getSets("junit_test_00000001").isEmpty());
+    }
+
+    private static MCROAIQueryToSetHandler createHandler(String setId) {
+        MCROAIQueryToSetHandler handler = new MCROAIQueryToSetHandler();
+        handler.init(CONFIG_PREFIX, setId);
+        return handler;
+    }
+
+    private static SolrDocument createDocument(String id, boolean inSet) {
+        SolrDocument document = new SolrDocument();
+        document.setField("id", id);
+        document.setField("oaiset_open_access", inSet);
+        return document;
+    }
+}
@@ -153,6 +153,7 @@ public class MCRPICronJob implements Runnable, MCRStartupHandler.AutoExecutable
     private MCRFixedUserCallable<Void> updateFlags(MCRPI mcrpi, Date registerDate) {
         return new MCRFixedUserCallable<>(() -> {
             mcrpi.setRegistered(registerDate);
+            MCRPIManager.getInstance().invalidate(mcrpi.getMycoreID());
             MCRPIServiceManager.getInstance().getRegistrationService(mcrpi.getService())
                 .updateFlag(MCRObjectID.getInstance(mcrpi.getMycoreID()), mcrpi.getAdditional(), mcrpi);
             MCREntityManagerProvider.getCurrentEntityManager().merge(mcrpi);
@@ -21,6 +21,7 @@ package org.mycore.pi;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
@@ -43,6 +44,7 @@ import org.mycore.pi.exceptions.MCRPersistentIdentifierException;
 import org.mycore.services.queuedjob.MCRJob;
 import org.mycore.services.queuedjob.MCRJobAction;
 import org.mycore.services.queuedjob.MCRJobQueue;
+import org.mycore.services.queuedjob.MCRJobStatus;
 import org.mycore.user2.MCRUser;
 import org.mycore.user2.MCRUserManager;
 
@@ -65,6 +67,8 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
 
     private static final MCRJobQueue REGISTER_JOB_QUEUE = initializeJobQueue();
 
+    private volatile MCRPIJobThrottle throttle;
+
     public MCRPIJobService(String registrationServiceID, String identType) {
         super(registrationServiceID, identType);
     }
@@ -125,13 +129,28 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
     }
 
     /**
+     * Adds an update job, if there is no pending update or register job with the same parameters. As jobs read
+     * the current metadata when they are executed, repeated updates of an object are coalesced into one job.
+     *
      * @see #addRegisterJob(Map)
      */
     protected void addUpdateJob(Map<String, String> contextParameters) {
         MCRJob job = createJob(contextParameters, PiJobAction.UPDATE);
+        if (hasPendingJob(job.getParameters(), PiJobAction.UPDATE)
+            || hasPendingJob(job.getParameters(), PiJobAction.REGISTER)) {
+            LOGGER.info("Skip update job of {}, a pending job exists: {}", getServiceID(), contextParameters);
+            return;
+        }
         REGISTER_JOB_QUEUE.offer(job);
     }
 
+    private boolean hasPendingJob(Map<String, String> jobParameters, PiJobAction action) {
+        HashMap<String, String> params = new HashMap<>(jobParameters);
+        params.put("action", action.toString());
+        List<MCRJob> jobs = REGISTER_JOB_QUEUE.getJobs(params);
+        return jobs != null && jobs.stream().anyMatch(job -> job.getStatus() == MCRJobStatus.NEW);
+    }
+
     /**
      * Adds a register job which will be called in the persistent {@link MCRJob} environment in a extra thread.
      *
@@ -178,6 +197,7 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
         MCRPI pi = MCRPIManager.getInstance()
             .get(this.getServiceID(), mycoreID.toString(), additional);
         pi.setRegistered(date);
+        MCRPIManager.getInstance().invalidate(pi.getMycoreID());
         updateFlag(mycoreID, additional, pi);
     }
 
@@ -195,6 +215,7 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
         MCRPI pi = MCRPIManager.getInstance()
             .get(this.getServiceID(), mycoreID.toString(), additional);
         pi.setRegistrationStarted(date);
+        MCRPIManager.getInstance().invalidate(pi.getMycoreID());
         updateFlag(mycoreID, additional, pi);
     }
 
@@ -287,9 +308,20 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
         return this.getProperties().containsKey(JOB_API_USER_PROPERTY);
     }
 
+    /**
+     * Returns the throttle that limits the jobs of this service, see {@link MCRPIJobThrottle} for configuration.
+     */
+    MCRPIJobThrottle getThrottle() {
+        if (throttle == null) {
+            throttle = MCRPIJobThrottle.fromProperties(getServiceID(), getProperties());
+        }
+        return throttle;
+    }
+
     void delegateAction(final Map<String, String> contextParameters) throws MCRPersistentIdentifierException {
-        runAsJobUser(() -> {
-            switch (getAction(contextParameters)) {
+        PiJobAction action = getAction(contextParameters);
+        getThrottle().run(action, () -> runAsJobUser(() -> {
+            switch (action) {
                 case REGISTER:
                     registerJob(contextParameters);
                     break;
@@ -302,7 +334,7 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
                 default:
                     throw new MCRPersistentIdentifierException("Unhandled action type!");
             }
-        });
+        }));
     }
 
     void delegateRollback(final Map<String, String> contextParameters) throws MCRPersistentIdentifierException {
@@ -399,7 +431,7 @@ public abstract class MCRPIJobService<T extends MCRPersistentIdentifier>
 
     }
 
-    private interface PIRunnable {
+    interface PIRunnable {
         void run() throws MCRPersistentIdentifierException;
     }
 
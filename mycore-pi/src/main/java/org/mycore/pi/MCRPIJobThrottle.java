@@ -0,0 +1,214 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.pi;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.pi.exceptions.MCRDatacenterAuthenticationException;
+import org.mycore.pi.exceptions.MCRDatacenterException;
+import org.mycore.pi.exceptions.MCRIdentifierUnresolvableException;
+import org.mycore.pi.exceptions.MCRPersistentIdentifierException;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
+
+/**
+ * Limits the jobs of a {@link MCRPIJobService} that are sent to the registration agency at the same time and per
+ * second, and retries jobs that failed because of the agency with an exponential backoff.
+ * <p>
+ * It is configured by the following properties of the service:
+ * <dl>
+ *     <dt>MaxConcurrentJobs</dt>
+ *     <dd>the number of jobs that are running at the same time, 0 (default) for no limit</dd>
+ *     <dt>JobsPerSecond</dt>
+ *     <dd>the number of jobs that are started per second (token bucket), 0 (default) for no limit</dd>
+ *     <dt>MaxRetries</dt>
+ *     <dd>how often a job that failed with a {@link MCRDatacenterException} is repeated, defaults to 0</dd>
+ *     <dt>RetryDelay</dt>
+ *     <dd>the delay in milliseconds before the first retry, that is doubled for every further retry,
+ *     defaults to 1000</dd>
+ * </dl>
+ */
+class MCRPIJobThrottle {
+
+    static final String MAX_CONCURRENT_JOBS = "MaxConcurrentJobs";
+
+    static final String JOBS_PER_SECOND = "JobsPerSecond";
+
+    static final String MAX_RETRIES = "MaxRetries";
+
+    static final String RETRY_DELAY = "RetryDelay";
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final String serviceID;
+
+    private final Semaphore concurrentJobs;
+
+    private final TokenBucket tokenBucket;
+
+    private final int maxRetries;
+
+    private final long retryDelay;
+
+    private final MCRCounter retryCounter;
+
+    private final MCRCounter failureCounter;
+
+    MCRPIJobThrottle(String serviceID, int maxConcurrentJobs, double jobsPerSecond, int maxRetries,
+        long retryDelay) {
+        this.serviceID = serviceID;
+        this.concurrentJobs = maxConcurrentJobs > 0 ? new Semaphore(maxConcurrentJobs, true) : null;
+        this.tokenBucket = jobsPerSecond > 0 ? new TokenBucket(jobsPerSecond) : null;
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        this.retryCounter = MCRMetrics.counter("pi.job.retry", "service", serviceID);
+        this.failureCounter = MCRMetrics.counter("pi.job.failure", "service", serviceID);
+    }
+
+    static MCRPIJobThrottle fromProperties(String serviceID, Map<String, String> properties) {
+        return new MCRPIJobThrottle(serviceID,
+            getProperty(properties, MAX_CONCURRENT_JOBS).map(Integer::parseInt).orElse(0),
+            getProperty(properties, JOBS_PER_SECOND).map(Double::parseDouble).orElse(0d),
+            getProperty(properties, MAX_RETRIES).map(Integer::parseInt).orElse(0),
+            getProperty(properties, RETRY_DELAY).map(Long::parseLong).orElse(1000L));
+    }
+
+    private static Optional<String> getProperty(Map<String, String> properties, String name) {
+        return Optional.ofNullable(properties.get(name)).map(String::trim).filter(value -> !value.isEmpty());
+    }
+
+    /**
+     * Runs the given job as soon as the limits allow it.
+     *
+     * @param action the action of the job, used for metrics
+     * @param job the job
+     * @throws MCRPersistentIdentifierException the exception of the last try or if the thread was interrupted
+     */
+    void run(MCRPIJobService.PiJobAction action, MCRPIJobService.PIRunnable job)
+        throws MCRPersistentIdentifierException {
+        MCRTimer timer = MCRMetrics.timer("pi.job", "service", serviceID, "action", action.getAction());
+        for (int attempt = 0;; attempt++) {
+            try {
+                acquire();
+                long start = timer.start();
+                try {
+                    job.run();
+                    return;
+                } finally {
+                    timer.stop(start);
+                    release();
+                }
+            } catch (MCRPersistentIdentifierException e) {
+                if (attempt >= maxRetries || !isRetryable(e)) {
+                    failureCounter.increment();
+                    throw e;
+                }
+                long delay = retryDelay << Math.min(attempt, 16);
+                LOGGER.warn("{} job of {} failed, retry {} of {} in {} ms: {}", action, serviceID, attempt + 1,
+                    maxRetries, delay, e.getMessage());
+                retryCounter.increment();
+                sleep(TimeUnit.MILLISECONDS.toNanos(delay));
+            }
+        }
+    }
+
+    /**
+     * Only failures of the communication with the registration agency are repeated.
+     */
+    static boolean isRetryable(MCRPersistentIdentifierException e) {
+        return e instanceof MCRDatacenterException && !(e instanceof MCRDatacenterAuthenticationException)
+            && !(e instanceof MCRIdentifierUnresolvableException);
+    }
+
+    private void acquire() throws MCRPersistentIdentifierException {
+        if (tokenBucket != null) {
+            sleep(tokenBucket.reserve(System.nanoTime()));
+        }
+        if (concurrentJobs != null) {
+            try {
+                concurrentJobs.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MCRPersistentIdentifierException("Interrupted while waiting for " + serviceID, e);
+            }
+        }
+    }
+
+    private void release() {
+        if (concurrentJobs != null) {
+            concurrentJobs.release();
+        }
+    }
+
+    private void sleep(long nanos) throws MCRPersistentIdentifierException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MCRPersistentIdentifierException("Interrupted while waiting for " + serviceID, e);
+        }
+    }
+
+    /**
+     * Token bucket that holds at most one second of permits. A permit is reserved immediately and the caller
+     * waits for the returned time, so concurrent callers are served in order.
+     */
+    static final class TokenBucket {
+
+        private final double nanosPerPermit;
+
+        private final double capacity;
+
+        private double permits;
+
+        private long lastRefill = Long.MIN_VALUE;
+
+        TokenBucket(double permitsPerSecond) {
+            this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+            this.capacity = Math.max(1d, permitsPerSecond);
+            this.permits = capacity;
+        }
+
+        /**
+         * Reserves a permit.
+         *
+         * @param now the current value of {@link System#nanoTime()}
+         * @return the time to wait in nanoseconds until the permit is available
+         */
+        synchronized long reserve(long now) {
+            if (lastRefill != Long.MIN_VALUE) {
+                permits = Math.min(capacity, permits + (now - lastRefill) / nanosPerPermit);
+            }
+            lastRefill = now;
+            permits -= 1;
+            return permits >= 0 ? 0 : (long) Math.ceil(-permits * nanosPerPermit);
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -37,7 +38,9 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.MCRCache;
 import org.mycore.common.MCRClassTools;
+import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.config.MCRConfigurationException;
 import org.mycore.datamodel.metadata.MCRBase;
@@ -45,6 +48,15 @@ import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.pi.backend.MCRPI;
 import org.mycore.pi.backend.MCRPI_;
 
+/**
+ * Central access to the persistent identifiers stored in the database.
+ *
+ * The registration state of all identifiers of an object is loaded with a single query and cached per object, so
+ * {@link #isCreated(MCRObjectID, String, String, String)}, {@link #isRegistered(String, String, String, String)} and
+ * {@link #hasRegistrationStarted(String, String, String, String)} do not hit the database once per configured
+ * service. Every change of a {@link MCRPI} invalidates the entry of its object. Changes made by other cluster nodes
+ * or rolled back transactions are visible after <code>MCR.PI.StateCache.MaxAge</code> seconds at the latest.
+ */
 public class MCRPIManager {
     private static final String TYPE = "type";
 
@@ -58,6 +70,8 @@ public class MCRPIManager {
 
     private static final String RESOLVER_CONFIGURATION = "MCR.PI.Resolvers";
 
+    private static final String STATE_CACHE_CONFIGURATION = "MCR.PI.StateCache.";
+
     private static MCRPIManager instance;
 
     private List<MCRPIResolver<MCRPersistentIdentifier>> resolverList;
@@ -66,7 +80,17 @@ public class MCRPIManager {
 
     private Map<String, Class<? extends MCRPIParser>> typeParserMap;
 
+    private final MCRCache<String, List<PIState>> stateCache;
+
+    private final long stateMaxAge;
+
     private MCRPIManager() {
+        stateCache = new MCRCache<>(
+            MCRConfiguration2.getInt(STATE_CACHE_CONFIGURATION + "Size").orElse(1000),
+            "PI registration states");
+        stateMaxAge = TimeUnit.SECONDS.toMillis(
+            MCRConfiguration2.getInt(STATE_CACHE_CONFIGURATION + "MaxAge").orElse(60));
+
         parserList = new ArrayList<>();
         typeParserMap = new ConcurrentHashMap<>();
 
@@ -148,15 +172,9 @@ public class MCRPIManager {
     }
 
     public boolean isCreated(MCRObjectID id, String additional, String type, String registrationServiceID) {
-        return MCREntityManagerProvider
-            .getCurrentEntityManager()
-            .createNamedQuery("Count.PI.Created", Number.class)
-            .setParameter(MCRID, id.toString())
-            .setParameter(TYPE, type)
-            .setParameter(ADDITIONAL, additional)
-            .setParameter(SERVICE, registrationServiceID)
-            .getSingleResult()
-            .shortValue() > 0;
+        return getStates(id.toString()).stream()
+            .anyMatch(state -> state.matches(type, registrationServiceID)
+                && Objects.equals(state.additional, additional));
     }
 
     public boolean isRegistered(MCRPI mcrPi) {
@@ -168,15 +186,10 @@ public class MCRPIManager {
     }
 
     public boolean isRegistered(String mcrId, String additional, String type, String registrationServiceID) {
-        return MCREntityManagerProvider
-            .getCurrentEntityManager()
-            .createNamedQuery("Count.PI.Registered", Number.class)
-            .setParameter(MCRID, mcrId)
-            .setParameter(TYPE, type)
-            .setParameter(ADDITIONAL, additional)
-            .setParameter(SERVICE, registrationServiceID)
-            .getSingleResult()
-            .shortValue() > 0;
+        return getStates(mcrId).stream()
+            .anyMatch(state -> state.matches(type, registrationServiceID)
+                && Objects.equals(state.additional, additional)
+                && state.registered);
     }
 
     public boolean hasRegistrationStarted(MCRObjectID mcrId, String additional, String type,
@@ -185,15 +198,52 @@ public class MCRPIManager {
     }
 
     public boolean hasRegistrationStarted(String mcrId, String additional, String type, String registrationServiceID) {
-        return MCREntityManagerProvider
-            .getCurrentEntityManager()
-            .createNamedQuery("Count.PI.RegistrationStarted", Number.class)
-            .setParameter(MCRID, mcrId)
-            .setParameter(TYPE, type)
-            .setParameter(ADDITIONAL, additional)
-            .setParameter(SERVICE, registrationServiceID)
-            .getSingleResult()
-            .shortValue() > 0;
+        // like the former count query, a null value of additional never matches
+        return additional != null && getStates(mcrId).stream()
+            .anyMatch(state -> state.matches(type, registrationServiceID)
+                && additional.equals(state.additional)
+                && state.registrationStarted);
+    }
+
+    /**
+     * Removes the cached registration state of an object. It is removed again after the current transaction is
+     * committed, so that states loaded by concurrent transactions in the meantime do not survive.
+     * This is called automatically whenever a {@link MCRPI} is persisted, updated or removed.
+     *
+     * @param mycoreID the id of the object whose identifiers changed
+     */
+    public void invalidate(String mycoreID) {
+        if (mycoreID == null) {
+            return;
+        }
+        stateCache.remove(mycoreID);
+        if (MCRSessionMgr.hasCurrentSession() && MCRSessionMgr.getCurrentSession().isTransactionActive()) {
+            MCRSessionMgr.getCurrentSession().onCommit(() -> stateCache.remove(mycoreID));
+        }
+    }
+
+    private List<PIState> getStates(String mycoreID) {
+        List<PIState> states = stateCache.getIfUpToDate(mycoreID, System.currentTimeMillis() - stateMaxAge);
+        if (states == null) {
+            states = loadStates(mycoreID);
+            stateCache.put(mycoreID, states);
+        }
+        return states;
+    }
+
+    private List<PIState> loadStates(String mycoreID) {
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<MCRPI> getQuery = cb.createQuery(MCRPI.class);
+        Root<MCRPI> pi = getQuery.from(MCRPI.class);
+        return em.createQuery(
+            getQuery
+                .select(pi)
+                .where(cb.equal(pi.get(MCRPI_.mycoreID), mycoreID)))
+            .getResultList()
+            .stream()
+            .map(PIState::new)
+            .collect(Collectors.toUnmodifiableList());
     }
 
     public int getCount(String type) {
@@ -227,6 +277,7 @@ public class MCRPIManager {
                         additionalPredicate,
                         cb.equal(pi.get(MCRPI_.service), service)))
                 .getSingleResult());
+        invalidate(objectID);
     }
 
     public List<MCRPIRegistrationInfo> getList() {
@@ -269,7 +320,10 @@ public class MCRPIManager {
         unregisteredIdentifiers
             .forEach(ident -> dateProvider
                 .apply(ident)
-                .ifPresent(ident::setRegistered));
+                .ifPresent(date -> {
+                    ident.setRegistered(date);
+                    invalidate(ident.getMycoreID());
+                }));
 
         return unregisteredIdentifiers.size();
     }
@@ -375,4 +429,32 @@ public class MCRPIManager {
             .map(Optional::get)
             .map(MCRPersistentIdentifier.class::cast);
     }
+
+    /**
+     * Immutable snapshot of the registration state of a single {@link MCRPI}.
+     */
+    private static final class PIState {
+
+        private final String type;
+
+        private final String service;
+
+        private final String additional;
+
+        private final boolean registered;
+
+        private final boolean registrationStarted;
+
+        PIState(MCRPI pi) {
+            this.type = pi.getType();
+            this.service = pi.getService();
+            this.additional = pi.getAdditional();
+            this.registered = pi.getRegistered() != null;
+            this.registrationStarted = pi.getRegistrationStarted() != null;
+        }
+
+        boolean matches(String type, String service) {
+            return Objects.equals(this.type, type) && Objects.equals(this.service, service);
+        }
+    }
 }
@@ -28,10 +28,14 @@ import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
 import org.mycore.common.MCRCoreVersion;
+import org.mycore.pi.MCRPIManager;
 
 @Entity
 @NamedQueries({
@@ -157,6 +161,13 @@ public class MCRPI implements org.mycore.pi.MCRPIRegistrationInfo {
         this.created = new Date();
     }
 
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    private void invalidateStateCache() {
+        MCRPIManager.getInstance().invalidate(mycoreID);
+    }
+
     public Date getRegistrationStarted() {
         return registrationStarted;
     }
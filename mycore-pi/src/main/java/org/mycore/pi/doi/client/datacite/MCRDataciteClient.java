@@ -19,6 +19,7 @@
 package org.mycore.pi.doi.client.datacite;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -53,6 +54,8 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jdom2.Document;
@@ -61,13 +64,16 @@ import org.jdom2.input.SAXBuilder;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 import org.mycore.common.MCRException;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.config.MCRConfigurationException;
+import org.mycore.common.events.MCRShutdownHandler;
 import org.mycore.pi.doi.MCRDOIParser;
 import org.mycore.pi.doi.MCRDigitalObjectIdentifier;
 import org.mycore.pi.exceptions.MCRDatacenterAuthenticationException;
 import org.mycore.pi.exceptions.MCRDatacenterException;
 import org.mycore.pi.exceptions.MCRIdentifierUnresolvableException;
 import org.mycore.pi.exceptions.MCRPersistentIdentifierException;
+import org.mycore.services.http.MCRHttpUtils;
 
 /**
  * Used for DOI registration.
@@ -87,6 +93,8 @@ public class MCRDataciteClient {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private String scheme;
+
     private String host;
 
     private String userName;
@@ -99,6 +107,17 @@ public class MCRDataciteClient {
      * @param password   the password
      */
     public MCRDataciteClient(String host, String userName, String password) {
+        this(HTTPS_SCHEME, host, userName, password);
+    }
+
+    /**
+     * @param scheme     the scheme of the requests, https for a datacenter
+     * @param host       the host and optional port
+     * @param userName   the login username will be used in every method or null if no login should be used
+     * @param password   the password
+     */
+    public MCRDataciteClient(String scheme, String host, String userName, String password) {
+        this.scheme = scheme;
         this.host = host;
         this.userName = userName;
         this.password = password;
@@ -135,8 +154,9 @@ public class MCRDataciteClient {
         URI requestURI = getRequestURI("/media/" + doi.asString());
         HttpGet httpGet = new HttpGet(requestURI);
 
-        try (CloseableHttpClient httpClient = getHttpClient()) {
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(httpGet);
+            Closeable consumer = consumeOnClose(response)) {
             StatusLine statusLine = response.getStatusLine();
             switch (statusLine.getStatusCode()) {
                 case HttpStatus.SC_OK:
@@ -182,8 +202,9 @@ public class MCRDataciteClient {
 
         StringEntity requestEntity = new StringEntity(requestBodyString, ContentType.create("text/plain", "UTF-8"));
         post.setEntity(requestEntity);
-        try (CloseableHttpClient httpClient = getHttpClient()) {
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(post);
+            Closeable consumer = consumeOnClose(response)) {
             StatusLine statusLine = response.getStatusLine();
 
             switch (statusLine.getStatusCode()) {
@@ -213,10 +234,12 @@ public class MCRDataciteClient {
 
         HttpPost post = new HttpPost(requestURI);
 
-        try (CloseableHttpClient httpClient = getHttpClient()) {
-            post.setEntity(new StringEntity(
-                String.format(Locale.ENGLISH, DOI_REGISTER_REQUEST_TEMPLATE, doi.asString(), url.toString())));
+        post.setEntity(new StringEntity(
+            String.format(Locale.ENGLISH, DOI_REGISTER_REQUEST_TEMPLATE, doi.asString(), url.toString()),
+            StandardCharsets.ISO_8859_1));
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(post);
+            Closeable consumer = consumeOnClose(response)) {
             StatusLine statusLine = response.getStatusLine();
             switch (statusLine.getStatusCode()) {
                 case HttpStatus.SC_CREATED:
@@ -242,8 +265,9 @@ public class MCRDataciteClient {
         URI requestURI = getRequestURI("/doi");
 
         HttpGet get = new HttpGet(requestURI);
-        try (CloseableHttpClient httpClient = getHttpClient()) {
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(get);
+            Closeable consumer = consumeOnClose(response)) {
             HttpEntity entity = response.getEntity();
             StatusLine statusLine = response.getStatusLine();
             switch (statusLine.getStatusCode()) {
@@ -275,8 +299,9 @@ public class MCRDataciteClient {
 
         URI requestURI = getRequestURI("/doi/" + doiParam.asString());
         HttpGet get = new HttpGet(requestURI);
-        try (CloseableHttpClient httpClient = getHttpClient()) {
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(get);
+            Closeable consumer = consumeOnClose(response)) {
             HttpEntity entity = response.getEntity();
             StatusLine statusLine = response.getStatusLine();
             switch (statusLine.getStatusCode()) {
@@ -310,9 +335,7 @@ public class MCRDataciteClient {
 
     private URI getRequestURI(String path) {
         try {
-            URIBuilder builder = new URIBuilder()
-                .setScheme(HTTPS_SCHEME)
-                .setHost(this.host)
+            URIBuilder builder = new URIBuilder(this.scheme + "://" + this.host)
                 .setPath(path);
 
             return builder.build();
@@ -334,8 +357,9 @@ public class MCRDataciteClient {
         MCRIdentifierUnresolvableException, JDOMException, MCRDatacenterException {
         URI requestURI = getRequestURI("/metadata/" + doi.asString());
         HttpGet get = new HttpGet(requestURI);
-        try (CloseableHttpClient httpClient = getHttpClient()) {
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(get);
+            Closeable consumer = consumeOnClose(response)) {
             HttpEntity entity = response.getEntity();
             StatusLine statusLine = response.getStatusLine();
             switch (statusLine.getStatusCode()) {
@@ -365,12 +389,18 @@ public class MCRDataciteClient {
         URI requestURI = getRequestURI("/metadata");
 
         HttpPost post = new HttpPost(requestURI);
-        try (CloseableHttpClient httpClient = getHttpClient()) {
-            byte[] documentBytes = documentToByteArray(metadata);
-            ByteArrayEntity inputStreamEntity = new ByteArrayEntity(documentBytes,
-                ContentType.create("application/xml", "UTF-8"));
-            post.setEntity(inputStreamEntity);
+        byte[] documentBytes;
+        try {
+            documentBytes = documentToByteArray(metadata);
+        } catch (IOException e) {
+            throw new MCRDatacenterException("Error while storing metadata!", e);
+        }
+        ByteArrayEntity inputStreamEntity = new ByteArrayEntity(documentBytes,
+            ContentType.create("application/xml", "UTF-8"));
+        post.setEntity(inputStreamEntity);
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(post);
+            Closeable consumer = consumeOnClose(response)) {
             StatusLine statusLine = response.getStatusLine();
 
             StringBuilder sb = new StringBuilder();
@@ -412,8 +442,9 @@ public class MCRDataciteClient {
         URI requestURI = getRequestURI("/metadata/" + doi.asString());
 
         HttpDelete delete = new HttpDelete(requestURI);
-        try (CloseableHttpClient httpClient = getHttpClient()) {
+        try (CloseableHttpClient httpClient = getHttpClient();
             CloseableHttpResponse response = httpClient.execute(delete);
+            Closeable consumer = consumeOnClose(response)) {
             StatusLine statusLine = response.getStatusLine();
 
             switch (statusLine.getStatusCode()) {
@@ -432,8 +463,25 @@ public class MCRDataciteClient {
         }
     }
 
+    /**
+     * Returns a resource that reads the rest of the response entity when it is closed. It has to be closed before the
+     * response, otherwise the connection is discarded instead of being returned to the pool.
+     */
+    private static Closeable consumeOnClose(HttpResponse response) {
+        return () -> EntityUtils.consume(response.getEntity());
+    }
+
+    /**
+     * Returns a client that uses the connections of a pool shared by all datacite clients. Closing the client
+     * keeps the pool open.
+     */
     private CloseableHttpClient getHttpClient() {
-        return HttpClientBuilder.create().setDefaultCredentialsProvider(getCredentialsProvider()).build();
+        return HttpClientBuilder.create()
+            .setConnectionManager(ConnectionManagerHolder.CONNECTION_MANAGER)
+            .setConnectionManagerShared(true)
+            .setUserAgent(MCRHttpUtils.getHttpUserAgent())
+            .setDefaultCredentialsProvider(getCredentialsProvider())
+            .build();
     }
 
     private BasicCredentialsProvider getCredentialsProvider() {
@@ -450,4 +498,16 @@ public class MCRDataciteClient {
         return new UsernamePasswordCredentials(this.userName, this.password);
     }
 
+    private static final class ConnectionManagerHolder {
+
+        private static final PoolingHttpClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+
+        private static PoolingHttpClientConnectionManager createConnectionManager() {
+            PoolingHttpClientConnectionManager connectionManager = MCRHttpUtils
+                .getConnectionManager(MCRConfiguration2.getInt("MCR.PI.Datacite.MaxConnections").orElse(10));
+            MCRShutdownHandler.getInstance().addCloseable(connectionManager::close);
+            return connectionManager;
+        }
+    }
+
 }
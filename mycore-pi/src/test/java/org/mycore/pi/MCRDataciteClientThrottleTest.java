@@ -0,0 +1,140 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.pi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.pi.doi.MCRDOIParser;
+import org.mycore.pi.doi.MCRDigitalObjectIdentifier;
+import org.mycore.pi.doi.client.datacite.MCRDataciteClient;
+import org.mycore.pi.exceptions.MCRDatacenterException;
+import org.mycore.pi.exceptions.MCRPersistentIdentifierException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs {@link MCRDataciteClient} requests through a {@link MCRPIJobThrottle} against a local datacenter stub.
+ */
+public class MCRDataciteClientThrottleTest extends MCRTestCase {
+
+    private static final long RETRY_DELAY = 50;
+
+    private HttpServer server;
+
+    private List<Integer> responses;
+
+    private List<Integer> requests;
+
+    private Set<InetSocketAddress> connections;
+
+    private MCRDataciteClient client;
+
+    private MCRDigitalObjectIdentifier doi;
+
+    @Before
+    public void startServer() throws IOException {
+        responses = new CopyOnWriteArrayList<>();
+        requests = new CopyOnWriteArrayList<>();
+        connections = ConcurrentHashMap.newKeySet();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/doi", this::handle);
+        server.start();
+        InetSocketAddress address = server.getAddress();
+        client = new MCRDataciteClient("http", address.getHostString() + ":" + address.getPort(), null, null);
+        doi = new MCRDOIParser().parse("10.5072/test.1").get();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.readAllBytes();
+        }
+        connections.add(exchange.getRemoteAddress());
+        int status = responses.isEmpty() ? 201 : responses.remove(0);
+        requests.add(status);
+        byte[] body = (status == 201 ? "OK" : "Try again later").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    @Test
+    public void retryUnavailable() throws MCRPersistentIdentifierException {
+        responses.addAll(List.of(503, 429));
+        MCRPIJobThrottle throttle = new MCRPIJobThrottle("test", 1, 0, 2, RETRY_DELAY);
+        long start = System.nanoTime();
+        throttle.run(MCRPIJobService.PiJobAction.REGISTER,
+            () -> client.mintDOI(doi, URI.create("https://localhost/receive/test_mods_00000001")));
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(List.of(503, 429, 201), requests);
+        // first retry after the retry delay, the second after twice the delay
+        assertTrue("Retries should back off, but took " + duration + " ms", duration >= 3 * RETRY_DELAY);
+        assertEquals("Pooled connection should be reused for every try", 1, connections.size());
+    }
+
+    @Test
+    public void reuseConnection() throws MCRPersistentIdentifierException {
+        URI target = URI.create("https://localhost/receive/test_mods_00000001");
+        client.mintDOI(doi, target);
+        client.mintDOI(doi, target);
+        assertEquals(List.of(201, 201), requests);
+        assertEquals("Connection should be returned to the pool after a success", 1, connections.size());
+    }
+
+    @Test
+    public void retryLimit() {
+        responses.addAll(List.of(503, 503, 503, 503));
+        MCRPIJobThrottle throttle = new MCRPIJobThrottle("test", 0, 0, 2, 1);
+        try {
+            throttle.run(MCRPIJobService.PiJobAction.REGISTER,
+                () -> client.mintDOI(doi, URI.create("https://localhost/receive/test_mods_00000001")));
+            fail("Datacenter error of the last try should be thrown.");
+        } catch (MCRPersistentIdentifierException e) {
+            assertTrue(e instanceof MCRDatacenterException);
+            assertTrue(e.getMessage(), e.getMessage().contains("503"));
+        }
+        assertEquals(List.of(503, 503, 503), requests);
+        assertEquals(1, responses.size());
+        assertEquals(1, connections.size());
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.pi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.pi.exceptions.MCRDatacenterAuthenticationException;
+import org.mycore.pi.exceptions.MCRDatacenterException;
+import org.mycore.pi.exceptions.MCRPersistentIdentifierException;
+
+public class MCRPIJobThrottleTest extends MCRTestCase {
+
+    @Test
+    public void retry() throws MCRPersistentIdentifierException {
+        MCRPIJobThrottle throttle = new MCRPIJobThrottle("test", 1, 0, 2, 1);
+        AtomicInteger calls = new AtomicInteger();
+        throttle.run(MCRPIJobService.PiJobAction.REGISTER, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new MCRDatacenterException("503 - Service Unavailable");
+            }
+        });
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void retryLimit() {
+        MCRPIJobThrottle throttle = new MCRPIJobThrottle("test", 0, 0, 2, 1);
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            throttle.run(MCRPIJobService.PiJobAction.UPDATE, () -> {
+                calls.incrementAndGet();
+                throw new MCRDatacenterException("503 - Service Unavailable");
+            });
+            fail("Exception of the last try should be thrown.");
+        } catch (MCRPersistentIdentifierException e) {
+            assertEquals(3, calls.get());
+        }
+    }
+
+    @Test
+    public void noRetryOnAuthenticationFailure() {
+        MCRPIJobThrottle throttle = new MCRPIJobThrottle("test", 0, 0, 5, 1);
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            throttle.run(MCRPIJobService.PiJobAction.REGISTER, () -> {
+                calls.incrementAndGet();
+                throw new MCRDatacenterAuthenticationException();
+            });
+            fail("Authentication failure should be thrown.");
+        } catch (MCRPersistentIdentifierException e) {
+            assertEquals(1, calls.get());
+        }
+        assertFalse(MCRPIJobThrottle.isRetryable(new MCRPersistentIdentifierException("invalid metadata")));
+        assertTrue(MCRPIJobThrottle.isRetryable(new MCRDatacenterException("timeout")));
+    }
+
+    @Test
+    public void tokenBucket() {
+        MCRPIJobThrottle.TokenBucket bucket = new MCRPIJobThrottle.TokenBucket(2);
+        long now = 0;
+        // burst of one second
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(0, bucket.reserve(now));
+        // every further permit is reserved half a second later
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), bucket.reserve(now));
+        // refilled after two seconds
+        now += TimeUnit.SECONDS.toNanos(2);
+        assertEquals(0, bucket.reserve(now));
+    }
+
+}
@@ -19,6 +19,7 @@
 package org.mycore.pi;
 
 import java.lang.reflect.Field;
+import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
@@ -149,6 +150,29 @@ public class MCRPIManagerTest extends MCRStoreTestCase {
         Assert.assertEquals("Wrong number of unregistered PI: ", 2, numOfUnregisteredPI);
     }
 
+    @Test
+    public void testRegistrationStateCache() throws Exception {
+        MCRPI mcrpi = generateMCRPI();
+        MCRObjectID mycoreID = MCRObjectID.getInstance(mcrpi.getMycoreID());
+        MCRPIManager manager = MCRPIManager.getInstance();
+
+        Assert.assertFalse("PI should not exist yet",
+            manager.isCreated(mycoreID, null, "Unregistered", MOCK_SERVICE));
+
+        MCRHIBConnection.instance().getSession().save(mcrpi);
+        Assert.assertTrue("Saving a PI should invalidate the cached state",
+            manager.isCreated(mycoreID, null, "Unregistered", MOCK_SERVICE));
+        Assert.assertFalse("PI should not be registered",
+            manager.isRegistered(mycoreID, null, "Unregistered", MOCK_SERVICE));
+
+        mcrpi.setRegistered(new Date());
+        manager.invalidate(mcrpi.getMycoreID());
+        Assert.assertTrue("PI should be registered",
+            manager.isRegistered(mycoreID, null, "Unregistered", MOCK_SERVICE));
+        Assert.assertFalse("PI of other service should not be registered",
+            manager.isRegistered(mycoreID, null, "Unregistered", "OtherService"));
+    }
+
     private MCRPI generateMCRPI() throws MCRPersistentIdentifierException {
         MCRObjectID mycoreID = MCRObjectID.getNextFreeId("test_unregisterd");
         return new MCRPI(generatePIFor(mycoreID).asString(), "Unregistered",
@@ -42,6 +42,7 @@ import org.mycore.datamodel.classifications2.MCRCategoryID;
 import org.mycore.solr.MCRSolrClientFactory;
 import org.mycore.solr.MCRSolrCore;
 import org.mycore.solr.MCRSolrUtils;
+import org.mycore.solr.index.MCRSolrCommitCounter;
 
 import com.google.common.collect.Lists;
 
@@ -124,6 +125,7 @@ public abstract class MCRSolrClassificationUtil {
         try {
             SolrClient solrClient = getCore().getConcurrentClient();
             solrClient.deleteByQuery("*:*");
+            MCRSolrCommitCounter.increment();
         } catch (Exception exc) {
             LOGGER.error("Unable to drop solr classification index", exc);
         }
@@ -204,6 +206,7 @@ public abstract class MCRSolrClassificationUtil {
         }
         try {
             solrClient.commit();
+            MCRSolrCommitCounter.increment();
         } catch (Exception exc) {
             LOGGER.error("Unable to commit reindexed categories", exc);
         }
@@ -0,0 +1,48 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.solr.index;
+
+/**
+ * Records when changes are sent to the Solr index, so that cached query results can be invalidated.
+ *
+ * A change is visible to queries only after Solr committed it, which may happen some time later if the change was
+ * sent with <code>commitWithin</code> or relies on the server's auto commit.
+ */
+public final class MCRSolrCommitCounter {
+
+    private static volatile long lastChange = System.currentTimeMillis();
+
+    private MCRSolrCommitCounter() {
+    }
+
+    /**
+     * Records a change of the Solr index.
+     */
+    public static void increment() {
+        lastChange = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the time in milliseconds of the last change of the Solr index or of the startup.
+     */
+    public static long getLastChange() {
+        return lastChange;
+    }
+}
@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.apache.solr.client.solrj.SolrServerException;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 
 /**
  * Solr index task which handles <code>MCRSolrIndexHandler</code>'s.
@@ -31,6 +33,8 @@ import org.apache.solr.client.solrj.SolrServerException;
  */
 public class MCRSolrIndexTask implements Callable<List<MCRSolrIndexHandler>> {
 
+    private static final MCRTimer INDEX_TIMER = MCRMetrics.timer("solr", "op", "index");
+
     protected MCRSolrIndexHandler indexHandler;
 
     /**
@@ -46,7 +50,13 @@ public class MCRSolrIndexTask implements Callable<List<MCRSolrIndexHandler>> {
     @Override
     public List<MCRSolrIndexHandler> call() throws SolrServerException, IOException {
         long start = System.currentTimeMillis();
-        this.indexHandler.index();
+        long timerStart = INDEX_TIMER.start();
+        try {
+            this.indexHandler.index();
+        } finally {
+            INDEX_TIMER.stop(timerStart);
+            MCRSolrCommitCounter.increment();
+        }
         long end = System.currentTimeMillis();
         indexHandler.getStatistic().addDocument(indexHandler.getDocuments());
         indexHandler.getStatistic().addTime(end - start);
@@ -241,6 +241,7 @@ public class MCRSolrIndexer {
             }
             updateResponse = req.process(client);
             client.commit();
+            MCRSolrCommitCounter.increment();
         } catch (Exception e) {
             LOGGER.error("Error deleting document from solr", e);
         }
@@ -276,6 +277,7 @@ public class MCRSolrIndexer {
             req.deleteByQuery(deleteQuery.toString());
             updateResponse = req.process(solrClient);
             solrClient.commit();
+            MCRSolrCommitCounter.increment();
         } catch (Exception e) {
             LOGGER.error("Error deleting document from solr", e);
         }
@@ -461,6 +463,7 @@ public class MCRSolrIndexer {
     public static void dropIndex(SolrClient client) throws Exception {
         LOGGER.info("Dropping solr index...");
         client.deleteByQuery("*:*", BATCH_AUTO_COMMIT_WITHIN_MS);
+        MCRSolrCommitCounter.increment();
         LOGGER.info("Dropping solr index...done");
     }
 
@@ -474,6 +477,7 @@ public class MCRSolrIndexer {
         String deleteQuery = new MessageFormat("objectType:{0} _root_:*_{1}_*", Locale.ROOT)
             .format(new Object[] { type, type });
         client.deleteByQuery(deleteQuery, BATCH_AUTO_COMMIT_WITHIN_MS);
+        MCRSolrCommitCounter.increment();
         LOGGER.info("Dropping solr index for type {}...done", type);
     }
 
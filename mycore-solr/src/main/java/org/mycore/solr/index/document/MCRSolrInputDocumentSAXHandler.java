@@ -0,0 +1,136 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.solr.index.document;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.mycore.solr.index.document.jaxb.MCRSolrInputField;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Builds {@link SolrInputDocument}s directly from the SAX events of a Solr XML update message like
+ * <code>&lt;add&gt;&lt;doc&gt;&lt;field name="id"&gt;...&lt;/field&gt;&lt;/doc&gt;&lt;/add&gt;</code>.
+ *
+ * Every top level <code>doc</code> element is handed over to the consumer as soon as it ends, nested
+ * <code>doc</code> elements are added as child documents. Empty fields and fields with the same name and value are
+ * skipped just like in {@link MCRSolrInputDocumentGenerator#getSolrInputDocument(org.jdom2.Element)}.
+ */
+public class MCRSolrInputDocumentSAXHandler extends DefaultHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Consumer<SolrInputDocument> consumer;
+
+    private final Deque<OpenDocument> openDocuments = new ArrayDeque<>();
+
+    private int depth;
+
+    private String fieldName;
+
+    private final StringBuilder fieldValue = new StringBuilder();
+
+    /**
+     * @param consumer receives every top level document after its end tag was processed
+     */
+    public MCRSolrInputDocumentSAXHandler(Consumer<SolrInputDocument> consumer) {
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void startDocument() {
+        openDocuments.clear();
+        depth = 0;
+        fieldName = null;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        depth++;
+        if (!uri.isEmpty()) {
+            return;
+        }
+        String name = localName.isEmpty() ? qName : localName;
+        boolean isChild = openDocuments.isEmpty() || openDocuments.peek().depth == depth - 1;
+        if (name.equals("doc") && isChild) {
+            openDocuments.push(new OpenDocument(depth));
+        } else if (name.equals("field") && !openDocuments.isEmpty() && isChild) {
+            fieldName = attributes.getValue("name");
+            fieldValue.setLength(0);
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (fieldName != null && depth == openDocuments.peek().depth + 1) {
+            fieldValue.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        OpenDocument current = openDocuments.peek();
+        if (current != null && fieldName != null && depth == current.depth + 1) {
+            current.addField(fieldName, fieldValue.toString());
+            fieldName = null;
+        } else if (current != null && depth == current.depth) {
+            openDocuments.pop();
+            OpenDocument parent = openDocuments.peek();
+            if (parent == null) {
+                consumer.accept(current.document);
+            } else {
+                parent.document.addChildDocument(current.document);
+            }
+        }
+        depth--;
+    }
+
+    private static class OpenDocument {
+
+        private final int depth;
+
+        private final SolrInputDocument document = new SolrInputDocument();
+
+        private final HashSet<MCRSolrInputField> duplicateFilter = new HashSet<>();
+
+        OpenDocument(int depth) {
+            this.depth = depth;
+        }
+
+        void addField(String name, String value) {
+            MCRSolrInputField field = new MCRSolrInputField();
+            field.setName(name);
+            field.setValue(value);
+            if (value.isEmpty() || !duplicateFilter.add(field)) {
+                return;
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("adding {}={}", name, value);
+            }
+            document.addField(name, value);
+        }
+    }
+}
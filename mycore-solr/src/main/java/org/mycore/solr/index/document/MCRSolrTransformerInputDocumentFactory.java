@@ -21,24 +21,33 @@ package org.mycore.solr.index.document;
 import static org.mycore.solr.MCRSolrConstants.SOLR_CONFIG_PREFIX;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.sax.SAXResult;
 
 import org.apache.solr.common.SolrInputDocument;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
+import org.mycore.common.MCRException;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.content.MCRContent;
 import org.mycore.common.content.MCRJDOMContent;
 import org.mycore.common.content.transformer.MCRContentTransformer;
 import org.mycore.common.content.transformer.MCRContentTransformerFactory;
 import org.mycore.common.content.transformer.MCRXSL2JAXBTransformer;
+import org.mycore.common.content.transformer.MCRXSLTransformer;
 import org.mycore.common.xsl.MCRParameterCollector;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.solr.index.document.jaxb.MCRSolrInputDocumentList;
@@ -70,6 +79,10 @@ public class MCRSolrTransformerInputDocumentFactory extends MCRSolrInputDocument
                 MCRSolrInputDocumentList input = ((MCRXSL2JAXBTransformer<MCRSolrInputDocumentList>) transformer)
                     .getJAXBObject(content, param);
                 document = MCRSolrInputDocumentGenerator.getSolrInputDocument(input.getDoc().iterator().next());
+            } else if (transformer instanceof MCRXSLTransformer) {
+                List<SolrInputDocument> documents = new ArrayList<>(1);
+                transform((MCRXSLTransformer) transformer, content, documents::add);
+                document = documents.iterator().next();
             } else {
                 MCRContent result = transformer.transform(content);
                 document = MCRSolrInputDocumentGenerator.getSolrInputDocument(result.asXML().getRootElement());
@@ -94,6 +107,9 @@ public class MCRSolrTransformerInputDocumentFactory extends MCRSolrInputDocument
         if (contentMap.isEmpty()) {
             return Collections.emptyIterator();
         }
+        if (!isJAXBTransformer && transformer instanceof MCRXSLTransformer) {
+            return getSolrInputDocuments((MCRXSLTransformer) transformer, contentMap.values().iterator());
+        }
         try {
             Document doc = getMergedDocument(contentMap);
             if (isJAXBTransformer) {
@@ -111,6 +127,47 @@ public class MCRSolrTransformerInputDocumentFactory extends MCRSolrInputDocument
         }
     }
 
+    /**
+     * Returns an iterator that transforms the contents one after another, when the next document is requested.
+     *
+     * The transformer output is converted to {@link SolrInputDocument}s by a {@link MCRSolrInputDocumentSAXHandler},
+     * so neither the merged input nor the serialized output of the whole batch is kept in memory.
+     */
+    static Iterator<SolrInputDocument> getSolrInputDocuments(MCRXSLTransformer xslTransformer,
+        Iterator<MCRContent> contents) {
+        return new Iterator<>() {
+
+            private final Deque<SolrInputDocument> pending = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                while (pending.isEmpty() && contents.hasNext()) {
+                    MCRContent content = contents.next();
+                    try {
+                        transform(xslTransformer, content, pending::add);
+                    } catch (IOException e) {
+                        throw new MCRException("Could not transform " + content.getSystemId(), e);
+                    }
+                }
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public SolrInputDocument next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.poll();
+            }
+        };
+    }
+
+    private static void transform(MCRXSLTransformer xslTransformer, MCRContent content,
+        Consumer<SolrInputDocument> consumer) throws IOException {
+        SAXResult result = new SAXResult(new MCRSolrInputDocumentSAXHandler(consumer));
+        xslTransformer.transform(content, result, new MCRParameterCollector());
+    }
+
     private Iterator<SolrInputDocument> getSolrInputDocuments(MCRContent result) throws IOException, SAXException,
         JDOMException {
         final Iterator<Element> delegate;
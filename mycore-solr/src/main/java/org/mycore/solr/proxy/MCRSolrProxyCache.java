@@ -0,0 +1,187 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.solr.proxy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+import org.mycore.common.MCRCache;
+import org.mycore.common.MCRUtils;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.solr.index.MCRSolrCommitCounter;
+
+/**
+ * Caches Solr responses of {@link MCRSolrProxyServlet}.
+ *
+ * Responses are stored under the query handler, the core and the query parameters sorted by name. An entry becomes
+ * invalid if the Solr index was changed since the query was sent plus the time Solr may need to commit the change
+ * (<code>MCR.Solr.Proxy.Cache.CommitDelay</code>), or if it is older than <code>MCR.Solr.Proxy.Cache.MaxAge</code>,
+ * which also covers changes of the index by other applications.
+ */
+class MCRSolrProxyCache {
+
+    private static final MCRCounter HIT_COUNTER = MCRMetrics.counter("solr.proxy.cache", "result", "hit");
+
+    private static final MCRCounter MISS_COUNTER = MCRMetrics.counter("solr.proxy.cache", "result", "miss");
+
+    private final MCRCache<String, Entry> cache;
+
+    private final long maxAge;
+
+    private final long commitDelay;
+
+    private final int maxEntrySize;
+
+    /**
+     * @param capacity maximum number of cached responses
+     * @param maxAge maximum age of a cached response in seconds
+     * @param commitDelay time in seconds a change of the Solr index may need to become visible
+     * @param maxEntrySize maximum size of a cached response in bytes
+     */
+    MCRSolrProxyCache(int capacity, long maxAge, long commitDelay, int maxEntrySize) {
+        this.cache = new MCRCache<>(capacity, "Solr proxy responses");
+        this.maxAge = TimeUnit.SECONDS.toMillis(maxAge);
+        this.commitDelay = TimeUnit.SECONDS.toMillis(commitDelay);
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Builds the cache key of a query. Parameters are sorted by name, the order of values is kept, as it may be
+     * significant, e.g. for <code>sort</code> or <code>facet.field</code>. Names and values are URL encoded, so a
+     * value containing <code>&amp;</code> or <code>=</code> cannot produce the key of another query.
+     */
+    static String getKey(String core, String queryHandlerPath, SolrParams params) {
+        SortedSet<String> names = new TreeSet<>();
+        for (Iterator<String> it = params.getParameterNamesIterator(); it.hasNext();) {
+            names.add(it.next());
+        }
+        ModifiableSolrParams sortedParams = new ModifiableSolrParams();
+        for (String name : names) {
+            sortedParams.add(name, params.getParams(name));
+        }
+        return core + ':' + queryHandlerPath + sortedParams.toQueryString();
+    }
+
+    /**
+     * Returns the cached response or <code>null</code>, if there is no valid entry.
+     */
+    Entry get(String key) {
+        // entries of queries sent in the same millisecond as the change are invalid, too
+        long validSince = Math.max(MCRSolrCommitCounter.getLastChange() + commitDelay + 1,
+            System.currentTimeMillis() - maxAge);
+        Entry entry = cache.getIfUpToDate(key, validSince);
+        (entry == null ? MISS_COUNTER : HIT_COUNTER).increment();
+        return entry;
+    }
+
+    /**
+     * Caches a response.
+     *
+     * @param queryTime the time the query was sent to Solr, entries are only valid if the index did not change
+     *                  after that time
+     */
+    void put(String key, Entry entry, long queryTime) {
+        cache.put(key, entry, queryTime);
+    }
+
+    int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    /**
+     * A Solr response with status code, headers and content.
+     */
+    static final class Entry {
+
+        private final String systemId;
+
+        private final int status;
+
+        private final List<String[]> headers;
+
+        private final boolean xml;
+
+        private final byte[] content;
+
+        private final String eTag;
+
+        Entry(String systemId, int status, List<String[]> headers, boolean xml, byte[] content) {
+            this.systemId = systemId;
+            this.status = status;
+            this.headers = headers;
+            this.xml = xml;
+            this.content = content;
+            try {
+                this.eTag = '"' + MCRUtils.getMD5Sum(new ByteArrayInputStream(content)) + '"';
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Returns the URI of the Solr request.
+         */
+        String getSystemId() {
+            return systemId;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the response headers as pairs of name and value.
+         */
+        List<String[]> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Returns true, if the response is XML that is rendered by the layout service.
+         */
+        boolean isXML() {
+            return xml;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * Returns a strong entity tag of the content.
+         */
+        String getETag() {
+            return eTag;
+        }
+    }
+}
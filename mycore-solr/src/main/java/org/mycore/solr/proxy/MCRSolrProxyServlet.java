@@ -23,11 +23,14 @@ import static org.mycore.solr.MCRSolrConstants.SOLR_CONFIG_PREFIX;
 import static org.mycore.solr.MCRSolrConstants.SOLR_QUERY_PATH;
 import static org.mycore.solr.MCRSolrConstants.SOLR_QUERY_XML_PROTOCOL_VERSION;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -38,13 +41,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.transform.TransformerException;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -69,6 +73,8 @@ import org.mycore.frontend.servlets.MCRServlet;
 import org.mycore.frontend.servlets.MCRServletJob;
 import org.mycore.services.http.MCRHttpUtils;
 import org.mycore.services.http.MCRIdleConnectionMonitorThread;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
 import org.mycore.solr.MCRSolrClientFactory;
 import org.mycore.solr.MCRSolrConstants;
 import org.xml.sax.SAXException;
@@ -83,7 +89,14 @@ import org.xml.sax.SAXException;
  * MCR.Solr.HTTPResponseHeader....=<br><br>
  * 
  * You can set the maximum of connections to the SOLR server with the property<br><br>
- * MCR.Solr.SelectProxy.MaxConnections={number}
+ * MCR.Solr.SelectProxy.MaxConnections={number}<br><br>
+ *
+ * Responses that are not rendered by the layout service are streamed to the client, gzip compressed if the client
+ * accepts it and MCR.Solr.Proxy.Compress is true.<br><br>
+ *
+ * If MCR.Solr.Proxy.Cache.Enabled is true, Solr responses are cached until the index changes
+ * (see {@link MCRSolrProxyCache}). Cached responses that are not rendered by the layout service carry an ETag and
+ * are answered with 304 Not Modified to conditional requests.
  */
 public class MCRSolrProxyServlet extends MCRServlet {
 
@@ -91,6 +104,8 @@ public class MCRSolrProxyServlet extends MCRServlet {
 
     private static final long serialVersionUID = 1L;
 
+    private static final MCRTimer QUERY_TIMER = MCRMetrics.timer("solr", "op", "query");
+
     /**
      * Attribute key to store Query parameters as <code>Map&lt;String, String[]&gt;</code> for SOLR. This takes
      * precedence over any {@link HttpServletRequest} parameter.
@@ -113,6 +128,23 @@ public class MCRSolrProxyServlet extends MCRServlet {
     private static Map<String, String> NEW_HTTP_RESPONSE_HEADER = MCRConfiguration2
         .getSubPropertiesMap(SOLR_CONFIG_PREFIX + "HTTPResponseHeader.");
 
+    private static final boolean COMPRESS = MCRConfiguration2
+        .getBoolean(SOLR_CONFIG_PREFIX + "Proxy.Compress").orElse(true);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private static final String ETAG = "ETag";
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private static final String VARY = "Vary";
+
+    private MCRSolrProxyCache responseCache;
+
     private CloseableHttpClient httpClient;
 
     private MCRIdleConnectionMonitorThread idleConnectionMonitorThread;
@@ -226,11 +258,29 @@ public class MCRSolrProxyServlet extends MCRServlet {
     private void handleQuery(String queryHandlerPath, HttpServletRequest request, HttpServletResponse resp)
         throws IOException, TransformerException, SAXException {
         ModifiableSolrParams solrParameter = getSolrQueryParameter(request);
-        HttpGet solrHttpMethod = MCRSolrProxyServlet.getSolrHttpMethod(queryHandlerPath, solrParameter,
-            Optional.ofNullable(request.getParameter(QUERY_CORE_PARAMETER)).orElse(MCRSolrConstants.MAIN_CORE_TYPE));
+        String core = Optional.ofNullable(request.getParameter(QUERY_CORE_PARAMETER))
+            .orElse(MCRSolrConstants.MAIN_CORE_TYPE);
+        String cacheKey = null;
+        if (responseCache != null) {
+            cacheKey = MCRSolrProxyCache.getKey(core, queryHandlerPath, solrParameter);
+            MCRSolrProxyCache.Entry cachedResponse = responseCache.get(cacheKey);
+            if (cachedResponse != null) {
+                LOGGER.debug("Using cached response of {}", cachedResponse.getSystemId());
+                sendCachedResponse(cachedResponse, request, resp);
+                return;
+            }
+        }
+        HttpGet solrHttpMethod = MCRSolrProxyServlet.getSolrHttpMethod(queryHandlerPath, solrParameter, core);
         try {
             LOGGER.info("Sending Request: {}", solrHttpMethod.getURI());
-            HttpResponse response = httpClient.execute(solrHttpMethod);
+            long queryTime = System.currentTimeMillis();
+            long start = QUERY_TIMER.start();
+            HttpResponse response;
+            try {
+                response = httpClient.execute(solrHttpMethod);
+            } finally {
+                QUERY_TIMER.stop(start);
+            }
             int statusCode = response.getStatusLine().getStatusCode();
 
             // set status code
@@ -238,32 +288,48 @@ public class MCRSolrProxyServlet extends MCRServlet {
 
             boolean isXML = response.getFirstHeader(HTTP.CONTENT_TYPE).getValue().contains("/xml");
             boolean justCopyInput = !isXML;
+            boolean compress = justCopyInput && COMPRESS && acceptsGzip(request);
 
             // set all headers
-            for (Header header : response.getAllHeaders()) {
-                LOGGER.debug("SOLR response header: {} - {}", header.getName(), header.getValue());
-                String headerName = header.getName();
-                if (NEW_HTTP_RESPONSE_HEADER.containsKey(headerName)) {
-                    String headerValue = NEW_HTTP_RESPONSE_HEADER.get(headerName);
-                    if (headerValue != null && headerValue.length() > 0) {
-                        resp.setHeader(headerName, headerValue);
-                    }
-                } else {
-                    resp.setHeader(header.getName(), header.getValue());
+            List<String[]> headers = getResponseHeaders(response);
+            for (String[] header : headers) {
+                if (!(compress && HTTP.CONTENT_LEN.equalsIgnoreCase(header[0]))) {
+                    resp.setHeader(header[0], header[1]);
                 }
             }
 
             HttpEntity solrResponseEntity = response.getEntity();
             if (solrResponseEntity != null) {
+                String systemId = solrHttpMethod.getURI().toString();
+                boolean cacheable = cacheKey != null && statusCode == HttpServletResponse.SC_OK;
                 try (InputStream solrResponseStream = solrResponseEntity.getContent()) {
                     if (justCopyInput) {
-                        // copy solr response to servlet outputstream
-                        OutputStream servletOutput = resp.getOutputStream();
-                        IOUtils.copy(solrResponseStream, servletOutput);
+                        // stream solr response to servlet outputstream
+                        ByteArrayOutputStream copy = cacheable ? new ByteArrayOutputStream() : null;
+                        if (COMPRESS) {
+                            resp.addHeader(VARY, ACCEPT_ENCODING);
+                        }
+                        OutputStream servletOutput = compress ? new GZIPOutputStream(getGzipOutputStream(resp),
+                            BUFFER_SIZE) : resp.getOutputStream();
+                        if (copy(solrResponseStream, servletOutput, copy)) {
+                            responseCache.put(cacheKey,
+                                new MCRSolrProxyCache.Entry(systemId, statusCode, headers, false, copy.toByteArray()),
+                                queryTime);
+                        }
+                        if (compress) {
+                            ((GZIPOutputStream) servletOutput).finish();
+                        }
+                    } else if (cacheable) {
+                        byte[] content = solrResponseStream.readAllBytes();
+                        if (content.length <= responseCache.getMaxEntrySize()) {
+                            responseCache.put(cacheKey,
+                                new MCRSolrProxyCache.Entry(systemId, statusCode, headers, true, content), queryTime);
+                        }
+                        MCRStreamContent solrResponse = new MCRStreamContent(new ByteArrayInputStream(content),
+                            systemId, "response");
+                        MCRLayoutService.instance().doLayout(request, resp, solrResponse);
                     } else {
-                        MCRStreamContent solrResponse = new MCRStreamContent(solrResponseStream,
-                            solrHttpMethod.getURI().toString(),
-                            "response");
+                        MCRStreamContent solrResponse = new MCRStreamContent(solrResponseStream, systemId, "response");
                         MCRLayoutService.instance().doLayout(request, resp, solrResponse);
                     }
                 }
@@ -275,6 +341,120 @@ public class MCRSolrProxyServlet extends MCRServlet {
         solrHttpMethod.releaseConnection();
     }
 
+    /**
+     * Returns the headers of the Solr response, modified by <code>MCR.Solr.HTTPResponseHeader.*</code>.
+     */
+    private static List<String[]> getResponseHeaders(HttpResponse response) {
+        List<String[]> headers = new ArrayList<>();
+        for (Header header : response.getAllHeaders()) {
+            LOGGER.debug("SOLR response header: {} - {}", header.getName(), header.getValue());
+            String headerName = header.getName();
+            if (NEW_HTTP_RESPONSE_HEADER.containsKey(headerName)) {
+                String headerValue = NEW_HTTP_RESPONSE_HEADER.get(headerName);
+                if (headerValue != null && headerValue.length() > 0) {
+                    headers.add(new String[] { headerName, headerValue });
+                }
+            } else {
+                headers.add(new String[] { headerName, header.getValue() });
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Copies the Solr response to the servlet output and into <code>copy</code> as long as it does not exceed the
+     * maximum size of a cached response.
+     *
+     * @param copy receives the complete response or <code>null</code>, if it should not be cached
+     * @return true, if the complete response was copied to <code>copy</code>
+     */
+    private boolean copy(InputStream in, OutputStream out, ByteArrayOutputStream copy) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean complete = copy != null;
+        int maxSize = complete ? responseCache.getMaxEntrySize() : 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (complete) {
+                if (copy.size() + read > maxSize) {
+                    complete = false;
+                } else {
+                    copy.write(buffer, 0, read);
+                }
+            }
+        }
+        return complete;
+    }
+
+    private void sendCachedResponse(MCRSolrProxyCache.Entry cachedResponse, HttpServletRequest request,
+        HttpServletResponse resp) throws IOException, TransformerException, SAXException {
+        if (cachedResponse.isXML()) {
+            // the layout depends on the current user, so only the Solr response is cached
+            resp.setStatus(cachedResponse.getStatus());
+            cachedResponse.getHeaders().forEach(header -> resp.setHeader(header[0], header[1]));
+            MCRStreamContent solrResponse = new MCRStreamContent(
+                new ByteArrayInputStream(cachedResponse.getContent()), cachedResponse.getSystemId(), "response");
+            MCRLayoutService.instance().doLayout(request, resp, solrResponse);
+            return;
+        }
+        boolean compress = COMPRESS && acceptsGzip(request);
+        cachedResponse.getHeaders().stream()
+            .filter(header -> !(compress && HTTP.CONTENT_LEN.equalsIgnoreCase(header[0])))
+            .forEach(header -> resp.setHeader(header[0], header[1]));
+        resp.setHeader(ETAG, cachedResponse.getETag());
+        if (COMPRESS) {
+            resp.addHeader(VARY, ACCEPT_ENCODING);
+        }
+        if (matchesETag(request.getHeader(IF_NONE_MATCH), cachedResponse.getETag())) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        resp.setStatus(cachedResponse.getStatus());
+        if (compress) {
+            try (GZIPOutputStream out = new GZIPOutputStream(getGzipOutputStream(resp), BUFFER_SIZE)) {
+                out.write(cachedResponse.getContent());
+            }
+        } else {
+            resp.setContentLength(cachedResponse.getContent().length);
+            resp.getOutputStream().write(cachedResponse.getContent());
+        }
+    }
+
+    private static OutputStream getGzipOutputStream(HttpServletResponse resp) throws IOException {
+        resp.setHeader(CONTENT_ENCODING, "gzip");
+        return resp.getOutputStream();
+    }
+
+    /**
+     * Returns true, if the value of an <code>If-None-Match</code> header contains the given entity tag.
+     */
+    static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Stream.of(ifNoneMatch.split(","))
+            .map(String::trim)
+            .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+            .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        return acceptsGzip(request.getHeader(ACCEPT_ENCODING));
+    }
+
+    /**
+     * Returns true, if the value of an <code>Accept-Encoding</code> header accepts a gzip compressed response.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Stream.of(acceptEncoding.split(","))
+            .map(coding -> coding.trim().toLowerCase(Locale.ROOT))
+            .filter(coding -> coding.equals("gzip") || coding.startsWith("gzip;"))
+            .anyMatch(coding -> !coding.replace(" ", "").matches("gzip;q=0(\\.0*)?"));
+    }
+
     private void updateQueryHandlerMap(HttpServletResponse resp) throws IOException, SolrServerException {
         this.updateQueryHandlerMap();
         PrintWriter writer = resp.getWriter();
@@ -325,6 +505,15 @@ public class MCRSolrProxyServlet extends MCRServlet {
 
         this.updateQueryHandlerMap();
 
+        if (MCRConfiguration2.getBoolean(SOLR_CONFIG_PREFIX + "Proxy.Cache.Enabled").orElse(false)) {
+            String cachePrefix = SOLR_CONFIG_PREFIX + "Proxy.Cache.";
+            responseCache = new MCRSolrProxyCache(
+                MCRConfiguration2.getOrThrow(cachePrefix + "Size", Integer::parseInt),
+                MCRConfiguration2.getOrThrow(cachePrefix + "MaxAge", Long::parseLong),
+                MCRConfiguration2.getOrThrow(cachePrefix + "CommitDelay", Long::parseLong),
+                MCRConfiguration2.getOrThrow(cachePrefix + "MaxEntrySize", Integer::parseInt));
+        }
+
         httpClientConnectionManager = MCRHttpUtils.getConnectionManager(MAX_CONNECTIONS);
         httpClient = MCRHttpUtils.getHttpClient(httpClientConnectionManager, MAX_CONNECTIONS);
 
@@ -342,6 +531,9 @@ public class MCRSolrProxyServlet extends MCRServlet {
             log("Could not close HTTP client to SOLR server.", e);
         }
         httpClientConnectionManager.shutdown();
+        if (responseCache != null) {
+            responseCache.clear();
+        }
         super.destroy();
     }
 
@@ -20,7 +20,9 @@ package org.mycore.solr.search;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
 import java.util.function.Consumer;
@@ -38,6 +40,8 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
 import org.jdom2.Document;
@@ -141,6 +145,102 @@ public abstract class MCRSolrSearchUtils {
         return StreamSupport.stream(solrDocumentSpliterator, parallel);
     }
 
+    /**
+     * Creates a sequential stream of SolrDocument's that pages through the result with a cursor mark. Unlike
+     * {@link #stream(SolrClient, SolrParams)} deep pages are cheap and documents added or removed while streaming
+     * do not shift the following pages. The sort order is extended by <code>id asc</code> if it does not end with
+     * the unique key.
+     *
+     * @param solrClient the client to query
+     * @param params solr parameter, <code>start</code> is ignored
+     * @param rowsPerRequest number of documents fetched per request
+     * @return stream of solr documents
+     */
+    public static Stream<SolrDocument> streamWithCursor(SolrClient solrClient, SolrParams params,
+        int rowsPerRequest) {
+        return StreamSupport.stream(new SolrCursorSpliterator(solrClient, params, rowsPerRequest), false);
+    }
+
+    /**
+     * Spliterator for solr documents that uses a cursor mark for deep paging.
+     */
+    public static class SolrCursorSpliterator implements Spliterator<SolrDocument> {
+
+        protected SolrClient solrClient;
+
+        protected ModifiableSolrParams params;
+
+        protected String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+
+        protected Iterator<SolrDocument> page = Collections.emptyIterator();
+
+        protected boolean lastPage;
+
+        public SolrCursorSpliterator(SolrClient solrClient, SolrParams params, int rows) {
+            this.solrClient = solrClient;
+            this.params = new ModifiableSolrParams(params);
+            this.params.remove(CommonParams.START);
+            this.params.set(CommonParams.ROWS, rows);
+            this.params.set(CommonParams.SORT, getCursorSort(params.get(CommonParams.SORT)));
+        }
+
+        private static String getCursorSort(String sort) {
+            if (sort == null || sort.isBlank()) {
+                return "id asc";
+            }
+            if (sort.trim().matches("(?s).*(^|[\\s,])id\\s+(asc|desc)")) {
+                return sort;
+            }
+            return sort + ",id asc";
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super SolrDocument> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            while (!page.hasNext()) {
+                if (lastPage) {
+                    return false;
+                }
+                nextPage();
+            }
+            action.accept(page.next());
+            return true;
+        }
+
+        protected void nextPage() {
+            params.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse response;
+            try {
+                response = solrClient.query(params);
+            } catch (SolrServerException | IOException e) {
+                throw new IllegalStateException(e);
+            }
+            SolrDocumentList results = response.getResults();
+            page = results.iterator();
+            String nextCursorMark = response.getNextCursorMark();
+            lastPage = nextCursorMark == null || nextCursorMark.equals(cursorMark)
+                || results.size() < params.getInt(CommonParams.ROWS);
+            cursorMark = nextCursorMark;
+        }
+
+        @Override
+        public Spliterator<SolrDocument> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+    }
+
     /**
      * Spliterator for solr documents.
      */
@@ -0,0 +1,144 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.solr.index.document;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.content.MCRContent;
+import org.mycore.common.content.MCRJDOMContent;
+import org.mycore.common.content.transformer.MCRXSLTransformer;
+import org.mycore.datamodel.metadata.MCRObjectID;
+
+/**
+ * Converts a batch of objects to {@link SolrInputDocument}s through a merged JDOM document and through
+ * {@link MCRSolrInputDocumentSAXHandler} and compares throughput and the heap retained before the first document is
+ * consumed. Run with <code>-DMCR.Benchmark=true</code>.
+ */
+public class MCRSolrInputDocumentSAXHandlerBenchmarkTest extends MCRTestCase {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String STYLESHEET = "xsl/solr-benchmark-document.xsl";
+
+    private static final int OBJECTS = 1000;
+
+    private static final int FIELDS = 100;
+
+    private static final int ROUNDS = 5;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("Benchmark is disabled", Boolean.getBoolean("MCR.Benchmark"));
+        super.setUp();
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.mods", "true");
+        testProperties.put("MCR.Solr.SolrInputDocument.Transformer", "solr-benchmark");
+        testProperties.put("MCR.ContentTransformer.solr-benchmark.Stylesheet", STYLESHEET);
+        return testProperties;
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        MCRXSLTransformer transformer = MCRXSLTransformer.getInstance(STYLESHEET);
+        Map<MCRObjectID, MCRContent> contentMap = buildContentMap();
+        // warm up class loading and JIT
+        run(contentMap, transformer, false);
+        run(contentMap, transformer, true);
+        long[] jdom = run(contentMap, transformer, false);
+        long[] sax = run(contentMap, transformer, true);
+        LOGGER.info("Converting {} objects {} times via JDOM: {} ms, {} KiB retained", OBJECTS, ROUNDS,
+            jdom[0] / 1_000_000, jdom[1] / 1024);
+        LOGGER.info("Converting {} objects {} times via SAX: {} ms, {} KiB retained", OBJECTS, ROUNDS,
+            sax[0] / 1_000_000, sax[1] / 1024);
+    }
+
+    private long[] run(Map<MCRObjectID, MCRContent> contentMap, MCRXSLTransformer transformer, boolean sax)
+        throws Exception {
+        long retained = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = usedHeap();
+            Iterator<SolrInputDocument> documents = sax
+                ? MCRSolrTransformerInputDocumentFactory.getSolrInputDocuments(transformer,
+                    contentMap.values().iterator())
+                : getSolrInputDocumentsViaJDOM(contentMap, transformer);
+            int count = 0;
+            while (documents.hasNext()) {
+                SolrInputDocument document = documents.next();
+                if (count++ == 0) {
+                    retained += usedHeap() - before;
+                }
+                Assert.assertEquals(FIELDS + 1, document.size());
+            }
+            Assert.assertEquals(OBJECTS, count);
+        }
+        return new long[] { System.nanoTime() - start, retained / ROUNDS };
+    }
+
+    private static Iterator<SolrInputDocument> getSolrInputDocumentsViaJDOM(Map<MCRObjectID, MCRContent> contentMap,
+        MCRXSLTransformer transformer) throws Exception {
+        Element add = new Element("add");
+        for (MCRContent content : contentMap.values()) {
+            add.addContent(content.asXML().detachRootElement());
+        }
+        MCRContent result = transformer.transform(new MCRJDOMContent(new Document(add)));
+        return result.asXML().getRootElement().getChildren("doc").stream()
+            .map(MCRSolrInputDocumentGenerator::getSolrInputDocument)
+            .iterator();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Map<MCRObjectID, MCRContent> buildContentMap() {
+        Map<MCRObjectID, MCRContent> contentMap = new LinkedHashMap<>();
+        for (int i = 1; i <= OBJECTS; i++) {
+            MCRObjectID id = MCRObjectID.getInstance(MCRObjectID.formatID("junit_mods", i));
+            Element metadata = new Element("metadata");
+            for (int j = 0; j < FIELDS; j++) {
+                metadata.addContent(new Element("def.field" + j)
+                    .addContent(new Element("field" + j).setText("value " + i + " " + j)));
+            }
+            Element object = new Element("mycoreobject").setAttribute("ID", id.toString()).addContent(metadata);
+            contentMap.put(id, new MCRJDOMContent(new Document(object)));
+        }
+        return contentMap;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.solr.index.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.jdom2.Element;
+import org.jdom2.input.SAXBuilder;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.xml.sax.InputSource;
+
+public class MCRSolrInputDocumentSAXHandlerTest extends MCRTestCase {
+
+    private static final String XML = "<add>"
+        + "<doc><field name='id'>mir_mods_00000001</field><field name='title'>Title</field>"
+        + "<field name='title'>Title</field><field name='category'>a</field><field name='category'>b</field>"
+        + "<field name='empty'></field><field name='mixed'>x<i>ignored</i>y</field>"
+        + "<doc><field name='id'>mir_derivate_00000001</field></doc></doc>"
+        + "<doc><field name='id'>mir_mods_00000002</field></doc>"
+        + "</add>";
+
+    @Test
+    public void testDocuments() throws Exception {
+        List<SolrInputDocument> documents = parse(XML);
+        assertEquals(2, documents.size());
+        SolrInputDocument first = documents.get(0);
+        assertEquals("mir_mods_00000001", first.getFieldValue("id"));
+        assertEquals("Duplicate values should be skipped", 1, first.getFieldValues("title").size());
+        assertEquals(2, first.getFieldValues("category").size());
+        assertEquals("Empty fields should be skipped", null, first.getField("empty"));
+        assertEquals("xy", first.getFieldValue("mixed"));
+        assertEquals(1, first.getChildDocumentCount());
+        assertEquals("mir_derivate_00000001", first.getChildDocuments().get(0).getFieldValue("id"));
+        assertEquals("mir_mods_00000002", documents.get(1).getFieldValue("id"));
+    }
+
+    @Test
+    public void testSameAsGenerator() throws Exception {
+        List<Element> docElements = new SAXBuilder().build(new StringReader(XML)).getRootElement()
+            .getChildren("doc");
+        List<SolrInputDocument> documents = parse(XML);
+        for (int i = 0; i < docElements.size(); i++) {
+            SolrInputDocument expected = MCRSolrInputDocumentGenerator.getSolrInputDocument(docElements.get(i));
+            assertEquals(expected.toString(), documents.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testSingleDocument() throws Exception {
+        List<SolrInputDocument> documents = parse("<doc><field name='id'>mir_mods_00000001</field></doc>");
+        assertEquals(1, documents.size());
+        assertEquals("mir_mods_00000001", documents.get(0).getFieldValue("id"));
+    }
+
+    private static List<SolrInputDocument> parse(String xml) throws Exception {
+        List<SolrInputDocument> documents = new ArrayList<>();
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.newSAXParser().parse(new InputSource(new StringReader(xml)),
+            new MCRSolrInputDocumentSAXHandler(documents::add));
+        return documents;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.solr.proxy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.solr.index.MCRSolrCommitCounter;
+
+public class MCRSolrProxyCacheTest extends MCRTestCase {
+
+    @Test
+    public void testGetKey() {
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.add("q", "*:*");
+        params.add("fq", "objectType:mods", "state:published");
+        ModifiableSolrParams reordered = new ModifiableSolrParams();
+        reordered.add("fq", "objectType:mods", "state:published");
+        reordered.add("q", "*:*");
+        assertEquals(MCRSolrProxyCache.getKey("main", "/select", params),
+            MCRSolrProxyCache.getKey("main", "/select", reordered));
+
+        ModifiableSolrParams otherValueOrder = new ModifiableSolrParams();
+        otherValueOrder.add("q", "*:*");
+        otherValueOrder.add("fq", "state:published", "objectType:mods");
+        assertNotEquals(MCRSolrProxyCache.getKey("main", "/select", params),
+            MCRSolrProxyCache.getKey("main", "/select", otherValueOrder));
+        assertNotEquals(MCRSolrProxyCache.getKey("main", "/select", params),
+            MCRSolrProxyCache.getKey("classification", "/select", params));
+
+        // a value must not produce the key of a query with more parameters
+        ModifiableSolrParams crafted = new ModifiableSolrParams();
+        crafted.add("q", "*:*&wt=json");
+        ModifiableSolrParams json = new ModifiableSolrParams();
+        json.add("q", "*:*");
+        json.add("wt", "json");
+        assertNotEquals(MCRSolrProxyCache.getKey("main", "/select", crafted),
+            MCRSolrProxyCache.getKey("main", "/select", json));
+        ModifiableSolrParams craftedName = new ModifiableSolrParams();
+        craftedName.add("q=*:*&wt", "json");
+        assertNotEquals(MCRSolrProxyCache.getKey("main", "/select", craftedName),
+            MCRSolrProxyCache.getKey("main", "/select", json));
+    }
+
+    @Test
+    public void testInvalidateOnChange() throws InterruptedException {
+        MCRSolrProxyCache cache = new MCRSolrProxyCache(10, 300, 0, 1024);
+        String key = "main:/select?q=*:*&";
+        byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+        Thread.sleep(2);
+        cache.put(key, new MCRSolrProxyCache.Entry("test", 200, Collections.emptyList(), false, content),
+            System.currentTimeMillis());
+        MCRSolrProxyCache.Entry entry = cache.get(key);
+        assertNotNull(entry);
+        assertArrayEquals(content, entry.getContent());
+
+        long queryTime = System.currentTimeMillis();
+        MCRSolrCommitCounter.increment();
+        assertNull("Entry should be invalid after index change", cache.get(key));
+        cache.put(key, new MCRSolrProxyCache.Entry("test", 200, Collections.emptyList(), false, content), queryTime);
+        assertNull("Entry of a query sent before the change should be invalid", cache.get(key));
+    }
+
+    @Test
+    public void testCommitDelay() {
+        MCRSolrProxyCache cache = new MCRSolrProxyCache(10, 300, 60, 1024);
+        String key = "main:/select?q=*:*&";
+        MCRSolrCommitCounter.increment();
+        cache.put(key, new MCRSolrProxyCache.Entry("test", 200, Collections.emptyList(), false, new byte[0]),
+            System.currentTimeMillis());
+        assertNull("Change may not be committed yet", cache.get(key));
+    }
+
+    @Test
+    public void testETag() {
+        byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+        MCRSolrProxyCache.Entry entry = new MCRSolrProxyCache.Entry("test", 200, Collections.emptyList(), false,
+            content);
+        MCRSolrProxyCache.Entry sameContent = new MCRSolrProxyCache.Entry("other", 200, Collections.emptyList(),
+            false, content.clone());
+        assertEquals(entry.getETag(), sameContent.getETag());
+        assertEquals('"', entry.getETag().charAt(0));
+    }
+}
@@ -19,6 +19,8 @@
 package org.mycore.solr.proxy;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -47,4 +49,23 @@ public class MCRSolrProxyServletTest extends MCRTestCase {
         assertEquals("Expected " + paramValues.length + " values", paramValues.length, multiMap.get(paramName).length);
     }
 
+    @Test
+    public final void testAcceptsGzip() {
+        assertTrue(MCRSolrProxyServlet.acceptsGzip("gzip, deflate, br"));
+        assertTrue(MCRSolrProxyServlet.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertFalse(MCRSolrProxyServlet.acceptsGzip("gzip;q=0"));
+        assertFalse(MCRSolrProxyServlet.acceptsGzip("deflate, br"));
+        assertFalse(MCRSolrProxyServlet.acceptsGzip(null));
+    }
+
+    @Test
+    public final void testMatchesETag() {
+        String eTag = "\"abc\"";
+        assertTrue(MCRSolrProxyServlet.matchesETag("\"xyz\", \"abc\"", eTag));
+        assertTrue(MCRSolrProxyServlet.matchesETag("W/\"abc\"", eTag));
+        assertTrue(MCRSolrProxyServlet.matchesETag("*", eTag));
+        assertFalse(MCRSolrProxyServlet.matchesETag("\"xyz\"", eTag));
+        assertFalse(MCRSolrProxyServlet.matchesETag(null, eTag));
+    }
+
 }
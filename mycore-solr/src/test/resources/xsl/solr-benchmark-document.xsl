@@ -0,0 +1,20 @@
+<?xml version="1.0" encoding="UTF-8"?>
+<xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+  <xsl:template match="/">
+    <add>
+      <xsl:apply-templates select="//mycoreobject" />
+    </add>
+  </xsl:template>
+  <xsl:template match="mycoreobject">
+    <doc>
+      <field name="id">
+        <xsl:value-of select="@ID" />
+      </field>
+      <xsl:for-each select="metadata/*/*">
+        <field name="{local-name(..)}">
+          <xsl:value-of select="." />
+        </field>
+      </xsl:for-each>
+    </doc>
+  </xsl:template>
+</xsl:stylesheet>
@@ -25,9 +25,16 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCache;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.datamodel.classifications2.MCRCategLinkReference;
 import org.mycore.datamodel.classifications2.MCRCategLinkService;
 import org.mycore.datamodel.classifications2.MCRCategLinkServiceFactory;
@@ -37,6 +44,8 @@ import org.mycore.datamodel.classifications2.MCRCategoryDAOFactory;
 import org.mycore.datamodel.classifications2.MCRCategoryID;
 import org.mycore.datamodel.classifications2.MCRLabel;
 import org.mycore.datamodel.classifications2.impl.MCRCategoryImpl;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRMetrics;
 
 /**
  * Manages roles and role assignments using a database table.
@@ -60,6 +69,24 @@ public class MCRRoleManager {
 
     private static final MCRCategLinkService CATEG_LINK_SERVICE = MCRCategLinkServiceFactory.getInstance();
 
+    /**
+     * Caches role membership per user: link ID of the user -> role ID -> is member.
+     * Entries are dropped when role assignments of the user are stored or when any classification changes.
+     */
+    private static final MCRCache<String, Map<String, Boolean>> ROLE_MEMBERSHIP_CACHE = new MCRCache<>(
+        MCRConfiguration2.getInt("MCR.user2.RoleCache.Size").orElse(1000), "MCRRoleManager role membership");
+
+    private static final long ROLE_MEMBERSHIP_EXPIRY = TimeUnit.SECONDS
+        .toMillis(MCRConfiguration2.getInt("MCR.user2.RoleCache.Expiry").orElse(300));
+
+    private static final MCRCache<String, Optional<MCRRole>> EXTERNAL_ROLE_CACHE = new MCRCache<>(
+        MCRConfiguration2.getInt("MCR.user2.RoleCache.Size").orElse(1000), "MCRRoleManager external roles");
+
+    private static final MCRCounter ROLE_CACHE_HIT_COUNTER = MCRMetrics.counter("user2.rolecache", "result", "hit");
+
+    private static final MCRCounter ROLE_CACHE_MISS_COUNTER = MCRMetrics.counter("user2.rolecache", "result",
+        "miss");
+
     static {
         loadSystemRoles();
     }
@@ -104,6 +131,16 @@ public class MCRRoleManager {
      * @return MCRRole instance or null if category does not exist
      */
     public static MCRRole getExternalRole(String name) {
+        Optional<MCRRole> cachedRole = EXTERNAL_ROLE_CACHE.getIfUpToDate(name, DAO.getLastModified());
+        if (cachedRole != null) {
+            return cachedRole.orElse(null);
+        }
+        MCRRole role = loadExternalRole(name);
+        EXTERNAL_ROLE_CACHE.put(name, Optional.ofNullable(role));
+        return role;
+    }
+
+    private static MCRRole loadExternalRole(String name) {
         MCRCategoryID categoryID = MCRCategoryID.fromString(name);
         if (categoryID.isRootID()) {
             LOGGER.debug("External role may not be a rootCategory: {}", categoryID);
@@ -163,6 +200,7 @@ public class MCRRoleManager {
      */
     static void unassignRoles(MCRUser user) {
         CATEG_LINK_SERVICE.deleteLink(getLinkID(user));
+        invalidateRoleCache(user);
     }
 
     /**
@@ -183,16 +221,56 @@ public class MCRRoleManager {
         }
         LOGGER.info("Assigning {} to these roles: {}", user.getUserID(), categories);
         CATEG_LINK_SERVICE.setLinks(ref, categories);
+        invalidateRoleCache(user);
     }
 
     static Collection<MCRCategoryID> getRoleIDs(MCRUser user) {
         return CATEG_LINK_SERVICE.getLinksFromReference(getLinkID(user));
     }
 
+    /**
+     * Checks if the user is linked to the given role. Results are cached per user for
+     * <code>MCR.user2.RoleCache.Expiry</code> seconds or until the role assignments of the user or any
+     * classification are changed.
+     */
     static boolean isAssignedToRole(MCRUser user, String roleID) {
-        MCRCategoryID categoryID = MCRCategoryID.fromString(roleID);
         MCRCategLinkReference linkReference = getLinkID(user);
-        return CATEG_LINK_SERVICE.isInCategory(linkReference, categoryID);
+        String key = linkReference.getObjectID();
+        long validSince = Math.max(DAO.getLastModified(), System.currentTimeMillis() - ROLE_MEMBERSHIP_EXPIRY);
+        Map<String, Boolean> memberships = ROLE_MEMBERSHIP_CACHE.getIfUpToDate(key, validSince);
+        if (memberships == null) {
+            memberships = new ConcurrentHashMap<>();
+            ROLE_MEMBERSHIP_CACHE.put(key, memberships);
+        }
+        Boolean isMember = memberships.get(roleID);
+        if (isMember != null) {
+            ROLE_CACHE_HIT_COUNTER.increment();
+            return isMember;
+        }
+        ROLE_CACHE_MISS_COUNTER.increment();
+        isMember = CATEG_LINK_SERVICE.isInCategory(linkReference, MCRCategoryID.fromString(roleID));
+        memberships.put(roleID, isMember);
+        return isMember;
+    }
+
+    /**
+     * Removes cached role membership of the user now and again after the current transaction is committed,
+     * so concurrent lookups cannot cache the state before the commit.
+     */
+    private static void invalidateRoleCache(MCRUser user) {
+        String key = getLinkID(user).getObjectID();
+        ROLE_MEMBERSHIP_CACHE.remove(key);
+        if (MCRSessionMgr.hasCurrentSession() && MCRSessionMgr.getCurrentSession().isTransactionActive()) {
+            MCRSessionMgr.getCurrentSession().onCommit(() -> ROLE_MEMBERSHIP_CACHE.remove(key));
+        }
+    }
+
+    /**
+     * Clears all cached role memberships and external roles.
+     */
+    static void clearRoleCache() {
+        ROLE_MEMBERSHIP_CACHE.clear();
+        EXTERNAL_ROLE_CACHE.clear();
     }
 
     private static MCRCategLinkReference getLinkID(MCRUser user) {
@@ -130,6 +130,22 @@ public class MCRUserManagerTest extends MCRUserTestCase {
         assertTrue("User is not in group " + groupName, user.getSystemRoleIDs().contains(groupName));
     }
 
+    @Test
+    public final void testRoleMembershipCache() {
+        String roleID = MCRUser2Constants.ROLE_CLASSID.getRootID() + ":editor";
+        assertFalse("User should not be in role " + roleID, MCRRoleManager.isAssignedToRole(this.user, roleID));
+        this.user.assignRole("editor");
+        MCRUserManager.updateUser(this.user);
+        startNewTransaction();
+        assertTrue("User is not in role " + roleID, MCRRoleManager.isAssignedToRole(this.user, roleID));
+        this.user.unassignRole("editor");
+        MCRUserManager.updateUser(this.user);
+        startNewTransaction();
+        assertFalse("User should not be in role " + roleID, MCRRoleManager.isAssignedToRole(this.user, roleID));
+        assertNotNull("Could not get external role " + roleID, MCRRoleManager.getExternalRole(roleID));
+        assertNull("Should not get unknown role", MCRRoleManager.getExternalRole("junit:unknown"));
+    }
+
     /**
      * Test method for {@link org.mycore.user2.MCRUserManager#deleteUser(java.lang.String, org.mycore.user2.MCRRealm)}.
      */
@@ -42,6 +42,7 @@ public class MCRUserTestCase extends MCRJPATestCase {
         MCRCategory groupsCategory = MCRCategoryDAOImplTest.loadClassificationResource("/mcr-roles.xml");
         MCRCategoryDAO DAO = MCRCategoryDAOFactory.getInstance();
         DAO.addCategory(null, groupsCategory);
+        MCRRoleManager.clearRoleCache();
     }
 
     @Override
@@ -0,0 +1,118 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.webtools.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.frontend.jersey.MCRJerseyUtil;
+import org.mycore.services.metrics.MCRCounter;
+import org.mycore.services.metrics.MCRInstrument;
+import org.mycore.services.metrics.MCRMetrics;
+import org.mycore.services.metrics.MCRTimer;
+
+/**
+ * Provides the timers and counters of {@link MCRMetrics} in the Prometheus text format.
+ *
+ * The resource is only available if <code>MCR.Metrics.Prometheus.Enabled</code> is true and requires the
+ * permission <code>read-metrics</code>.
+ */
+@Path("metrics")
+public class MCRMetricsResource {
+
+    private static final String PERMISSION = "read-metrics";
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @GET
+    @Produces("text/plain; version=0.0.4")
+    public Response get() {
+        if (!MCRConfiguration2.getBoolean("MCR.Metrics.Prometheus.Enabled").orElse(false)) {
+            throw new NotFoundException();
+        }
+        MCRJerseyUtil.checkPermission(PERMISSION);
+        StringBuilder sb = new StringBuilder();
+        Map<String, List<MCRTimer>> timers = MCRMetrics.getTimers().stream()
+            .sorted(Comparator.comparing(MCRInstrument::toString))
+            .collect(Collectors.groupingBy(t -> metricName(t.getName()), TreeMap::new,
+                Collectors.toList()));
+        timers.forEach((name, list) -> {
+            String seconds = name + "_seconds";
+            sb.append("# TYPE ").append(seconds).append(" summary\n");
+            list.forEach(timer -> {
+                String labels = labels(timer);
+                sb.append(seconds).append("_count").append(labels).append(' ').append(timer.getCount()).append('\n');
+                sb.append(seconds).append("_sum").append(labels).append(' ')
+                    .append(toSeconds(timer.getTotalNanos())).append('\n');
+            });
+            String max = seconds + "_max";
+            sb.append("# TYPE ").append(max).append(" gauge\n");
+            list.forEach(timer -> sb.append(max).append(labels(timer)).append(' ')
+                .append(toSeconds(timer.getMaxNanos())).append('\n'));
+        });
+        Map<String, List<MCRCounter>> counters = MCRMetrics.getCounters().stream()
+            .sorted(Comparator.comparing(MCRInstrument::toString))
+            .collect(Collectors.groupingBy(c -> metricName(c.getName()) + "_total", TreeMap::new,
+                Collectors.toList()));
+        counters.forEach((name, list) -> {
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            list.forEach(counter -> sb.append(name).append(labels(counter)).append(' ').append(counter.getCount())
+                .append('\n'));
+        });
+        return Response.ok(sb.toString()).build();
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+    private static String metricName(String name) {
+        return "mcr_" + sanitize(name);
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    private static String labels(MCRInstrument instrument) {
+        if (instrument.getTags().isEmpty()) {
+            return "";
+        }
+        return instrument.getTags().entrySet().stream()
+            .map(e -> sanitize(e.getKey()) + "=\"" + escape(e.getValue()) + "\"")
+            .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -99,4 +99,13 @@ public interface MCRProcessableWebsocketSender {
      */
     void updateProperty(Session session, MCRProcessableCollection collection, String name, Object value);
 
+    /**
+     * Releases everything that is kept for the given session. Messages that were not sent yet are dropped.
+     * Does nothing by default.
+     *
+     * @param session the closed websocket session
+     */
+    default void remove(Session session) {
+    }
+
 }
@@ -103,6 +103,7 @@ public class MCRProcessingEndpoint extends MCRAbstractEndpoint {
             sessionListener.detachListeners(this.registry);
             SESSIONS.remove(session.getId());
         }
+        this.sender.remove(session);
     }
 
     private void handleMessage(Session session, JsonObject request) {
@@ -21,8 +21,9 @@ package org.mycore.webtools.processing.socket.impl;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -30,10 +31,12 @@ import javax.websocket.Session;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCRShutdownHandler;
 import org.mycore.common.processing.MCRProcessable;
 import org.mycore.common.processing.MCRProcessableCollection;
 import org.mycore.common.processing.MCRProcessableRegistry;
+import org.mycore.util.concurrent.MCRCoalescingExecutor;
 import org.mycore.webtools.processing.socket.MCRProcessableWebsocketSender;
 
 import com.google.gson.Gson;
@@ -41,6 +44,10 @@ import com.google.gson.Gson;
 /**
  * Websocket implementation of sending processable objects.
  *
+ * Updates of a processable are coalesced per websocket session within
+ * <code>MCR.Processable.Websocket.CoalesceMillis</code>, so only the latest state of a processable is sent, when its
+ * progress changes faster. All other messages are sent in order and after all updates that happened before them.
+ *
  * @author Matthias Eichner
  */
 public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocketSender {
@@ -51,6 +58,8 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
 
     private static final Map<Integer, Integer> PROCESSABLE_COLLECTION_MAP;
 
+    private static final Gson GSON = new Gson();
+
     static {
         ID_GENERATOR = new AtomicInteger();
         ID_MAP = Collections.synchronizedMap(new HashMap<>());
@@ -104,8 +113,13 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
 
     protected void updateProcessable(Session session, MCRProcessable processable, Integer processableId,
         Integer collectionId) {
-        MCRProcessableMessage message = new MCRProcessableMessage(processable, processableId, collectionId);
-        send(session, message);
+        if (session == null) {
+            return;
+        }
+        AsyncSenderHelper.getExecutor(session).update(processableId, () -> {
+            MCRProcessableMessage message = new MCRProcessableMessage(processable, processableId, collectionId);
+            AsyncSenderHelper.sendText(session, GSON.toJson(message));
+        });
     }
 
     @Override
@@ -118,6 +132,11 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
         send(session, new MCRUpdateCollectionPropertyMessage(getId(collection), name, value));
     }
 
+    @Override
+    public void remove(Session session) {
+        AsyncSenderHelper.remove(session);
+    }
+
     public synchronized Integer getId(Object object) {
         return ID_MAP.computeIfAbsent(object, k -> ID_GENERATOR.incrementAndGet());
     }
@@ -127,7 +146,7 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
         if (id == null) {
             return null;
         }
-        ID_MAP.remove(id);
+        ID_MAP.remove(object);
         if (object instanceof MCRProcessable) {
             PROCESSABLE_COLLECTION_MAP.remove(id);
         } else if (object instanceof MCRProcessableCollection) {
@@ -137,7 +156,7 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
     }
 
     private void send(Session session, MCRWebSocketMessage responseMessage) {
-        String msg = new Gson().toJson(responseMessage);
+        String msg = GSON.toJson(responseMessage);
         AsyncSenderHelper.send(session, msg);
     }
 
@@ -151,10 +170,15 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
 
         private static Logger LOGGER = LogManager.getLogger();
 
-        private static ExecutorService SERVICE;
+        private static final long COALESCE_MILLIS = MCRConfiguration2
+            .getLong("MCR.Processable.Websocket.CoalesceMillis").orElse(250L);
+
+        private static final Map<String, MCRCoalescingExecutor<Integer>> SESSION_EXECUTORS = new ConcurrentHashMap<>();
+
+        private static ScheduledExecutorService SERVICE;
 
         static {
-            SERVICE = Executors.newSingleThreadExecutor();
+            SERVICE = Executors.newSingleThreadScheduledExecutor();
             MCRShutdownHandler.getInstance().addCloseable(new MCRShutdownHandler.Closeable() {
 
                 @Override
@@ -182,17 +206,44 @@ public class MCRProcessableWebsocketSenderImpl implements MCRProcessableWebsocke
          * @param msg the message
          */
         public static void send(Session session, String msg) {
-            SERVICE.submit(() -> {
-                if (session == null || !session.isOpen()) {
-                    return;
-                }
-                try {
-                    session.getBasicRemote().sendText(msg);
-                } catch (Exception exc) {
-                    LOGGER.error("Websocket error {}: Unable to send message {}", session.getId(), msg);
-                }
-            });
+            if (session == null) {
+                return;
+            }
+            getExecutor(session).execute(() -> sendText(session, msg));
+        }
+
+        /**
+         * Returns the executor that sends all messages to the session in order.
+         *
+         * @param session the websocket session
+         */
+        static MCRCoalescingExecutor<Integer> getExecutor(Session session) {
+            return SESSION_EXECUTORS.computeIfAbsent(session.getId(),
+                id -> new MCRCoalescingExecutor<>(SERVICE, COALESCE_MILLIS));
+        }
+
+        /**
+         * Drops the pending updates of the session and its executor.
+         *
+         * @param session the websocket session
+         */
+        static void remove(Session session) {
+            MCRCoalescingExecutor<Integer> executor = SESSION_EXECUTORS.remove(session.getId());
+            if (executor != null) {
+                executor.clear();
+            }
+        }
 
+        static void sendText(Session session, String msg) {
+            if (!session.isOpen()) {
+                remove(session);
+                return;
+            }
+            try {
+                session.getBasicRemote().sendText(msg);
+            } catch (Exception exc) {
+                LOGGER.error("Websocket error {}: Unable to send message {}", session.getId(), msg);
+            }
         }
 
     }
@@ -0,0 +1,319 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.webtools.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRUtils;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCRShutdownHandler;
+
+/**
+ * A resumable upload of a single file into a {@link MCRFileUploadBucket}.
+ *
+ * The file is split into chunks of a fixed size that may arrive in any order and in parallel. Every chunk is written
+ * to its position in the target file, so no chunk needs to be buffered or reassembled. The upload is completed after
+ * all chunks were received and the MD5 sum supplied by the client matches the file content.
+ *
+ * Uploads that are not accessed for <code>MCR.FileUpload.Chunked.ExpireSeconds</code> are removed every
+ * <code>MCR.FileUpload.Chunked.CleanupSeconds</code>. An upload is not bound to the session that started it, so a
+ * client may resume it after its session was lost.
+ */
+public class MCRChunkedUpload {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final ConcurrentHashMap<String, MCRChunkedUpload> UPLOAD_MAP = new ConcurrentHashMap<>();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static ScheduledExecutorService cleanupExecutor;
+
+    private final String transferID;
+
+    private final MCRFileUploadBucket bucket;
+
+    private final String path;
+
+    private final Path file;
+
+    private final long size;
+
+    private final int chunkSize;
+
+    private final String md5;
+
+    private final BitSet received;
+
+    private volatile long lastAccess;
+
+    private MCRChunkedUpload(MCRFileUploadBucket bucket, String path, Path file, long size, int chunkSize,
+        String md5) {
+        this.transferID = UUID.randomUUID().toString();
+        this.bucket = bucket;
+        this.path = path;
+        this.file = file;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.md5 = md5.toLowerCase(Locale.ROOT);
+        this.received = new BitSet(getChunkCount());
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts a new chunked upload.
+     *
+     * @param bucket the bucket that receives the file
+     * @param path the path of the file relative to the bucket root
+     * @param size the size of the file in bytes
+     * @param chunkSize the size of every chunk but the last or 0 for the configured default
+     * @param md5 the MD5 sum of the complete file
+     * @throws IllegalArgumentException if the path leaves the bucket or a size is invalid
+     */
+    public static MCRChunkedUpload start(MCRFileUploadBucket bucket, String path, long size, int chunkSize, String md5)
+        throws IOException {
+        scheduleCleanup();
+        Path root = bucket.getRoot();
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        if (md5 == null || !md5.matches("[0-9a-fA-F]{32}")) {
+            throw new IllegalArgumentException("Invalid MD5 sum: " + md5);
+        }
+        int maxChunkSize = MCRConfiguration2.getOrThrow("MCR.FileUpload.Chunked.MaxChunkSize", Integer::parseInt);
+        int effectiveChunkSize = chunkSize == 0
+            ? MCRConfiguration2.getOrThrow("MCR.FileUpload.Chunked.ChunkSize", Integer::parseInt)
+            : chunkSize;
+        if (effectiveChunkSize < 1 || effectiveChunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        Files.createFile(file);
+        bucket.setMD5(file, null);
+        MCRChunkedUpload upload = new MCRChunkedUpload(bucket, path, file, size, effectiveChunkSize, md5);
+        UPLOAD_MAP.put(upload.transferID, upload);
+        LOGGER.info("Started chunked upload {} of {} ({} bytes in {} chunks).", upload.transferID, file, size,
+            upload.getChunkCount());
+        return upload;
+    }
+
+    public static Optional<MCRChunkedUpload> getUpload(String transferID) {
+        return Optional.ofNullable(UPLOAD_MAP.get(transferID))
+            .filter(upload -> !upload.isExpired(System.currentTimeMillis()));
+    }
+
+    /**
+     * Returns true, if the given bucket has chunked uploads that are neither completed nor expired yet.
+     */
+    public static boolean hasPendingUploads(String bucketID) {
+        long now = System.currentTimeMillis();
+        return UPLOAD_MAP.values().stream()
+            .anyMatch(upload -> upload.bucket.getBucketID().equals(bucketID) && !upload.isExpired(now));
+    }
+
+    /**
+     * Removes all uploads into the given bucket, called when the bucket is released.
+     */
+    static void releaseBucket(String bucketID) {
+        UPLOAD_MAP.values().removeIf(upload -> upload.bucket.getBucketID().equals(bucketID));
+    }
+
+    /**
+     * Starts the periodic removal of expired uploads, if it is not running yet. It is stopped at shutdown.
+     */
+    private static synchronized void scheduleCleanup() {
+        if (cleanupExecutor != null) {
+            return;
+        }
+        long period = MCRConfiguration2.getOrThrow("MCR.FileUpload.Chunked.CleanupSeconds", Long::parseLong);
+        cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCRChunkedUpload-Cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleanupExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                removeExpired();
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not remove expired chunked uploads.", e);
+            }
+        }, period, period, TimeUnit.SECONDS);
+        MCRShutdownHandler.getInstance().addCloseable(cleanupExecutor::shutdownNow);
+    }
+
+    /**
+     * Removes all uploads that were not accessed within the configured time and deletes their partial files.
+     */
+    public static void removeExpired() {
+        long now = System.currentTimeMillis();
+        UPLOAD_MAP.values().stream()
+            .filter(upload -> upload.isExpired(now))
+            .forEach(upload -> {
+                LOGGER.info("Removing expired chunked upload {} of {}.", upload.transferID, upload.file);
+                upload.abort();
+                if (upload.bucket.isOrphaned() && !hasPendingUploads(upload.bucket.getBucketID())) {
+                    MCRFileUploadBucket.releaseBucket(upload.bucket.getBucketID());
+                }
+            });
+    }
+
+    private boolean isExpired(long now) {
+        long expireSeconds = MCRConfiguration2.getOrThrow("MCR.FileUpload.Chunked.ExpireSeconds", Long::parseLong);
+        return now - lastAccess > TimeUnit.SECONDS.toMillis(expireSeconds);
+    }
+
+    /**
+     * Writes a chunk to its position in the target file. Chunks may be sent again, e.g. after a broken connection.
+     *
+     * @param index the number of the chunk, starting with 0
+     * @param in the chunk content, which has to be exactly as long as the chunk
+     * @throws IllegalArgumentException if the index is out of range or the content has the wrong length
+     */
+    public void writeChunk(int index, InputStream in) throws IOException {
+        if (index < 0 || index >= getChunkCount()) {
+            throw new IllegalArgumentException("Invalid chunk index: " + index);
+        }
+        lastAccess = System.currentTimeMillis();
+        long start = (long) index * chunkSize;
+        long length = Math.min(chunkSize, size - start);
+        long position = start;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (ReadableByteChannel source = Channels.newChannel(in);
+            FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (position - start + buffer.remaining() > length) {
+                    throw new IllegalArgumentException("Chunk " + index + " exceeds its length of " + length);
+                }
+                while (buffer.hasRemaining()) {
+                    position += target.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        }
+        if (position - start != length) {
+            throw new IllegalArgumentException(
+                "Chunk " + index + " has " + (position - start) + " bytes, expected " + length);
+        }
+        synchronized (received) {
+            received.set(index);
+        }
+    }
+
+    /**
+     * Returns the byte ranges received so far as pairs of inclusive start and exclusive end positions.
+     */
+    public List<long[]> getReceivedRanges() {
+        List<long[]> ranges = new ArrayList<>();
+        synchronized (received) {
+            for (int from = received.nextSetBit(0); from >= 0; from = received.nextSetBit(from)) {
+                int to = received.nextClearBit(from);
+                ranges.add(new long[] { (long) from * chunkSize, Math.min((long) to * chunkSize, size) });
+                from = to;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Completes this upload after all chunks were received. The verified MD5 sum is recorded in the bucket, so the
+     * file can be moved into the derivate without reading it again.
+     *
+     * @throws IllegalStateException if chunks are missing
+     * @throws IOException if the content does not match the MD5 sum supplied by the client
+     */
+    public void complete() throws IOException {
+        lastAccess = System.currentTimeMillis();
+        synchronized (received) {
+            if (received.cardinality() != getChunkCount()) {
+                throw new IllegalStateException("Upload " + transferID + " is missing "
+                    + (getChunkCount() - received.cardinality()) + " chunks.");
+            }
+        }
+        String actualMD5 = MCRUtils.getMD5Sum(Files.newInputStream(file));
+        if (!md5.equals(actualMD5)) {
+            abort();
+            throw new IOException("MD5 sum of " + path + " does not match: " + actualMD5 + "!=" + md5);
+        }
+        bucket.setMD5(file, actualMD5);
+        UPLOAD_MAP.remove(transferID);
+        LOGGER.info("Completed chunked upload {} of {}.", transferID, file);
+    }
+
+    /**
+     * Aborts this upload and deletes the partial file.
+     */
+    public void abort() {
+        UPLOAD_MAP.remove(transferID);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete partial upload {}.", file, e);
+        }
+    }
+
+    public String getTransferID() {
+        return transferID;
+    }
+
+    public MCRFileUploadBucket getBucket() {
+        return bucket;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return size == 0 ? 0 : (int) ((size - 1) / chunkSize + 1);
+    }
+}
@@ -21,9 +21,13 @@ package org.mycore.webtools.upload;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCRSessionEvent;
 import org.mycore.common.events.MCRSessionListener;
 import org.mycore.common.events.MCRShutdownHandler;
@@ -47,6 +51,10 @@ public class MCRFileUploadBucket implements MCRSessionListener, MCRShutdownHandl
 
     private String sessionID;
 
+    private final Map<Path, String> md5Sums = new ConcurrentHashMap<>();
+
+    private volatile boolean orphaned;
+
     /**
      *
      * @param bucketID of the bucket
@@ -58,7 +66,13 @@ public class MCRFileUploadBucket implements MCRSessionListener, MCRShutdownHandl
         sessionID = MCRSessionMgr.getCurrentSessionID();
 
         try {
-            root = Files.createTempDirectory("mycore_" + bucketID);
+            Optional<Path> bucketDirectory = MCRConfiguration2.getString("MCR.FileUpload.TempStoragePath")
+                .map(Paths::get);
+            if (bucketDirectory.isPresent()) {
+                root = Files.createTempDirectory(Files.createDirectories(bucketDirectory.get()), "mycore_" + bucketID);
+            } else {
+                root = Files.createTempDirectory("mycore_" + bucketID);
+            }
         } catch (IOException e) {
             throw new MCRUploadException("MCR.Upload.TempDirectory.Create.Failed", e);
         }
@@ -88,6 +102,7 @@ public class MCRFileUploadBucket implements MCRSessionListener, MCRShutdownHandl
                 }
             }
             BUCKET_MAP.remove(bucketID);
+            MCRChunkedUpload.releaseBucket(bucketID);
         }
     }
 
@@ -103,11 +118,48 @@ public class MCRFileUploadBucket implements MCRSessionListener, MCRShutdownHandl
         return root;
     }
 
+    /**
+     * Returns true, if the session that created this bucket was destroyed while chunked uploads were pending.
+     * The bucket is released when these uploads are committed or have expired.
+     */
+    public boolean isOrphaned() {
+        return orphaned;
+    }
+
+    /**
+     * Records the MD5 sum of a file in this bucket, that was calculated while the file was uploaded.
+     *
+     * @param file a file below {@link #getRoot()}
+     * @param md5 the MD5 sum of the file content or <code>null</code>, if it is unknown
+     */
+    public void setMD5(Path file, String md5) {
+        if (md5 == null) {
+            md5Sums.remove(file);
+        } else {
+            md5Sums.put(file, md5);
+        }
+    }
+
+    /**
+     * Returns the MD5 sum of a file in this bucket, if it is known.
+     *
+     * @param file a file below {@link #getRoot()}
+     * @return the MD5 sum or <code>null</code>, if it was not recorded
+     */
+    public String getMD5(Path file) {
+        return md5Sums.get(file);
+    }
+
     @Override
     public void sessionEvent(MCRSessionEvent event) {
         if (event.getType().equals(MCRSessionEvent.Type.destroyed)) {
             final String sessionID = event.getSession().getID();
             if (sessionID.equals(this.sessionID)) {
+                if (MCRChunkedUpload.hasPendingUploads(bucketID)) {
+                    // keep the bucket, so the chunked uploads can be resumed in a new session
+                    orphaned = true;
+                    return;
+                }
                 close();
             }
         }
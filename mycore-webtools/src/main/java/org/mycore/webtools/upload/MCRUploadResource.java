@@ -35,14 +35,23 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.ForbiddenException;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -53,6 +62,7 @@ import org.mycore.common.MCRException;
 import org.mycore.common.MCRPersistenceException;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.config.MCRConfigurationException;
+import org.mycore.common.content.streams.MCRMD5InputStream;
 import org.mycore.datamodel.classifications2.MCRCategoryDAO;
 import org.mycore.datamodel.classifications2.MCRCategoryDAOFactory;
 import org.mycore.datamodel.classifications2.MCRCategoryID;
@@ -64,9 +74,12 @@ import org.mycore.datamodel.metadata.MCRMetadataManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.datamodel.niofs.utils.MCRFileCollectingFileVisitor;
-import org.mycore.datamodel.niofs.utils.MCRTreeCopier;
+import org.mycore.datamodel.niofs.utils.MCRTreeMover;
 import org.mycore.frontend.fileupload.MCRPostUploadFileProcessor;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
 @Path("files/upload/")
 public class MCRUploadResource {
 
@@ -148,6 +161,10 @@ public class MCRUploadResource {
         if (bucket == null) {
             throw new BadRequestException("uploadID " + uploadID + " is invalid!");
         }
+        if (MCRChunkedUpload.hasPendingUploads(uploadID)) {
+            throw new ClientErrorException("uploadID " + uploadID + " has incomplete chunked uploads!",
+                Response.Status.CONFLICT);
+        }
 
         final List<MCRMetaClassification> classifications = getClassifications(classificationValues);
 
@@ -169,18 +186,20 @@ public class MCRUploadResource {
             }
         }
 
-        final MCRTreeCopier copier;
+        final MCRTreeMover mover;
         try {
-            copier = new MCRTreeCopier(root, targetDerivateRoot, false, true);
+            mover = new MCRTreeMover(root, targetDerivateRoot, bucket::getMD5, true);
         } catch (NoSuchFileException e) {
             throw new MCRException(e);
         }
 
+        long start = System.currentTimeMillis();
         try {
-            Files.walkFileTree(root, copier);
+            Files.walkFileTree(root, mover);
         } catch (IOException e) {
             throw new MCRUploadException("mcr.upload.import.failed", e);
         }
+        mover.logThroughput(System.currentTimeMillis() - start);
 
         MCRDerivate theDerivate = MCRMetadataManager.retrieveMCRDerivate(objOrDerivateID);
 
@@ -300,7 +319,10 @@ public class MCRUploadResource {
                 }).collect(Collectors.toList());
 
             if (processors.size() == 0) {
-                Files.copy(contents, filePath, StandardCopyOption.REPLACE_EXISTING);
+                try (MCRMD5InputStream md5Stream = new MCRMD5InputStream(contents)) {
+                    Files.copy(md5Stream, filePath, StandardCopyOption.REPLACE_EXISTING);
+                    bucket.setMD5(filePath, md5Stream.getMD5String());
+                }
             } else {
                 java.nio.file.Path input = Files.createTempFile("processing", ".temp");
                 Files.copy(contents, input, StandardCopyOption.REPLACE_EXISTING);
@@ -313,10 +335,140 @@ public class MCRUploadResource {
                         input = result;
                     }
                 }
-                Files.copy(input, filePath, StandardCopyOption.REPLACE_EXISTING);
-                Files.deleteIfExists(input);
+                Files.move(input, filePath, StandardCopyOption.REPLACE_EXISTING);
+                bucket.setMD5(filePath, null);
             }
         }
     }
 
+    /**
+     * Starts a resumable upload of a single file, whose chunks are sent by
+     * {@link #uploadChunk(String, int, InputStream)}.
+     *
+     * @param size the size of the file in bytes, required
+     * @param chunkSize the size of every chunk but the last, 0 for the configured default
+     * @param md5 the MD5 sum of the complete file, verified on {@link #completeChunkedUpload(String)}
+     * @return a JSON object with the <code>transferID</code>, the <code>chunkSize</code> and the number of
+     * <code>chunks</code>
+     */
+    @POST
+    @Path("chunked")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response startChunkedUpload(@QueryParam("objectID") String objectID,
+        @QueryParam("uploadID") String uploadID,
+        @QueryParam("path") String path,
+        @QueryParam("size") Long size,
+        @QueryParam("chunkSize") @DefaultValue("0") int chunkSize,
+        @QueryParam("md5") String md5) throws IOException {
+        MCRObjectID oid = MCRObjectID.getInstance(objectID);
+        if (!MCRMetadataManager.exists(oid) || !MCRAccessManager
+            .checkPermission(oid, MCRAccessManager.PERMISSION_WRITE)) {
+            throw new ForbiddenException("No write access to " + oid);
+        }
+        if (uploadID == null || path == null || size == null) {
+            throw new BadRequestException("uploadID, path and size are required.");
+        }
+        if (size < 0) {
+            throw new BadRequestException("Invalid size: " + size);
+        }
+        long maxSize = MCRConfiguration2.getOrThrow("MCR.FileUpload.MaxSize", Long::parseLong);
+        if (size > maxSize) {
+            throw new BadRequestException("File is to big. " + path);
+        }
+        final MCRFileUploadBucket bucket = MCRFileUploadBucket.getOrCreateBucket(uploadID, objectID);
+        final MCRChunkedUpload upload;
+        try {
+            upload = MCRChunkedUpload.start(bucket, path, size, chunkSize, md5);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+        return Response.ok(getChunkedUploadJSON(upload).toString()).build();
+    }
+
+    /**
+     * Receives a single chunk of a chunked upload. Chunks may be sent in parallel and in any order.
+     */
+    @PUT
+    @Path("chunked/{transferID}/{index: \\d+}")
+    public void uploadChunk(@PathParam("transferID") String transferID,
+        @PathParam("index") int index,
+        InputStream contents) throws IOException {
+        MCRChunkedUpload upload = getChunkedUpload(transferID);
+        try {
+            upload.writeChunk(index, contents);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the state of a chunked upload, so that a client can resume it by sending the missing chunks.
+     *
+     * @return a JSON object like {@link #startChunkedUpload(String, String, String, Long, int, String)} with
+     * an additional array <code>received</code> of byte ranges <code>[start, end)</code>
+     */
+    @GET
+    @Path("chunked/{transferID}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getChunkedUploadState(@PathParam("transferID") String transferID) {
+        MCRChunkedUpload upload = getChunkedUpload(transferID);
+        JsonObject json = getChunkedUploadJSON(upload);
+        JsonArray received = new JsonArray();
+        upload.getReceivedRanges().forEach(range -> {
+            JsonArray rangeJSON = new JsonArray();
+            rangeJSON.add(range[0]);
+            rangeJSON.add(range[1]);
+            received.add(rangeJSON);
+        });
+        json.add("received", received);
+        return Response.ok(json.toString()).build();
+    }
+
+    /**
+     * Completes a chunked upload after all chunks were received and verifies the MD5 sum of the file. The file is
+     * added to the derivate on {@link #commit(String, String)}.
+     */
+    @POST
+    @Path("chunked/{transferID}/complete")
+    public void completeChunkedUpload(@PathParam("transferID") String transferID) throws IOException {
+        MCRChunkedUpload upload = getChunkedUpload(transferID);
+        try {
+            upload.complete();
+        } catch (IllegalStateException e) {
+            throw new ClientErrorException(e.getMessage(), Response.Status.CONFLICT, e);
+        } catch (IOException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aborts a chunked upload and removes the partially received file.
+     */
+    @DELETE
+    @Path("chunked/{transferID}")
+    public void abortChunkedUpload(@PathParam("transferID") String transferID) {
+        getChunkedUpload(transferID).abort();
+    }
+
+    private static MCRChunkedUpload getChunkedUpload(String transferID) {
+        MCRChunkedUpload upload = MCRChunkedUpload.getUpload(transferID)
+            .orElseThrow(() -> new NotFoundException("Unknown or expired transferID " + transferID));
+        MCRObjectID oid = MCRObjectID.getInstance(upload.getBucket().getObjectID());
+        if (!MCRAccessManager.checkPermission(oid, MCRAccessManager.PERMISSION_WRITE)) {
+            throw new ForbiddenException("No write access to " + oid);
+        }
+        return upload;
+    }
+
+    private static JsonObject getChunkedUploadJSON(MCRChunkedUpload upload) {
+        JsonObject json = new JsonObject();
+        json.addProperty("transferID", upload.getTransferID());
+        json.addProperty("uploadID", upload.getBucket().getBucketID());
+        json.addProperty("path", upload.getPath());
+        json.addProperty("size", upload.getSize());
+        json.addProperty("chunkSize", upload.getChunkSize());
+        json.addProperty("chunks", upload.getChunkCount());
+        return json;
+    }
+
 }
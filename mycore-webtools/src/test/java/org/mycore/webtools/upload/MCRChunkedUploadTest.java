@@ -0,0 +1,204 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.webtools.upload;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.MCRUtils;
+import org.mycore.common.config.MCRConfiguration2;
+
+public class MCRChunkedUploadTest extends MCRTestCase {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    private MCRFileUploadBucket bucket;
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.FileUpload.TempStoragePath", junitFolder.getRoot().toPath().resolve("upload")
+            .toString());
+        testProperties.put("MCR.FileUpload.Chunked.ChunkSize", "8");
+        testProperties.put("MCR.FileUpload.Chunked.MaxChunkSize", "16");
+        testProperties.put("MCR.FileUpload.Chunked.ExpireSeconds", "3600");
+        testProperties.put("MCR.FileUpload.Chunked.CleanupSeconds", "1");
+        return testProperties;
+    }
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        bucket = MCRFileUploadBucket.getOrCreateBucket(UUID.randomUUID().toString(), "junit_derivate_00000001");
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        MCRFileUploadBucket.releaseBucket(bucket.getBucketID());
+        super.tearDown();
+    }
+
+    @Test
+    public void testStart() throws IOException {
+        MCRChunkedUpload upload = start(0);
+        assertEquals(8, upload.getChunkSize());
+        assertEquals(3, upload.getChunkCount());
+        assertTrue(MCRChunkedUpload.getUpload(upload.getTransferID()).isPresent());
+        assertTrue(MCRChunkedUpload.hasPendingUploads(bucket.getBucketID()));
+        assertTrue(upload.getReceivedRanges().isEmpty());
+        try {
+            MCRChunkedUpload.start(bucket, "../outside.txt", CONTENT.length, 0, md5(CONTENT));
+            fail("Paths outside of the bucket should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            start(32);
+            fail("Chunk sizes above the maximum should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testOutOfOrderChunks() throws IOException {
+        MCRChunkedUpload upload = start(0);
+        writeChunk(upload, 2);
+        writeChunk(upload, 0);
+        writeChunk(upload, 1);
+        upload.complete();
+        Path file = bucket.getRoot().resolve("dir/file.txt");
+        assertArrayEquals(CONTENT, Files.readAllBytes(file));
+        assertEquals(md5(CONTENT), bucket.getMD5(file));
+        assertFalse(MCRChunkedUpload.getUpload(upload.getTransferID()).isPresent());
+        assertFalse(MCRChunkedUpload.hasPendingUploads(bucket.getBucketID()));
+    }
+
+    @Test
+    public void testReceivedRanges() throws IOException {
+        MCRChunkedUpload upload = start(0);
+        writeChunk(upload, 2);
+        assertRanges(upload.getReceivedRanges(), new long[] { 16, 20 });
+        writeChunk(upload, 0);
+        assertRanges(upload.getReceivedRanges(), new long[] { 0, 8 }, new long[] { 16, 20 });
+        writeChunk(upload, 1);
+        assertRanges(upload.getReceivedRanges(), new long[] { 0, 20 });
+        try {
+            upload.writeChunk(1, new ByteArrayInputStream(CONTENT, 0, 7));
+            fail("Chunks with a wrong length should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testCompleteMissingChunks() throws IOException {
+        MCRChunkedUpload upload = start(0);
+        writeChunk(upload, 0);
+        try {
+            upload.complete();
+            fail("Upload with missing chunks should not complete");
+        } catch (IllegalStateException expected) {
+        }
+        assertTrue(MCRChunkedUpload.getUpload(upload.getTransferID()).isPresent());
+    }
+
+    @Test
+    public void testCompleteWrongMD5() throws IOException {
+        byte[] other = Arrays.copyOf(CONTENT, CONTENT.length);
+        other[0] = 'x';
+        MCRChunkedUpload upload = MCRChunkedUpload.start(bucket, "dir/file.txt", CONTENT.length, 0, md5(other));
+        for (int i = 0; i < upload.getChunkCount(); i++) {
+            writeChunk(upload, i);
+        }
+        try {
+            upload.complete();
+            fail("Upload with a wrong MD5 sum should not complete");
+        } catch (IOException expected) {
+        }
+        Path file = bucket.getRoot().resolve("dir/file.txt");
+        assertFalse("Partial file should be removed", Files.exists(file));
+        assertNull(bucket.getMD5(file));
+        assertFalse(MCRChunkedUpload.getUpload(upload.getTransferID()).isPresent());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        MCRChunkedUpload upload = start(0);
+        writeChunk(upload, 0);
+        MCRConfiguration2.set("MCR.FileUpload.Chunked.ExpireSeconds", "0");
+        Thread.sleep(10);
+        assertFalse(MCRChunkedUpload.getUpload(upload.getTransferID()).isPresent());
+        assertFalse("Expired uploads should not block a commit",
+            MCRChunkedUpload.hasPendingUploads(bucket.getBucketID()));
+        MCRChunkedUpload.removeExpired();
+        assertFalse(Files.exists(bucket.getRoot().resolve("dir/file.txt")));
+    }
+
+    @Test
+    public void testScheduledCleanup() throws Exception {
+        MCRChunkedUpload upload = start(0);
+        writeChunk(upload, 0);
+        MCRConfiguration2.set("MCR.FileUpload.Chunked.ExpireSeconds", "0");
+        Path file = bucket.getRoot().resolve("dir/file.txt");
+        for (int i = 0; i < 50 && Files.exists(file); i++) {
+            Thread.sleep(100);
+        }
+        assertFalse("Expired uploads should be removed without starting another upload", Files.exists(file));
+    }
+
+    private MCRChunkedUpload start(int chunkSize) throws IOException {
+        return MCRChunkedUpload.start(bucket, "dir/file.txt", CONTENT.length, chunkSize, md5(CONTENT));
+    }
+
+    private static void writeChunk(MCRChunkedUpload upload, int index) throws IOException {
+        int start = index * upload.getChunkSize();
+        int length = Math.min(upload.getChunkSize(), CONTENT.length - start);
+        upload.writeChunk(index, new ByteArrayInputStream(CONTENT, start, length));
+    }
+
+    private static void assertRanges(List<long[]> actual, long[]... expected) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual.get(i));
+        }
+    }
+
+    private static String md5(byte[] content) throws IOException {
+        return MCRUtils.getMD5Sum(new ByteArrayInputStream(content));
+    }
+}
@@ -33,11 +33,11 @@ import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.Parent;
 import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
 import org.mycore.common.MCRConstants;
 import org.mycore.common.xml.MCRNodeBuilder;
 import org.mycore.common.xml.MCRXPathBuilder;
+import org.mycore.common.xml.MCRXPathCache;
 import org.mycore.common.xml.MCRXPathEvaluator;
 import org.mycore.frontend.xeditor.tracker.MCRAddedAttribute;
 import org.mycore.frontend.xeditor.tracker.MCRAddedElement;
@@ -101,10 +101,8 @@ public class MCRBinding {
 
         Map<String, Object> variables = buildXPathVariables();
 
-        XPathExpression<Object> xPathExpr = XPathFactory.instance().compile(xPath, Filters.fpassthrough(), variables,
-            MCRConstants.getStandardNamespaces());
-
-        boundNodes.addAll(xPathExpr.evaluate(parent.getBoundNodes()));
+        boundNodes.addAll(MCRXPathCache.evaluate(XPathFactory.instance(), xPath, Filters.fpassthrough(), variables,
+            MCRConstants.getStandardNamespaces(), parent.getBoundNodes()));
 
         for (Object boundNode : boundNodes) {
             if (!(boundNode instanceof Element || boundNode instanceof Attribute || boundNode instanceof Document)) {
@@ -20,9 +20,7 @@ package org.mycore.frontend.xeditor;
 
 import java.util.List;
 
-import org.jaxen.BaseXPath;
 import org.jaxen.JaxenException;
-import org.jaxen.dom.DocumentNavigator;
 import org.jaxen.expr.Expr;
 import org.jaxen.expr.LocationPath;
 import org.jaxen.expr.Step;
@@ -30,6 +28,7 @@ import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.xml.MCRNodeBuilder;
+import org.mycore.common.xml.MCRXPathCache;
 import org.mycore.frontend.xeditor.tracker.MCRAddedElement;
 import org.mycore.frontend.xeditor.tracker.MCRSwapElements;
 
@@ -86,8 +85,7 @@ public class MCRRepeatBinding extends MCRBinding {
 
     @SuppressWarnings("unchecked")
     public String getElementNameWithPredicates() throws JaxenException {
-        BaseXPath baseXPath = new BaseXPath(xPath, new DocumentNavigator());
-        Expr rootExpr = baseXPath.getRootExpr();
+        Expr rootExpr = MCRXPathCache.getRootExpr(xPath);
         LocationPath locationPath = (LocationPath) rootExpr;
         List<Step> steps = locationPath.getSteps();
         Step lastStep = steps.get(steps.size() - 1);
@@ -28,9 +28,7 @@ import javax.xml.transform.TransformerException;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.xpath.NodeSet;
-import org.jaxen.BaseXPath;
 import org.jaxen.JaxenException;
-import org.jaxen.dom.DocumentNavigator;
 import org.jaxen.expr.LocationPath;
 import org.jaxen.expr.NameStep;
 import org.jdom2.Document;
@@ -48,6 +46,7 @@ import org.mycore.common.content.transformer.MCRContentTransformerFactory;
 import org.mycore.common.content.transformer.MCRParameterizedTransformer;
 import org.mycore.common.content.transformer.MCRXSLTransformer;
 import org.mycore.common.xml.MCRURIResolver;
+import org.mycore.common.xml.MCRXPathCache;
 import org.mycore.common.xml.MCRXPathEvaluator;
 import org.mycore.common.xsl.MCRParameterCollector;
 import org.mycore.frontend.xeditor.target.MCRInsertTarget;
@@ -168,8 +167,7 @@ public class MCRXEditorTransformer {
     }
 
     private Element createRootElement(String xPath) throws JaxenException {
-        BaseXPath baseXPath = new BaseXPath(xPath, new DocumentNavigator());
-        LocationPath lp = (LocationPath) (baseXPath.getRootExpr());
+        LocationPath lp = (LocationPath) (MCRXPathCache.getRootExpr(xPath));
         NameStep nameStep = (NameStep) (lp.getSteps().get(0));
         String prefix = nameStep.getPrefix();
         Namespace ns = prefix.isEmpty() ? Namespace.NO_NAMESPACE : MCRConstants.getStandardNamespace(prefix);
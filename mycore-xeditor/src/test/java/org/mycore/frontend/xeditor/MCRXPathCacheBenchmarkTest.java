@@ -0,0 +1,106 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.xeditor;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRConstants;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.xml.MCRXPathCache;
+
+/**
+ * Binds the fields of a large editor form with and without {@link MCRXPathCache}.
+ * Run with <code>-DMCR.Benchmark=true</code>.
+ */
+public class MCRXPathCacheBenchmarkTest extends MCRTestCase {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int PERSONS = 200;
+
+    private static final int ROUNDS = 5;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("Benchmark is disabled", Boolean.getBoolean("MCR.Benchmark"));
+        super.setUp();
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        if (!Boolean.getBoolean("MCR.Benchmark")) {
+            return;
+        }
+        MCRXPathCache.setEnabled(true);
+        super.tearDown();
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        // warm up class loading and JIT
+        run(false);
+        run(true);
+        long uncached = run(false);
+        long cached = run(true);
+        LOGGER.info("Binding {} persons {} times: {} ms without cache, {} ms with cache", PERSONS, ROUNDS,
+            uncached / 1_000_000, cached / 1_000_000);
+    }
+
+    private long run(boolean cacheEnabled) throws Exception {
+        MCRXPathCache.setEnabled(cacheEnabled);
+        MCRXPathCache.clear();
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            MCRBinding root = new MCRBinding(buildForm());
+            MCRBinding mods = new MCRBinding("mods:mods", true, root);
+            for (int i = 1; i <= PERSONS; i++) {
+                MCRBinding name = new MCRBinding("mods:name[@type='personal'][" + i + "]", true, mods);
+                Assert.assertEquals("Doe" + i,
+                    new MCRBinding("mods:namePart[@type='family']", true, name).getValue());
+                new MCRBinding("mods:namePart[@type='given']", true, name);
+                new MCRBinding("mods:role/mods:roleTerm[@authority='marcrelator'][@type='code']", true, name);
+                new MCRBinding("mods:nameIdentifier[@type='orcid']", true, name);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Document buildForm() {
+        Element mods = new Element("mods", MCRConstants.MODS_NAMESPACE);
+        for (int i = 1; i <= PERSONS; i++) {
+            Element name = new Element("name", MCRConstants.MODS_NAMESPACE).setAttribute("type", "personal");
+            name.addContent(new Element("namePart", MCRConstants.MODS_NAMESPACE).setAttribute("type", "family")
+                .setText("Doe" + i));
+            name.addContent(new Element("namePart", MCRConstants.MODS_NAMESPACE).setAttribute("type", "given")
+                .setText("John"));
+            mods.addContent(name);
+        }
+        return new Document(mods);
+    }
+}